@@ -15,6 +15,8 @@
  */
 package org.gradle.internal.classloader;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.hash.Hasher;
@@ -28,7 +30,14 @@ import java.util.WeakHashMap;
 
 public class DefaultHashingClassLoaderFactory extends DefaultClassLoaderFactory implements HashingClassLoaderFactory {
     private final ClasspathHasher classpathHasher;
+    /**
+     * Disables the package index for child class loaders when set to {@code false}.
+     */
+    public static final String PACKAGE_INDEX_PROPERTY = "org.gradle.internal.classloader.package.index";
+    private static final boolean PACKAGE_INDEX_ENABLED = !"false".equals(System.getProperty(PACKAGE_INDEX_PROPERTY));
+
     private final Map<ClassLoader, HashCode> hashCodes = Collections.synchronizedMap(new WeakHashMap<ClassLoader, HashCode>());
+    private final Cache<HashCode, PackageIndex> packageIndexes = CacheBuilder.newBuilder().softValues().build();
 
     public DefaultHashingClassLoaderFactory(ClasspathHasher classpathHasher) {
         this.classpathHasher = classpathHasher;
@@ -53,11 +62,28 @@ public class DefaultHashingClassLoaderFactory extends DefaultClassLoaderFactory
         HashCode hashCode = implementationHash != null
             ? implementationHash
             : calculateClassLoaderHash(classPath);
-        ClassLoader classLoader = super.doCreateClassLoader(parent, classPath);
+        ClassLoader classLoader = PACKAGE_INDEX_ENABLED
+            ? new PackageIndexedClassLoader(parent, classPath, packageIndexFor(hashCode, classPath))
+            : super.doCreateClassLoader(parent, classPath);
         hashCodes.put(classLoader, hashCode);
         return classLoader;
     }
 
+    /**
+     * Returns the index for the classpath with the given hash, which is shared with the other class loaders for the same classpath.
+     */
+    private PackageIndex packageIndexFor(HashCode hashCode, ClassPath classPath) {
+        PackageIndex index = packageIndexes.getIfPresent(hashCode);
+        if (index == null) {
+            index = new PackageIndex(classPath.getAsFiles());
+            PackageIndex existing = packageIndexes.asMap().putIfAbsent(hashCode, index);
+            if (existing != null) {
+                index = existing;
+            }
+        }
+        return index;
+    }
+
     @Override
     public HashCode getHash(ClassLoader classLoader) {
         if (classLoader instanceof ImplementationHashAware) {
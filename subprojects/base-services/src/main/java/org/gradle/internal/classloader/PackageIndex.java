@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.classloader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * The set of directories that a classpath of jars contains. Used to answer that a class or resource is not on the classpath without searching each
+ * of the jars.
+ *
+ * <p>The index is built when first queried, and can be shared by the class loaders for the same classpath. A classpath that contains directories,
+ * whose contents can change, or jars that reference other jars through their manifest, is not indexed and every query answers that the class or
+ * resource may be present. The versioned entries of multi-release jars are indexed under the names they are loaded by, as well as their own names.</p>
+ */
+public class PackageIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PackageIndex.class);
+    private static final String VERSIONED_ENTRIES_PREFIX = "META-INF/versions/";
+
+    private final List<File> classpath;
+    private final Object lock = new Object();
+    private volatile boolean built;
+    // The directories that contain files, that is packages and resource directories. Null when the classpath cannot be indexed
+    private Set<String> packages;
+    // All directories, including those that contain only other directories. Null when the classpath cannot be indexed
+    private Set<String> directories;
+
+    public PackageIndex(List<File> classpath) {
+        this.classpath = classpath;
+    }
+
+    /**
+     * Returns false when the class with the given name is certainly not on the classpath.
+     */
+    public boolean mayContainClass(String className) {
+        int index = className.lastIndexOf('.');
+        String packageName = index < 0 ? "" : className.substring(0, index).replace('.', '/');
+        build();
+        return packages == null || packages.contains(packageName);
+    }
+
+    /**
+     * Returns false when the resource with the given name is certainly not on the classpath. The resource may be a file or a directory.
+     */
+    public boolean mayContainResource(String resourceName) {
+        if (resourceName.startsWith("/") || resourceName.endsWith("/") || resourceName.contains("..")) {
+            // Not a plain file name, let the class loader decide
+            return true;
+        }
+        build();
+        if (packages == null || directories.contains(resourceName)) {
+            return true;
+        }
+        int index = resourceName.lastIndexOf('/');
+        return packages.contains(index < 0 ? "" : resourceName.substring(0, index));
+    }
+
+    private void build() {
+        if (!built) {
+            synchronized (lock) {
+                if (!built) {
+                    Set<String> packages = new HashSet<String>();
+                    Set<String> directories = new HashSet<String>();
+                    if (buildIndex(packages, directories)) {
+                        this.packages = packages;
+                        this.directories = directories;
+                    }
+                    built = true;
+                }
+            }
+        }
+    }
+
+    private boolean buildIndex(Set<String> packages, Set<String> directories) {
+        for (File file : classpath) {
+            if (!file.exists()) {
+                continue;
+            }
+            if (!file.isFile()) {
+                return false;
+            }
+            try {
+                JarFile jarFile = new JarFile(file, false);
+                try {
+                    Manifest manifest = jarFile.getManifest();
+                    if (manifest != null && manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH) != null) {
+                        return false;
+                    }
+                    Enumeration<JarEntry> entries = jarFile.entries();
+                    while (entries.hasMoreElements()) {
+                        String name = entries.nextElement().getName();
+                        addEntry(name, packages, directories);
+                        if (name.startsWith(VERSIONED_ENTRIES_PREFIX)) {
+                            // An entry of a multi-release jar, which the JVM may load in place of the entry with the same name at the root of the jar
+                            int index = name.indexOf('/', VERSIONED_ENTRIES_PREFIX.length());
+                            if (index > 0 && index < name.length() - 1) {
+                                addEntry(name.substring(index + 1), packages, directories);
+                            }
+                        }
+                    }
+                } finally {
+                    jarFile.close();
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Could not index {}.", file, e);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addEntry(String name, Set<String> packages, Set<String> directories) {
+        if (name.endsWith("/")) {
+            addDirectory(name.substring(0, name.length() - 1), directories);
+            return;
+        }
+        int index = name.lastIndexOf('/');
+        String directory = index < 0 ? "" : name.substring(0, index);
+        packages.add(directory);
+        addDirectory(directory, directories);
+    }
+
+    /**
+     * Adds the given directory and each of its ancestors, as jars need not contain entries for their directories.
+     */
+    private static void addDirectory(String directory, Set<String> directories) {
+        String name = directory;
+        while (directories.add(name)) {
+            int index = name.lastIndexOf('/');
+            if (index < 0) {
+                break;
+            }
+            name = name.substring(0, index);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.classloader;
+
+import org.gradle.internal.classpath.ClassPath;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+
+/**
+ * A {@link VisitableURLClassLoader} that uses a {@link PackageIndex} of its classpath to fail lookups for classes and resources in packages
+ * that none of its jars contain, without searching each jar in turn.
+ */
+public class PackageIndexedClassLoader extends VisitableURLClassLoader {
+    static {
+        try {
+            //noinspection Since15
+            ClassLoader.registerAsParallelCapable();
+        } catch (NoSuchMethodError ignore) {
+            // Not supported on Java 6
+        }
+    }
+
+    private volatile PackageIndex index;
+
+    public PackageIndexedClassLoader(ClassLoader parent, ClassPath classPath, PackageIndex index) {
+        super(parent, classPath);
+        this.index = index;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        PackageIndex index = this.index;
+        if (index != null && !index.mayContainClass(name)) {
+            throw new ClassNotFoundException(name);
+        }
+        return super.findClass(name);
+    }
+
+    @Override
+    public URL findResource(String name) {
+        PackageIndex index = this.index;
+        if (index != null && !index.mayContainResource(name)) {
+            return null;
+        }
+        return super.findResource(name);
+    }
+
+    @Override
+    public Enumeration<URL> findResources(String name) throws IOException {
+        PackageIndex index = this.index;
+        if (index != null && !index.mayContainResource(name)) {
+            return Collections.enumeration(Collections.<URL>emptyList());
+        }
+        return super.findResources(name);
+    }
+
+    @Override
+    protected void addURL(URL url) {
+        // The index no longer describes the classpath
+        index = null;
+        super.addURL(url);
+    }
+}
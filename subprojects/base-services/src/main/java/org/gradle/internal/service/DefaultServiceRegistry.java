@@ -17,6 +17,7 @@ package org.gradle.internal.service;
 
 import org.gradle.api.Action;
 import org.gradle.api.specs.Spec;
+import org.gradle.internal.Cast;
 import org.gradle.internal.Factory;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.Stoppable;
@@ -82,12 +83,17 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     private static final ConcurrentMap<Type, BiFunction<ServiceProvider, LookupContext, Provider>> SERVICE_TYPE_PROVIDER_CACHE = new ConcurrentHashMap<Type, BiFunction<ServiceProvider, LookupContext, Provider>>();
     private final Map<Type, ServiceProvider> providerCache = new IdentityHashMap<Type, ServiceProvider>();
 
+    // Services and factories already located by class. Once the registry is no longer mutable these do not change until the registry is closed,
+    // so they are published as immutable snapshots that can be read without holding the lock. Replaced under lock.
+    private volatile Map<Class<?>, Object> locatedServices = Collections.emptyMap();
+    private volatile Map<Class<?>, Factory<?>> locatedFactories = Collections.emptyMap();
+
     private final Object lock = new Object();
     private final OwnServices ownServices;
     private final Provider allServices;
     private final Provider parentServices;
     private final String displayName;
-    private boolean closed;
+    private volatile boolean closed;
     private boolean mutable = true; // access under lock
 
     private Provider asParentServicesProvider;
@@ -267,6 +273,8 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
                 CompositeStoppable.stoppable(allServices).stop();
             } finally {
                 closed = true;
+                locatedServices = Collections.emptyMap();
+                locatedFactories = Collections.emptyMap();
             }
         }
     }
@@ -348,6 +356,10 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     public Object get(Type serviceType) throws UnknownServiceException, ServiceLookupException {
+        Object located = locatedServices.get(serviceType);
+        if (located != null && !closed) {
+            return located;
+        }
         synchronized (lock) {
             noLongerMutable();
             if (closed) {
@@ -358,6 +370,9 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             if (instance == null) {
                 throw new UnknownServiceException(serviceType, String.format("No service of type %s available in %s.", format(serviceType), getDisplayName()));
             }
+            if (serviceType instanceof Class) {
+                locatedServices = withEntry(locatedServices, (Class<?>) serviceType, instance);
+            }
             return instance;
         }
     }
@@ -375,6 +390,10 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     public <T> Factory<T> getFactory(Class<T> type) {
+        Factory<?> located = locatedFactories.get(type);
+        if (located != null && !closed) {
+            return Cast.uncheckedCast(located);
+        }
         synchronized (lock) {
             noLongerMutable();
             if (closed) {
@@ -385,6 +404,7 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             if (factory == null) {
                 throw new UnknownServiceException(type, String.format("No factory for objects of type %s available in %s.", format(type), getDisplayName()));
             }
+            locatedFactories = withEntry(locatedFactories, type, factory);
             return factory;
         }
     }
@@ -397,6 +417,15 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         }
     }
 
+    private static <V> Map<Class<?>, V> withEntry(Map<Class<?>, V> map, Class<?> key, V value) {
+        if (map.get(key) == value) {
+            return map;
+        }
+        Map<Class<?>, V> copy = new IdentityHashMap<Class<?>, V>(map);
+        copy.put(key, value);
+        return copy;
+    }
+
     private void noLongerMutable() {
         if (mutable) {
             mutable = false;
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.classloader
+
+import org.gradle.internal.classpath.DefaultClassPath
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.jar.Attributes
+import java.util.jar.JarEntry
+import java.util.jar.JarOutputStream
+import java.util.jar.Manifest
+
+class PackageIndexedClassLoaderTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def parent = new ClassLoader(null) { }
+
+    def "finds resources in indexed packages"() {
+        def jar1 = jar("a.jar", "org/a/one.txt", "root.txt")
+        def jar2 = jar("b.jar", "org/b/two.txt", "org/a/three.txt")
+        def cl = loader(jar1, jar2)
+
+        expect:
+        cl.getResource("org/a/one.txt") != null
+        cl.getResource("org/a/three.txt") != null
+        cl.getResource("org/b/two.txt") != null
+        cl.getResource("root.txt") != null
+        cl.getResources("org/a/one.txt").toList().size() == 1
+    }
+
+    def "fails lookups in packages that are not on the classpath"() {
+        def cl = loader(jar("a.jar", "org/a/one.txt"))
+
+        expect:
+        cl.getResource("org/c/one.txt") == null
+        cl.getResource("org/a/missing.txt") == null
+        cl.getResources("org/c/one.txt").toList().empty
+
+        when:
+        cl.loadClass("org.c.Missing")
+
+        then:
+        thrown(ClassNotFoundException)
+    }
+
+    def "index answers queries for packages of the classpath"() {
+        def index = new PackageIndex([jar("a.jar", "org/a/One.class", "Root.class"), tmpDir.file("missing.jar")])
+
+        expect:
+        index.mayContainClass("org.a.One")
+        index.mayContainClass("org.a.Other")
+        index.mayContainClass("Root")
+        !index.mayContainClass("org.b.One")
+        !index.mayContainClass("org.One")
+        index.mayContainResource("org/a/thing.txt")
+        !index.mayContainResource("org/b/thing.txt")
+        index.mayContainResource("org/b/")
+    }
+
+    def "index contains ancestor directories of entries"() {
+        def index = new PackageIndex([jar("a.jar", "org/gradle/internal/One.class", "com/empty/", "META-INF/services/org.gradle.Service")])
+
+        expect:
+        index.mayContainClass("org.gradle.internal.Other")
+        !index.mayContainClass("org.gradle.Other")
+        index.mayContainResource("org/gradle")
+        index.mayContainResource("org")
+        index.mayContainResource("org/gradle/internal")
+        index.mayContainResource("com/empty")
+        index.mayContainResource("com")
+        index.mayContainResource("META-INF/services")
+        !index.mayContainResource("org/other")
+        !index.mayContainResource("org/gradle/thing.txt")
+    }
+
+    def "finds directories that only contain other directories"() {
+        def cl = loader(jar("a.jar", "org/", "org/gradle/", "org/gradle/internal/", "org/gradle/internal/one.txt"), jar("b.jar", "org/gradle/api/", "org/gradle/api/two.txt"))
+
+        expect:
+        cl.getResource("org/gradle") != null
+        cl.getResources("org/gradle").toList().size() == 1
+        cl.getResources("org/gradle/api").toList().size() == 1
+    }
+
+    def "does not index classpath containing a directory"() {
+        def dir = tmpDir.createDir("classes")
+        def index = new PackageIndex([jar("a.jar", "org/a/One.class"), dir])
+
+        expect:
+        index.mayContainClass("org.b.One")
+        index.mayContainResource("org/b/thing.txt")
+    }
+
+    def "does not index classpath containing jar with manifest classpath"() {
+        def manifest = new Manifest()
+        manifest.mainAttributes.put(Attributes.Name.MANIFEST_VERSION, "1.0")
+        manifest.mainAttributes.put(Attributes.Name.CLASS_PATH, "other.jar")
+        def index = new PackageIndex([jar("a.jar", manifest, "org/a/One.class")])
+
+        expect:
+        index.mayContainClass("org.b.One")
+    }
+
+    def "index contains versioned entries of multi-release jar under the names they are loaded by"() {
+        def manifest = new Manifest()
+        manifest.mainAttributes.put(Attributes.Name.MANIFEST_VERSION, "1.0")
+        manifest.mainAttributes.putValue("Multi-Release", "true")
+        def index = new PackageIndex([jar("a.jar", manifest, "org/a/One.class", "META-INF/versions/9/org/b/Two.class", "META-INF/versions/11/org/c/")])
+
+        expect:
+        index.mayContainClass("org.a.One")
+        index.mayContainClass("org.b.Two")
+        index.mayContainResource("META-INF/versions/9/org/b/Two.class")
+        index.mayContainResource("org/c")
+        !index.mayContainClass("org.d.Three")
+    }
+
+    def "visits as url class loader"() {
+        def visitor = Mock(ClassLoaderVisitor)
+        def jar = jar("a.jar", "org/a/one.txt")
+        def cl = loader(jar)
+
+        when:
+        cl.visit(visitor)
+
+        then:
+        1 * visitor.visitSpec({ it instanceof VisitableURLClassLoader.Spec && it.classpath == [jar.toURI().toURL()] })
+        1 * visitor.visitClassPath([jar.toURI().toURL()] as URL[])
+        1 * visitor.visitParent(parent)
+        0 * visitor._
+    }
+
+    private PackageIndexedClassLoader loader(File... jars) {
+        def classPath = new DefaultClassPath(jars as List)
+        return new PackageIndexedClassLoader(parent, classPath, new PackageIndex(classPath.asFiles))
+    }
+
+    private File jar(String name, String... entries) {
+        return jar(name, null, entries)
+    }
+
+    private File jar(String name, Manifest manifest, String... entries) {
+        def file = tmpDir.file(name)
+        def outputStream = manifest == null ? new JarOutputStream(new FileOutputStream(file)) : new JarOutputStream(new FileOutputStream(file), manifest)
+        try {
+            entries.each { entry ->
+                outputStream.putNextEntry(new JarEntry(entry))
+                if (!entry.endsWith("/")) {
+                    outputStream.write(entry.bytes)
+                }
+                outputStream.closeEntry()
+            }
+        } finally {
+            outputStream.close()
+        }
+        return file
+    }
+}
@@ -78,6 +78,31 @@ class DefaultServiceRegistryConcurrencyTest extends ConcurrentSpec {
         }
     }
 
+    def "multiple threads can locate services that have already been located"() {
+        def registry = new DefaultServiceRegistry()
+        registry.addProvider(new Object() {
+            StringBuilder createStringBuilder() {
+                return new StringBuilder()
+            }
+
+            Factory<Integer> createInteger() {
+                return { 12 } as Factory
+            }
+        })
+        def service = registry.get(StringBuilder)
+        def factory = registry.getFactory(Integer)
+
+        expect:
+        10.times {
+            start {
+                100.times {
+                    assert registry.get(StringBuilder).is(service)
+                    assert registry.getFactory(Integer).is(factory)
+                }
+            }
+        }
+    }
+
     def "multiple threads can locate all services"() {
         def registry = new DefaultServiceRegistry()
         registry.addProvider(new Object() {
@@ -17,6 +17,7 @@ package org.gradle.api.tasks;
 
 import groovy.lang.Closure;
 import org.gradle.api.*;
+import org.gradle.api.provider.Provider;
 import org.gradle.internal.HasInternalProtocol;
 
 import javax.annotation.Nullable;
@@ -163,6 +164,36 @@ public interface TaskContainer extends TaskCollection<Task>, PolymorphicDomainOb
      */
     <T extends Task> T create(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException;
 
+    /**
+     * <p>Defines a new task, which will be created and configured when it is required. A task is required when it is located
+     * using the query methods of this container, such as {@link #getByName(String)}, or when it is selected to be executed.
+     * Until then, neither the task nor its configuration contributes to the cost of configuring the project.</p>
+     *
+     * <p>The task is not visible to {@link #all(Action)}, {@link #withType(Class)} and similar methods until it has been created.
+     * Actions registered using these methods are applied to the task when it is created.</p>
+     *
+     * @param name The name of the task.
+     * @param type The task type.
+     * @param configurationAction The action to run to configure the task. This action runs when the task is created.
+     * @return A {@link Provider} whose value will be the task, when queried.
+     * @throws InvalidUserDataException If a task with the given name already exists in this project.
+     * @since 4.5
+     */
+    @Incubating
+    <T extends Task> Provider<T> createLater(String name, Class<T> type, Action<? super T> configurationAction) throws InvalidUserDataException;
+
+    /**
+     * <p>Defines a new task, which will be created when it is required. See {@link #createLater(String, Class, Action)}.</p>
+     *
+     * @param name The name of the task.
+     * @param type The task type.
+     * @return A {@link Provider} whose value will be the task, when queried.
+     * @throws InvalidUserDataException If a task with the given name already exists in this project.
+     * @since 4.5
+     */
+    @Incubating
+    <T extends Task> Provider<T> createLater(String name, Class<T> type) throws InvalidUserDataException;
+
     /**
      * <p>Creates a {@link Task} with the given name and adds it to this container, replacing any existing task with the
      * same name.</p>
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.hash;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Compares MD5 with a non-cryptographic hash function for hashing the content of files.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class FileHashingBenchmark {
+    @Param({"65536", "4194304", "67108864"})
+    int fileSize;
+
+    @Param({"md5", "murmur3"})
+    String hashFunction;
+
+    File tempDir;
+    File file;
+    FileHasher hasher;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        tempDir = Files.createTempDir();
+        file = new File(tempDir, "file.bin");
+        byte[] content = new byte[fileSize];
+        new Random(1234L).nextBytes(content);
+        Files.write(content, file);
+
+        ContentHasherFactory hasherFactory = hashFunction.equals("md5") ? hasherFactory(Hashing.md5()) : new Murmur3HasherFactory();
+        hasher = new DefaultFileHasher(new DefaultStreamHasher(hasherFactory));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+        tempDir.delete();
+    }
+
+    @Benchmark
+    public HashCode hashFile() {
+        return hasher.hash(file);
+    }
+
+    /**
+     * Creates hashers for Guava's 128-bit murmur3, which is not offered by {@link Hashing} as it is not used for any hashes that Gradle keeps.
+     */
+    private static class Murmur3HasherFactory implements ContentHasherFactory {
+        @Override
+        public Hasher create() {
+            final com.google.common.hash.Hasher delegate = com.google.common.hash.Hashing.murmur3_128().newHasher();
+            return new Hasher() {
+                @Override
+                public void putBytes(byte[] bytes) {
+                    delegate.putBytes(bytes);
+                }
+
+                @Override
+                public void putBytes(byte[] bytes, int off, int len) {
+                    delegate.putBytes(bytes, off, len);
+                }
+
+                @Override
+                public void putByte(byte value) {
+                    delegate.putByte(value);
+                }
+
+                @Override
+                public void putInt(int value) {
+                    delegate.putInt(value);
+                }
+
+                @Override
+                public void putLong(long value) {
+                    delegate.putLong(value);
+                }
+
+                @Override
+                public void putDouble(double value) {
+                    delegate.putDouble(value);
+                }
+
+                @Override
+                public void putBoolean(boolean value) {
+                    delegate.putBoolean(value);
+                }
+
+                @Override
+                public void putString(CharSequence value) {
+                    delegate.putString(value, Charsets.UTF_8);
+                }
+
+                @Override
+                public void putHash(HashCode hashCode) {
+                    delegate.putBytes(hashCode.toByteArray());
+                }
+
+                @Override
+                public HashCode hash() {
+                    return HashCode.fromBytes(delegate.hash().asBytes());
+                }
+            };
+        }
+    }
+
+    static ContentHasherFactory hasherFactory(final HashFunction hashFunction) {
+        return new ContentHasherFactory() {
+            @Override
+            public Hasher create() {
+                return hashFunction.newHasher();
+            }
+        };
+    }
+}
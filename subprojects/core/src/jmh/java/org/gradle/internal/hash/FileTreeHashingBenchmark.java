@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.hash;
+
+import com.google.common.io.Files;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.DefaultFileTreeElement;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares hashing the files of a tree one after the other with hashing them in parallel.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class FileTreeHashingBenchmark {
+    @Param({"256", "4096"})
+    int fileCount;
+
+    @Param({"4096", "1048576"})
+    int fileSize;
+
+    @Param({"false", "true"})
+    boolean parallel;
+
+    File tempDir;
+    List<DefaultFileTreeElement> files;
+    DefaultExecutorFactory executorFactory;
+    ParallelFileHasher hasher;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        tempDir = Files.createTempDir();
+        files = new ArrayList<DefaultFileTreeElement>(fileCount);
+        Random random = new Random(1234L);
+        byte[] content = new byte[fileSize];
+        for (int i = 0; i < fileCount; i++) {
+            random.nextBytes(content);
+            File file = new File(tempDir, "file" + i + ".bin");
+            Files.write(content, file);
+            // The mode of the files is not needed to hash them
+            files.add(new DefaultFileTreeElement(file, RelativePath.parse(true, file.getName()), null, null));
+        }
+        executorFactory = new DefaultExecutorFactory();
+        FileHasher fileHasher = new DefaultFileHasher(new DefaultStreamHasher(new DefaultContentHasherFactory()));
+        hasher = new ParallelFileHasher(fileHasher, parallel ? executorFactory : null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executorFactory.stop();
+        for (DefaultFileTreeElement file : files) {
+            file.getFile().delete();
+        }
+        tempDir.delete();
+    }
+
+    @Benchmark
+    public List<HashCode> hashFiles() {
+        return hasher.hash(files);
+    }
+}
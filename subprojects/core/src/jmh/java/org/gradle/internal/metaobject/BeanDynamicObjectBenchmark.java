@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.metaobject;
+
+import groovy.lang.Closure;
+import org.gradle.api.Action;
+import org.gradle.api.internal.AsmBackedClassGenerator;
+import org.gradle.api.internal.DynamicObjectAware;
+import org.gradle.api.plugins.ExtensionAware;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Accesses the properties and methods of a decorated object the way a build script does, including names that are provided
+ * by an extension and names that cannot be resolved at all. Each value of {@code lookupCache} runs in its own fork.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@State(Scope.Benchmark)
+public class BeanDynamicObjectBenchmark {
+    @Param({"true", "false"})
+    String lookupCache;
+
+    private DynamicObject dynamicObject;
+    private Closure<Object> closure;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // Must be set before the cache is first used in this fork
+        System.setProperty(MetaClassLookupCache.ENABLED_PROPERTY, lookupCache);
+        Bean bean = new AsmBackedClassGenerator().newInstance(Bean.class);
+        ((ExtensionAware) bean).getExtensions().add("custom", new Extension());
+        dynamicObject = ((DynamicObjectAware) bean).getAsDynamicObject();
+        closure = new Closure<Object>(this) {
+            @SuppressWarnings("unused")
+            public Object doCall(Object arg) {
+                return arg;
+            }
+        };
+    }
+
+    @Benchmark
+    public void getProperty(Blackhole blackhole) {
+        blackhole.consume(dynamicObject.tryGetProperty("description"));
+    }
+
+    @Benchmark
+    public void setProperty(Blackhole blackhole) {
+        blackhole.consume(dynamicObject.trySetProperty("description", "some text"));
+    }
+
+    @Benchmark
+    public void getExtensionProperty(Blackhole blackhole) {
+        blackhole.consume(dynamicObject.tryGetProperty("custom"));
+    }
+
+    @Benchmark
+    public void getMissingProperty(Blackhole blackhole) {
+        blackhole.consume(dynamicObject.tryGetProperty("unknown"));
+    }
+
+    @Benchmark
+    public void invokeMethod(Blackhole blackhole) {
+        blackhole.consume(dynamicObject.tryInvokeMethod("dependsOn", "a", "b"));
+    }
+
+    @Benchmark
+    public void invokeMethodWithClosure(Blackhole blackhole) {
+        blackhole.consume(dynamicObject.tryInvokeMethod("configure", closure));
+    }
+
+    @Benchmark
+    public void invokeMissingMethod(Blackhole blackhole) {
+        blackhole.consume(dynamicObject.tryInvokeMethod("unknown", "a"));
+    }
+
+    public static class Bean {
+        private String description;
+        private int dependencies;
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+
+        public void dependsOn(Object... paths) {
+            dependencies += paths.length;
+        }
+
+        public void configure(Action<? super Bean> action) {
+            action.execute(this);
+        }
+    }
+
+    public static class Extension {
+        private String value;
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+    }
+}
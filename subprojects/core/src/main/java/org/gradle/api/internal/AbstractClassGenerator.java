@@ -105,7 +105,13 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
                     type.getSimpleName()));
         }
 
-        Class<? extends T> subclass;
+        Class<? extends T> subclass = loadPreviouslyGenerated(type);
+        if (subclass != null) {
+            cache.put(type, subclass);
+            cache.put(subclass, subclass);
+            return subclass;
+        }
+
         try {
             ClassMetaData classMetaData = inspectType(type);
 
@@ -228,6 +234,14 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
         return subclass;
     }
 
+    /**
+     * Returns the subclass for the given type that was generated by an earlier process, or null when there is none.
+     */
+    @Nullable
+    protected <T> Class<? extends T> loadPreviouslyGenerated(Class<T> type) {
+        return null;
+    }
+
     protected abstract <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData);
 
     private ClassMetaData inspectType(Class<?> type) {
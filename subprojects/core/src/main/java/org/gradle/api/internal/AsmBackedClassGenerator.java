@@ -26,9 +26,13 @@ import org.apache.commons.lang.StringUtils;
 import org.gradle.api.Action;
 import org.gradle.api.Transformer;
 import org.gradle.api.internal.provider.PropertyInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.api.plugins.Convention;
 import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.metaobject.AbstractDynamicObject;
 import org.gradle.internal.metaobject.BeanDynamicObject;
 import org.gradle.internal.metaobject.DynamicObject;
@@ -63,9 +67,53 @@ import static org.objectweb.asm.Opcodes.*;
 import static org.objectweb.asm.Type.VOID_TYPE;
 
 public class AsmBackedClassGenerator extends AbstractClassGenerator {
+    private static final Logger LOGGER = Logging.getLogger(AsmBackedClassGenerator.class);
+    private static final String CLASS_NAME_SUFFIX = "_Decorated";
+    // Change this when the generated bytecode changes in a way that the Gradle version of the cache does not capture
+    private static final String GENERATOR_ID = "decorated-1";
+
+    @Nullable
+    private final PersistentGeneratedClassCache generatedClassCache;
+
+    public AsmBackedClassGenerator() {
+        this(null);
+    }
+
+    public AsmBackedClassGenerator(@Nullable PersistentGeneratedClassCache generatedClassCache) {
+        this.generatedClassCache = generatedClassCache;
+    }
+
+    @Nullable
+    @Override
+    protected <T> Class<? extends T> loadPreviouslyGenerated(Class<T> type) {
+        HashCode key = cacheKeyFor(type);
+        if (key == null) {
+            return null;
+        }
+        byte[] bytecode = generatedClassCache.load(key);
+        if (bytecode == null) {
+            return null;
+        }
+        try {
+            Class<?> generatedClass = ClassLoaderUtils.define(type.getClassLoader(), type.getName() + CLASS_NAME_SUFFIX, bytecode);
+            return generatedClass.asSubclass(type);
+        } catch (LinkageError e) {
+            LOGGER.debug("Could not load previously generated class for {}.", type.getName(), e);
+            return null;
+        }
+    }
+
     @Override
     protected <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData) {
-        return new ClassBuilderImpl<T>(type, classMetaData);
+        return new ClassBuilderImpl<T>(type, classMetaData, generatedClassCache, cacheKeyFor(type));
+    }
+
+    @Nullable
+    private HashCode cacheKeyFor(Class<?> type) {
+        if (generatedClassCache == null) {
+            return null;
+        }
+        return generatedClassCache.keyFor(type, GENERATOR_ID);
     }
 
     private static class ClassBuilderImpl<T> implements ClassBuilder<T> {
@@ -135,11 +183,15 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
         private final boolean conventionAware;
         private final boolean extensible;
         private final boolean providesOwnDynamicObject;
+        private final PersistentGeneratedClassCache generatedClassCache;
+        private final HashCode cacheKey;
 
-        private ClassBuilderImpl(Class<T> type, ClassMetaData classMetaData) {
+        private ClassBuilderImpl(Class<T> type, ClassMetaData classMetaData, @Nullable PersistentGeneratedClassCache generatedClassCache, @Nullable HashCode cacheKey) {
             this.type = type;
+            this.generatedClassCache = generatedClassCache;
+            this.cacheKey = cacheKey;
 
-            classGenerator = new AsmClassGenerator(type, "_Decorated");
+            classGenerator = new AsmClassGenerator(type, CLASS_NAME_SUFFIX);
             visitor = classGenerator.getVisitor();
             generatedType = classGenerator.getGeneratedType();
             superclassType = Type.getType(type);
@@ -964,7 +1016,12 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
             writeGenericReturnTypeFields();
             visitor.visitEnd();
 
-            return classGenerator.define().asSubclass(type);
+            byte[] bytecode = visitor.toByteArray();
+            Class<?> generatedClass = ClassLoaderUtils.define(type.getClassLoader(), classGenerator.getGeneratedTypeName(), bytecode);
+            if (cacheKey != null) {
+                generatedClassCache.store(cacheKey, bytecode);
+            }
+            return generatedClass.asSubclass(type);
         }
 
         private void writeGenericReturnTypeFields() {
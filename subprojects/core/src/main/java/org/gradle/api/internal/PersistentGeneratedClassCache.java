@@ -0,0 +1,346 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import org.gradle.api.Action;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.PersistentCache;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores the bytecode of generated classes in a directory, so that a class generated by one process can be loaded by later processes
+ * instead of being generated again.
+ *
+ * <p>A generated class is keyed by an id for the generator, by the Java version and by the bytecode of every type the generator inspects: the
+ * type it is generated for and its supertypes, the types of the methods, constructors and fields these declare, and the annotations present on
+ * any of them, each along with its own supertypes. The directory is scoped to the Gradle version, so that changes to the generators or to
+ * Gradle types invalidate the stored classes.</p>
+ *
+ * <p>Each Gradle user home has its own directory, which is attached while the services for the user home are in use. Classes are only
+ * stored while at least one directory is attached. A class is stored in every attached directory and loaded from any of them, which is
+ * safe as the key covers everything the class is generated from.</p>
+ *
+ * <p>Loading a class marks it as used. The {@link UnusedClassesCleanup} removes the classes that have not been used for some time, such as
+ * the classes generated for the types of a plugin version or a Java version that is no longer used.</p>
+ */
+public class PersistentGeneratedClassCache {
+    /**
+     * Disables the cache when set to {@code false}.
+     */
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.generated.classes.cache";
+
+    private static final Logger LOGGER = Logging.getLogger(PersistentGeneratedClassCache.class);
+    private static final HashCode NO_CLASS_FILE = HashCode.fromInt(0);
+    private static final long MARK_USED_INTERVAL = TimeUnit.DAYS.toMillis(1);
+    private static final String JAVA_VERSION = String.valueOf(System.getProperty("java.version"));
+    private static final Comparator<Class<?>> BY_NAME = new Comparator<Class<?>>() {
+        @Override
+        public int compare(Class<?> o1, Class<?> o2) {
+            return o1.getName().compareTo(o2.getName());
+        }
+    };
+
+    private final Map<Class<?>, HashCode> classFileHashes = new WeakHashMap<Class<?>, HashCode>();
+    private final List<AttachedDirectory> attachedDirs = new CopyOnWriteArrayList<AttachedDirectory>();
+
+    public static boolean isEnabled() {
+        return !"false".equals(System.getProperty(ENABLED_PROPERTY));
+    }
+
+    /**
+     * Stores generated classes in the given directory until the returned directory is stopped.
+     */
+    public AttachedDirectory attach(File cacheDir) {
+        AttachedDirectory attachedDir = new AttachedDirectory(cacheDir, null);
+        attachedDirs.add(attachedDir);
+        return attachedDir;
+    }
+
+    /**
+     * Stores generated classes in the base directory of the given cache until the returned directory is stopped, which also closes the cache.
+     */
+    public AttachedDirectory attach(PersistentCache cache) {
+        AttachedDirectory attachedDir = new AttachedDirectory(cache.getBaseDir(), cache);
+        attachedDirs.add(attachedDir);
+        return attachedDir;
+    }
+
+    /**
+     * Returns the key for the class generated by the given generator for the given type, or null when no directory is attached or
+     * when the bytecode of one of the inspected types is not available.
+     */
+    @Nullable
+    public HashCode keyFor(Class<?> type, String generatorId) {
+        if (attachedDirs.isEmpty()) {
+            return null;
+        }
+        List<Class<?>> inspectedTypes;
+        try {
+            inspectedTypes = collectInspectedTypes(type);
+        } catch (LinkageError e) {
+            // Some referenced type cannot be loaded, leave it to the generator to report this
+            return null;
+        }
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putString(generatorId);
+        hasher.putString(JAVA_VERSION);
+        for (Class<?> current : inspectedTypes) {
+            HashCode classFileHash = hashClassFile(current);
+            if (classFileHash == NO_CLASS_FILE) {
+                return null;
+            }
+            hasher.putString(current.getName());
+            hasher.putHash(classFileHash);
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * Returns the bytecode stored for the given key, or null when there is none.
+     */
+    @Nullable
+    public byte[] load(HashCode key) {
+        for (File dir : getCacheDirs()) {
+            File file = new File(dir, key + ".class");
+            if (!file.isFile()) {
+                continue;
+            }
+            try {
+                byte[] bytecode = Files.toByteArray(file);
+                markUsed(file);
+                return bytecode;
+            } catch (IOException e) {
+                LOGGER.debug("Could not read generated class from {}.", file, e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores the bytecode for the given key in each attached directory. The file is written under a temporary name and then renamed, so that a
+     * concurrent reader never sees a partial file.
+     */
+    public void store(HashCode key, byte[] bytecode) {
+        for (File dir : getCacheDirs()) {
+            File file = new File(dir, key + ".class");
+            if (file.isFile()) {
+                continue;
+            }
+            try {
+                if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+                    throw new IOException("Could not create directory " + dir);
+                }
+                File tempFile = File.createTempFile(key.toString(), ".tmp", dir);
+                Files.write(bytecode, tempFile);
+                if (!tempFile.renameTo(file)) {
+                    // Most likely stored concurrently by another process
+                    tempFile.delete();
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Could not store generated class to {}.", file, e);
+            }
+        }
+    }
+
+    private static void markUsed(File file) {
+        long now = System.currentTimeMillis();
+        if (file.lastModified() < now - MARK_USED_INTERVAL) {
+            file.setLastModified(now);
+        }
+    }
+
+    private Set<File> getCacheDirs() {
+        Set<File> cacheDirs = new LinkedHashSet<File>();
+        for (AttachedDirectory attachedDir : attachedDirs) {
+            cacheDirs.add(attachedDir.dir);
+        }
+        return cacheDirs;
+    }
+
+    /**
+     * Collects the types whose bytecode the generator may depend on, sorted by name.
+     */
+    private static List<Class<?>> collectInspectedTypes(Class<?> type) {
+        Set<Class<?>> hierarchy = new LinkedHashSet<Class<?>>();
+        collectHierarchy(type, hierarchy);
+        Set<Class<?>> inspectedTypes = new HashSet<Class<?>>(hierarchy);
+        for (Class<?> current : hierarchy) {
+            if (current.getClassLoader() == null) {
+                // A JVM class, whose members are covered by the Java version in the key
+                continue;
+            }
+            collectAnnotationTypes(current.getDeclaredAnnotations(), inspectedTypes);
+            for (Method method : current.getDeclaredMethods()) {
+                collectHierarchy(method.getReturnType(), inspectedTypes);
+                collectHierarchy(method.getParameterTypes(), inspectedTypes);
+                collectAnnotationTypes(method.getDeclaredAnnotations(), inspectedTypes);
+                collectAnnotationTypes(method.getParameterAnnotations(), inspectedTypes);
+            }
+            for (Constructor<?> constructor : current.getDeclaredConstructors()) {
+                collectHierarchy(constructor.getParameterTypes(), inspectedTypes);
+                collectAnnotationTypes(constructor.getDeclaredAnnotations(), inspectedTypes);
+                collectAnnotationTypes(constructor.getParameterAnnotations(), inspectedTypes);
+            }
+            for (Field field : current.getDeclaredFields()) {
+                collectHierarchy(field.getType(), inspectedTypes);
+                collectAnnotationTypes(field.getDeclaredAnnotations(), inspectedTypes);
+            }
+        }
+        List<Class<?>> sorted = new ArrayList<Class<?>>(inspectedTypes);
+        Collections.sort(sorted, BY_NAME);
+        return sorted;
+    }
+
+    private static void collectAnnotationTypes(Annotation[][] annotations, Set<Class<?>> types) {
+        for (Annotation[] parameterAnnotations : annotations) {
+            collectAnnotationTypes(parameterAnnotations, types);
+        }
+    }
+
+    private static void collectAnnotationTypes(Annotation[] annotations, Set<Class<?>> types) {
+        for (Annotation annotation : annotations) {
+            // The class file of the annotation type includes its @Retention and @Inherited meta-annotations
+            collectHierarchy(annotation.annotationType(), types);
+        }
+    }
+
+    private static void collectHierarchy(Class<?>[] types, Set<Class<?>> hierarchy) {
+        for (Class<?> type : types) {
+            collectHierarchy(type, hierarchy);
+        }
+    }
+
+    private static void collectHierarchy(Class<?> type, Set<Class<?>> hierarchy) {
+        while (type != null && type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type == null || type.isPrimitive() || !hierarchy.add(type)) {
+            return;
+        }
+        collectHierarchy(type.getSuperclass(), hierarchy);
+        for (Class<?> interfaceType : type.getInterfaces()) {
+            collectHierarchy(interfaceType, hierarchy);
+        }
+    }
+
+    private HashCode hashClassFile(Class<?> type) {
+        synchronized (classFileHashes) {
+            HashCode hash = classFileHashes.get(type);
+            if (hash == null) {
+                hash = readClassFileHash(type);
+                classFileHashes.put(type, hash);
+            }
+            return hash;
+        }
+    }
+
+    private static HashCode readClassFileHash(Class<?> type) {
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null) {
+            // A JVM class, which is covered by the Java version in the key
+            return Hashing.md5().hashString(type.getName());
+        }
+        InputStream inputStream = classLoader.getResourceAsStream(type.getName().replace('.', '/') + ".class");
+        if (inputStream == null) {
+            return NO_CLASS_FILE;
+        }
+        try {
+            try {
+                return Hashing.md5().hashBytes(ByteStreams.toByteArray(inputStream));
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            return NO_CLASS_FILE;
+        }
+    }
+
+    /**
+     * A directory in which generated classes are stored, until stopped.
+     */
+    public class AttachedDirectory implements Stoppable {
+        private final File dir;
+        private final PersistentCache cache;
+
+        private AttachedDirectory(File dir, @Nullable PersistentCache cache) {
+            this.dir = dir;
+            this.cache = cache;
+        }
+
+        @Override
+        public void stop() {
+            attachedDirs.remove(this);
+            if (cache != null) {
+                cache.close();
+            }
+        }
+    }
+
+    /**
+     * Removes the classes that have not been used for the given number of days, along with files left behind by classes that could not be stored.
+     */
+    public static class UnusedClassesCleanup implements Action<PersistentCache> {
+        private final long maxUnusedMillis;
+
+        public UnusedClassesCleanup(int maxUnusedDays) {
+            this.maxUnusedMillis = TimeUnit.DAYS.toMillis(maxUnusedDays);
+        }
+
+        @Override
+        public void execute(PersistentCache cache) {
+            File[] files = cache.getBaseDir().listFiles();
+            if (files == null) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            int removed = 0;
+            for (File file : files) {
+                boolean stale = file.getName().endsWith(".class") ? file.lastModified() < now - maxUnusedMillis : file.getName().endsWith(".tmp") && file.lastModified() < now - MARK_USED_INTERVAL;
+                if (stale && file.delete()) {
+                    removed++;
+                }
+            }
+            LOGGER.info("{} removed {} unused generated classes.", cache, removed);
+        }
+    }
+}
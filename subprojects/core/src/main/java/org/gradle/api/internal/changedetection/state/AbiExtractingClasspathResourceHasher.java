@@ -18,12 +18,15 @@ package org.gradle.api.internal.changedetection.state;
 import com.google.common.io.ByteStreams;
 import org.gradle.api.internal.tasks.compile.ApiClassExtractor;
 import org.gradle.caching.internal.BuildCacheHasher;
+import org.gradle.caching.internal.DefaultBuildCacheHasher;
+import org.gradle.internal.Factory;
 import org.gradle.internal.IoActions;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.hash.Hashing;
 import org.gradle.util.DeprecationLogger;
 import org.objectweb.asm.ClassReader;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -31,10 +34,34 @@ import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.zip.ZipEntry;
 
+/**
+ * Hashes class files by their ABI.
+ *
+ * <p>When created with a {@link ResourceSnapshotterCacheService}, the ABI hash of each class in a jar is cached by the content of the class. When a jar changes,
+ * only the classes that have changed need to have their ABI extracted again.</p>
+ */
 public class AbiExtractingClasspathResourceHasher implements ResourceHasher {
+    private final ResourceSnapshotterCacheService cacheService;
+    private final byte[] zipEntryConfigurationHash;
+
+    public AbiExtractingClasspathResourceHasher() {
+        this(null);
+    }
+
+    public AbiExtractingClasspathResourceHasher(@Nullable ResourceSnapshotterCacheService cacheService) {
+        this.cacheService = cacheService;
+        BuildCacheHasher hasher = new DefaultBuildCacheHasher();
+        appendConfigurationToHasher(hasher);
+        hasher.putString("zip entry");
+        this.zipEntryConfigurationHash = hasher.hash().toByteArray();
+    }
+
     private HashCode hashClassBytes(InputStream inputStream) throws IOException {
+        return hashClassBytes(ByteStreams.toByteArray(inputStream));
+    }
+
+    private HashCode hashClassBytes(byte[] classBytes) {
         // Use the ABI as the hash
-        byte[] classBytes = ByteStreams.toByteArray(inputStream);
         ApiClassExtractor extractor = new ApiClassExtractor(Collections.<String>emptySet());
         ClassReader reader = new ClassReader(classBytes);
         if (extractor.shouldExtractApiClassFrom(reader)) {
@@ -69,7 +96,16 @@ public class AbiExtractingClasspathResourceHasher implements ResourceHasher {
         if (!isClassFile(zipEntry.getName())) {
             return null;
         }
-        return hashClassBytes(zipInput);
+        if (cacheService == null) {
+            return hashClassBytes(zipInput);
+        }
+        final byte[] classBytes = ByteStreams.toByteArray(zipInput);
+        return cacheService.hashContent(Hashing.md5().hashBytes(classBytes), zipEntryConfigurationHash, new Factory<HashCode>() {
+            @Override
+            public HashCode create() {
+                return hashClassBytes(classBytes);
+            }
+        });
     }
 
     private boolean isClassFile(String name) {
@@ -19,6 +19,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.api.internal.file.DefaultFileTreeElement;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.internal.file.FileMetadataSnapshot;
 import org.gradle.internal.hash.FileHasher;
@@ -58,6 +59,10 @@ public class CachingFileHasher implements FileHasher {
 
     @Override
     public HashCode hash(FileTreeElement fileDetails) {
+        if (!(fileDetails instanceof DefaultFileTreeElement)) {
+            // Not a local file, such as an entry of an archive, which would be extracted by getFile()
+            return delegate.hash(fileDetails);
+        }
         return snapshot(fileDetails).getHash();
     }
 
@@ -30,7 +30,7 @@ public class DefaultCompileClasspathSnapshotter extends AbstractFileCollectionSn
     public DefaultCompileClasspathSnapshotter(ResourceSnapshotterCacheService cacheService, DirectoryFileTreeFactory directoryFileTreeFactory, FileSystemSnapshotter fileSystemSnapshotter, StringInterner stringInterner) {
         super(stringInterner, directoryFileTreeFactory, fileSystemSnapshotter);
         this.cacheService = cacheService;
-        this.classpathResourceHasher = new CachingResourceHasher(new AbiExtractingClasspathResourceHasher(), cacheService);
+        this.classpathResourceHasher = new CachingResourceHasher(new AbiExtractingClasspathResourceHasher(cacheService), cacheService);
     }
 
     @Override
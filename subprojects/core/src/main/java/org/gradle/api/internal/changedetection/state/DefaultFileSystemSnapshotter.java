@@ -38,6 +38,7 @@ import org.gradle.internal.Factory;
 import org.gradle.internal.file.FileMetadataSnapshot;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.ParallelFileHasher;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 import org.gradle.normalization.internal.InputNormalizationStrategy;
 
@@ -62,13 +63,22 @@ public class DefaultFileSystemSnapshotter implements FileSystemSnapshotter {
     private final FileSystem fileSystem;
     private final DirectoryFileTreeFactory directoryFileTreeFactory;
     private final FileSystemMirror fileSystemMirror;
+    private final ParallelFileHasher treeHasher;
     private final ProducerGuard<String> producingSelfSnapshots = ProducerGuard.striped();
     private final ProducerGuard<String> producingTrees = ProducerGuard.striped();
     private final ProducerGuard<String> producingAllSnapshots = ProducerGuard.striped();
     private final DefaultGenericFileCollectionSnapshotter snapshotter;
 
     public DefaultFileSystemSnapshotter(FileHasher hasher, StringInterner stringInterner, FileSystem fileSystem, DirectoryFileTreeFactory directoryFileTreeFactory, FileSystemMirror fileSystemMirror) {
+        this(hasher, stringInterner, fileSystem, directoryFileTreeFactory, fileSystemMirror, new ParallelFileHasher(hasher, null));
+    }
+
+    /**
+     * @param treeHasher hashes the files of directory trees, using the same hasher as {@code hasher}.
+     */
+    public DefaultFileSystemSnapshotter(FileHasher hasher, StringInterner stringInterner, FileSystem fileSystem, DirectoryFileTreeFactory directoryFileTreeFactory, FileSystemMirror fileSystemMirror, ParallelFileHasher treeHasher) {
         this.hasher = hasher;
+        this.treeHasher = treeHasher;
         this.stringInterner = stringInterner;
         this.fileSystem = fileSystem;
         this.directoryFileTreeFactory = directoryFileTreeFactory;
@@ -178,9 +188,7 @@ public class DefaultFileSystemSnapshotter implements FileSystemSnapshotter {
 
     private FileTreeSnapshot snapshotAndCache(DirectoryFileTree directoryTree) {
         String path = internPath(directoryTree.getDir());
-        List<FileSnapshot> elements = Lists.newArrayList();
-        directoryTree.visit(new FileVisitorImpl(elements));
-        ImmutableList<FileSnapshot> descendants = ImmutableList.copyOf(elements);
+        ImmutableList<FileSnapshot> descendants = ImmutableList.copyOf(snapshotDescendants(directoryTree));
         DirectoryTreeDetails snapshot = new DirectoryTreeDetails(path, descendants);
         fileSystemMirror.putDirectory(snapshot);
         return snapshot;
@@ -192,9 +200,43 @@ public class DefaultFileSystemSnapshotter implements FileSystemSnapshotter {
      */
     private FileTreeSnapshot snapshotWithoutCaching(DirectoryFileTree directoryTree) {
         String path = directoryTree.getDir().getAbsolutePath();
-        List<FileSnapshot> elements = Lists.newArrayList();
-        directoryTree.visit(new FileVisitorImpl(elements));
-        return new DirectoryTreeDetails(path, elements);
+        return new DirectoryTreeDetails(path, snapshotDescendants(directoryTree));
+    }
+
+    /*
+     * The files of a directory tree are hashed once the tree has been walked, so that they can be hashed in parallel.
+     */
+    private List<FileSnapshot> snapshotDescendants(DirectoryFileTree directoryTree) {
+        final List<FileSnapshot> elements = Lists.newArrayList();
+        final List<FileVisitDetails> files = Lists.newArrayList();
+        directoryTree.visit(new FileVisitor() {
+            @Override
+            public void visitDir(FileVisitDetails dirDetails) {
+                elements.add(new DirectoryFileSnapshot(internPath(dirDetails.getFile()), dirDetails.getRelativePath(), false));
+            }
+
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                // Filled in once the file has been hashed
+                elements.add(null);
+                files.add(fileDetails);
+            }
+        });
+        if (files.isEmpty()) {
+            return elements;
+        }
+
+        List<HashCode> hashes = treeHasher.hash(files);
+        int nextFile = 0;
+        for (int i = 0; i < elements.size(); i++) {
+            if (elements.get(i) == null) {
+                FileVisitDetails fileDetails = files.get(nextFile);
+                FileHashSnapshot content = new FileHashSnapshot(hashes.get(nextFile), fileDetails.getLastModified());
+                elements.set(i, new RegularFileSnapshot(internPath(fileDetails.getFile()), fileDetails.getRelativePath(), false, content));
+                nextFile++;
+            }
+        }
+        return elements;
     }
 
     private FileTreeSnapshot filterSnapshot(FileTreeSnapshot snapshot, PatternSet patterns) {
@@ -19,9 +19,12 @@ package org.gradle.api.internal.changedetection.state;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.caching.internal.BuildCacheHasher;
 import org.gradle.caching.internal.DefaultBuildCacheHasher;
+import org.gradle.internal.Factory;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.hash.Hashing;
 
+import javax.annotation.Nullable;
+
 public class ResourceSnapshotterCacheService {
     private static final HashCode NO_HASH = Hashing.md5().hashString(CachingResourceHasher.class.getName() + " : no hash");
     private final PersistentIndexedCache<HashCode, HashCode> persistentCache;
@@ -30,8 +33,21 @@ public class ResourceSnapshotterCacheService {
         this.persistentCache = persistentCache;
     }
 
-    public HashCode hashFile(RegularFileSnapshot fileSnapshot, RegularFileHasher hasher, byte[] configurationHash) {
-        HashCode resourceHashCacheKey = resourceHashCacheKey(fileSnapshot, configurationHash);
+    public HashCode hashFile(final RegularFileSnapshot fileSnapshot, final RegularFileHasher hasher, byte[] configurationHash) {
+        return hashContent(fileSnapshot.getContent().getContentMd5(), configurationHash, new Factory<HashCode>() {
+            @Override
+            public HashCode create() {
+                return hasher.hash(fileSnapshot);
+            }
+        });
+    }
+
+    /**
+     * Returns the hash of some content with the given MD5 hash, using the given hasher when the hash is not already known.
+     */
+    @Nullable
+    public HashCode hashContent(HashCode contentMd5, byte[] configurationHash, Factory<HashCode> hasher) {
+        HashCode resourceHashCacheKey = resourceHashCacheKey(contentMd5, configurationHash);
 
         HashCode resourceHash = persistentCache.get(resourceHashCacheKey);
         if (resourceHash != null) {
@@ -41,7 +57,7 @@ public class ResourceSnapshotterCacheService {
             return resourceHash;
         }
 
-        resourceHash = hasher.hash(fileSnapshot);
+        resourceHash = hasher.create();
 
         if (resourceHash != null) {
             persistentCache.put(resourceHashCacheKey, resourceHash);
@@ -51,10 +67,10 @@ public class ResourceSnapshotterCacheService {
         return resourceHash;
     }
 
-    private HashCode resourceHashCacheKey(RegularFileSnapshot fileSnapshot, byte[] configurationHash) {
+    private HashCode resourceHashCacheKey(HashCode contentMd5, byte[] configurationHash) {
         BuildCacheHasher hasher = new DefaultBuildCacheHasher();
         hasher.putBytes(configurationHash);
-        hasher.putHash(fileSnapshot.getContent().getContentMd5());
+        hasher.putHash(contentMd5);
         return hasher.hash();
     }
 }
@@ -22,7 +22,11 @@ import org.gradle.internal.nativeintegration.filesystem.Stat;
 import org.gradle.util.GFileUtils;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 
 public class DefaultFileTreeElement extends AbstractFileTreeElement {
     private final File file;
@@ -65,6 +69,35 @@ public class DefaultFileTreeElement extends AbstractFileTreeElement {
         return GFileUtils.openInputStream(file);
     }
 
+    /**
+     * Copies the file using channel transfers, which the operating system can usually perform without copying the content
+     * through the JVM.
+     */
+    @Override
+    protected void copyFile(File target) throws IOException {
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            FileOutputStream outputStream = new FileOutputStream(target);
+            try {
+                FileChannel source = inputStream.getChannel();
+                FileChannel destination = outputStream.getChannel();
+                long size = source.size();
+                long position = 0;
+                while (position < size) {
+                    long transferred = source.transferTo(position, size - position, destination);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                }
+            } finally {
+                outputStream.close();
+            }
+        } finally {
+            inputStream.close();
+        }
+    }
+
     public RelativePath getRelativePath() {
         return relativePath;
     }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import java.io.InputStream;
+
+/**
+ * An entry of a zip file whose content can be read as it is stored in the zip file, so that it can be added to another zip file without
+ * being decompressed and compressed again.
+ */
+public interface CompressedZipEntry {
+    /**
+     * Returns the compression method of the entry, as defined by {@link java.util.zip.ZipEntry}, or -1 when the stored content of the entry
+     * cannot be copied.
+     */
+    int getCompressionMethod();
+
+    long getCrc();
+
+    long getCompressedSize();
+
+    /**
+     * Opens the content of the entry as it is stored in the zip file.
+     */
+    InputStream openCompressed();
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.gradle.api.file.FileCopyDetails;
+import org.gradle.api.internal.file.copy.DefaultFileCopyDetails;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.HashCodeSerializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the compressed entries of the previous version of an archive, so that the entries for files that have not changed since can be
+ * copied into the new version of the archive without being compressed again.
+ *
+ * <p>A manifest next to the archive records the hash of the content of each file that was added to the archive, together with the CRC and
+ * sizes of the entry that was written for it, and the size and timestamp of the archive it describes. The manifest is only used when the
+ * archive has not been changed since it was written, and an entry is only reused when the previous archive contains exactly one entry with
+ * its name, with the CRC and sizes that the manifest recorded. Entries whose name occurs more than once in an archive are never reused.
+ * Before the new version of the archive is written, the previous version is moved aside and read from there.</p>
+ */
+public class ReusableZipEntries {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReusableZipEntries.class);
+
+    private final File archive;
+    private final File manifestFile;
+    private final File previousArchive;
+    private final FileHasher fileHasher;
+    private final String encoding;
+    private final HashCodeSerializer hashCodeSerializer = new HashCodeSerializer();
+    private final Map<String, HashCode> entryHashes = new HashMap<String, HashCode>();
+    private final Set<String> duplicateNames = new HashSet<String>();
+    private Map<String, EntryDetails> previousEntries = new HashMap<String, EntryDetails>();
+    private ZipFile previousZip;
+
+    /**
+     * @param encoding the encoding of the entry names, or null for the platform's default encoding.
+     */
+    public ReusableZipEntries(File archive, File manifestFile, FileHasher fileHasher, @Nullable String encoding) {
+        this.archive = archive;
+        this.manifestFile = manifestFile;
+        this.previousArchive = new File(manifestFile.getParentFile(), manifestFile.getName() + ".previous");
+        this.fileHasher = fileHasher;
+        this.encoding = encoding;
+    }
+
+    /**
+     * Moves the previous version of the archive aside, when the manifest describes it.
+     */
+    void open() {
+        GFileUtils.deleteQuietly(previousArchive);
+        Map<String, EntryDetails> entries = readManifest();
+        GFileUtils.deleteQuietly(manifestFile);
+        if (entries == null || !archive.renameTo(previousArchive)) {
+            return;
+        }
+        try {
+            previousZip = new ZipFile(previousArchive, encoding);
+            previousEntries = entries;
+        } catch (IOException e) {
+            LOGGER.debug("Could not open previous version of {}.", archive, e);
+        }
+    }
+
+    /**
+     * Returns the entry of the previous version of the archive that has the same content as the given file, or null when the content of the
+     * file has to be compressed. Only files of the local file system, whose content is added unchanged, are considered.
+     */
+    @Nullable
+    ZipArchiveEntry findPrevious(String entryName, FileCopyDetails fileDetails, int compressionMethod) {
+        if (!(fileDetails instanceof DefaultFileCopyDetails) || !((DefaultFileCopyDetails) fileDetails).isUnfilteredLocalFile()) {
+            return null;
+        }
+        if (entryHashes.containsKey(entryName) || duplicateNames.contains(entryName)) {
+            // The name is used by more than one entry of the archive
+            entryHashes.remove(entryName);
+            duplicateNames.add(entryName);
+            return null;
+        }
+        HashCode hash = fileHasher.hash(fileDetails.getFile());
+        entryHashes.put(entryName, hash);
+        EntryDetails previous = previousEntries.get(entryName);
+        if (previousZip == null || previous == null || !hash.equals(previous.hash)) {
+            return null;
+        }
+        List<ZipArchiveEntry> candidates = Lists.newArrayList(previousZip.getEntries(entryName));
+        if (candidates.size() != 1) {
+            return null;
+        }
+        ZipArchiveEntry previousEntry = candidates.get(0);
+        if (previousEntry.getMethod() != compressionMethod || previousEntry.getGeneralPurposeBit().usesEncryption() || !previous.describes(previousEntry)) {
+            return null;
+        }
+        return previousEntry;
+    }
+
+    InputStream openCompressed(ZipArchiveEntry previousEntry) throws IOException {
+        return previousZip.getRawInputStream(previousEntry);
+    }
+
+    /**
+     * Discards the previous version of the archive, and records the manifest of the new version when it has been written.
+     */
+    void close(boolean archiveWritten) {
+        if (previousZip != null) {
+            ZipFile.closeQuietly(previousZip);
+            previousZip = null;
+        }
+        GFileUtils.deleteQuietly(previousArchive);
+        if (archiveWritten) {
+            writeManifest();
+        }
+    }
+
+    @Nullable
+    private Map<String, EntryDetails> readManifest() {
+        if (!manifestFile.isFile() || !archive.isFile()) {
+            return null;
+        }
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(manifestFile));
+            try {
+                if (decoder.readLong() != archive.length() || decoder.readLong() != archive.lastModified()) {
+                    return null;
+                }
+                int count = decoder.readSmallInt();
+                Map<String, EntryDetails> entries = new HashMap<String, EntryDetails>(count);
+                for (int i = 0; i < count; i++) {
+                    String name = decoder.readString();
+                    HashCode hash = hashCodeSerializer.read(decoder);
+                    entries.put(name, new EntryDetails(hash, decoder.readLong(), decoder.readLong(), decoder.readLong()));
+                }
+                return entries;
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not read archive manifest from {}.", manifestFile, e);
+            return null;
+        }
+    }
+
+    private void writeManifest() {
+        GFileUtils.mkdirs(manifestFile.getParentFile());
+        try {
+            // Record the entries that were actually written, so that the manifest can be checked against the archive on the next execution
+            ZipFile zip = new ZipFile(archive, encoding);
+            try {
+                Map<String, EntryDetails> entries = new HashMap<String, EntryDetails>();
+                for (Map.Entry<String, HashCode> entry : entryHashes.entrySet()) {
+                    List<ZipArchiveEntry> written = Lists.newArrayList(zip.getEntries(entry.getKey()));
+                    if (written.size() == 1) {
+                        ZipArchiveEntry zipEntry = written.get(0);
+                        entries.put(entry.getKey(), new EntryDetails(entry.getValue(), zipEntry.getCrc(), zipEntry.getSize(), zipEntry.getCompressedSize()));
+                    }
+                }
+                KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(manifestFile));
+                try {
+                    encoder.writeLong(archive.length());
+                    encoder.writeLong(archive.lastModified());
+                    encoder.writeSmallInt(entries.size());
+                    for (Map.Entry<String, EntryDetails> entry : entries.entrySet()) {
+                        EntryDetails details = entry.getValue();
+                        encoder.writeString(entry.getKey());
+                        hashCodeSerializer.write(encoder, details.hash);
+                        encoder.writeLong(details.crc);
+                        encoder.writeLong(details.size);
+                        encoder.writeLong(details.compressedSize);
+                    }
+                } finally {
+                    encoder.close();
+                }
+            } finally {
+                ZipFile.closeQuietly(zip);
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not write archive manifest to {}.", manifestFile, e);
+            GFileUtils.deleteQuietly(manifestFile);
+        }
+    }
+
+    private static class EntryDetails {
+        private final HashCode hash;
+        private final long crc;
+        private final long size;
+        private final long compressedSize;
+
+        EntryDetails(HashCode hash, long crc, long size, long compressedSize) {
+            this.hash = hash;
+            this.crc = crc;
+            this.size = size;
+            this.compressedSize = compressedSize;
+        }
+
+        boolean describes(ZipArchiveEntry entry) {
+            return crc == entry.getCrc() && size == entry.getSize() && compressedSize == entry.getCompressedSize();
+        }
+    }
+}
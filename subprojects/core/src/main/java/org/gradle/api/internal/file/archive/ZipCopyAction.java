@@ -15,29 +15,59 @@
  */
 package org.gradle.api.internal.file.archive;
 
-import org.apache.tools.zip.UnixStat;
-import org.apache.tools.zip.Zip64RequiredException;
+import com.google.common.util.concurrent.Futures;
+import org.apache.commons.compress.archivers.zip.StreamCompressor;
+import org.apache.commons.compress.archivers.zip.UnixStat;
+import org.apache.commons.compress.archivers.zip.Zip64RequiredException;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.parallel.FileBasedScatterGatherBackingStore;
+import org.apache.commons.compress.parallel.ScatterGatherBackingStore;
 import org.apache.tools.zip.ZipEntry;
 import org.apache.tools.zip.ZipOutputStream;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.file.FileCopyDetails;
+import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.internal.DocumentationRegistry;
 import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
 import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.CopyActionProcessingStream;
+import org.gradle.api.internal.file.copy.DefaultFileCopyDetails;
 import org.gradle.api.internal.file.copy.FileCopyDetailsInternal;
+import org.gradle.api.internal.file.copy.ParallelCopyExecutor;
+import org.gradle.api.internal.file.copy.ZipArchiveCompressor;
 import org.gradle.api.internal.file.copy.ZipCompressor;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.WorkResults;
 import org.gradle.api.tasks.bundling.Zip;
 import org.gradle.internal.IoActions;
+import org.gradle.internal.UncheckedException;
 
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.Calendar;
+import java.util.Deque;
 import java.util.GregorianCalendar;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
 
+/**
+ * Writes the files of a copy stream into a ZIP file.
+ *
+ * <p>When the compressor is a {@link ZipArchiveCompressor}, entries of other ZIP files whose content is unchanged and stored with the same
+ * compression method are copied into the ZIP file without being decompressed. When also created with a {@link ParallelCopyExecutor} and a temporary
+ * directory and the entries are deflated, files from the local file system are compressed in parallel, each into its own deflate stream, and
+ * the compressed entries are written to the ZIP file in the order of the copy stream. Other compressors write every entry on the calling thread.</p>
+ */
 public class ZipCopyAction implements CopyAction {
     /**
      * Note that setting the January 1st 1980 (or even worse, "0", as time) won't work due
@@ -56,21 +86,92 @@ public class ZipCopyAction implements CopyAction {
      */
     public static final long CONSTANT_TIME_FOR_ZIP_ENTRIES = new GregorianCalendar(1980, Calendar.FEBRUARY, 1, 0, 0, 0).getTimeInMillis();
 
+    // The total size of the files that may be compressed ahead of the entry being written
+    private static final long MAX_PENDING_BYTES = 64 * 1024 * 1024;
+    private static final long MAX_IN_MEMORY_ENTRY_SIZE = 1024 * 1024;
+
     private final File zipFile;
     private final ZipCompressor compressor;
     private final DocumentationRegistry documentationRegistry;
     private final String encoding;
     private final boolean preserveFileTimestamps;
+    private final ParallelCopyExecutor copyExecutor;
+    private final File temporaryDir;
+    private final ReusableZipEntries reusableEntries;
 
     public ZipCopyAction(File zipFile, ZipCompressor compressor, DocumentationRegistry documentationRegistry, String encoding, boolean preserveFileTimestamps) {
+        this(zipFile, compressor, documentationRegistry, encoding, preserveFileTimestamps, null, null);
+    }
+
+    public ZipCopyAction(File zipFile, ZipCompressor compressor, DocumentationRegistry documentationRegistry, String encoding, boolean preserveFileTimestamps, @Nullable ParallelCopyExecutor copyExecutor, @Nullable File temporaryDir) {
+        this(zipFile, compressor, documentationRegistry, encoding, preserveFileTimestamps, copyExecutor, temporaryDir, null);
+    }
+
+    public ZipCopyAction(File zipFile, ZipCompressor compressor, DocumentationRegistry documentationRegistry, String encoding, boolean preserveFileTimestamps, @Nullable ParallelCopyExecutor copyExecutor, @Nullable File temporaryDir, @Nullable ReusableZipEntries reusableEntries) {
         this.zipFile = zipFile;
         this.compressor = compressor;
         this.documentationRegistry = documentationRegistry;
         this.encoding = encoding;
         this.preserveFileTimestamps = preserveFileTimestamps;
+        this.copyExecutor = copyExecutor;
+        this.temporaryDir = temporaryDir;
+        this.reusableEntries = reusableEntries;
     }
 
     public WorkResult execute(final CopyActionProcessingStream stream) {
+        if (!(compressor instanceof ZipArchiveCompressor)) {
+            writeZipWithCompressor(stream);
+            return WorkResults.didWork(true);
+        }
+        ZipArchiveCompressor archiveCompressor = (ZipArchiveCompressor) compressor;
+        if (reusableEntries == null) {
+            writeZip(stream, archiveCompressor);
+            return WorkResults.didWork(true);
+        }
+
+        reusableEntries.open();
+        boolean written = false;
+        try {
+            writeZip(stream, archiveCompressor);
+            written = true;
+        } finally {
+            reusableEntries.close(written);
+        }
+        return WorkResults.didWork(true);
+    }
+
+    private void writeZip(final CopyActionProcessingStream stream, final ZipArchiveCompressor archiveCompressor) {
+        final ZipArchiveOutputStream zipOutStr;
+
+        try {
+            zipOutStr = archiveCompressor.createZipArchiveOutputStream(zipFile);
+        } catch (Exception e) {
+            throw new GradleException(String.format("Could not create ZIP '%s'.", zipFile), e);
+        }
+
+        try {
+            IoActions.withResource(zipOutStr, new Action<ZipArchiveOutputStream>() {
+                public void execute(ZipArchiveOutputStream outputStream) {
+                    StreamAction action = new StreamAction(outputStream, archiveCompressor.getCompressionMethod(), encoding);
+                    try {
+                        stream.process(action);
+                        action.writePendingEntries();
+                    } finally {
+                        action.stop();
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            if (e.getCause() instanceof Zip64RequiredException) {
+                throw zip64Required(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Writes the ZIP file through the stream of a compressor that is not a {@link ZipArchiveCompressor}.
+     */
+    private void writeZipWithCompressor(final CopyActionProcessingStream stream) {
         final ZipOutputStream zipOutStr;
 
         try {
@@ -82,24 +183,26 @@ public class ZipCopyAction implements CopyAction {
         try {
             IoActions.withResource(zipOutStr, new Action<ZipOutputStream>() {
                 public void execute(ZipOutputStream outputStream) {
-                    stream.process(new StreamAction(outputStream, encoding));
+                    stream.process(new CompressorStreamAction(outputStream, encoding));
                 }
             });
         } catch (UncheckedIOException e) {
-            if (e.getCause() instanceof Zip64RequiredException) {
-                throw new org.gradle.api.tasks.bundling.internal.Zip64RequiredException(
-                        String.format("%s\n\nTo build this archive, please enable the zip64 extension.\nSee: %s", e.getCause().getMessage(), documentationRegistry.getDslRefForProperty(Zip.class, "zip64"))
-                );
+            if (e.getCause() instanceof org.apache.tools.zip.Zip64RequiredException) {
+                throw zip64Required(e.getCause());
             }
         }
+    }
 
-        return WorkResults.didWork(true);
+    private RuntimeException zip64Required(Throwable cause) {
+        return new org.gradle.api.tasks.bundling.internal.Zip64RequiredException(
+                String.format("%s\n\nTo build this archive, please enable the zip64 extension.\nSee: %s", cause.getMessage(), documentationRegistry.getDslRefForProperty(Zip.class, "zip64"))
+        );
     }
 
-    private class StreamAction implements CopyActionProcessingStreamAction {
+    private class CompressorStreamAction implements CopyActionProcessingStreamAction {
         private final ZipOutputStream zipOutStr;
 
-        public StreamAction(ZipOutputStream zipOutStr, String encoding) {
+        public CompressorStreamAction(ZipOutputStream zipOutStr, String encoding) {
             this.zipOutStr = zipOutStr;
             if (encoding != null) {
                 this.zipOutStr.setEncoding(encoding);
@@ -141,7 +244,329 @@ public class ZipCopyAction implements CopyAction {
         }
     }
 
+    private class StreamAction implements CopyActionProcessingStreamAction {
+        private final ZipArchiveOutputStream zipOutStr;
+        private final int compressionMethod;
+        private final Deque<QueuedEntry> pendingEntries = new ArrayDeque<QueuedEntry>();
+        private long pendingBytes;
+        private ParallelCopyExecutor.Batch batch;
+
+        public StreamAction(ZipArchiveOutputStream zipOutStr, int compressionMethod, String encoding) {
+            this.zipOutStr = zipOutStr;
+            this.compressionMethod = compressionMethod;
+            // A null encoding selects the platform's default character set
+            this.zipOutStr.setEncoding(encoding);
+        }
+
+        public void processFile(FileCopyDetailsInternal details) {
+            if (details.isDirectory()) {
+                visitDir(details);
+                return;
+            }
+            ZipArchiveEntry previousEntry = reusableEntries == null ? null : reusableEntries.findPrevious(details.getRelativePath().getPathString(), details, compressionMethod);
+            if (previousEntry != null) {
+                reusePreviousEntry(details, previousEntry);
+            } else if (canDeflateInParallel(details)) {
+                deflateInParallel(details);
+            } else {
+                writePendingEntries();
+                visitFile(details);
+            }
+        }
+
+        private void visitFile(FileCopyDetails fileDetails) {
+            try {
+                ZipArchiveEntry archiveEntry = new ZipArchiveEntry(fileDetails.getRelativePath().getPathString());
+                archiveEntry.setTime(getArchiveTimeFor(fileDetails));
+                archiveEntry.setUnixMode(UnixStat.FILE_FLAG | fileDetails.getMode());
+                if (!copyCompressed(fileDetails, archiveEntry)) {
+                    zipOutStr.putArchiveEntry(archiveEntry);
+                    fileDetails.copyTo(zipOutStr);
+                    zipOutStr.closeArchiveEntry();
+                }
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not add %s to ZIP '%s'.", fileDetails, zipFile), e);
+            }
+        }
+
+        private void visitDir(final FileCopyDetails dirDetails) {
+            // Trailing slash in name indicates that entry is a directory
+            final ZipArchiveEntry archiveEntry = new ZipArchiveEntry(dirDetails.getRelativePath().getPathString() + '/');
+            archiveEntry.setTime(getArchiveTimeFor(dirDetails));
+            archiveEntry.setUnixMode(UnixStat.DIR_FLAG | dirDetails.getMode());
+            PendingEntry entry = new PendingEntry() {
+                @Override
+                void writeTo(ZipArchiveOutputStream outputStream) {
+                    try {
+                        outputStream.putArchiveEntry(archiveEntry);
+                        outputStream.closeArchiveEntry();
+                    } catch (Exception e) {
+                        throw new GradleException(String.format("Could not add %s to ZIP '%s'.", dirDetails, zipFile), e);
+                    }
+                }
+            };
+            addEntry(entry);
+        }
+
+        private void reusePreviousEntry(final FileCopyDetails fileDetails, final ZipArchiveEntry previousEntry) {
+            final ZipArchiveEntry archiveEntry = new ZipArchiveEntry(fileDetails.getRelativePath().getPathString());
+            archiveEntry.setTime(getArchiveTimeFor(fileDetails));
+            archiveEntry.setUnixMode(UnixStat.FILE_FLAG | fileDetails.getMode());
+            archiveEntry.setMethod(previousEntry.getMethod());
+            archiveEntry.setCrc(previousEntry.getCrc());
+            archiveEntry.setSize(previousEntry.getSize());
+            archiveEntry.setCompressedSize(previousEntry.getCompressedSize());
+            addEntry(new PendingEntry() {
+                @Override
+                void writeTo(ZipArchiveOutputStream outputStream) {
+                    try {
+                        InputStream compressed = reusableEntries.openCompressed(previousEntry);
+                        try {
+                            outputStream.addRawArchiveEntry(archiveEntry, compressed);
+                        } finally {
+                            compressed.close();
+                        }
+                    } catch (Exception e) {
+                        throw new GradleException(String.format("Could not add %s to ZIP '%s'.", fileDetails, zipFile), e);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Writes an entry that is ready to be written, after the entries that are still being compressed.
+         */
+        private void addEntry(PendingEntry entry) {
+            if (pendingEntries.isEmpty()) {
+                entry.writeTo(zipOutStr);
+            } else {
+                pendingEntries.add(new QueuedEntry(Futures.immediateFuture(entry), 0));
+            }
+        }
+
+        /**
+         * Copies the content of an entry of another ZIP file without decompressing it, when the content is unchanged and is compressed
+         * in the same way as the entries of this ZIP file.
+         */
+        private boolean copyCompressed(FileCopyDetails fileDetails, ZipArchiveEntry archiveEntry) throws IOException {
+            if (!(fileDetails instanceof DefaultFileCopyDetails)) {
+                return false;
+            }
+            FileVisitDetails source = ((DefaultFileCopyDetails) fileDetails).getUnfilteredSource();
+            if (!(source instanceof CompressedZipEntry)) {
+                return false;
+            }
+            CompressedZipEntry compressedEntry = (CompressedZipEntry) source;
+            if (compressedEntry.getCompressionMethod() != compressionMethod
+                || compressedEntry.getCrc() < 0 || compressedEntry.getCompressedSize() < 0 || source.getSize() < 0) {
+                return false;
+            }
+            archiveEntry.setMethod(compressedEntry.getCompressionMethod());
+            archiveEntry.setCrc(compressedEntry.getCrc());
+            archiveEntry.setSize(source.getSize());
+            archiveEntry.setCompressedSize(compressedEntry.getCompressedSize());
+            InputStream inputStream = compressedEntry.openCompressed();
+            try {
+                zipOutStr.addRawArchiveEntry(archiveEntry, inputStream);
+            } finally {
+                inputStream.close();
+            }
+            return true;
+        }
+
+        private boolean canDeflateInParallel(FileCopyDetailsInternal details) {
+            return copyExecutor != null
+                && temporaryDir != null
+                && copyExecutor.getMaxThreads() > 1
+                && compressionMethod == ZipArchiveEntry.DEFLATED
+                && details instanceof DefaultFileCopyDetails
+                && ((DefaultFileCopyDetails) details).isUnfilteredLocalFile();
+        }
+
+        private void deflateInParallel(final FileCopyDetails fileDetails) {
+            final ZipArchiveEntry archiveEntry = new ZipArchiveEntry(fileDetails.getRelativePath().getPathString());
+            archiveEntry.setTime(getArchiveTimeFor(fileDetails));
+            archiveEntry.setUnixMode(UnixStat.FILE_FLAG | fileDetails.getMode());
+            archiveEntry.setMethod(ZipArchiveEntry.DEFLATED);
+            final long size = fileDetails.getSize();
+            final boolean inMemory = size <= MAX_IN_MEMORY_ENTRY_SIZE;
+
+            while (!pendingEntries.isEmpty() && pendingBytes + size > MAX_PENDING_BYTES) {
+                writeNextPendingEntry();
+            }
+            pendingBytes += size;
+            pendingEntries.add(new QueuedEntry(getBatch().submit(new Callable<PendingEntry>() {
+                @Override
+                public PendingEntry call() {
+                    try {
+                        return deflate(fileDetails, archiveEntry, inMemory);
+                    } catch (Exception e) {
+                        throw new GradleException(String.format("Could not add %s to ZIP '%s'.", fileDetails, zipFile), e);
+                    }
+                }
+            }), size));
+            while (!pendingEntries.isEmpty() && pendingEntries.peekFirst().entry.isDone()) {
+                writeNextPendingEntry();
+            }
+        }
+
+        private ParallelCopyExecutor.Batch getBatch() {
+            if (batch == null) {
+                batch = copyExecutor.newBatch();
+            }
+            return batch;
+        }
+
+        void writePendingEntries() {
+            while (!pendingEntries.isEmpty()) {
+                writeNextPendingEntry();
+            }
+        }
+
+        private void writeNextPendingEntry() {
+            QueuedEntry next = pendingEntries.removeFirst();
+            pendingBytes -= next.bytes;
+            try {
+                next.entry.get().writeTo(zipOutStr);
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
+        }
+
+        void stop() {
+            try {
+                if (batch != null) {
+                    batch.stop();
+                }
+            } finally {
+                for (QueuedEntry queued : pendingEntries) {
+                    Future<PendingEntry> entry = queued.entry;
+                    if (entry.isDone() && !entry.isCancelled()) {
+                        try {
+                            entry.get().discard();
+                        } catch (Exception e) {
+                            // Ignore, the failure has already been reported
+                        }
+                    }
+                }
+                pendingEntries.clear();
+                pendingBytes = 0;
+            }
+        }
+    }
+
+    private PendingEntry deflate(final FileCopyDetails fileDetails, final ZipArchiveEntry archiveEntry, boolean inMemory) throws IOException {
+        final ScatterGatherBackingStore backingStore = inMemory
+            ? new InMemoryBackingStore()
+            : new FileBasedScatterGatherBackingStore(File.createTempFile("zip-entry", ".tmp", temporaryDir));
+        boolean deflated = false;
+        try {
+            StreamCompressor streamCompressor = StreamCompressor.create(Deflater.DEFAULT_COMPRESSION, backingStore);
+            try {
+                InputStream inputStream = fileDetails.open();
+                try {
+                    streamCompressor.deflate(inputStream, ZipArchiveEntry.DEFLATED);
+                } finally {
+                    inputStream.close();
+                }
+            } finally {
+                streamCompressor.close();
+            }
+            backingStore.closeForWriting();
+            archiveEntry.setCrc(streamCompressor.getCrc32());
+            archiveEntry.setSize(streamCompressor.getBytesRead());
+            archiveEntry.setCompressedSize(streamCompressor.getBytesWrittenForLastEntry());
+            deflated = true;
+        } finally {
+            if (!deflated) {
+                backingStore.close();
+            }
+        }
+        return new PendingEntry() {
+            @Override
+            void writeTo(ZipArchiveOutputStream outputStream) {
+                try {
+                    InputStream compressed = backingStore.getInputStream();
+                    try {
+                        outputStream.addRawArchiveEntry(archiveEntry, compressed);
+                    } finally {
+                        compressed.close();
+                    }
+                } catch (Exception e) {
+                    throw new GradleException(String.format("Could not add %s to ZIP '%s'.", fileDetails, zipFile), e);
+                } finally {
+                    discard();
+                }
+            }
+
+            @Override
+            void discard() {
+                try {
+                    backingStore.close();
+                } catch (IOException e) {
+                    // Ignore, the content has already been written or is not needed
+                }
+            }
+        };
+    }
+
     private long getArchiveTimeFor(FileCopyDetails details) {
         return preserveFileTimestamps ? details.getLastModified() : CONSTANT_TIME_FOR_ZIP_ENTRIES;
     }
+
+    /**
+     * An entry that may still be being compressed, along with the size of the file it is compressed from.
+     */
+    private static class QueuedEntry {
+        final Future<PendingEntry> entry;
+        final long bytes;
+
+        QueuedEntry(Future<PendingEntry> entry, long bytes) {
+            this.entry = entry;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * An entry that is ready to be written to the ZIP file.
+     */
+    private abstract static class PendingEntry {
+        abstract void writeTo(ZipArchiveOutputStream outputStream);
+
+        void discard() {
+        }
+    }
+
+    private static class InMemoryBackingStore implements ScatterGatherBackingStore {
+        private final Content content = new Content();
+
+        @Override
+        public InputStream getInputStream() {
+            return content.openStream();
+        }
+
+        @Override
+        public void writeOut(byte[] data, int offset, int length) {
+            content.write(data, offset, length);
+        }
+
+        @Override
+        public void closeForWriting() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private static class Content extends ByteArrayOutputStream {
+            /**
+             * Reads the content without copying it.
+             */
+            InputStream openStream() {
+                return new ByteArrayInputStream(buf, 0, count);
+            }
+        }
+    }
 }
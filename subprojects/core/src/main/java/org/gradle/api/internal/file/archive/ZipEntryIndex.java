@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableList;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.gradle.internal.hash.HashCode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The entries of a zip file, as read from its central directory and sorted by name.
+ *
+ * <p>Indexes are kept in memory keyed by the hash of the zip file, so that visiting a zip file again, or visiting another copy of
+ * the same zip file, does not read its central directory again. An index is only a listing: the content of an entry is read from
+ * the zip file when it is needed.</p>
+ */
+class ZipEntryIndex {
+    private static final int MAX_CACHED_ENTRIES = 500000;
+    private static final Cache<HashCode, ZipEntryIndex> INDEXES = CacheBuilder.newBuilder()
+        .maximumWeight(MAX_CACHED_ENTRIES)
+        .weigher(new Weigher<HashCode, ZipEntryIndex>() {
+            @Override
+            public int weigh(HashCode key, ZipEntryIndex value) {
+                return value.entries.size();
+            }
+        })
+        .softValues()
+        .build();
+
+    private final List<Entry> entries;
+
+    private ZipEntryIndex(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Returns the index of the given zip file, whose content has the given hash.
+     */
+    static ZipEntryIndex of(final File zipFile, HashCode hash) throws IOException {
+        try {
+            return INDEXES.get(hash, new Callable<ZipEntryIndex>() {
+                @Override
+                public ZipEntryIndex call() throws IOException {
+                    return read(zipFile);
+                }
+            });
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static ZipEntryIndex read(File zipFile) throws IOException {
+        ZipFile zip = new ZipFile(zipFile, null);
+        try {
+            // The iteration order of zip.getEntries() is based on the hash of the zip entry. This isn't much use
+            // to us. So, collect the entries in a map and iterate over them in alphabetical order.
+            // When a name occurs more than once, the last entry with the name is used, and its position among the entries with
+            // the name is kept so that its content is read from that same entry.
+            Map<String, Entry> entriesByName = new TreeMap<String, Entry>();
+            Enumeration<ZipArchiveEntry> entries = zip.getEntries();
+            while (entries.hasMoreElements()) {
+                ZipArchiveEntry entry = entries.nextElement();
+                int method = entry.getGeneralPurposeBit().usesEncryption() ? Entry.UNKNOWN_METHOD : entry.getMethod();
+                Entry previous = entriesByName.get(entry.getName());
+                int occurrence = previous == null ? 0 : previous.getOccurrence() + 1;
+                entriesByName.put(entry.getName(), new Entry(entry.getName(), occurrence, entry.isDirectory(), entry.getSize(), entry.getTime(), entry.getUnixMode(), method, entry.getCrc(), entry.getCompressedSize()));
+            }
+            return new ZipEntryIndex(ImmutableList.copyOf(entriesByName.values()));
+        } finally {
+            zip.close();
+        }
+    }
+
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    static class Entry {
+        /**
+         * The compression method of an entry whose content cannot be copied without being decompressed.
+         */
+        static final int UNKNOWN_METHOD = -1;
+
+        private final String name;
+        private final int occurrence;
+        private final boolean directory;
+        private final long size;
+        private final long lastModified;
+        private final int unixMode;
+        private final int method;
+        private final long crc;
+        private final long compressedSize;
+
+        Entry(String name, int occurrence, boolean directory, long size, long lastModified, int unixMode, int method, long crc, long compressedSize) {
+            this.name = name;
+            this.occurrence = occurrence;
+            this.directory = directory;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.unixMode = unixMode;
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * The number of entries with the same name that come before this entry in the zip file.
+         */
+        int getOccurrence() {
+            return occurrence;
+        }
+
+        boolean isDirectory() {
+            return directory;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+
+        int getUnixMode() {
+            return unixMode;
+        }
+
+        int getMethod() {
+            return method;
+        }
+
+        long getCrc() {
+            return crc;
+        }
+
+        long getCompressedSize() {
+            return compressedSize;
+        }
+    }
+}
@@ -15,8 +15,8 @@
  */
 package org.gradle.api.internal.file.archive;
 
-import org.apache.tools.zip.ZipEntry;
-import org.apache.tools.zip.ZipFile;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.UncheckedIOException;
@@ -31,16 +31,15 @@ import org.gradle.api.internal.file.collections.FileSystemMirroringFileTree;
 import org.gradle.api.internal.file.collections.MinimalFileTree;
 import org.gradle.api.internal.file.collections.SingletonFileTree;
 import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.nativeintegration.filesystem.Chmod;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Enumeration;
 import java.util.Iterator;
-import java.util.Map;
-import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree {
@@ -77,28 +76,22 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         AtomicBoolean stopFlag = new AtomicBoolean();
 
         try {
-            ZipFile zip = new ZipFile(zipFile);
-            File expandedDir = getExpandedDir();
+            HashCode hash = fileHasher.hash(zipFile);
+            ZipEntryIndex index = ZipEntryIndex.of(zipFile, hash);
+            ArchiveAccess archive = new ArchiveAccess(zipFile);
+            File expandedDir = getExpandedDir(hash);
             try {
-                // The iteration order of zip.getEntries() is based on the hash of the zip entry. This isn't much use
-                // to us. So, collect the entries in a map and iterate over them in alphabetical order.
-                Map<String, ZipEntry> entriesByName = new TreeMap<String, ZipEntry>();
-                Enumeration entries = zip.getEntries();
-                while (entries.hasMoreElements()) {
-                    ZipEntry entry = (ZipEntry) entries.nextElement();
-                    entriesByName.put(entry.getName(), entry);
-                }
-                Iterator<ZipEntry> sortedEntries = entriesByName.values().iterator();
+                Iterator<ZipEntryIndex.Entry> sortedEntries = index.getEntries().iterator();
                 while (!stopFlag.get() && sortedEntries.hasNext()) {
-                    ZipEntry entry = sortedEntries.next();
+                    ZipEntryIndex.Entry entry = sortedEntries.next();
                     if (entry.isDirectory()) {
-                        visitor.visitDir(new DetailsImpl(zipFile, expandedDir, entry, zip, stopFlag, chmod));
+                        visitor.visitDir(new DetailsImpl(zipFile, expandedDir, entry, archive, stopFlag, chmod));
                     } else {
-                        visitor.visitFile(new DetailsImpl(zipFile, expandedDir, entry, zip, stopFlag, chmod));
+                        visitor.visitFile(new DetailsImpl(zipFile, expandedDir, entry, archive, stopFlag, chmod));
                     }
                 }
             } finally {
-                zip.close();
+                archive.close();
             }
         } catch (Exception e) {
             throw new GradleException(String.format("Could not expand %s.", getDisplayName()), e);
@@ -110,24 +103,75 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
     }
 
     private File getExpandedDir() {
-        String expandedDirName = zipFile.getName() + "_" + fileHasher.hash(zipFile);
+        return getExpandedDir(fileHasher.hash(zipFile));
+    }
+
+    private File getExpandedDir(HashCode hash) {
+        String expandedDirName = zipFile.getName() + "_" + hash;
         return new File(tmpDir, expandedDirName);
     }
 
-    private static class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails {
+    /**
+     * Opens the zip file the first time the content of one of its entries is read, so that visitors that only look at
+     * the names and attributes of the entries do not read the zip file.
+     */
+    private static class ArchiveAccess {
+        private final File zipFile;
+        private ZipFile zip;
+
+        ArchiveAccess(File zipFile) {
+            this.zipFile = zipFile;
+        }
+
+        synchronized InputStream open(ZipEntryIndex.Entry entry) throws IOException {
+            return getZip().getInputStream(getEntry(entry));
+        }
+
+        synchronized InputStream openCompressed(ZipEntryIndex.Entry entry) throws IOException {
+            return getZip().getRawInputStream(getEntry(entry));
+        }
+
+        /**
+         * Returns the entry the given index entry was read from, which is not the first entry with its name when the name occurs more than once.
+         */
+        private ZipArchiveEntry getEntry(ZipEntryIndex.Entry indexEntry) throws IOException {
+            int occurrence = 0;
+            for (ZipArchiveEntry entry : getZip().getEntries(indexEntry.getName())) {
+                if (occurrence++ == indexEntry.getOccurrence()) {
+                    return entry;
+                }
+            }
+            throw new FileNotFoundException(String.format("Entry '%s' not found in %s.", indexEntry.getName(), zipFile));
+        }
+
+        private ZipFile getZip() throws IOException {
+            if (zip == null) {
+                zip = new ZipFile(zipFile, null);
+            }
+            return zip;
+        }
+
+        synchronized void close() throws IOException {
+            if (zip != null) {
+                zip.close();
+            }
+        }
+    }
+
+    private static class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails, CompressedZipEntry {
         private final File originalFile;
         private final File expandedDir;
-        private final ZipEntry entry;
-        private final ZipFile zip;
+        private final ZipEntryIndex.Entry entry;
+        private final ArchiveAccess archive;
         private final AtomicBoolean stopFlag;
         private File file;
 
-        public DetailsImpl(File originalFile, File expandedDir, ZipEntry entry, ZipFile zip, AtomicBoolean stopFlag, Chmod chmod) {
+        public DetailsImpl(File originalFile, File expandedDir, ZipEntryIndex.Entry entry, ArchiveAccess archive, AtomicBoolean stopFlag, Chmod chmod) {
             super(chmod);
             this.originalFile = originalFile;
             this.expandedDir = expandedDir;
             this.entry = entry;
-            this.zip = zip;
+            this.archive = archive;
             this.stopFlag = stopFlag;
         }
 
@@ -150,7 +194,7 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         }
 
         public long getLastModified() {
-            return entry.getTime();
+            return entry.getLastModified();
         }
 
         public boolean isDirectory() {
@@ -163,7 +207,7 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
 
         public InputStream open() {
             try {
-                return zip.getInputStream(entry);
+                return archive.open(entry);
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
@@ -173,6 +217,30 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
             return new RelativePath(!entry.isDirectory(), entry.getName().split("/"));
         }
 
+        @Override
+        public int getCompressionMethod() {
+            return entry.getMethod();
+        }
+
+        @Override
+        public long getCrc() {
+            return entry.getCrc();
+        }
+
+        @Override
+        public long getCompressedSize() {
+            return entry.getCompressedSize();
+        }
+
+        @Override
+        public InputStream openCompressed() {
+            try {
+                return archive.openCompressed(entry);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
         public int getMode() {
             int unixMode = entry.getUnixMode() & 0777;
             if (unixMode == 0) {
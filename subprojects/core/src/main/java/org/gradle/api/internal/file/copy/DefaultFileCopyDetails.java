@@ -23,8 +23,11 @@ import org.gradle.api.file.DuplicatesStrategy;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.AbstractFileTreeElement;
+import org.gradle.api.internal.file.DefaultFileTreeElement;
 import org.gradle.internal.nativeintegration.filesystem.Chmod;
 
+import javax.annotation.Nullable;
+
 import java.io.*;
 import java.util.Map;
 
@@ -49,6 +52,22 @@ public class DefaultFileCopyDetails extends AbstractFileTreeElement implements F
         return specResolver.getIncludeEmptyDirs();
     }
 
+    /**
+     * Returns true when these details are for a file in the local file system whose content is copied unchanged, so that the
+     * file can be copied after the visit that produced these details has finished.
+     */
+    public boolean isUnfilteredLocalFile() {
+        return !filterChain.hasFilters() && !fileDetails.isDirectory() && fileDetails instanceof DefaultFileTreeElement;
+    }
+
+    /**
+     * Returns the details of the source file when its content is copied unchanged, or null when the content is filtered.
+     */
+    @Nullable
+    public FileVisitDetails getUnfilteredSource() {
+        return filterChain.hasFilters() ? null : fileDetails;
+    }
+
     public String getDisplayName() {
         return fileDetails.toString();
     }
@@ -15,27 +15,28 @@
  */
 package org.gradle.api.internal.file.copy;
 
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.commons.io.IOUtils;
-import org.apache.tools.zip.Zip64Mode;
 import org.apache.tools.zip.ZipOutputStream;
 import org.gradle.api.UncheckedIOException;
 
 import java.io.File;
 import java.io.IOException;
 
-public class DefaultZipCompressor implements ZipCompressor {
+public class DefaultZipCompressor implements ZipArchiveCompressor {
     private final int entryCompressionMethod;
-    private final Zip64Mode zip64Mode;
+    private final boolean allowZip64Mode;
 
     public DefaultZipCompressor(boolean allowZip64Mode, int entryCompressionMethod) {
         this.entryCompressionMethod = entryCompressionMethod;
-        zip64Mode = allowZip64Mode ? Zip64Mode.AsNeeded : Zip64Mode.Never;
+        this.allowZip64Mode = allowZip64Mode;
     }
 
     public ZipOutputStream createArchiveOutputStream(File destination) throws IOException {
         ZipOutputStream outStream = new ZipOutputStream(destination);
         try {
-            outStream.setUseZip64(zip64Mode);
+            outStream.setUseZip64(allowZip64Mode ? org.apache.tools.zip.Zip64Mode.AsNeeded : org.apache.tools.zip.Zip64Mode.Never);
             outStream.setMethod(entryCompressionMethod);
             return outStream;
         } catch (Exception e) {
@@ -45,4 +46,23 @@ public class DefaultZipCompressor implements ZipCompressor {
         }
     }
 
+    @Override
+    public ZipArchiveOutputStream createZipArchiveOutputStream(File destination) throws IOException {
+        ZipArchiveOutputStream outStream = new ZipArchiveOutputStream(destination);
+        try {
+            outStream.setUseZip64(allowZip64Mode ? Zip64Mode.AsNeeded : Zip64Mode.Never);
+            outStream.setMethod(entryCompressionMethod);
+            return outStream;
+        } catch (Exception e) {
+            IOUtils.closeQuietly(outStream);
+            String message = String.format("Unable to create ZIP output stream for file %s.", destination);
+            throw new UncheckedIOException(message, e);
+        }
+    }
+
+    @Override
+    public int getCompressionMethod() {
+        return entryCompressionMethod;
+    }
+
 }
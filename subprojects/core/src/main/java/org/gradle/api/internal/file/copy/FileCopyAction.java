@@ -18,33 +18,118 @@ package org.gradle.api.internal.file.copy;
 import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.WorkResults;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.file.PathToFileResolver;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+/**
+ * Copies the files of a copy stream into a destination directory.
+ *
+ * <p>When created with a {@link ParallelCopyExecutor}, files whose content is copied unchanged from the local file system are copied on the
+ * threads of that executor, while the stream is processed on the calling thread. Directories, filtered files and files from
+ * archives are copied on the calling thread, in the order of the stream. All copies have finished when {@link #execute} returns.</p>
+ */
 public class FileCopyAction implements CopyAction {
+    private static final int MAX_PENDING_COPIES_PER_THREAD = 64;
 
     private final PathToFileResolver fileResolver;
+    private final ParallelCopyExecutor copyExecutor;
 
     public FileCopyAction(PathToFileResolver fileResolver) {
+        this(fileResolver, null);
+    }
+
+    public FileCopyAction(PathToFileResolver fileResolver, @Nullable ParallelCopyExecutor copyExecutor) {
         this.fileResolver = fileResolver;
+        this.copyExecutor = copyExecutor;
     }
 
     public WorkResult execute(CopyActionProcessingStream stream) {
         FileCopyDetailsInternalAction action = new FileCopyDetailsInternalAction();
-        stream.process(action);
+        try {
+            stream.process(action);
+            action.awaitPendingCopies();
+        } finally {
+            action.stop();
+        }
         return WorkResults.didWork(action.didWork);
     }
 
     private class FileCopyDetailsInternalAction implements CopyActionProcessingStreamAction {
+        private final Deque<Future<Boolean>> pendingCopies = new ArrayDeque<Future<Boolean>>();
+        private final Set<File> pendingTargets = new HashSet<File>();
+        private ParallelCopyExecutor.Batch batch;
         private boolean didWork;
 
-        public void processFile(FileCopyDetailsInternal details) {
-            File target = fileResolver.resolve(details.getRelativePath().getPathString());
-            boolean copied = details.copyTo(target);
-            if (copied) {
+        public void processFile(final FileCopyDetailsInternal details) {
+            final File target = fileResolver.resolve(details.getRelativePath().getPathString());
+            if (!pendingTargets.add(target)) {
+                // The same file is copied more than once, and the last copy has to win
+                awaitPendingCopies();
+                pendingTargets.add(target);
+            }
+            if (canCopyInParallel(details)) {
+                if (pendingCopies.size() >= copyExecutor.getMaxThreads() * MAX_PENDING_COPIES_PER_THREAD) {
+                    await(pendingCopies.removeFirst());
+                }
+                pendingCopies.add(getBatch().submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        return details.copyTo(target);
+                    }
+                }));
+            } else if (details.copyTo(target)) {
                 didWork = true;
             }
         }
+
+        private boolean canCopyInParallel(FileCopyDetailsInternal details) {
+            return copyExecutor != null
+                && copyExecutor.getMaxThreads() > 1
+                && details instanceof DefaultFileCopyDetails
+                && ((DefaultFileCopyDetails) details).isUnfilteredLocalFile();
+        }
+
+        private ParallelCopyExecutor.Batch getBatch() {
+            if (batch == null) {
+                batch = copyExecutor.newBatch();
+            }
+            return batch;
+        }
+
+        void awaitPendingCopies() {
+            while (!pendingCopies.isEmpty()) {
+                await(pendingCopies.removeFirst());
+            }
+            pendingTargets.clear();
+        }
+
+        private void await(Future<Boolean> copy) {
+            try {
+                if (copy.get()) {
+                    didWork = true;
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
+        }
+
+        void stop() {
+            if (batch != null) {
+                batch.stop();
+                pendingCopies.clear();
+            }
+        }
     }
 }
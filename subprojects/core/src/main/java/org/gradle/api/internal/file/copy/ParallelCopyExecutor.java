@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.copy;
+
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the work of copy actions, such as copying files or compressing archive entries, on threads that are shared by all copy actions of a build session.
+ * The number of threads is bounded by the maximum number of workers of the build, so that copy tasks that run at the same time do not each start their own threads.
+ *
+ * <p>Each execution of a copy action submits its work through its own {@link Batch}.</p>
+ */
+public class ParallelCopyExecutor implements Stoppable {
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
+    private final Object lock = new Object();
+    private ManagedExecutor executor;
+
+    public ParallelCopyExecutor(ExecutorFactory executorFactory, int maxThreads) {
+        this.executorFactory = executorFactory;
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * Returns the maximum number of threads that run the submitted work.
+     */
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    /**
+     * Starts a batch of work for one execution of a copy action. The batch must be stopped once the copy action has finished.
+     */
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    private ManagedExecutor getExecutor() {
+        synchronized (lock) {
+            if (executor == null) {
+                executor = executorFactory.create("File copy", maxThreads);
+            }
+            return executor;
+        }
+    }
+
+    @Override
+    public void stop() {
+        ManagedExecutor executor;
+        synchronized (lock) {
+            executor = this.executor;
+            this.executor = null;
+        }
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+
+    /**
+     * The work submitted by one execution of a copy action. Not thread-safe, the work is submitted from the thread that executes the copy action.
+     */
+    public class Batch {
+        private final AtomicBoolean stopped = new AtomicBoolean();
+        private final Deque<Future<?>> submitted = new ArrayDeque<Future<?>>();
+
+        public <T> Future<T> submit(final Callable<T> work) {
+            while (!submitted.isEmpty() && submitted.peekFirst().isDone()) {
+                submitted.removeFirst();
+            }
+            Future<T> future = getExecutor().submit(new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    if (stopped.get()) {
+                        throw new CancellationException();
+                    }
+                    return work.call();
+                }
+            });
+            submitted.add(future);
+            return future;
+        }
+
+        /**
+         * Discards the work of this batch that has not started and waits for the work that has started, so that no work of the copy action runs once this method returns.
+         * Failures are ignored, as they are reported to the copy action through the future of the work.
+         */
+        public void stop() {
+            stopped.set(true);
+            try {
+                while (!submitted.isEmpty()) {
+                    try {
+                        submitted.removeFirst().get();
+                    } catch (ExecutionException e) {
+                        // Ignore
+                    } catch (CancellationException e) {
+                        // Ignore
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.copy;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A {@link ZipCompressor} that can also create a commons-compress ZIP stream, to which entries that are already compressed can be written.
+ * ZIP files are written through this stream when the compressor supports it, which allows entries to be deflated in parallel and to be
+ * copied from other ZIP files without being decompressed.
+ */
+public interface ZipArchiveCompressor extends ZipCompressor {
+
+    ZipArchiveOutputStream createZipArchiveOutputStream(File destination) throws IOException;
+
+    /**
+     * Returns the compression method used for the entries of the archive, as defined by {@link java.util.zip.ZipEntry}.
+     */
+    int getCompressionMethod();
+
+}
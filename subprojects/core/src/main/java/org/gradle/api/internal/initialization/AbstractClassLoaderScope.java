@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.initialization;
 
+import com.google.common.collect.Interner;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
 
 /**
@@ -25,10 +26,12 @@ public abstract class AbstractClassLoaderScope implements ClassLoaderScope {
 
     protected final ClassLoaderScopeIdentifier id;
     protected final ClassLoaderCache classLoaderCache;
+    protected final Interner<ClassLoader> sharedLoaders;
 
-    protected AbstractClassLoaderScope(ClassLoaderScopeIdentifier id, ClassLoaderCache classLoaderCache) {
+    protected AbstractClassLoaderScope(ClassLoaderScopeIdentifier id, ClassLoaderCache classLoaderCache, Interner<ClassLoader> sharedLoaders) {
         this.id = id;
         this.classLoaderCache = classLoaderCache;
+        this.sharedLoaders = sharedLoaders;
     }
 
     /**
@@ -43,6 +46,6 @@ public abstract class AbstractClassLoaderScope implements ClassLoaderScope {
         if (name == null) {
             throw new IllegalArgumentException("'name' cannot be null");
         }
-        return new DefaultClassLoaderScope(id.child(name), this, classLoaderCache);
+        return new DefaultClassLoaderScope(id.child(name), this, classLoaderCache, sharedLoaders);
     }
 }
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.initialization;
 
+import com.google.common.collect.Interner;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderId;
 import org.gradle.internal.classloader.CachingClassLoader;
@@ -46,8 +47,8 @@ public class DefaultClassLoaderScope extends AbstractClassLoaderScope {
     private ClassLoader effectiveLocalClassLoader;
     private ClassLoader effectiveExportClassLoader;
 
-    public DefaultClassLoaderScope(ClassLoaderScopeIdentifier id, ClassLoaderScope parent, ClassLoaderCache classLoaderCache) {
-        super(id, classLoaderCache);
+    public DefaultClassLoaderScope(ClassLoaderScopeIdentifier id, ClassLoaderScope parent, ClassLoaderCache classLoaderCache, Interner<ClassLoader> sharedLoaders) {
+        super(id, classLoaderCache, sharedLoaders);
         this.parent = parent;
     }
 
@@ -62,16 +63,25 @@ public class DefaultClassLoaderScope extends AbstractClassLoaderScope {
         if (classPath.isEmpty()) {
             return additional;
         }
-        return new CachingClassLoader(new MultiParentClassLoader(additional, loader(id, classPath)));
+        return share(new CachingClassLoader(new MultiParentClassLoader(additional, loader(id, classPath))));
     }
 
     private ClassLoader buildLockedLoader(ClassLoaderId id, ClassPath classPath, List<ClassLoader> loaders) {
         if (loaders != null) {
-            return new CachingClassLoader(buildMultiLoader(id, classPath, loaders));
+            return share(new CachingClassLoader(buildMultiLoader(id, classPath, loaders)));
         }
         return buildLockedLoader(id, classPath);
     }
 
+    /**
+     * Returns an equivalent loader already built by another scope in this tree, if any. Scopes with the same parent and the same classpaths
+     * receive the same loaders from the {@link ClassLoaderCache}, so the composite loaders built from them are equal and can be shared
+     * rather than each scope holding its own copy and its own cache of loaded classes.
+     */
+    private ClassLoader share(CachingClassLoader classLoader) {
+        return sharedLoaders.intern(classLoader);
+    }
+
     private MultiParentClassLoader buildMultiLoader(ClassLoaderId id, ClassPath classPath, List<ClassLoader> loaders) {
         int numParents = 1;
         if (loaders != null) {
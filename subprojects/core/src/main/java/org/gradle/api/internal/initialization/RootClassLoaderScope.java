@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.initialization;
 
+import com.google.common.collect.Interners;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
 import org.gradle.internal.classpath.ClassPath;
 
@@ -25,7 +26,7 @@ public class RootClassLoaderScope extends AbstractClassLoaderScope {
     private final ClassLoader exportClassLoader;
 
     public RootClassLoaderScope(ClassLoader localClassLoader, ClassLoader exportClassLoader, ClassLoaderCache classLoaderCache) {
-        super(new ClassLoaderScopeIdentifier(null, "root"), classLoaderCache);
+        super(new ClassLoaderScopeIdentifier(null, "root"), classLoaderCache, Interners.<ClassLoader>newWeakInterner());
         this.localClassLoader = localClassLoader;
         this.exportClassLoader = exportClassLoader;
     }
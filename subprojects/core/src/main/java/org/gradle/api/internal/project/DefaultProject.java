@@ -75,6 +75,7 @@ import org.gradle.api.provider.ProviderFactory;
 import org.gradle.api.resources.ResourceHandler;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.configuration.ScriptPluginFactory;
+import org.gradle.configuration.project.ParallelProjectConfigurationGuard;
 import org.gradle.configuration.project.ProjectConfigurationActionContainer;
 import org.gradle.configuration.project.ProjectEvaluator;
 import org.gradle.groovy.scripts.ScriptSource;
@@ -143,6 +144,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     private final ClassLoaderScope classLoaderScope;
     private final ClassLoaderScope baseClassLoaderScope;
+    private final ParallelProjectConfigurationGuard parallelConfigurationGuard;
     private ServiceRegistry services;
 
     private final ProjectInternal rootProject;
@@ -192,6 +194,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
     private ListenerBroadcast<ProjectEvaluationListener> evaluationListener = new ListenerBroadcast<ProjectEvaluationListener>(ProjectEvaluationListener.class);
 
     private ExtensibleDynamicObject extensibleDynamicObject;
+    private DynamicObject dynamicObject;
 
     private String description;
 
@@ -206,9 +209,11 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
                           GradleInternal gradle,
                           ServiceRegistryFactory serviceRegistryFactory,
                           ClassLoaderScope selfClassLoaderScope,
-                          ClassLoaderScope baseClassLoaderScope) {
+                          ClassLoaderScope baseClassLoaderScope,
+                          ParallelProjectConfigurationGuard parallelConfigurationGuard) {
         this.classLoaderScope = selfClassLoaderScope;
         this.baseClassLoaderScope = baseClassLoaderScope;
+        this.parallelConfigurationGuard = parallelConfigurationGuard;
         this.rootProject = parent != null ? parent.getRootProject() : this;
         this.projectDir = projectDir;
         this.buildFile = buildFile;
@@ -234,6 +239,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
             extensibleDynamicObject.setParent(parent.getInheritedScope());
         }
         extensibleDynamicObject.addObject(taskContainer.getTasksAsDynamicObject(), ExtensibleDynamicObject.Location.AfterConvention);
+        dynamicObject = new ProjectAccessDynamicObject(this, extensibleDynamicObject, parallelConfigurationGuard, true);
 
         evaluationListener.add(gradle.getProjectEvaluationBroadcaster());
 
@@ -386,12 +392,13 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public DynamicObject getAsDynamicObject() {
-        return extensibleDynamicObject;
+        return dynamicObject;
     }
 
     @Override
     public DynamicObject getInheritedScope() {
-        return extensibleDynamicObject.getInheritable();
+        // Subprojects may read the inherited properties, as these are not changed through the inherited scope
+        return new ProjectAccessDynamicObject(this, extensibleDynamicObject.getInheritable(), parallelConfigurationGuard, false);
     }
 
     @Override
@@ -483,6 +490,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public ArtifactHandler getArtifacts() {
+        parallelConfigurationGuard.beforeAccess(this);
         if (artifactHandler == null) {
             artifactHandler = services.get(ArtifactHandler.class);
         }
@@ -502,6 +510,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public ConfigurationContainer getConfigurations() {
+        parallelConfigurationGuard.beforeAccess(this);
         if (configurationContainer == null) {
             configurationContainer = services.get(ConfigurationContainer.class);
         }
@@ -514,6 +523,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public Convention getConvention() {
+        parallelConfigurationGuard.beforeAccess(this);
         return extensibleDynamicObject.getConvention();
     }
 
@@ -625,11 +635,15 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void subprojects(Action<? super Project> action) {
+        // The projects configured are this project and its subprojects
+        parallelConfigurationGuard.beforeAccess(this);
         getProjectConfigurator().subprojects(getSubprojects(), action);
     }
 
     @Override
     public void allprojects(Action<? super Project> action) {
+        // The projects configured are this project and its subprojects
+        parallelConfigurationGuard.beforeAccess(this);
         getProjectConfigurator().allprojects(getAllprojects(), action);
     }
 
@@ -680,6 +694,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public TaskContainerInternal getTasks() {
+        parallelConfigurationGuard.beforeAccess(this);
         return taskContainer;
     }
 
@@ -943,6 +958,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public DependencyHandler getDependencies() {
+        parallelConfigurationGuard.beforeAccess(this);
         if (dependencyHandler == null) {
             dependencyHandler = services.get(DependencyHandler.class);
         }
@@ -960,21 +976,25 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void beforeEvaluate(Action<? super Project> action) {
+        parallelConfigurationGuard.beforeAccess(this);
         evaluationListener.add("beforeEvaluate", action);
     }
 
     @Override
     public void afterEvaluate(Action<? super Project> action) {
+        parallelConfigurationGuard.beforeAccess(this);
         evaluationListener.add("afterEvaluate", action);
     }
 
     @Override
     public void beforeEvaluate(Closure closure) {
+        parallelConfigurationGuard.beforeAccess(this);
         evaluationListener.add(new ClosureBackedMethodInvocationDispatch("beforeEvaluate", closure));
     }
 
     @Override
     public void afterEvaluate(Closure closure) {
+        parallelConfigurationGuard.beforeAccess(this);
         evaluationListener.add(new ClosureBackedMethodInvocationDispatch("afterEvaluate", closure));
     }
 
@@ -1014,6 +1034,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void setProperty(String name, Object value) {
+        parallelConfigurationGuard.beforeAccess(this);
         extensibleDynamicObject.setProperty(name, value);
     }
 
@@ -1116,22 +1137,30 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void subprojects(Closure configureClosure) {
+        // The projects configured are this project and its subprojects
+        parallelConfigurationGuard.beforeAccess(this);
         getProjectConfigurator().subprojects(getSubprojects(), configureClosure);
     }
 
     @Override
     public void allprojects(Closure configureClosure) {
+        // The projects configured are this project and its subprojects
+        parallelConfigurationGuard.beforeAccess(this);
         getProjectConfigurator().allprojects(getAllprojects(), configureClosure);
     }
 
     @Override
     public Project project(String path, Closure configureClosure) {
-        return getProjectConfigurator().project(project(path), configureClosure);
+        ProjectInternal project = project(path);
+        parallelConfigurationGuard.beforeAccess(project);
+        return getProjectConfigurator().project(project, configureClosure);
     }
 
     @Override
     public Project project(String path, Action<? super Project> configureAction) {
-        return getProjectConfigurator().project(project(path), configureAction);
+        ProjectInternal project = project(path);
+        parallelConfigurationGuard.beforeAccess(project);
+        return getProjectConfigurator().project(project, configureAction);
     }
 
     @Override
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.project;
+
+import groovy.lang.MissingMethodException;
+import groovy.lang.MissingPropertyException;
+import org.gradle.configuration.project.ParallelProjectConfigurationGuard;
+import org.gradle.internal.metaobject.DynamicInvokeResult;
+import org.gradle.internal.metaobject.DynamicObject;
+
+import java.util.Map;
+
+/**
+ * The dynamic object of a project as seen by scripts, closures and subprojects. Tells the {@link ParallelProjectConfigurationGuard}
+ * before the project is accessed in a way that may change it.
+ */
+class ProjectAccessDynamicObject implements DynamicObject {
+    private final ProjectInternal project;
+    private final DynamicObject delegate;
+    private final ParallelProjectConfigurationGuard guard;
+    private final boolean readsMayChange;
+
+    /**
+     * @param readsMayChange whether reading a property may change the project, because the value may be a container or some other mutable object of the project.
+     */
+    ProjectAccessDynamicObject(ProjectInternal project, DynamicObject delegate, ParallelProjectConfigurationGuard guard, boolean readsMayChange) {
+        this.project = project;
+        this.delegate = delegate;
+        this.guard = guard;
+        this.readsMayChange = readsMayChange;
+    }
+
+    private void beforeRead() {
+        if (readsMayChange) {
+            guard.beforeAccess(project);
+        }
+    }
+
+    @Override
+    public boolean hasProperty(String name) {
+        beforeRead();
+        return delegate.hasProperty(name);
+    }
+
+    @Override
+    public DynamicInvokeResult tryGetProperty(String name) {
+        beforeRead();
+        return delegate.tryGetProperty(name);
+    }
+
+    @Override
+    public Object getProperty(String name) throws MissingPropertyException {
+        beforeRead();
+        return delegate.getProperty(name);
+    }
+
+    @Override
+    public Map<String, ?> getProperties() {
+        beforeRead();
+        return delegate.getProperties();
+    }
+
+    @Override
+    public DynamicInvokeResult trySetProperty(String name, Object value) {
+        guard.beforeAccess(project);
+        return delegate.trySetProperty(name, value);
+    }
+
+    @Override
+    public void setProperty(String name, Object value) throws MissingPropertyException {
+        guard.beforeAccess(project);
+        delegate.setProperty(name, value);
+    }
+
+    @Override
+    public boolean hasMethod(String name, Object... arguments) {
+        beforeRead();
+        return delegate.hasMethod(name, arguments);
+    }
+
+    @Override
+    public DynamicInvokeResult tryInvokeMethod(String name, Object... arguments) {
+        guard.beforeAccess(project);
+        return delegate.tryInvokeMethod(name, arguments);
+    }
+
+    @Override
+    public Object invokeMethod(String name, Object... arguments) throws MissingMethodException {
+        guard.beforeAccess(project);
+        return delegate.invokeMethod(name, arguments);
+    }
+
+    @Override
+    public MissingPropertyException getMissingProperty(String name) {
+        return delegate.getMissingProperty(name);
+    }
+
+    @Override
+    public MissingPropertyException setMissingProperty(String name) {
+        return delegate.setMissingProperty(name);
+    }
+
+    @Override
+    public MissingMethodException methodMissingException(String name, Object... params) {
+        return delegate.methodMissingException(name, params);
+    }
+}
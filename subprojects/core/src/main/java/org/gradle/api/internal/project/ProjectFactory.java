@@ -19,6 +19,7 @@ package org.gradle.api.internal.project;
 import org.gradle.api.initialization.ProjectDescriptor;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.initialization.ClassLoaderScope;
+import org.gradle.configuration.project.ParallelProjectConfigurationGuard;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.groovy.scripts.TextResourceScriptSource;
 import org.gradle.initialization.DefaultProjectDescriptor;
@@ -32,11 +33,13 @@ import java.io.File;
 public class ProjectFactory implements IProjectFactory {
     private final Instantiator instantiator;
     private final ProjectRegistry<ProjectInternal> projectRegistry;
+    private final ParallelProjectConfigurationGuard parallelConfigurationGuard;
     private final BasicTextResourceLoader resourceLoader = new BasicTextResourceLoader();
 
-    public ProjectFactory(Instantiator instantiator, ProjectRegistry<ProjectInternal> projectRegistry) {
+    public ProjectFactory(Instantiator instantiator, ProjectRegistry<ProjectInternal> projectRegistry, ParallelProjectConfigurationGuard parallelConfigurationGuard) {
         this.instantiator = instantiator;
         this.projectRegistry = projectRegistry;
+        this.parallelConfigurationGuard = parallelConfigurationGuard;
     }
 
     public DefaultProject createProject(ProjectDescriptor projectDescriptor, ProjectInternal parent, GradleInternal gradle, ClassLoaderScope selfClassLoaderScope, ClassLoaderScope baseClassLoaderScope) {
@@ -53,7 +56,8 @@ public class ProjectFactory implements IProjectFactory {
                 gradle,
                 gradle.getServiceRegistryFactory(),
                 selfClassLoaderScope,
-                baseClassLoaderScope
+                baseClassLoaderScope,
+                parallelConfigurationGuard
         );
 
         if (parent != null) {
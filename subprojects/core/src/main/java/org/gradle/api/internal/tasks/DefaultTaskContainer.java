@@ -28,11 +28,14 @@ import org.gradle.api.Task;
 import org.gradle.api.UnknownTaskException;
 import org.gradle.api.internal.NamedDomainObjectContainerConfigureDelegate;
 import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.provider.AbstractProvider;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.taskfactory.ITaskFactory;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.TaskCollection;
 import org.gradle.api.tasks.TaskReference;
 import org.gradle.initialization.ProjectAccessListener;
+import org.gradle.internal.Actions;
 import org.gradle.internal.Transformers;
 import org.gradle.internal.metaobject.DynamicObject;
 import org.gradle.internal.reflect.Instantiator;
@@ -58,6 +61,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
     private final ITaskFactory taskFactory;
     private final ProjectAccessListener projectAccessListener;
     private final Set<String> placeholders = Sets.newHashSet();
+    private final Set<String> createdLater = Sets.newHashSet();
     private final NamedEntityInstantiator<Task> instantiator;
 
     public DefaultTaskContainer(MutableModelNode modelNode, ProjectInternal project, Instantiator instantiator, ITaskFactory taskFactory, ProjectAccessListener projectAccessListener) {
@@ -86,6 +90,13 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
 
         if (placeholders.remove(name)) {
             modelNode.removeLink(name);
+        } else if (createdLater.contains(name)) {
+            if (!replaceExisting) {
+                throw new InvalidUserDataException(String.format(
+                    "Cannot add %s as a task with that name already exists.", task));
+            }
+            createdLater.remove(name);
+            modelNode.removeLink(name);
         }
 
         Task existing = findByNameWithoutRules(name);
@@ -157,6 +168,24 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         return addTask(task, true);
     }
 
+    @Override
+    public <T extends Task> Provider<T> createLater(String name, Class<T> type) {
+        return createLater(name, type, Actions.doNothing());
+    }
+
+    @Override
+    public <T extends Task> Provider<T> createLater(String name, Class<T> type, Action<? super T> configurationAction) {
+        if (placeholders.remove(name)) {
+            modelNode.removeLink(name);
+        }
+        if (modelNode.hasLink(name) || findByNameWithoutRules(name) != null) {
+            throw new InvalidUserDataException(String.format("Cannot add task '%s' as a task with that name already exists.", name));
+        }
+        createdLater.add(name);
+        addTaskCreator(name, type, configurationAction, "tasks.createLater(" + name + ")");
+        return new TaskProvider<T>(name, type);
+    }
+
     public Task findByPath(String path) {
         if (Strings.isNullOrEmpty(path)) {
             throw new InvalidUserDataException("A path must be specified!");
@@ -266,21 +295,25 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
 
     public <T extends TaskInternal> void addPlaceholderAction(final String placeholderName, final Class<T> taskType, final Action<? super T> configure) {
         if (!modelNode.hasLink(placeholderName)) {
-            final ModelType<T> taskModelType = ModelType.of(taskType);
-            ModelPath path = MODEL_PATH.child(placeholderName);
-            modelNode.addLink(
-                ModelRegistrations.of(path)
-                    .action(ModelActionRole.Create, new TaskCreator<T>(placeholderName, taskType, configure, taskModelType))
-                    .withProjection(new UnmanagedModelProjection<T>(taskModelType))
-                    .descriptor(new SimpleModelRuleDescriptor("tasks.addPlaceholderAction(" + placeholderName + ")"))
-                    .build()
-            );
+            addTaskCreator(placeholderName, taskType, configure, "tasks.addPlaceholderAction(" + placeholderName + ")");
         }
         if (findByNameWithoutRules(placeholderName) == null) {
             placeholders.add(placeholderName);
         }
     }
 
+    private <T extends Task> void addTaskCreator(String name, Class<T> taskType, Action<? super T> configure, String descriptor) {
+        ModelType<T> taskModelType = ModelType.of(taskType);
+        ModelPath path = MODEL_PATH.child(name);
+        modelNode.addLink(
+            ModelRegistrations.of(path)
+                .action(ModelActionRole.Create, new TaskCreator<T>(name, taskType, configure, taskModelType))
+                .withProjection(new UnmanagedModelProjection<T>(taskModelType))
+                .descriptor(new SimpleModelRuleDescriptor(descriptor))
+                .build()
+        );
+    }
+
     public <U extends Task> NamedDomainObjectContainer<U> containerWithType(Class<U> type) {
         throw new UnsupportedOperationException();
     }
@@ -305,7 +338,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         }
     }
 
-    private static class TaskCreator<T extends TaskInternal> implements Action<MutableModelNode> {
+    private static class TaskCreator<T extends Task> implements Action<MutableModelNode> {
         private final String placeholderName;
         private final Class<T> taskType;
         private final Action<? super T> configure;
@@ -321,13 +354,44 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         @Override
         public void execute(final MutableModelNode mutableModelNode) {
             DefaultTaskContainer taskContainer = mutableModelNode.getParent().getPrivateData(ModelType.of(DefaultTaskContainer.class));
-            T task = taskContainer.taskFactory.create(placeholderName, taskType);
-            configure.execute(task);
+            T task = taskContainer.instantiator.create(placeholderName, taskType);
+            taskContainer.createdLater.remove(placeholderName);
             taskContainer.add(task);
+            configure.execute(task);
             mutableModelNode.setPrivateData(taskModelType, task);
         }
     }
 
+    private class TaskProvider<T extends Task> extends AbstractProvider<T> {
+        private final String name;
+        private final Class<T> type;
+
+        TaskProvider(String name, Class<T> type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        @Override
+        public Class<T> getType() {
+            return type;
+        }
+
+        @Override
+        public boolean isPresent() {
+            return findByNameWithoutRules(name) != null || modelNode.hasLink(name);
+        }
+
+        @Override
+        public T getOrNull() {
+            return type.cast(findByName(name));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("provider(task '%s', %s)", name, type);
+        }
+    }
+
     @Override
     public <S extends Task> TaskCollection<S> withType(Class<S> type) {
         return new RealizableTaskCollection<S>(type, super.withType(type), modelNode);
@@ -75,7 +75,7 @@ public class Copy extends AbstractCopyTask {
         if (destinationDir == null) {
             throw new InvalidUserDataException("No copy destination directory has been specified, use 'into' to specify a target directory.");
         }
-        return new FileCopyAction(getFileLookup().getFileResolver(destinationDir));
+        return new FileCopyAction(getFileLookup().getFileResolver(destinationDir), getParallelCopyExecutor());
     }
 
     @Override
@@ -15,10 +15,11 @@
  */
 package org.gradle.api.tasks.bundling;
 
-import org.apache.tools.zip.ZipOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.gradle.api.Incubating;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.file.archive.ReusableZipEntries;
 import org.gradle.api.internal.file.archive.ZipCopyAction;
 import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.DefaultZipCompressor;
@@ -26,7 +27,10 @@ import org.gradle.api.internal.file.copy.ZipCompressor;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
+import org.gradle.internal.hash.FileHasher;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.nio.charset.Charset;
 
 /**
@@ -49,9 +53,9 @@ public class Zip extends AbstractArchiveTask {
     protected ZipCompressor getCompressor() {
         switch (entryCompression) {
             case DEFLATED:
-                return new DefaultZipCompressor(allowZip64, ZipOutputStream.DEFLATED);
+                return new DefaultZipCompressor(allowZip64, ZipArchiveOutputStream.DEFLATED);
             case STORED:
-                return new DefaultZipCompressor(allowZip64, ZipOutputStream.STORED);
+                return new DefaultZipCompressor(allowZip64, ZipArchiveOutputStream.STORED);
             default:
                 throw new IllegalArgumentException(String.format("Unknown Compression type %s", entryCompression));
         }
@@ -60,7 +64,16 @@ public class Zip extends AbstractArchiveTask {
     @Override
     protected CopyAction createCopyAction() {
         DocumentationRegistry documentationRegistry = getServices().get(DocumentationRegistry.class);
-        return new ZipCopyAction(getArchivePath(), getCompressor(), documentationRegistry, metadataCharset, isPreserveFileTimestamps());
+        return new ZipCopyAction(getArchivePath(), getCompressor(), documentationRegistry, metadataCharset, isPreserveFileTimestamps(), getParallelCopyExecutor(), getTemporaryDir(), createReusableEntries());
+    }
+
+    @Nullable
+    private ReusableZipEntries createReusableEntries() {
+        // Entries of the previous archive can only be reused when the entries do not depend on the order or timestamps of the files
+        if (isPreserveFileTimestamps() || !isReproducibleFileOrder()) {
+            return null;
+        }
+        return new ReusableZipEntries(getArchivePath(), new File(getTemporaryDir(), "entries.bin"), getServices().get(FileHasher.class), metadataCharset);
     }
 
     /**
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import com.google.common.collect.Sets;
+import org.codehaus.groovy.ast.ClassNode;
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.initialization.ClassLoaderIds;
+import org.gradle.api.internal.initialization.ClassLoaderScope;
+import org.gradle.api.internal.plugins.DefaultPluginManager;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.groovy.scripts.CachingScriptSource;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.groovy.scripts.internal.CompileOperation;
+import org.gradle.groovy.scripts.internal.CompiledScript;
+import org.gradle.groovy.scripts.internal.CrossBuildInMemoryCachingScriptClassCache;
+import org.gradle.groovy.scripts.internal.ScriptClassCompiler;
+import org.gradle.internal.Actions;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+import org.gradle.model.dsl.internal.transform.ClosureCreationInterceptingVerifier;
+import org.gradle.plugin.management.internal.PluginRequestInternal;
+import org.gradle.plugin.management.internal.PluginRequests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiles the build scripts of the projects of a build into the script cache concurrently, before the projects are configured,
+ * so that configuring the projects does not wait on the compilation of each script in turn.
+ *
+ * <p>The first pass of a build script is compiled against the base class loader of the build, which is the same for every project,
+ * so the first passes of all build scripts are compiled together. The second pass is compiled against the class loader of the project,
+ * which includes the buildscript classpath of the project and its ancestors. This is the base class loader of the build only when neither
+ * the project nor any of its ancestors has a buildscript block or requests a plugin that is not a core plugin. Once the first passes have
+ * been inspected, the second pass is compiled for those projects. The other projects are left to be compiled when they are configured.</p>
+ *
+ * <p>Failures are ignored here, so that they are reported when the project is configured.</p>
+ */
+public class BuildScriptPrecompiler {
+    /**
+     * Disables precompilation when set to {@code false}.
+     */
+    public static final String PRECOMPILE_PROPERTY = "org.gradle.internal.script.precompile";
+
+    private static final Logger LOGGER = Logging.getLogger(BuildScriptPrecompiler.class);
+
+    private final CrossBuildInMemoryCachingScriptClassCache cache;
+    private final ScriptClassCompiler scriptClassCompiler;
+    private final DocumentationRegistry documentationRegistry;
+    private final BuildOperationExecutor buildOperationExecutor;
+
+    public BuildScriptPrecompiler(CrossBuildInMemoryCachingScriptClassCache cache, ScriptClassCompiler scriptClassCompiler, DocumentationRegistry documentationRegistry, BuildOperationExecutor buildOperationExecutor) {
+        this.cache = cache;
+        this.scriptClassCompiler = scriptClassCompiler;
+        this.documentationRegistry = documentationRegistry;
+        this.buildOperationExecutor = buildOperationExecutor;
+    }
+
+    public static boolean isEnabled() {
+        return !"false".equals(System.getProperty(PRECOMPILE_PROPERTY));
+    }
+
+    /**
+     * Compiles the build scripts of the projects of the given root project.
+     */
+    public void precompile(ProjectInternal rootProject) {
+        List<ProjectInternal> projects = new ArrayList<ProjectInternal>();
+        for (Project project : rootProject.getAllprojects()) {
+            if (hasBuildScript((ProjectInternal) project)) {
+                projects.add((ProjectInternal) project);
+            }
+        }
+        ClassLoaderScope baseScope = rootProject.getBaseClassLoaderScope();
+        if (projects.size() < 2 || !baseScope.isLocked()) {
+            // Nothing to compile concurrently, or the class loader to compile against is not known yet
+            return;
+        }
+
+        ClassLoader baseClassLoader = baseScope.getExportClassLoader();
+        Set<ProjectInternal> projectsExtendingClasspath = Sets.newConcurrentHashSet();
+        compileAll(projects, baseClassLoader, true, projectsExtendingClasspath);
+
+        List<ProjectInternal> secondPass = new ArrayList<ProjectInternal>();
+        for (ProjectInternal project : projects) {
+            if (!extendsClasspath(project, projectsExtendingClasspath)) {
+                secondPass.add(project);
+            }
+        }
+        compileAll(secondPass, baseClassLoader, false, projectsExtendingClasspath);
+    }
+
+    private void compileAll(final List<ProjectInternal> projects, final ClassLoader classLoader, final boolean initialPass, final Set<ProjectInternal> projectsExtendingClasspath) {
+        if (projects.isEmpty()) {
+            return;
+        }
+        buildOperationExecutor.runAll(new Action<BuildOperationQueue<PrecompileBuildScript>>() {
+            @Override
+            public void execute(BuildOperationQueue<PrecompileBuildScript> queue) {
+                for (ProjectInternal project : projects) {
+                    queue.add(new PrecompileBuildScript(project, classLoader, initialPass, projectsExtendingClasspath));
+                }
+            }
+        });
+    }
+
+    private static boolean hasBuildScript(ProjectInternal project) {
+        return project.getBuildScriptSource().getResource().getExists();
+    }
+
+    private static boolean extendsClasspath(ProjectInternal project, Set<ProjectInternal> projectsExtendingClasspath) {
+        for (ProjectInternal current = project; current != null; current = current.getParent()) {
+            if (projectsExtendingClasspath.contains(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean requestsNonCorePlugin(PluginRequests pluginRequests) {
+        for (PluginRequestInternal pluginRequest : pluginRequests) {
+            String namespace = pluginRequest.getId().getNamespace();
+            if (namespace != null && !namespace.equals(DefaultPluginManager.CORE_PLUGIN_NAMESPACE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class PrecompileBuildScript implements RunnableBuildOperation {
+        private final ProjectInternal project;
+        private final ClassLoader classLoader;
+        private final boolean initialPass;
+        private final Set<ProjectInternal> projectsExtendingClasspath;
+
+        PrecompileBuildScript(ProjectInternal project, ClassLoader classLoader, boolean initialPass, Set<ProjectInternal> projectsExtendingClasspath) {
+            this.project = project;
+            this.classLoader = classLoader;
+            this.initialPass = initialPass;
+            this.projectsExtendingClasspath = projectsExtendingClasspath;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            ScriptSource source = CachingScriptSource.of(project.getBuildScriptSource());
+            ScriptTarget target = new ProjectScriptTarget(project);
+            try {
+                if (initialPass) {
+                    CompiledScript<?, PluginRequests> compiledScript = compile(source, target, DefaultScriptPluginFactory.initialPassOperation(source, target, documentationRegistry), Actions.<ClassNode>doNothing());
+                    if (compiledScript.getRunDoesSomething() || requestsNonCorePlugin(compiledScript.getData())) {
+                        projectsExtendingClasspath.add(project);
+                    }
+                } else {
+                    compile(source, target, DefaultScriptPluginFactory.secondPassOperation(source, target), ClosureCreationInterceptingVerifier.INSTANCE);
+                }
+            } catch (Exception e) {
+                LOGGER.debug("Could not precompile {}.", source.getDisplayName(), e);
+                projectsExtendingClasspath.add(project);
+            }
+        }
+
+        private <M> CompiledScript<?, M> compile(ScriptSource source, ScriptTarget target, CompileOperation<M> operation, Action<? super ClassNode> verifier) {
+            return cache.getOrCompile(source, classLoader, ClassLoaderIds.buildScript(source.getFileName(), operation.getId()), operation, target.getScriptClass(), verifier, scriptClassCompiler);
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Precompile " + project.getBuildScriptSource().getDisplayName());
+        }
+    }
+}
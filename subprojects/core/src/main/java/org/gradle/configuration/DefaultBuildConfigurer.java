@@ -16,38 +16,144 @@
 package org.gradle.configuration;
 
 import org.gradle.StartParameter;
+import org.gradle.api.Action;
+import org.gradle.api.Project;
 import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.configuration.project.ParallelProjectConfigurationGuard;
 import org.gradle.execution.ProjectConfigurer;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+import org.gradle.internal.resources.ResourceLock;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.util.SingleMessageLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
 public class DefaultBuildConfigurer implements BuildConfigurer {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultBuildConfigurer.class);
+
+    /**
+     * Enables parallel configuration of decoupled projects, when parallel execution is also enabled.
+     */
+    public static final String PARALLEL_CONFIGURATION_PROPERTY = "org.gradle.internal.parallel.configuration";
+
     private final ProjectConfigurer projectConfigurer;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final WorkerLeaseService workerLeaseService;
+    private final ParallelProjectConfigurationGuard parallelConfigurationGuard;
+    private final BuildScriptPrecompiler buildScriptPrecompiler;
 
-    public DefaultBuildConfigurer(ProjectConfigurer projectConfigurer) {
+    public DefaultBuildConfigurer(ProjectConfigurer projectConfigurer, BuildOperationExecutor buildOperationExecutor, WorkerLeaseService workerLeaseService, ParallelProjectConfigurationGuard parallelConfigurationGuard, BuildScriptPrecompiler buildScriptPrecompiler) {
         this.projectConfigurer = projectConfigurer;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.workerLeaseService = workerLeaseService;
+        this.parallelConfigurationGuard = parallelConfigurationGuard;
+        this.buildScriptPrecompiler = buildScriptPrecompiler;
     }
 
     public void configure(GradleInternal gradle) {
         maybeInformAboutIncubatingMode(gradle);
         if (gradle.getStartParameter().isConfigureOnDemand()) {
             projectConfigurer.configure(gradle.getRootProject());
+            return;
+        }
+        if (BuildScriptPrecompiler.isEnabled()) {
+            buildScriptPrecompiler.precompile(gradle.getRootProject());
+        }
+        if (isParallelConfiguration(gradle.getStartParameter())) {
+            configureHierarchyInParallel(gradle);
         } else {
             projectConfigurer.configureHierarchy(gradle.getRootProject());
         }
     }
 
+    /**
+     * Configures the root project, then each level of the project hierarchy in turn. The projects of a level are configured concurrently,
+     * each holding its project lock, once all of their parents have been configured. A project that accesses some other project than itself
+     * and its subprojects in a way that may change it is configured on its own from that point, see {@link ParallelProjectConfigurationGuard}.
+     */
+    private void configureHierarchyInParallel(final GradleInternal gradle) {
+        ProjectInternal rootProject = gradle.getRootProject();
+        projectConfigurer.configure(rootProject);
+
+        SortedMap<Integer, List<ProjectInternal>> projectsByDepth = new TreeMap<Integer, List<ProjectInternal>>();
+        for (Project project : rootProject.getSubprojects()) {
+            List<ProjectInternal> projects = projectsByDepth.get(project.getDepth());
+            if (projects == null) {
+                projects = new ArrayList<ProjectInternal>();
+                projectsByDepth.put(project.getDepth(), projects);
+            }
+            projects.add((ProjectInternal) project);
+        }
+
+        for (final List<ProjectInternal> projects : projectsByDepth.values()) {
+            buildOperationExecutor.runAll(new Action<BuildOperationQueue<ConfigureProjectInParallel>>() {
+                @Override
+                public void execute(BuildOperationQueue<ConfigureProjectInParallel> queue) {
+                    for (ProjectInternal project : projects) {
+                        queue.add(new ConfigureProjectInParallel(gradle, project));
+                    }
+                }
+            });
+        }
+    }
+
+    private static boolean isParallelConfiguration(StartParameter startParameter) {
+        return startParameter.isParallelProjectExecutionEnabled() && Boolean.getBoolean(PARALLEL_CONFIGURATION_PROPERTY);
+    }
+
     private void maybeInformAboutIncubatingMode(GradleInternal gradle) {
         StartParameter startParameter = gradle.getStartParameter();
 
         if (startParameter.isParallelProjectExecutionEnabled() && startParameter.isConfigureOnDemand()) {
             SingleMessageLogger.incubatingFeatureUsed("Parallel execution with configuration on demand");
+        } else if (isParallelConfiguration(startParameter)) {
+            SingleMessageLogger.incubatingFeatureUsed("Parallel execution with parallel project configuration");
         } else if (startParameter.isParallelProjectExecutionEnabled()) {
             SingleMessageLogger.incubatingFeatureUsed("Parallel execution");
         } else if (startParameter.isConfigureOnDemand()) {
             SingleMessageLogger.incubatingFeatureUsed("Configuration on demand");
         }
     }
+
+    private class ConfigureProjectInParallel implements RunnableBuildOperation {
+        private final GradleInternal gradle;
+        private final ProjectInternal project;
+
+        ConfigureProjectInParallel(GradleInternal gradle, ProjectInternal project) {
+            this.gradle = gradle;
+            this.project = project;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            ResourceLock projectLock = workerLeaseService.getProjectLock(gradle.getIdentityPath().toString(), project.getIdentityPath().toString());
+            workerLeaseService.withLocks(Collections.singleton(projectLock), new Runnable() {
+                @Override
+                public void run() {
+                    parallelConfigurationGuard.configureInParallel(project, new Runnable() {
+                        @Override
+                        public void run() {
+                            projectConfigurer.configure(project);
+                        }
+                    });
+                }
+            });
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Configure " + project.getDisplayName() + " in parallel");
+        }
+    }
 }
@@ -70,8 +70,8 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
     private final DirectoryFileTreeFactory directoryFileTreeFactory;
     private final DocumentationRegistry documentationRegistry;
     private final ModelRuleSourceDetector modelRuleSourceDetector;
-    private final BuildScriptDataSerializer buildScriptDataSerializer = new BuildScriptDataSerializer();
-    private final PluginRequestsSerializer pluginRequestsSerializer = new PluginRequestsSerializer();
+    private final static BuildScriptDataSerializer BUILD_SCRIPT_DATA_SERIALIZER = new BuildScriptDataSerializer();
+    private final static PluginRequestsSerializer PLUGIN_REQUESTS_SERIALIZER = new PluginRequestsSerializer();
     private final ProviderFactory providerFactory;
     private final TextResourceLoader textResourceLoader;
     private final ExecFactory execFactory;
@@ -122,6 +122,25 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
         return new ScriptPluginImpl(scriptSource, (ScriptHandlerInternal) scriptHandler, targetScope, baseScope, topLevelScript);
     }
 
+    /**
+     * Creates the operation that compiles the first pass of a script, which extracts plugin requests and contains only the buildscript {} block.
+     */
+    static CompileOperation<PluginRequests> initialPassOperation(ScriptSource scriptSource, ScriptTarget initialPassScriptTarget, DocumentationRegistry documentationRegistry) {
+        InitialPassStatementTransformer initialPassStatementTransformer = new InitialPassStatementTransformer(scriptSource, initialPassScriptTarget, documentationRegistry);
+        SubsetScriptTransformer initialTransformer = new SubsetScriptTransformer(initialPassStatementTransformer);
+        String id = INTERNER.intern("cp_" + initialPassScriptTarget.getId());
+        return new FactoryBackedCompileOperation<PluginRequests>(id, initialTransformer, initialPassStatementTransformer, PLUGIN_REQUESTS_SERIALIZER);
+    }
+
+    /**
+     * Creates the operation that compiles the second pass of a script, which contains everything except the parts handled by the first pass.
+     */
+    static CompileOperation<BuildScriptData> secondPassOperation(ScriptSource scriptSource, ScriptTarget scriptTarget) {
+        BuildScriptTransformer buildScriptTransformer = new BuildScriptTransformer(scriptSource, scriptTarget);
+        String operationId = scriptTarget.getId();
+        return new FactoryBackedCompileOperation<BuildScriptData>(operationId, buildScriptTransformer, buildScriptTransformer, BUILD_SCRIPT_DATA_SERIALIZER);
+    }
+
     private class ScriptPluginImpl implements ScriptPlugin {
         private final ScriptSource scriptSource;
         private final ClassLoaderScope targetScope;
@@ -169,10 +188,7 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
             // Pass 1, extract plugin requests and plugin repositories and execute buildscript {}, ignoring (i.e. not even compiling) anything else
 
             Class<? extends BasicScript> scriptType = initialPassScriptTarget.getScriptClass();
-            InitialPassStatementTransformer initialPassStatementTransformer = new InitialPassStatementTransformer(scriptSource, initialPassScriptTarget, documentationRegistry);
-            SubsetScriptTransformer initialTransformer = new SubsetScriptTransformer(initialPassStatementTransformer);
-            String id = INTERNER.intern("cp_" + initialPassScriptTarget.getId());
-            CompileOperation<PluginRequests> initialOperation = new FactoryBackedCompileOperation<PluginRequests>(id, initialTransformer, initialPassStatementTransformer, pluginRequestsSerializer);
+            CompileOperation<PluginRequests> initialOperation = initialPassOperation(scriptSource, initialPassScriptTarget, documentationRegistry);
 
             ScriptRunner<? extends BasicScript, PluginRequests> initialRunner = compiler.compile(scriptType, initialOperation, baseScope.getExportClassLoader(), Actions.doNothing());
             initialRunner.run(target, services);
@@ -187,9 +203,7 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
             final ScriptTarget scriptTarget = secondPassTarget(target);
             scriptType = scriptTarget.getScriptClass();
 
-            BuildScriptTransformer buildScriptTransformer = new BuildScriptTransformer(scriptSource, scriptTarget);
-            String operationId = scriptTarget.getId();
-            CompileOperation<BuildScriptData> operation = new FactoryBackedCompileOperation<BuildScriptData>(operationId, buildScriptTransformer, buildScriptTransformer, buildScriptDataSerializer);
+            CompileOperation<BuildScriptData> operation = secondPassOperation(scriptSource, scriptTarget);
 
             final ScriptRunner<? extends BasicScript, BuildScriptData> runner = compiler.compile(scriptType, operation, targetScope.getLocalClassLoader(), ClosureCreationInterceptingVerifier.INSTANCE);
             if (scriptTarget.getSupportsMethodInheritance() && runner.getHasMethods()) {
@@ -36,13 +36,16 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
 
     private final BuildOperationExecutor buildOperationExecutor;
     private final ProjectEvaluator delegate;
+    private final ParallelProjectConfigurationGuard parallelConfigurationGuard;
 
-    public LifecycleProjectEvaluator(BuildOperationExecutor buildOperationExecutor, ProjectEvaluator delegate) {
+    public LifecycleProjectEvaluator(BuildOperationExecutor buildOperationExecutor, ProjectEvaluator delegate, ParallelProjectConfigurationGuard parallelConfigurationGuard) {
         this.buildOperationExecutor = buildOperationExecutor;
         this.delegate = delegate;
+        this.parallelConfigurationGuard = parallelConfigurationGuard;
     }
 
     public void evaluate(final ProjectInternal project, final ProjectStateInternal state) {
+        parallelConfigurationGuard.beforeEvaluate(project, state);
         if (state.getExecuted() || state.getExecuting()) {
             return;
         }
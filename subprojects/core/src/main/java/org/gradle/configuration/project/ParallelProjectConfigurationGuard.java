@@ -0,0 +1,177 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project;
+
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.project.ProjectStateInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.UncheckedException;
+import org.gradle.util.Path;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps track of the project that the current thread is configuring in parallel with other projects.
+ *
+ * <p>A project that is configured in parallel must be decoupled from the projects configured alongside it. It may use
+ * projects that were configured before it was scheduled, but it must not cause the configuration of any other project
+ * than its own subprojects, as that project may be concurrently configured by another thread.</p>
+ *
+ * <p>A project may change itself and its own subprojects, which are configured after it. The project model calls {@link #beforeAccess(ProjectInternal)}
+ * at the points where the state of a project can be changed: its containers, its properties and methods as seen by scripts and closures,
+ * the methods it inherits from its parent, and the methods that configure other projects. When the project being configured reaches such a
+ * point of any other project, such as its parent or the root project, the rest of its configuration runs exclusively, once the projects that
+ * are being configured alongside it have finished, and before any other project starts to be configured. When the other project is itself
+ * partway through its configuration, waiting for its own exclusive access, the project waits for that project to finish first. Projects that
+ * wait for each other cannot be configured in parallel, and their configuration fails. Obtaining another project, or reading values that it
+ * lets its subprojects inherit, does not restrict the configuration.</p>
+ */
+public class ParallelProjectConfigurationGuard {
+    private static final Logger LOGGER = Logging.getLogger(ParallelProjectConfigurationGuard.class);
+
+    private final ReentrantReadWriteLock configurationLock = new ReentrantReadWriteLock(true);
+    private final ThreadLocal<ParallelConfiguration> currentConfiguration = new ThreadLocal<ParallelConfiguration>();
+    private final List<ParallelConfiguration> inProgress = new ArrayList<ParallelConfiguration>();
+
+    /**
+     * Runs the given action, which configures the given project in parallel with other projects.
+     */
+    public void configureInParallel(ProjectInternal project, Runnable action) {
+        if (currentConfiguration.get() != null) {
+            // Already holding the configuration lock for the outer project
+            action.run();
+            return;
+        }
+        ParallelConfiguration configuration = new ParallelConfiguration(project);
+        configurationLock.readLock().lock();
+        currentConfiguration.set(configuration);
+        synchronized (inProgress) {
+            inProgress.add(configuration);
+        }
+        try {
+            action.run();
+        } finally {
+            currentConfiguration.remove();
+            if (configuration.exclusive) {
+                configurationLock.writeLock().unlock();
+            } else {
+                configurationLock.readLock().unlock();
+            }
+            synchronized (inProgress) {
+                inProgress.remove(configuration);
+            }
+            configuration.finished.countDown();
+        }
+    }
+
+    /**
+     * Called before the state of the given project is accessed in a way that may change it.
+     * Waits for exclusive access when the current thread is configuring some other project in parallel, and the given project is neither that project nor one of its subprojects.
+     * Also waits for the given project to finish its configuration when it is being configured by another thread.
+     */
+    public void beforeAccess(ProjectInternal project) {
+        ParallelConfiguration configuration = currentConfiguration.get();
+        if (configuration == null || isSelfOrSubproject(project, configuration.project)) {
+            return;
+        }
+        if (!configuration.exclusive) {
+            LOGGER.info("{} uses {}, so the rest of its configuration will not run in parallel with other projects.", configuration.project.getDisplayName(), project.getDisplayName());
+            configurationLock.readLock().unlock();
+            configurationLock.writeLock().lock();
+            configuration.exclusive = true;
+        }
+        ParallelConfiguration other;
+        while ((other = startWaitingFor(project, configuration)) != null) {
+            LOGGER.info("{} uses {}, so waits for {} to finish its configuration.", configuration.project.getDisplayName(), project.getDisplayName(), other.project.getDisplayName());
+            // The other project is waiting for exclusive access, so let it finish before continuing
+            configurationLock.writeLock().unlock();
+            try {
+                other.finished.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } finally {
+                configurationLock.writeLock().lock();
+                synchronized (inProgress) {
+                    configuration.waitingFor = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the configuration of another thread that is configuring the given project, if any, and records that the given configuration waits for it.
+     */
+    private ParallelConfiguration startWaitingFor(ProjectInternal project, ParallelConfiguration configuration) {
+        synchronized (inProgress) {
+            for (ParallelConfiguration other : inProgress) {
+                if (other == configuration || !isSelfOrSubproject(project, other.project)) {
+                    continue;
+                }
+                for (ParallelConfiguration waiting = other; waiting != null; waiting = waiting.waitingFor) {
+                    if (waiting == configuration) {
+                        ProjectInternal current = configuration.project;
+                        throw new IllegalStateException(String.format("Cannot use %s while configuring %s in parallel with other projects, as %s is being configured and waits for %s. "
+                                + "Parallel project configuration requires that projects only change themselves and their subprojects, or projects that have already been configured.",
+                            project.getDisplayName(), current.getDisplayName(), other.project.getDisplayName(), current.getDisplayName()));
+                    }
+                }
+                configuration.waitingFor = other;
+                return other;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Fails when the current thread is configuring some other project in parallel and the given project has not been configured yet and is not one of its subprojects.
+     */
+    public void beforeEvaluate(ProjectInternal project, ProjectStateInternal state) {
+        ParallelConfiguration configuration = currentConfiguration.get();
+        if (configuration == null || state.getExecuted() || isSelfOrSubproject(project, configuration.project)) {
+            return;
+        }
+        ProjectInternal current = configuration.project;
+        throw new IllegalStateException(String.format("Cannot configure %s while configuring %s in parallel with other projects, as %s is not decoupled from %s. "
+            + "Parallel project configuration requires that projects only configure their subprojects and use projects that have already been configured, such as their parent project.",
+            project.getDisplayName(), current.getDisplayName(), current.getDisplayName(), project.getDisplayName()));
+    }
+
+    private static boolean isSelfOrSubproject(ProjectInternal project, ProjectInternal current) {
+        Path currentPath = current.getIdentityPath();
+        for (Path path = project.getIdentityPath(); path != null; path = path.getParent()) {
+            if (path.equals(currentPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class ParallelConfiguration {
+        private final ProjectInternal project;
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private boolean exclusive;
+        private ParallelConfiguration waitingFor;
+
+        ParallelConfiguration(ProjectInternal project) {
+            this.project = project;
+        }
+    }
+}
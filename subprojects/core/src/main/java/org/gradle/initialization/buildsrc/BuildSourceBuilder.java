@@ -25,6 +25,7 @@ import org.gradle.cache.FileLockManager;
 import org.gradle.cache.PersistentCache;
 import org.gradle.initialization.GradleLauncher;
 import org.gradle.initialization.NestedBuildFactory;
+import org.gradle.internal.Factory;
 import org.gradle.internal.classpath.CachedClasspathTransformer;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.invocation.BuildController;
@@ -38,6 +39,7 @@ import org.gradle.util.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Collections;
 
@@ -99,23 +101,54 @@ public class BuildSourceBuilder {
         });
     }
 
-    private ClassPath buildBuildSrc(StartParameter startParameter) {
+    private ClassPath buildBuildSrc(final StartParameter startParameter) {
         // If we were not the most recent version of Gradle to build the buildSrc dir, then do a clean build
         // Otherwise, just to a regular build
         final PersistentCache buildSrcCache = createCache(startParameter);
         try {
-            BuildController buildController = createBuildController(startParameter);
-            try {
-                return buildSrcCache.useCache(new BuildSrcUpdateFactory(buildSrcCache, buildController, buildSrcBuildListenerFactory));
-            } finally {
-                buildController.stop();
-            }
+            return buildSrcCache.useCache(new Factory<ClassPath>() {
+                @Override
+                public ClassPath create() {
+                    if (!BuildSrcClasspathReuse.isEnabled(startParameter)) {
+                        return buildBuildSrc(startParameter, buildSrcCache, null);
+                    }
+                    BuildSrcClasspathReuse reuse = new BuildSrcClasspathReuse(buildSrcCache.getBaseDir(), startParameter);
+                    ClassPath classPath = reuse.loadIfUnchanged();
+                    if (classPath != null) {
+                        LOGGER.info("Inputs of buildSrc have not changed, using the classpath of the previous build.");
+                        return classPath;
+                    }
+                    return buildBuildSrc(startParameter, buildSrcCache, reuse);
+                }
+            });
         } finally {
             // This isn't quite right. We should not unlock the classes until we're finished with them, and the classes may be used across multiple builds
             buildSrcCache.close();
         }
     }
 
+    private ClassPath buildBuildSrc(StartParameter startParameter, PersistentCache buildSrcCache, @Nullable BuildSrcClasspathReuse reuse) {
+        BuildController buildController = createBuildController(startParameter);
+        try {
+            BuildSrcUpdateFactory updateFactory = new BuildSrcUpdateFactory(buildSrcCache, buildController, buildSrcBuildListenerFactory);
+            ClassPath classPath = updateFactory.create();
+            if (reuse != null) {
+                if (updateFactory.hasDynamicOrChangingDependencies()) {
+                    LOGGER.info("buildSrc declares dynamic or changing dependencies, its classpath will not be reused.");
+                    reuse.discard();
+                } else if (reuse.mayUseFilesOutsideOfInputs(updateFactory.getAppliedScripts())) {
+                    LOGGER.info("buildSrc applies or refers to files outside of its directory, its classpath will not be reused.");
+                    reuse.discard();
+                } else {
+                    reuse.store(classPath);
+                }
+            }
+            return classPath;
+        } finally {
+            buildController.stop();
+        }
+    }
+
     PersistentCache createCache(StartParameter startParameter) {
         return cacheRepository
             .cache(new File(startParameter.getCurrentDir(), ".gradle/noVersion/buildSrc"))
@@ -18,16 +18,27 @@ package org.gradle.initialization.buildsrc;
 
 import org.gradle.BuildAdapter;
 import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ConfigurationContainer;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ExternalModuleDependency;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.component.BuildableJavaComponent;
 import org.gradle.api.internal.component.ComponentRegistry;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.invocation.Gradle;
+import org.gradle.groovy.scripts.Script;
+import org.gradle.groovy.scripts.ScriptExecutionListener;
+import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.initialization.ModelConfigurationListener;
 import org.gradle.internal.Actions;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 public class BuildSrcBuildListenerFactory {
@@ -46,8 +57,10 @@ public class BuildSrcBuildListenerFactory {
         return new Listener(rebuild, buildSrcRootProjectConfiguration);
     }
 
-    public static class Listener extends BuildAdapter implements ModelConfigurationListener {
+    public static class Listener extends BuildAdapter implements ModelConfigurationListener, ScriptExecutionListener {
         private Set<File> classpath;
+        private boolean dynamicOrChangingDependencies;
+        private final List<ScriptSource> appliedScripts = new ArrayList<ScriptSource>();
         private final boolean rebuild;
         private final Action<ProjectInternal> rootProjectConfiguration;
 
@@ -68,12 +81,71 @@ public class BuildSrcBuildListenerFactory {
             gradle.getStartParameter().setTaskNames(
                 rebuild ? mainComponent.getRebuildTasks() : mainComponent.getBuildTasks());
             classpath = mainComponent.getRuntimeClasspath().getFiles();
+            dynamicOrChangingDependencies = declaresDynamicOrChangingDependencies(gradle.getRootProject());
         }
 
         public Collection<File> getRuntimeClasspath() {
             return classpath;
         }
 
+        @Override
+        public void scriptClassLoaded(ScriptSource source, Class<? extends Script> scriptClass) {
+            synchronized (appliedScripts) {
+                appliedScripts.add(source);
+            }
+        }
+
+        /**
+         * Returns the scripts that were applied by the buildSrc build.
+         */
+        public List<ScriptSource> getAppliedScripts() {
+            synchronized (appliedScripts) {
+                return new ArrayList<ScriptSource>(appliedScripts);
+            }
+        }
+
+        /**
+         * Returns true when a project of the buildSrc build declares a dependency with a dynamic, changing or snapshot version,
+         * whose resolution may change while the inputs of buildSrc stay the same.
+         */
+        public boolean hasDynamicOrChangingDependencies() {
+            return dynamicOrChangingDependencies;
+        }
+
+        private static boolean declaresDynamicOrChangingDependencies(Project rootProject) {
+            for (Project project : rootProject.getAllprojects()) {
+                if (declaresDynamicOrChangingDependencies(project.getConfigurations()) || declaresDynamicOrChangingDependencies(project.getBuildscript().getConfigurations())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean declaresDynamicOrChangingDependencies(ConfigurationContainer configurations) {
+            for (Configuration configuration : configurations) {
+                for (Dependency dependency : configuration.getDependencies()) {
+                    if (dependency instanceof ExternalModuleDependency) {
+                        ExternalModuleDependency moduleDependency = (ExternalModuleDependency) dependency;
+                        if (moduleDependency.isChanging() || isDynamicOrSnapshot(moduleDependency.getVersion())) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static boolean isDynamicOrSnapshot(@Nullable String version) {
+            if (version == null || version.isEmpty()) {
+                // The version is chosen by some other rule
+                return true;
+            }
+            return version.endsWith("+")
+                || version.startsWith("latest.")
+                || version.startsWith("[") || version.startsWith("]") || version.startsWith("(")
+                || version.endsWith("SNAPSHOT");
+        }
+
         private BuildableJavaComponent mainComponentOf(GradleInternal gradle) {
             return gradle.getRootProject().getServices().get(ComponentRegistry.class).getMainComponent();
         }
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.initialization.buildsrc;
+
+import com.google.common.collect.ImmutableSet;
+import org.gradle.StartParameter;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.internal.FileUtils;
+import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.serialize.InputStreamBackedDecoder;
+import org.gradle.internal.serialize.OutputStreamBackedEncoder;
+import org.gradle.util.GradleVersion;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Records the inputs of the buildSrc build together with the classpath that it produced, so that a later build can use that classpath
+ * without configuring and running the buildSrc build again, provided neither the inputs nor the classpath have changed since.
+ *
+ * <p>The inputs are the files of the buildSrc directory, the user's {@code gradle.properties} and init scripts, the start parameters that
+ * are passed on to the buildSrc build, the environment variables, and the Java and Gradle versions. Files are compared by length and modification time.
+ * Environment variables that only describe the shell session are ignored.</p>
+ *
+ * <p>The classpath is not recorded when buildSrc declares dynamic or changing dependencies, as their resolution can change while the inputs stay the same.
+ * Nor is it recorded when buildSrc applies a script from outside of its directory, or when one of its scripts refers to a parent directory, as the files
+ * that such scripts use are not inputs. Files that a script reads through an absolute path are not detected.</p>
+ */
+public class BuildSrcClasspathReuse {
+    /**
+     * Enables reuse of the buildSrc classpath.
+     */
+    public static final String REUSE_PROPERTY = "org.gradle.internal.buildsrc.reuse";
+
+    private static final Logger LOGGER = Logging.getLogger(BuildSrcClasspathReuse.class);
+    private static final String RECORD_FILE_NAME = "classpath.bin";
+    private static final Pattern PARENT_DIRECTORY_REFERENCE = Pattern.compile("\\.\\.[/\\\\'\"]|parentFile|getParentFile|\\.parent\\b");
+    private static final Set<String> IGNORED_ENVIRONMENT_VARIABLES = ImmutableSet.of("_", "PWD", "OLDPWD", "SHLVL", "TERM_SESSION_ID", "SECURITYSESSIONID");
+
+    private final File recordFile;
+    private final StartParameter startParameter;
+    private final Map<String, String> environment;
+
+    public BuildSrcClasspathReuse(File cacheDir, StartParameter startParameter) {
+        this(cacheDir, startParameter, System.getenv());
+    }
+
+    BuildSrcClasspathReuse(File cacheDir, StartParameter startParameter, Map<String, String> environment) {
+        this.recordFile = new File(cacheDir, RECORD_FILE_NAME);
+        this.startParameter = startParameter;
+        this.environment = environment;
+    }
+
+    public static boolean isEnabled(StartParameter startParameter) {
+        return Boolean.getBoolean(REUSE_PROPERTY) && !startParameter.isRefreshDependencies() && !startParameter.isRerunTasks();
+    }
+
+    /**
+     * Returns the recorded classpath, or null when there is none or when it or the buildSrc inputs have changed.
+     */
+    @Nullable
+    public ClassPath loadIfUnchanged() {
+        if (!recordFile.isFile()) {
+            return null;
+        }
+        List<File> classpath = new ArrayList<File>();
+        String inputsHash;
+        String classpathHash;
+        try {
+            InputStreamBackedDecoder decoder = new InputStreamBackedDecoder(new BufferedInputStream(new FileInputStream(recordFile)));
+            try {
+                inputsHash = decoder.readString();
+                int count = decoder.readSmallInt();
+                for (int i = 0; i < count; i++) {
+                    classpath.add(new File(decoder.readString()));
+                }
+                classpathHash = decoder.readString();
+            } finally {
+                decoder.close();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not read recorded buildSrc classpath from {}.", recordFile, e);
+            return null;
+        }
+        if (!inputsHash.equals(hashInputs())) {
+            LOGGER.debug("Inputs of buildSrc have changed since the classpath was recorded.");
+            return null;
+        }
+        for (File file : classpath) {
+            if (!file.exists()) {
+                LOGGER.debug("Recorded buildSrc classpath entry {} no longer exists.", file);
+                return null;
+            }
+        }
+        if (!classpathHash.equals(hashClasspath(classpath))) {
+            LOGGER.debug("Recorded buildSrc classpath has changed.");
+            return null;
+        }
+        return new DefaultClassPath(classpath);
+    }
+
+    /**
+     * Records the classpath produced by the buildSrc build for the current inputs.
+     */
+    public void store(ClassPath classpath) {
+        List<File> files = classpath.getAsFiles();
+        try {
+            OutputStreamBackedEncoder encoder = new OutputStreamBackedEncoder(new BufferedOutputStream(new FileOutputStream(recordFile)));
+            try {
+                encoder.writeString(hashInputs());
+                encoder.writeSmallInt(files.size());
+                for (File file : files) {
+                    encoder.writeString(file.getAbsolutePath());
+                }
+                encoder.writeString(hashClasspath(files));
+            } finally {
+                encoder.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Discards the recorded classpath, if any, so that the next build runs the buildSrc build.
+     */
+    public void discard() {
+        if (recordFile.exists() && !recordFile.delete()) {
+            throw new UncheckedIOException(String.format("Could not delete %s.", recordFile));
+        }
+    }
+
+    /**
+     * Returns true when one of the given scripts, applied by the buildSrc build, may use files that are not inputs of buildSrc.
+     * That is a script that is neither a file in the buildSrc directory nor a user init script, or a script in the buildSrc directory that refers to a parent directory.
+     */
+    public boolean mayUseFilesOutsideOfInputs(Collection<ScriptSource> scripts) {
+        File buildSrcDir = FileUtils.normalize(startParameter.getCurrentDir());
+        Set<File> initScripts = new HashSet<File>();
+        for (File initScript : userInitScripts()) {
+            initScripts.add(FileUtils.normalize(initScript));
+        }
+        for (ScriptSource script : scripts) {
+            File file = script.getResource().getLocation().getFile();
+            if (file == null) {
+                LOGGER.debug("buildSrc applies {}, which is not a file.", script.getDisplayName());
+                return true;
+            }
+            file = FileUtils.normalize(file);
+            if (initScripts.contains(file)) {
+                continue;
+            }
+            if (!isWithin(file, buildSrcDir)) {
+                LOGGER.debug("buildSrc applies {}, which is outside of the buildSrc directory.", script.getDisplayName());
+                return true;
+            }
+            if (script.getResource().getExists() && PARENT_DIRECTORY_REFERENCE.matcher(script.getResource().getText()).find()) {
+                LOGGER.debug("{} refers to a parent directory.", script.getDisplayName());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<File> userInitScripts() {
+        List<File> initScripts = new ArrayList<File>(startParameter.getInitScripts());
+        File gradleUserHome = startParameter.getGradleUserHomeDir();
+        initScripts.add(new File(gradleUserHome, "init.gradle"));
+        File[] initDirScripts = new File(gradleUserHome, "init.d").listFiles();
+        if (initDirScripts != null) {
+            initScripts.addAll(Arrays.asList(initDirScripts));
+        }
+        return initScripts;
+    }
+
+    private static boolean isWithin(File file, File dir) {
+        for (File current = file; current != null; current = current.getParentFile()) {
+            if (current.equals(dir)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String hashInputs() {
+        Hasher hasher = Hashing.md5().newHasher();
+        File buildSrcDir = startParameter.getCurrentDir();
+        hashTree(buildSrcDir, buildSrcDir, hasher);
+        File gradleUserHome = startParameter.getGradleUserHomeDir();
+        hashFile(new File(gradleUserHome, "gradle.properties"), hasher);
+        hashFile(new File(gradleUserHome, "init.gradle"), hasher);
+        hashTree(new File(gradleUserHome, "init.d"), null, hasher);
+        for (File initScript : startParameter.getInitScripts()) {
+            hashFile(initScript, hasher);
+        }
+        hashMap(startParameter.getProjectProperties(), hasher);
+        hashMap(startParameter.getSystemPropertiesArgs(), hasher);
+        hasher.putBoolean(startParameter.isOffline());
+        Map<String, String> relevantEnvironment = new TreeMap<String, String>(environment);
+        relevantEnvironment.keySet().removeAll(IGNORED_ENVIRONMENT_VARIABLES);
+        hashMap(relevantEnvironment, hasher);
+        hasher.putString(System.getProperty("java.home"));
+        hasher.putString(System.getProperty("java.version"));
+        hasher.putString(GradleVersion.current().getVersion());
+        return hasher.hash().toString();
+    }
+
+    private static String hashClasspath(List<File> classpath) {
+        Hasher hasher = Hashing.md5().newHasher();
+        for (File file : classpath) {
+            hashTree(file, null, hasher);
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Hashes the given file or directory tree. When a buildSrc directory is given, its build output and state directories are ignored.
+     */
+    private static void hashTree(File file, @Nullable File buildSrcDir, Hasher hasher) {
+        if (!file.isDirectory()) {
+            hashFile(file, hasher);
+            return;
+        }
+        File[] children = file.listFiles();
+        if (children == null) {
+            return;
+        }
+        Arrays.sort(children);
+        for (File child : children) {
+            if (file.equals(buildSrcDir) && (child.getName().equals("build") || child.getName().equals(".gradle"))) {
+                continue;
+            }
+            hashTree(child, buildSrcDir, hasher);
+        }
+    }
+
+    private static void hashFile(File file, Hasher hasher) {
+        hasher.putString(file.getAbsolutePath());
+        hasher.putBoolean(file.isFile());
+        hasher.putLong(file.length());
+        hasher.putLong(file.lastModified());
+    }
+
+    private static void hashMap(Map<String, String> values, Hasher hasher) {
+        hasher.putInt(values.size());
+        for (Map.Entry<String, String> entry : new TreeMap<String, String>(values).entrySet()) {
+            hasher.putString(entry.getKey());
+            hasher.putString(String.valueOf(entry.getValue()));
+        }
+    }
+}
@@ -21,6 +21,7 @@ import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.cache.PersistentCache;
+import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.internal.Factory;
 import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.invocation.BuildController;
@@ -28,11 +29,14 @@ import org.gradle.internal.invocation.BuildController;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 public class BuildSrcUpdateFactory implements Factory<DefaultClassPath> {
     private final PersistentCache cache;
     private final BuildController buildController;
     private BuildSrcBuildListenerFactory listenerFactory;
+    private BuildSrcBuildListenerFactory.Listener listener;
     private static final Logger LOGGER = Logging.getLogger(BuildSrcUpdateFactory.class);
 
     public BuildSrcUpdateFactory(PersistentCache cache, BuildController buildController, BuildSrcBuildListenerFactory listenerFactory) {
@@ -55,8 +59,22 @@ public class BuildSrcUpdateFactory implements Factory<DefaultClassPath> {
         return new DefaultClassPath(classpath);
     }
 
+    /**
+     * Returns true when the buildSrc build that produced the classpath declares dynamic or changing dependencies.
+     */
+    public boolean hasDynamicOrChangingDependencies() {
+        return listener != null && listener.hasDynamicOrChangingDependencies();
+    }
+
+    /**
+     * Returns the scripts that were applied by the buildSrc build that produced the classpath.
+     */
+    public List<ScriptSource> getAppliedScripts() {
+        return listener == null ? Collections.<ScriptSource>emptyList() : listener.getAppliedScripts();
+    }
+
     private Collection<File> build(boolean rebuild) {
-        BuildSrcBuildListenerFactory.Listener listener = listenerFactory.create(rebuild);
+        listener = listenerFactory.create(rebuild);
         GradleInternal gradle = buildController.getGradle();
         gradle.addListener(listener);
 
@@ -53,6 +53,12 @@ public class DefaultFileHasher implements FileHasher {
 
     @Override
     public HashCode hash(FileTreeElement fileDetails) {
-        return hash(fileDetails.getFile());
+        // Read the content through the element, so that an element of an archive is hashed without being extracted
+        InputStream inputStream = fileDetails.open();
+        try {
+            return streamHasher.hash(inputStream);
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
     }
 }
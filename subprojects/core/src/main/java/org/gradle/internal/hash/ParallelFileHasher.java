@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.hash;
+
+import com.google.common.collect.Lists;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Hashes the files of a file tree, spreading the work across a bounded number of threads when there are enough files to make that worthwhile.
+ * The files must be files of the local file system, as they are hashed after the tree has been visited.
+ *
+ * <p>The threads are shared by all trees hashed until the hasher is stopped, so that the number of threads stays bounded when several trees
+ * are hashed at the same time.</p>
+ */
+public class ParallelFileHasher implements Stoppable {
+    private static final int MAX_PARALLEL_HASHES = Math.min(8, Runtime.getRuntime().availableProcessors());
+    private static final int MIN_FILES_FOR_PARALLEL_HASHING = 64;
+    private static final long MIN_SIZE_FOR_PARALLEL_HASHING = 4 * 1024 * 1024;
+
+    private final FileHasher hasher;
+    private final ExecutorFactory executorFactory;
+    private final int maxParallelHashes;
+    private final Object lock = new Object();
+    private ManagedExecutor executor;
+
+    public ParallelFileHasher(FileHasher hasher, @Nullable ExecutorFactory executorFactory) {
+        this(hasher, executorFactory, MAX_PARALLEL_HASHES);
+    }
+
+    ParallelFileHasher(FileHasher hasher, @Nullable ExecutorFactory executorFactory, int maxParallelHashes) {
+        this.hasher = hasher;
+        this.executorFactory = executorFactory;
+        this.maxParallelHashes = maxParallelHashes;
+    }
+
+    /**
+     * Returns the hashes of the given files, in the same order as the files.
+     */
+    public List<HashCode> hash(List<? extends FileTreeElement> files) {
+        if (!shouldHashInParallel(files)) {
+            List<HashCode> hashes = Lists.newArrayListWithCapacity(files.size());
+            for (FileTreeElement file : files) {
+                hashes.add(hasher.hash(file));
+            }
+            return hashes;
+        }
+
+        ManagedExecutor executor = getExecutor();
+        List<Future<HashCode>> pendingHashes = Lists.newArrayListWithCapacity(files.size());
+        for (final FileTreeElement file : files) {
+            pendingHashes.add(executor.submit(new Callable<HashCode>() {
+                @Override
+                public HashCode call() {
+                    return hasher.hash(file);
+                }
+            }));
+        }
+        List<HashCode> hashes = Lists.newArrayListWithCapacity(files.size());
+        try {
+            for (Future<HashCode> pendingHash : pendingHashes) {
+                hashes.add(pendingHash.get());
+            }
+        } catch (InterruptedException e) {
+            cancel(pendingHashes);
+            throw UncheckedException.throwAsUncheckedException(e);
+        } catch (ExecutionException e) {
+            cancel(pendingHashes);
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+        return hashes;
+    }
+
+    private ManagedExecutor getExecutor() {
+        synchronized (lock) {
+            if (executor == null) {
+                executor = executorFactory.create("File hashing", maxParallelHashes);
+            }
+            return executor;
+        }
+    }
+
+    private static void cancel(List<Future<HashCode>> pendingHashes) {
+        for (Future<HashCode> pendingHash : pendingHashes) {
+            pendingHash.cancel(false);
+        }
+    }
+
+    @Override
+    public void stop() {
+        ManagedExecutor executor;
+        synchronized (lock) {
+            executor = this.executor;
+            this.executor = null;
+        }
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+
+    private boolean shouldHashInParallel(List<? extends FileTreeElement> files) {
+        if (executorFactory == null || maxParallelHashes < 2 || files.size() < 2) {
+            return false;
+        }
+        if (files.size() >= MIN_FILES_FOR_PARALLEL_HASHING) {
+            return true;
+        }
+        long totalSize = 0;
+        for (FileTreeElement file : files) {
+            totalSize += file.getSize();
+        }
+        return totalSize >= MIN_SIZE_FOR_PARALLEL_HASHING;
+    }
+}
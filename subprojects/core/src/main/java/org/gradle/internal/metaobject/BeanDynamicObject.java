@@ -324,6 +324,21 @@ public class BeanDynamicObject extends AbstractDynamicObject {
             return null;
         }
 
+        @Nullable
+        protected MetaProperty lookupProperty(MetaClass metaClass, String name) {
+            MetaClassLookupCache cache = MetaClassLookupCache.of(metaClass);
+            if (cache == null) {
+                return findProperty(metaClass, name);
+            }
+            Object cached = cache.lookupProperty(name);
+            if (cached != MetaClassLookupCache.NOT_CACHED) {
+                return (MetaProperty) cached;
+            }
+            MetaProperty property = findProperty(metaClass, name);
+            cache.cacheProperty(name, property);
+            return property;
+        }
+
         /*
          * MetaClass.getMetaProperty(name) is very expensive when the property is not known.
          * Instead, we reach into the meta class to call a much more efficient lookup method.
@@ -331,7 +346,7 @@ public class BeanDynamicObject extends AbstractDynamicObject {
          * reflective call to save memory.
          */
         @Nullable
-        protected MetaProperty lookupProperty(MetaClass metaClass, String name) {
+        private MetaProperty findProperty(MetaClass metaClass, String name) {
             if (metaClass instanceof MetaClassImpl) {
                 try {
                     return (MetaProperty) META_PROP_METHOD.invoke(metaClass, name, false);
@@ -508,7 +523,17 @@ public class BeanDynamicObject extends AbstractDynamicObject {
 
         @Nullable
         protected MetaMethod lookupMethod(MetaClass metaClass, String name, Class[] arguments) {
-            return metaClass.pickMethod(name, arguments);
+            MetaClassLookupCache cache = MetaClassLookupCache.of(metaClass);
+            if (cache == null) {
+                return metaClass.pickMethod(name, arguments);
+            }
+            Object cached = cache.lookupMethod(name, arguments);
+            if (cached != MetaClassLookupCache.NOT_CACHED) {
+                return (MetaMethod) cached;
+            }
+            MetaMethod method = metaClass.pickMethod(name, arguments);
+            cache.cacheMethod(name, arguments, method);
+            return method;
         }
 
         protected DynamicInvokeResult invokeOpaqueMethod(MetaClass metaClass, String name, Object[] arguments) {
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.metaobject;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import groovy.lang.Closure;
+import groovy.lang.MetaClass;
+import groovy.lang.MetaClassImpl;
+import groovy.lang.MetaMethod;
+import groovy.lang.MetaProperty;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers how property and method names resolve against a meta-class, including the names that do not resolve, so that repeated
+ * dynamic access to objects of the same type does not search the meta-class each time.
+ *
+ * <p>Only plain {@link MetaClassImpl} instances are cached, as these do not change once initialized. Other meta-classes, such as
+ * {@link groovy.lang.ExpandoMetaClass}, can have members added at any time and are always searched.</p>
+ *
+ * <p>Method lookups are only cached when the argument types are loaded by the JVM or by Gradle, so that the cache does not retain the
+ * class loaders of build scripts. Closure arguments are keyed as {@link Closure}, as the closure classes of build scripts do not
+ * change how a method is selected.</p>
+ */
+class MetaClassLookupCache {
+    /**
+     * Disables the cache when set to {@code false}.
+     */
+    static final String ENABLED_PROPERTY = "org.gradle.internal.metaobject.lookup.cache";
+
+    /**
+     * Returned by the lookup methods when the name has not been looked up yet.
+     */
+    static final Object NOT_CACHED = new Object();
+
+    private static final boolean ENABLED = !"false".equals(System.getProperty(ENABLED_PROPERTY));
+    private static final Object MISSING = new Object();
+    private static final ClassLoader GRADLE_CLASS_LOADER = MetaClassLookupCache.class.getClassLoader();
+    private static final ClassLoader GROOVY_CLASS_LOADER = Closure.class.getClassLoader();
+    private static final LoadingCache<MetaClass, MetaClassLookupCache> CACHES = CacheBuilder.newBuilder().weakKeys().build(new CacheLoader<MetaClass, MetaClassLookupCache>() {
+        @Override
+        public MetaClassLookupCache load(MetaClass metaClass) {
+            return new MetaClassLookupCache();
+        }
+    });
+
+    private final ConcurrentMap<String, Object> properties = new ConcurrentHashMap<String, Object>();
+    private final ConcurrentMap<MethodKey, Object> methods = new ConcurrentHashMap<MethodKey, Object>();
+
+    /**
+     * Returns the cache for the given meta-class, or null when lookups against the meta-class cannot be cached.
+     */
+    @Nullable
+    static MetaClassLookupCache of(MetaClass metaClass) {
+        if (!ENABLED || metaClass.getClass() != MetaClassImpl.class) {
+            return null;
+        }
+        return CACHES.getUnchecked(metaClass);
+    }
+
+    /**
+     * Returns the property with the given name, null when there is no such property, or {@link #NOT_CACHED}.
+     */
+    @Nullable
+    Object lookupProperty(String name) {
+        return unpack(properties.get(name));
+    }
+
+    void cacheProperty(String name, @Nullable MetaProperty property) {
+        properties.put(name, pack(property));
+    }
+
+    /**
+     * Returns the method selected for the given name and argument types, null when there is no such method, or {@link #NOT_CACHED}.
+     */
+    @Nullable
+    Object lookupMethod(String name, Class[] argumentTypes) {
+        MethodKey key = keyFor(name, argumentTypes);
+        if (key == null) {
+            return NOT_CACHED;
+        }
+        return unpack(methods.get(key));
+    }
+
+    void cacheMethod(String name, Class[] argumentTypes, @Nullable MetaMethod method) {
+        MethodKey key = keyFor(name, argumentTypes);
+        if (key != null) {
+            methods.put(key, pack(method));
+        }
+    }
+
+    private static Object pack(@Nullable Object value) {
+        return value == null ? MISSING : value;
+    }
+
+    @Nullable
+    private static Object unpack(@Nullable Object value) {
+        if (value == null) {
+            return NOT_CACHED;
+        }
+        return value == MISSING ? null : value;
+    }
+
+    @Nullable
+    private static MethodKey keyFor(String name, Class[] argumentTypes) {
+        Class[] keyTypes = argumentTypes;
+        for (int i = 0; i < argumentTypes.length; i++) {
+            Class<?> argumentType = argumentTypes[i];
+            if (argumentType == null) {
+                continue;
+            }
+            if (Closure.class.isAssignableFrom(argumentType)) {
+                if (keyTypes == argumentTypes) {
+                    keyTypes = argumentTypes.clone();
+                }
+                keyTypes[i] = Closure.class;
+                continue;
+            }
+            ClassLoader classLoader = argumentType.getClassLoader();
+            if (classLoader != null && classLoader != GRADLE_CLASS_LOADER && classLoader != GROOVY_CLASS_LOADER) {
+                return null;
+            }
+        }
+        return new MethodKey(name, keyTypes);
+    }
+
+    private static class MethodKey {
+        private final String name;
+        private final Class[] argumentTypes;
+        private final int hashCode;
+
+        MethodKey(String name, Class[] argumentTypes) {
+            this.name = name;
+            this.argumentTypes = argumentTypes;
+            this.hashCode = 31 * name.hashCode() + Arrays.hashCode(argumentTypes);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof MethodKey)) {
+                return false;
+            }
+            MethodKey other = (MethodKey) obj;
+            return name.equals(other.name) && Arrays.equals(argumentTypes, other.argumentTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
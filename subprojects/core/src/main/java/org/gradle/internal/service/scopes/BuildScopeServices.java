@@ -78,6 +78,7 @@ import org.gradle.cache.CacheValidator;
 import org.gradle.caching.internal.BuildCacheServices;
 import org.gradle.composite.internal.IncludedBuildRegistry;
 import org.gradle.configuration.BuildConfigurer;
+import org.gradle.configuration.BuildScriptPrecompiler;
 import org.gradle.configuration.DefaultBuildConfigurer;
 import org.gradle.configuration.DefaultInitScriptProcessor;
 import org.gradle.configuration.DefaultScriptPluginFactory;
@@ -88,6 +89,7 @@ import org.gradle.configuration.project.BuildScriptProcessor;
 import org.gradle.configuration.project.ConfigureActionsProjectEvaluator;
 import org.gradle.configuration.project.DelayedConfigurationActions;
 import org.gradle.configuration.project.LifecycleProjectEvaluator;
+import org.gradle.configuration.project.ParallelProjectConfigurationGuard;
 import org.gradle.configuration.project.PluginsProjectConfigureActions;
 import org.gradle.configuration.project.ProjectEvaluator;
 import org.gradle.execution.ProjectConfigurer;
@@ -153,6 +155,7 @@ import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.time.Clock;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.model.internal.inspect.ModelRuleSourceDetector;
 import org.gradle.plugin.management.internal.autoapply.AutoAppliedPluginHandler;
 import org.gradle.plugin.use.internal.PluginRequestApplicator;
@@ -185,8 +188,8 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         return new DefaultProjectRegistry<ProjectInternal>();
     }
 
-    protected IProjectFactory createProjectFactory(Instantiator instantiator, ProjectRegistry<ProjectInternal> projectRegistry) {
-        return new ProjectFactory(instantiator, projectRegistry);
+    protected IProjectFactory createProjectFactory(Instantiator instantiator, ProjectRegistry<ProjectInternal> projectRegistry, ParallelProjectConfigurationGuard parallelProjectConfigurationGuard) {
+        return new ProjectFactory(instantiator, projectRegistry, parallelProjectConfigurationGuard);
     }
 
     protected ListenerManager createListenerManager(ListenerManager listenerManager) {
@@ -224,13 +227,17 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         );
     }
 
-    protected ProjectEvaluator createProjectEvaluator(BuildOperationExecutor buildOperationExecutor, CachingServiceLocator cachingServiceLocator, ScriptPluginFactory scriptPluginFactory) {
+    protected ParallelProjectConfigurationGuard createParallelProjectConfigurationGuard() {
+        return new ParallelProjectConfigurationGuard();
+    }
+
+    protected ProjectEvaluator createProjectEvaluator(BuildOperationExecutor buildOperationExecutor, CachingServiceLocator cachingServiceLocator, ScriptPluginFactory scriptPluginFactory, ParallelProjectConfigurationGuard parallelProjectConfigurationGuard) {
         ConfigureActionsProjectEvaluator withActionsEvaluator = new ConfigureActionsProjectEvaluator(
             PluginsProjectConfigureActions.from(cachingServiceLocator),
             new BuildScriptProcessor(scriptPluginFactory),
             new DelayedConfigurationActions()
         );
-        return new LifecycleProjectEvaluator(buildOperationExecutor, withActionsEvaluator);
+        return new LifecycleProjectEvaluator(buildOperationExecutor, withActionsEvaluator, parallelProjectConfigurationGuard);
     }
 
     protected TaskClassValidatorExtractor createTaskClassValidatorExtractor(List<PropertyAnnotationHandler> annotationHandlers) {
@@ -376,8 +383,12 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         return new TaskPathProjectEvaluator(cancellationToken);
     }
 
-    protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer) {
-        return new DefaultBuildConfigurer(projectConfigurer);
+    protected BuildScriptPrecompiler createBuildScriptPrecompiler(CrossBuildInMemoryCachingScriptClassCache cache, FileCacheBackedScriptClassCompiler scriptCompiler, DocumentationRegistry documentationRegistry, BuildOperationExecutor buildOperationExecutor) {
+        return new BuildScriptPrecompiler(cache, scriptCompiler, documentationRegistry, buildOperationExecutor);
+    }
+
+    protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer, BuildOperationExecutor buildOperationExecutor, WorkerLeaseService workerLeaseService, ParallelProjectConfigurationGuard parallelProjectConfigurationGuard, BuildScriptPrecompiler buildScriptPrecompiler) {
+        return new DefaultBuildConfigurer(projectConfigurer, buildOperationExecutor, workerLeaseService, parallelProjectConfigurationGuard, buildScriptPrecompiler);
     }
 
     protected ProjectAccessListener createProjectAccessListener() {
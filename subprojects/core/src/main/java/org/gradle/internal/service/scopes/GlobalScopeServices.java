@@ -27,6 +27,7 @@ import org.gradle.api.internal.DefaultClassPathRegistry;
 import org.gradle.api.internal.DefaultInstantiatorFactory;
 import org.gradle.api.internal.DynamicModulesClassPathProvider;
 import org.gradle.api.internal.InstantiatorFactory;
+import org.gradle.api.internal.PersistentGeneratedClassCache;
 import org.gradle.api.internal.StartParameterInternal;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
@@ -225,8 +226,12 @@ public class GlobalScopeServices extends BasicGlobalScopeServices {
         return messagingServices.get(MessagingServer.class);
     }
 
-    ClassGenerator createClassGenerator() {
-        return new AsmBackedClassGenerator();
+    PersistentGeneratedClassCache createPersistentGeneratedClassCache() {
+        return new PersistentGeneratedClassCache();
+    }
+
+    ClassGenerator createClassGenerator(PersistentGeneratedClassCache generatedClassCache) {
+        return new AsmBackedClassGenerator(generatedClassCache);
     }
 
     Instantiator createInstantiator(InstantiatorFactory instantiatorFactory) {
@@ -19,6 +19,7 @@ package org.gradle.internal.service.scopes;
 import org.gradle.api.internal.ClassPathRegistry;
 import org.gradle.api.internal.DefaultClassPathProvider;
 import org.gradle.api.internal.DefaultClassPathRegistry;
+import org.gradle.api.internal.PersistentGeneratedClassCache;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.changedetection.state.CachingFileHasher;
 import org.gradle.api.internal.changedetection.state.ClasspathSnapshotter;
@@ -43,10 +44,16 @@ import org.gradle.api.internal.initialization.loadercache.DefaultClassLoaderCach
 import org.gradle.api.internal.initialization.loadercache.DefaultClasspathHasher;
 import org.gradle.api.internal.model.NamedObjectInstantiator;
 import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
 import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.internal.CacheFactory;
 import org.gradle.cache.internal.CacheRepositoryServices;
 import org.gradle.cache.internal.CacheScopeMapping;
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.cache.internal.DefaultCacheRepository;
+import org.gradle.cache.internal.DefaultCacheScopeMapping;
+import org.gradle.cache.internal.VersionStrategy;
 import org.gradle.groovy.scripts.internal.CrossBuildInMemoryCachingScriptClassCache;
 import org.gradle.groovy.scripts.internal.DefaultScriptSourceHasher;
 import org.gradle.groovy.scripts.internal.RegistryAwareClassLoaderHierarchyHasher;
@@ -82,13 +89,18 @@ import org.gradle.process.internal.health.memory.MemoryManager;
 import org.gradle.process.internal.worker.DefaultWorkerProcessFactory;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 import org.gradle.process.internal.worker.child.WorkerProcessClassPathProvider;
+import org.gradle.util.GradleVersion;
 
 import java.util.List;
 
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
 /**
  * Defines the shared services scoped to a particular Gradle user home directory. These services are reused across multiple builds and operations.
  */
 public class GradleUserHomeScopeServices {
+    private static final int GENERATED_CLASSES_MAX_UNUSED_DAYS = 30;
+
     private final ServiceRegistry globalServices;
 
     public GradleUserHomeScopeServices(ServiceRegistry globalServices) {
@@ -97,6 +109,18 @@ public class GradleUserHomeScopeServices {
 
     public void configure(ServiceRegistration registration, GradleUserHomeDirProvider userHomeDirProvider) {
         registration.addProvider(new CacheRepositoryServices(userHomeDirProvider.getGradleUserHomeDirectory(), null));
+        if (PersistentGeneratedClassCache.isEnabled()) {
+            CacheScopeMapping cacheScopeMapping = new DefaultCacheScopeMapping(userHomeDirProvider.getGradleUserHomeDirectory(), null, GradleVersion.current());
+            PersistentCache generatedClassesCache = new DefaultCacheRepository(cacheScopeMapping, globalServices.get(CacheFactory.class))
+                .cache(cacheScopeMapping.getBaseDirectory(null, "generated-classes", VersionStrategy.CachePerVersion))
+                .withDisplayName("generated classes cache")
+                .withLockOptions(mode(FileLockManager.LockMode.None))
+                .withCleanup(new PersistentGeneratedClassCache.UnusedClassesCleanup(GENERATED_CLASSES_MAX_UNUSED_DAYS))
+                .open();
+            // Detached and closed when the services for this user home are stopped
+            PersistentGeneratedClassCache.AttachedDirectory generatedClassesDir = globalServices.get(PersistentGeneratedClassCache.class).attach(generatedClassesCache);
+            registration.add(PersistentGeneratedClassCache.AttachedDirectory.class, generatedClassesDir);
+        }
         for (PluginServiceRegistry plugin : globalServices.getAll(PluginServiceRegistry.class)) {
             plugin.registerGradleUserHomeServices(registration);
         }
@@ -28,6 +28,7 @@ import org.gradle.api.internal.initialization.ClassLoaderScope;
 import org.gradle.api.internal.project.DefaultProject;
 import org.gradle.api.internal.project.IProjectFactory;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.configuration.project.ParallelProjectConfigurationGuard;
 import org.gradle.groovy.scripts.StringScriptSource;
 import org.gradle.initialization.BuildRequestMetaData;
 import org.gradle.initialization.DefaultBuildRequestMetaData;
@@ -69,7 +70,8 @@ public class ProjectBuilderImpl {
             parentProject.getGradle(),
             parentProject.getGradle().getServiceRegistryFactory(),
             parentProject.getClassLoaderScope().createChild("project-" + name),
-            parentProject.getBaseClassLoaderScope()
+            parentProject.getBaseClassLoaderScope(),
+            parentProject.getServices().get(ParallelProjectConfigurationGuard.class)
         );
         parentProject.addChildProject(project);
         parentProject.getProjectRegistry().addProject(project);
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal
+
+import org.gradle.cache.PersistentCache
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.ToolProvider
+import java.util.concurrent.TimeUnit
+
+class PersistentGeneratedClassCacheTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def cache = new PersistentGeneratedClassCache()
+
+    def "does not provide keys until a directory is attached"() {
+        expect:
+        cache.keyFor(ArrayList, "generator") == null
+
+        when:
+        cache.attach(tmpDir.file("cache"))
+
+        then:
+        cache.keyFor(ArrayList, "generator") != null
+    }
+
+    def "key depends on type, supertypes and generator"() {
+        given:
+        cache.attach(tmpDir.file("cache"))
+
+        expect:
+        cache.keyFor(SubType, "generator") == cache.keyFor(SubType, "generator")
+        cache.keyFor(SubType, "generator") != cache.keyFor(SubType, "other")
+        cache.keyFor(SubType, "generator") != cache.keyFor(SuperType, "generator")
+    }
+
+    def "key depends on the types of the properties of the type"() {
+        given:
+        cache.attach(tmpDir.file("cache"))
+        def holder = "public class Holder { public PropType getProp() { return null; } }"
+        def first = compile("first", PropType: "public class PropType { }", Holder: holder)
+        def second = compile("second", PropType: "public class PropType implements Iterable<String> { public java.util.Iterator<String> iterator() { return null; } }", Holder: holder)
+
+        expect:
+        cache.keyFor(first.loadClass("Holder"), "generator") != cache.keyFor(second.loadClass("Holder"), "generator")
+    }
+
+    def "key depends on the annotations of the type"() {
+        given:
+        cache.attach(tmpDir.file("cache"))
+        def annotated = "@Marker public class Annotated { }"
+        def first = compile("first", Marker: "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME) public @interface Marker { }", Annotated: annotated)
+        def second = compile("second", Marker: "@java.lang.annotation.Inherited @java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME) public @interface Marker { }", Annotated: annotated)
+
+        expect:
+        cache.keyFor(first.loadClass("Annotated"), "generator") != cache.keyFor(second.loadClass("Annotated"), "generator")
+    }
+
+    def "does not provide key for type without class file"() {
+        given:
+        cache.attach(tmpDir.file("cache"))
+        def type = new GroovyClassLoader(getClass().classLoader).parseClass("class Generated { }")
+
+        expect:
+        cache.keyFor(type, "generator") == null
+    }
+
+    def "loads stored bytecode"() {
+        given:
+        cache.attach(tmpDir.file("cache"))
+        def key = cache.keyFor(SubType, "generator")
+        byte[] bytecode = [1, 2, 3]
+
+        expect:
+        cache.load(key) == null
+
+        when:
+        cache.store(key, bytecode)
+
+        then:
+        cache.load(key) == bytecode
+        tmpDir.file("cache").list() as List == ["${key}.class"]
+
+        and:
+        def otherCache = new PersistentGeneratedClassCache()
+        otherCache.attach(tmpDir.file("cache"))
+        otherCache.load(otherCache.keyFor(SubType, "generator")) == bytecode
+    }
+
+    def "stores classes in each attached directory until it is detached"() {
+        given:
+        def first = cache.attach(tmpDir.file("first"))
+        def second = cache.attach(tmpDir.file("second"))
+        def key = cache.keyFor(SubType, "generator")
+        byte[] bytecode = [1, 2, 3]
+
+        when:
+        cache.store(key, bytecode)
+
+        then:
+        tmpDir.file("first").list() as List == ["${key}.class"]
+        tmpDir.file("second").list() as List == ["${key}.class"]
+
+        when:
+        first.stop()
+        tmpDir.file("first/${key}.class").delete()
+        cache.store(key, bytecode)
+
+        then:
+        tmpDir.file("first").list() as List == []
+        cache.load(key) == bytecode
+
+        when:
+        second.stop()
+
+        then:
+        cache.keyFor(SubType, "generator") == null
+        cache.load(key) == null
+    }
+
+    def "loading a class marks it as used"() {
+        given:
+        cache.attach(tmpDir.file("cache"))
+        def key = cache.keyFor(SubType, "generator")
+        cache.store(key, [1, 2, 3] as byte[])
+        def file = tmpDir.file("cache/${key}.class")
+        file.lastModified = daysAgo(10)
+
+        when:
+        cache.load(key)
+
+        then:
+        file.lastModified() > daysAgo(1)
+    }
+
+    def "cleanup removes classes that have not been used for some time"() {
+        def dir = tmpDir.createDir("cache")
+        def unused = dir.file("unused.class").createFile()
+        unused.lastModified = daysAgo(31)
+        def used = dir.file("used.class").createFile()
+        used.lastModified = daysAgo(29)
+        def leftOver = dir.file("left-over.tmp").createFile()
+        leftOver.lastModified = daysAgo(2)
+        def inProgress = dir.file("in-progress.tmp").createFile()
+        def properties = dir.file("cache.properties").createFile()
+        properties.lastModified = daysAgo(31)
+        def persistentCache = Stub(PersistentCache) {
+            getBaseDir() >> dir
+        }
+
+        when:
+        new PersistentGeneratedClassCache.UnusedClassesCleanup(30).execute(persistentCache)
+
+        then:
+        !unused.exists()
+        used.exists()
+        !leftOver.exists()
+        inProgress.exists()
+        properties.exists()
+    }
+
+    def "stopping a directory attached for a persistent cache closes the cache"() {
+        def persistentCache = Mock(PersistentCache) {
+            getBaseDir() >> tmpDir.file("cache")
+        }
+
+        given:
+        def attached = cache.attach(persistentCache)
+        def key = cache.keyFor(SubType, "generator")
+        cache.store(key, [1, 2, 3] as byte[])
+
+        expect:
+        tmpDir.file("cache").list() as List == ["${key}.class"]
+
+        when:
+        attached.stop()
+
+        then:
+        1 * persistentCache.close()
+        cache.keyFor(SubType, "generator") == null
+    }
+
+    def "generator stores generated class"() {
+        given:
+        cache.attach(tmpDir.file("cache"))
+        def generator = new AsmBackedClassGenerator(cache)
+
+        when:
+        def generated = generator.generate(StoredType)
+
+        then:
+        generated.name == StoredType.name + "_Decorated"
+        cache.load(cache.keyFor(StoredType, "decorated-1")) != null
+    }
+
+    private static long daysAgo(int days) {
+        return System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days)
+    }
+
+    private ClassLoader compile(Map<String, String> sources, String name) {
+        def sourceDir = tmpDir.file(name, "src")
+        def classesDir = tmpDir.createDir(name, "classes")
+        def sourceFiles = sources.collect { className, source ->
+            sourceDir.file(className + ".java").write(source).path
+        }
+        assert ToolProvider.systemJavaCompiler.run(null, null, null, ["-d", classesDir.path] + sourceFiles as String[]) == 0
+        return new URLClassLoader([classesDir.toURI().toURL()] as URL[], getClass().classLoader)
+    }
+
+    static class SuperType {
+    }
+
+    static class SubType extends SuperType {
+    }
+
+    static class StoredType {
+        String prop
+    }
+}
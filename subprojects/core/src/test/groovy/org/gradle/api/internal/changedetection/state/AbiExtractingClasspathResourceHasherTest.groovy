@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.hash.Hashing
+import org.gradle.internal.serialize.HashCodeSerializer
+import org.gradle.testfixtures.internal.InMemoryIndexedCache
+import spock.lang.Specification
+
+import java.util.zip.ZipEntry
+
+class AbiExtractingClasspathResourceHasherTest extends Specification {
+    def classBytes = String.getResourceAsStream("/java/lang/String.class").bytes
+
+    def "caches ABI hash of class in jar by content of the class"() {
+        def cacheService = Mock(ResourceSnapshotterCacheService)
+        def hasher = new AbiExtractingClasspathResourceHasher(cacheService)
+        def hash = HashCode.fromInt(123)
+
+        when:
+        def result = hasher.hash(new ZipEntry("java/lang/String.class"), new ByteArrayInputStream(classBytes))
+
+        then:
+        1 * cacheService.hashContent(Hashing.md5().hashBytes(classBytes), _, _) >> hash
+        result == hash
+    }
+
+    def "cached ABI hash of class in jar is the same as uncached hash"() {
+        def cacheService = new ResourceSnapshotterCacheService(new InMemoryIndexedCache(new HashCodeSerializer()))
+        def hasher = new AbiExtractingClasspathResourceHasher(cacheService)
+        def expected = new AbiExtractingClasspathResourceHasher().hash(new ZipEntry("java/lang/String.class"), new ByteArrayInputStream(classBytes))
+
+        expect:
+        expected != null
+        hasher.hash(new ZipEntry("java/lang/String.class"), new ByteArrayInputStream(classBytes)) == expected
+        hasher.hash(new ZipEntry("java/lang/String.class"), new ByteArrayInputStream(classBytes)) == expected
+    }
+
+    def "ignores resources in jar"() {
+        def cacheService = Mock(ResourceSnapshotterCacheService)
+        def hasher = new AbiExtractingClasspathResourceHasher(cacheService)
+
+        when:
+        def result = hasher.hash(new ZipEntry("META-INF/MANIFEST.MF"), new ByteArrayInputStream(new byte[0]))
+
+        then:
+        result == null
+        0 * cacheService._
+    }
+}
@@ -18,6 +18,7 @@ package org.gradle.api.internal.changedetection.state
 
 import org.gradle.api.file.FileTreeElement
 import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.DefaultFileTreeElement
 import org.gradle.api.internal.changedetection.state.CachingFileHasher.FileInfo
 import org.gradle.api.internal.file.TestFiles
 import org.gradle.cache.PersistentIndexedCache
@@ -148,7 +149,7 @@ class CachingFileHasherTest extends Specification {
     def hashesFileDetails() {
         long lastModified = 123l
         long length = 321l
-        def fileDetails = Mock(FileTreeElement)
+        def fileDetails = Mock(DefaultFileTreeElement)
 
         when:
         def result = hasher.hash(fileDetails)
@@ -171,6 +172,20 @@ class CachingFileHasherTest extends Specification {
         0 * _._
     }
 
+    def hashesContentOfFileDetailsThatAreNotALocalFile() {
+        def fileDetails = Mock(FileTreeElement)
+
+        when:
+        def result = hasher.hash(fileDetails)
+
+        then:
+        result == hash
+
+        and:
+        1 * target.hash(fileDetails) >> hash
+        0 * _._
+    }
+
     def hashesGivenFileMetadataSnapshot() {
         long lastModified = 123l
         long length = 321l
@@ -20,7 +20,9 @@ import org.gradle.api.internal.cache.StringInterner
 import org.gradle.api.internal.file.TestFiles
 import org.gradle.api.internal.file.collections.DirectoryFileTree
 import org.gradle.caching.internal.DefaultBuildCacheHasher
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.file.FileType
+import org.gradle.internal.hash.ParallelFileHasher
 import org.gradle.internal.hash.TestFileHasher
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
@@ -126,6 +128,32 @@ class DefaultFileSystemSnapshotterTest extends Specification {
         snapshot3.is(snapshot)
     }
 
+    def "hashes files of a large directory tree in parallel"() {
+        def d = tmpDir.createDir("d")
+        100.times {
+            d.file("d${it % 7}/f${it}").text = "content ${it}"
+        }
+        def executorFactory = new DefaultExecutorFactory()
+        def treeHasher = new ParallelFileHasher(fileHasher, executorFactory)
+        def parallelSnapshotter = new DefaultFileSystemSnapshotter(fileHasher, new StringInterner(), TestFiles.fileSystem(), TestFiles.directoryFileTreeFactory(), new DefaultFileSystemMirror([]), treeHasher)
+
+        when:
+        def snapshot = parallelSnapshotter.snapshotDirectoryTree(d)
+        def expected = snapshotter.snapshotDirectoryTree(d)
+
+        then:
+        snapshot.descendants.size() == 107
+        snapshot.descendants*.path == expected.descendants*.path
+        snapshot.descendants*.content == expected.descendants*.content
+        snapshot.descendants.findAll { it.type == FileType.RegularFile }.every {
+            it.content == new FileHashSnapshot(fileHasher.hash(new File(it.path)), new File(it.path).lastModified())
+        }
+
+        cleanup:
+        treeHasher.stop()
+        executorFactory.stop()
+    }
+
     def "fetches details of a directory tree with patterns patterns and does not cache the result"() {
         def d = tmpDir.createDir("d")
         d.createFile("f1")
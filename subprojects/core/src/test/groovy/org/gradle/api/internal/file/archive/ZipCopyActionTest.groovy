@@ -15,15 +15,27 @@
  */
 package org.gradle.api.internal.file.archive
 
-import org.apache.tools.zip.Zip64RequiredException
+import org.apache.commons.compress.archivers.zip.Zip64RequiredException
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream
 import org.apache.tools.zip.ZipOutputStream
+import org.gradle.api.file.FileVisitDetails
+import org.gradle.api.file.FileVisitor
 import org.gradle.api.file.RelativePath
 import org.gradle.api.internal.DocumentationRegistry
 import org.gradle.api.internal.file.CopyActionProcessingStreamAction
+import org.gradle.api.internal.file.DefaultFileVisitDetails
+import org.gradle.api.internal.file.TestFiles
 import org.gradle.api.internal.file.copy.CopyActionProcessingStream
+import org.gradle.api.internal.file.copy.CopySpecResolver
+import org.gradle.api.internal.file.copy.DefaultFileCopyDetails
 import org.gradle.api.internal.file.copy.DefaultZipCompressor
 import org.gradle.api.internal.file.copy.FileCopyDetailsInternal
+import org.gradle.api.internal.file.copy.ParallelCopyExecutor
+import org.gradle.api.internal.file.copy.ZipCompressor
 import org.gradle.api.tasks.bundling.Zip
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.hash.HashCode
 import org.gradle.test.fixtures.archive.ZipTestFixture
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -32,6 +44,10 @@ import org.junit.Test
 import spock.lang.Specification
 
 import static org.gradle.api.internal.file.copy.CopyActionExecuterUtil.visit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.zip.ZipEntry
+import java.util.zip.ZipFile
+
 import static org.hamcrest.Matchers.equalTo
 
 class ZipCopyActionTest extends Specification {
@@ -45,7 +61,7 @@ class ZipCopyActionTest extends Specification {
 
     def setup() {
         zipFile = tmpDir.getTestDirectory().file("test.zip")
-        visitor = new ZipCopyAction(zipFile, new DefaultZipCompressor(false, ZipOutputStream.STORED), new DocumentationRegistry(), encoding, false)
+        visitor = new ZipCopyAction(zipFile, new DefaultZipCompressor(false, ZipArchiveOutputStream.STORED), new DocumentationRegistry(), encoding, false)
     }
 
     void createsZipFile() {
@@ -87,7 +103,7 @@ class ZipCopyActionTest extends Specification {
     void wrapsFailureToOpenOutputFile() {
         given:
         def invalidZipFile = tmpDir.createDir("test.zip")
-        visitor = new ZipCopyAction(invalidZipFile, new DefaultZipCompressor(false, ZipOutputStream.STORED), new DocumentationRegistry(), encoding, false)
+        visitor = new ZipCopyAction(invalidZipFile, new DefaultZipCompressor(false, ZipArchiveOutputStream.STORED), new DocumentationRegistry(), encoding, false)
 
         when:
         visitor.execute(new CopyActionProcessingStream() {
@@ -103,14 +119,14 @@ class ZipCopyActionTest extends Specification {
 
     void wrapsZip64Failure() {
         given:
-        def zipOutputStream = Mock(ZipOutputStream)
+        def zipOutputStream = Mock(ZipArchiveOutputStream)
         zipOutputStream.close() >> {
             throw new Zip64RequiredException("xyz")
         }
 
-        def compressor = new DefaultZipCompressor(false, ZipOutputStream.STORED) {
+        def compressor = new DefaultZipCompressor(false, ZipArchiveOutputStream.STORED) {
             @Override
-            ZipOutputStream createArchiveOutputStream(File destination) {
+            ZipArchiveOutputStream createZipArchiveOutputStream(File destination) {
                 zipOutputStream
             }
         }
@@ -144,6 +160,174 @@ class ZipCopyActionTest extends Specification {
         e.cause.is(failure)
     }
 
+    void deflatesFilesInParallelAndWritesEntriesInOrder() {
+        given:
+        def executorFactory = new DefaultExecutorFactory()
+        def copyExecutor = new ParallelCopyExecutor(executorFactory, 4)
+        def temporaryDir = tmpDir.createDir("tmp")
+        visitor = new ZipCopyAction(zipFile, new DefaultZipCompressor(false, ZipArchiveOutputStream.DEFLATED), new DocumentationRegistry(), encoding, false, copyExecutor, temporaryDir)
+        def entries = []
+        (1..20).each {
+            entries << localFile("src/file${it}.txt", "dir${it % 3}/file${it}.txt", "content of file ${it}\n" * (it * 100))
+            if (it % 5 == 0) {
+                entries << dir("dir${it}")
+            }
+        }
+        // Large enough to be compressed into a temporary file
+        entries << localFile("src/large.txt", "large.txt", "content of large file\n" * 100000)
+
+        when:
+        zip(entries as FileCopyDetailsInternal[])
+
+        then:
+        def zipContents = new ZipFile(zipFile)
+        zipContents.entries().toList()*.name == entries.collect { it.directory ? it.relativePath.pathString + "/" : it.relativePath.pathString }
+        (1..20).every {
+            def entry = zipContents.getEntry("dir${it % 3}/file${it}.txt")
+            entry.method == ZipEntry.DEFLATED && zipContents.getInputStream(entry).text == "content of file ${it}\n" * (it * 100)
+        }
+        zipContents.getInputStream(zipContents.getEntry("large.txt")).text == "content of large file\n" * 100000
+        temporaryDir.list().length == 0
+
+        cleanup:
+        zipContents?.close()
+        copyExecutor.stop()
+        executorFactory.stop()
+    }
+
+    void writesZipWithCompressorThatOnlyCreatesAntZipStream() {
+        given:
+        def delegate = new DefaultZipCompressor(false, ZipArchiveOutputStream.DEFLATED)
+        def compressor = new ZipCompressor() {
+            @Override
+            ZipOutputStream createArchiveOutputStream(File destination) {
+                delegate.createArchiveOutputStream(destination)
+            }
+        }
+        visitor = new ZipCopyAction(zipFile, compressor, new DocumentationRegistry(), encoding, false)
+
+        when:
+        zip(dir("dir"), file("dir/file1"), file("file2"))
+
+        then:
+        def zipContents = new ZipFile(zipFile)
+        zipContents.entries().toList()*.name == ["dir/", "dir/file1", "file2"]
+        zipContents.getEntry("file2").method == ZipEntry.DEFLATED
+
+        cleanup:
+        zipContents?.close()
+    }
+
+    void copiesCompressedEntriesOfOtherZipFileWithoutDecompressingThem() {
+        given:
+        def sourceDir = tmpDir.createDir("source")
+        sourceDir.file("file1.txt").text = "some content\n" * 1000
+        def sourceZip = tmpDir.file("source.zip")
+        sourceDir.zipTo(sourceZip)
+        visitor = new ZipCopyAction(zipFile, new DefaultZipCompressor(false, ZipArchiveOutputStream.DEFLATED), new DocumentationRegistry(), encoding, false)
+
+        when:
+        def zipTree = new ZipFileTree(sourceZip, tmpDir.file("expanded"), TestFiles.fileSystem(), TestFiles.directoryFileTreeFactory(), TestFiles.fileHasher())
+        zipTree.visit(new FileVisitor() {
+            void visitDir(FileVisitDetails dirDetails) {
+            }
+
+            void visitFile(FileVisitDetails fileDetails) {
+                zip(copyDetails(fileDetails))
+            }
+        })
+
+        then:
+        def source = new ZipFile(sourceZip)
+        def target = new ZipFile(zipFile)
+        def sourceEntry = source.getEntry("file1.txt")
+        def targetEntry = target.getEntry("file1.txt")
+        targetEntry.method == ZipEntry.DEFLATED
+        targetEntry.compressedSize == sourceEntry.compressedSize
+        targetEntry.crc == sourceEntry.crc
+        target.getInputStream(targetEntry).text == "some content\n" * 1000
+        !tmpDir.file("expanded").exists()
+
+        cleanup:
+        source?.close()
+        target?.close()
+    }
+
+    void reusesCompressedEntriesOfPreviousZipFileForFilesWithUnchangedContent() {
+        given:
+        def hashes = [:]
+        def fileHasher = Stub(FileHasher) {
+            hash(_ as File) >> { File file -> hashes[file.name] }
+        }
+        def manifestFile = tmpDir.file("tmp/entries.bin")
+        def compressor = new DefaultZipCompressor(false, ZipArchiveOutputStream.DEFLATED)
+        hashes["file1.txt"] = HashCode.fromInt(1)
+        hashes["file2.txt"] = HashCode.fromInt(2)
+        visitor = new ZipCopyAction(zipFile, compressor, new DocumentationRegistry(), encoding, false, null, null, new ReusableZipEntries(zipFile, manifestFile, fileHasher, encoding))
+        zip(localFile("src/file1.txt", "file1.txt", "original 1"), localFile("src/file2.txt", "file2.txt", "original 2"))
+
+        when:
+        hashes["file2.txt"] = HashCode.fromInt(3)
+        visitor = new ZipCopyAction(zipFile, compressor, new DocumentationRegistry(), encoding, false, null, null, new ReusableZipEntries(zipFile, manifestFile, fileHasher, encoding))
+        zip(localFile("src/file1.txt", "file1.txt", "changed 1"), localFile("src/file2.txt", "file2.txt", "changed 2"))
+
+        then:
+        def zipContents = new ZipFile(zipFile)
+        zipContents.entries().toList()*.name == ["file1.txt", "file2.txt"]
+        zipContents.getInputStream(zipContents.getEntry("file1.txt")).text == "original 1"
+        zipContents.getInputStream(zipContents.getEntry("file2.txt")).text == "changed 2"
+        manifestFile.file
+        tmpDir.file("tmp").list() as List == ["entries.bin"]
+
+        cleanup:
+        zipContents?.close()
+    }
+
+    void doesNotReuseEntriesWhoseNameOccursMoreThanOnce() {
+        given:
+        def fileHasher = Stub(FileHasher) {
+            hash(_ as File) >> { File file -> HashCode.fromInt(file.name.hashCode()) }
+        }
+        def manifestFile = tmpDir.file("tmp/entries.bin")
+        def compressor = new DefaultZipCompressor(false, ZipArchiveOutputStream.DEFLATED)
+        visitor = new ZipCopyAction(zipFile, compressor, new DocumentationRegistry(), encoding, false, null, null, new ReusableZipEntries(zipFile, manifestFile, fileHasher, encoding))
+        zip(localFile("src/first.txt", "dup.txt", "original first"), localFile("src/second.txt", "dup.txt", "original second"), localFile("src/other.txt", "other.txt", "original other"))
+
+        when:
+        visitor = new ZipCopyAction(zipFile, compressor, new DocumentationRegistry(), encoding, false, null, null, new ReusableZipEntries(zipFile, manifestFile, fileHasher, encoding))
+        zip(localFile("src/first.txt", "dup.txt", "changed first"), localFile("src/second.txt", "dup.txt", "changed second"), localFile("src/other.txt", "other.txt", "changed other"))
+
+        then:
+        def zipContents = new ZipFile(zipFile)
+        zipContents.entries().toList().collect { zipContents.getInputStream(it).text } == ["changed first", "changed second", "original other"]
+
+        cleanup:
+        zipContents?.close()
+    }
+
+    void doesNotReuseEntriesOfZipFileThatHasChangedSinceItWasWritten() {
+        given:
+        def fileHasher = Stub(FileHasher) {
+            hash(_ as File) >> HashCode.fromInt(1)
+        }
+        def manifestFile = tmpDir.file("tmp/entries.bin")
+        def compressor = new DefaultZipCompressor(false, ZipArchiveOutputStream.DEFLATED)
+        visitor = new ZipCopyAction(zipFile, compressor, new DocumentationRegistry(), encoding, false, null, null, new ReusableZipEntries(zipFile, manifestFile, fileHasher, encoding))
+        zip(localFile("src/file1.txt", "file1.txt", "original"))
+        zipFile.setLastModified(zipFile.lastModified() - 10000)
+
+        when:
+        visitor = new ZipCopyAction(zipFile, compressor, new DocumentationRegistry(), encoding, false, null, null, new ReusableZipEntries(zipFile, manifestFile, fileHasher, encoding))
+        zip(localFile("src/file1.txt", "file1.txt", "changed"))
+
+        then:
+        def zipContents = new ZipFile(zipFile)
+        zipContents.getInputStream(zipContents.getEntry("file1.txt")).text == "changed"
+
+        cleanup:
+        zipContents?.close()
+    }
+
     private void zip(final FileCopyDetailsInternal... files) {
         visitor.execute(new CopyActionProcessingStream() {
             void process(CopyActionProcessingStreamAction action) {
@@ -187,4 +371,19 @@ class ZipCopyActionTest extends Specification {
         }
         mock
     }
+
+    private FileCopyDetailsInternal localFile(String sourcePath, String path, String content) {
+        def file = tmpDir.file(sourcePath)
+        file.text = content
+        def fileSystem = TestFiles.fileSystem()
+        copyDetails(new DefaultFileVisitDetails(file, RelativePath.parse(true, path), new AtomicBoolean(), fileSystem, fileSystem, false))
+    }
+
+    private FileCopyDetailsInternal copyDetails(FileVisitDetails fileDetails) {
+        def specResolver = Stub(CopySpecResolver) {
+            getDestPath() >> new RelativePath(false)
+            getFilteringCharset() >> "UTF-8"
+        }
+        new DefaultFileCopyDetails(fileDetails, specResolver, TestFiles.fileSystem())
+    }
 }
@@ -15,16 +15,26 @@
  */
 package org.gradle.api.internal.file.archive;
 
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.IOUtils;
 import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
 import org.gradle.test.fixtures.file.TestFile;
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider;
 import org.gradle.util.Resources;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.gradle.api.file.FileVisitorUtil.*;
@@ -32,6 +42,8 @@ import static org.gradle.api.internal.file.TestFiles.*;
 import static org.gradle.api.tasks.AntBuilderAwareUtil.assertSetContainsForAllTypes;
 import static org.gradle.util.WrapUtil.toList;
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
@@ -135,4 +147,87 @@ public class ZipFileTreeTest {
         assertVisits(tree, toList("file1.txt"), new ArrayList<String>());
         content.assertHasNotChangedSince(snapshot);
     }
+
+    @Test
+    public void readsContentOfEntriesWithoutExpandingZipFile() {
+        rootDir.file("subdir/file1.txt").write("content1");
+        rootDir.file("subdir/file2.txt").write("content2");
+        rootDir.zipTo(zipFile);
+
+        final List<String> contents = new ArrayList<String>();
+        tree.visit(new FileVisitor() {
+            public void visitDir(FileVisitDetails dirDetails) {
+            }
+
+            public void visitFile(FileVisitDetails fileDetails) {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                fileDetails.copyTo(outputStream);
+                contents.add(outputStream.toString());
+            }
+        });
+
+        assertThat(contents, equalTo(toList("content1", "content2")));
+        assertFalse(expandDir.exists());
+    }
+
+    @Test
+    public void visitsUpdatedContentsOfZipFile() {
+        rootDir.file("file1.txt").write("content");
+        rootDir.zipTo(zipFile);
+        assertVisits(tree, toList("file1.txt"), new ArrayList<String>());
+
+        rootDir.file("file2.txt").write("content");
+        zipFile.delete();
+        rootDir.zipTo(zipFile);
+        assertVisits(tree, toList("file1.txt", "file2.txt"), new ArrayList<String>());
+    }
+
+    @Test
+    public void readsContentOfLastEntryWhenNameOccursMoreThanOnce() throws IOException {
+        ZipArchiveOutputStream outputStream = new ZipArchiveOutputStream(zipFile);
+        try {
+            outputStream.putArchiveEntry(new ZipArchiveEntry("file.txt"));
+            outputStream.write("first".getBytes("utf-8"));
+            outputStream.closeArchiveEntry();
+            outputStream.putArchiveEntry(new ZipArchiveEntry("file.txt"));
+            outputStream.write("second content".getBytes("utf-8"));
+            outputStream.closeArchiveEntry();
+        } finally {
+            outputStream.close();
+        }
+
+        final List<String> contents = new ArrayList<String>();
+        tree.visit(new FileVisitor() {
+            public void visitDir(FileVisitDetails dirDetails) {
+            }
+
+            public void visitFile(FileVisitDetails fileDetails) {
+                CompressedZipEntry compressedEntry = (CompressedZipEntry) fileDetails;
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                fileDetails.copyTo(outputStream);
+                byte[] content = outputStream.toByteArray();
+                CRC32 crc = new CRC32();
+                crc.update(content);
+                assertEquals(fileDetails.getSize(), content.length);
+                assertEquals(compressedEntry.getCrc(), crc.getValue());
+                assertEquals(compressedEntry.getCompressedSize(), compressedLength(compressedEntry));
+                contents.add(new String(content));
+            }
+        });
+
+        assertThat(contents, equalTo(toList("second content")));
+    }
+
+    private static long compressedLength(CompressedZipEntry entry) {
+        try {
+            InputStream inputStream = entry.openCompressed();
+            try {
+                return IOUtils.toByteArray(inputStream).length;
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
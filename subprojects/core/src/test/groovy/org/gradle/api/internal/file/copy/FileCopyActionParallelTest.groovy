@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.copy
+
+import org.gradle.api.GradleException
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.file.DefaultFileVisitDetails
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicBoolean
+
+class FileCopyActionParallelTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def executorFactory = new DefaultExecutorFactory()
+    def destDir = tmpDir.file("dest")
+    def copyExecutor = new ParallelCopyExecutor(executorFactory, 4)
+    def action = new FileCopyAction(TestFiles.resolver(destDir), copyExecutor)
+
+    def cleanup() {
+        copyExecutor.stop()
+        executorFactory.stop()
+    }
+
+    def "copies files concurrently"() {
+        def files = (1..100).collect { details(tmpDir.file("src/file${it}.txt").createFile().write("content $it"), "dir/file${it}.txt") }
+
+        when:
+        def result = CopyActionExecuterUtil.visit(action, files)
+
+        then:
+        result.didWork
+        (1..100).every { destDir.file("dir/file${it}.txt").text == "content $it" }
+    }
+
+    def "last copy of a file wins when the same file is copied more than once"() {
+        def first = details(tmpDir.file("src/first.txt").createFile().write("first"), "file.txt")
+        def second = details(tmpDir.file("src/second.txt").createFile().write("second"), "file.txt")
+
+        when:
+        CopyActionExecuterUtil.visit(action, first, second)
+
+        then:
+        destDir.file("file.txt").text == "second"
+    }
+
+    def "rethrows failure to copy file"() {
+        def missing = details(tmpDir.file("src/missing.txt"), "missing.txt")
+
+        when:
+        CopyActionExecuterUtil.visit(action, missing)
+
+        then:
+        def e = thrown(GradleException)
+        e.message.startsWith("Could not copy")
+    }
+
+    private FileCopyDetailsInternal details(TestFile file, String path) {
+        def relativePath = RelativePath.parse(true, path)
+        def fileSystem = TestFiles.fileSystem()
+        def specResolver = Stub(CopySpecResolver) {
+            getDestPath() >> new RelativePath(false)
+            getFilteringCharset() >> "UTF-8"
+        }
+        new DefaultFileCopyDetails(new DefaultFileVisitDetails(file, relativePath, new AtomicBoolean(), fileSystem, fileSystem, false), specResolver, fileSystem)
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.copy
+
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.atomic.AtomicInteger
+
+class ParallelCopyExecutorTest extends Specification {
+    def executorFactory = new DefaultExecutorFactory()
+    def copyExecutor = new ParallelCopyExecutor(executorFactory, 2)
+
+    def cleanup() {
+        copyExecutor.stop()
+        executorFactory.stop()
+    }
+
+    def "runs the work of all batches on a bounded number of threads"() {
+        def running = new AtomicInteger()
+        def maxRunning = new AtomicInteger()
+        def work = {
+            def current = running.incrementAndGet()
+            synchronized (maxRunning) {
+                maxRunning.set(Math.max(maxRunning.get(), current))
+            }
+            Thread.sleep(10)
+            running.decrementAndGet()
+        } as Callable
+        def batch1 = copyExecutor.newBatch()
+        def batch2 = copyExecutor.newBatch()
+
+        when:
+        def futures = (1..10).collect { [batch1.submit(work), batch2.submit(work)] }.flatten()
+        futures*.get()
+
+        then:
+        maxRunning.get() <= 2
+    }
+
+    def "stopping a batch waits for started work and discards work that has not started"() {
+        def started = new CountDownLatch(2)
+        def release = new CountDownLatch(1)
+        def completed = new AtomicInteger()
+        def blocking = {
+            started.countDown()
+            release.await()
+            completed.incrementAndGet()
+        } as Callable
+        def batch = copyExecutor.newBatch()
+
+        when:
+        batch.submit(blocking)
+        batch.submit(blocking)
+        def queued = batch.submit({ completed.incrementAndGet() } as Callable)
+        started.await()
+        Thread.start {
+            Thread.sleep(50)
+            release.countDown()
+        }
+        batch.stop()
+
+        then:
+        completed.get() == 2
+
+        when:
+        queued.get()
+
+        then:
+        thrown(ExecutionException)
+    }
+}
@@ -281,6 +281,35 @@ class DefaultClassLoaderScopeTest extends Specification {
         child.exportClassLoader != scope.exportClassLoader // classpath is the same, but root is different
     }
 
+    def "composite class loaders are shared between scopes with the same parent and classpaths"() {
+        given:
+        def c1 = classPath("c1")
+        def c2 = classPath("c2")
+        def plugin = isolatedLoader(file("plugin"))
+
+        when:
+        def scope1 = root.createChild("child1").export(c1).export(plugin).local(c2).lock()
+        def scope2 = root.createChild("child2").export(c1).export(plugin).local(c2).lock()
+
+        then:
+        scope1.exportClassLoader instanceof CachingClassLoader
+        scope1.exportClassLoader.is scope2.exportClassLoader
+        scope1.localClassLoader.is scope2.localClassLoader
+
+        when:
+        def child1 = scope1.createChild("child").export(c2).lock()
+        def child2 = scope2.createChild("child").export(c2).lock()
+
+        then:
+        child1.exportClassLoader.is child2.exportClassLoader
+
+        when:
+        def scope3 = root.createChild("child3").export(c1).export(isolatedLoader(file("plugin"))).local(c2).lock()
+
+        then:
+        !scope3.exportClassLoader.is(scope1.exportClassLoader)
+    }
+
     def "pessimistic structure has parent visibility"() {
         expect:
         scope.localClassLoader.getResource("root").text == "root"
@@ -18,6 +18,7 @@ package org.gradle.api.internal.project
 
 import org.gradle.api.Action
 import org.gradle.api.AntBuilder
+import org.gradle.api.Project
 import org.gradle.api.artifacts.dsl.ArtifactHandler
 import org.gradle.api.attributes.AttributesSchema
 import org.gradle.api.file.ConfigurableFileCollection
@@ -32,6 +33,7 @@ import org.gradle.api.internal.file.collections.DefaultDirectoryFileTreeFactory
 import org.gradle.api.internal.initialization.ClassLoaderScope
 import org.gradle.api.internal.tasks.TaskContainerInternal
 import org.gradle.api.internal.tasks.TaskResolver
+import org.gradle.configuration.project.ParallelProjectConfigurationGuard
 import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.internal.hash.FileHasher
 import org.gradle.internal.hash.StreamHasher
@@ -146,7 +148,67 @@ class DefaultProjectSpec extends Specification {
         nestedChild2.identityPath == Path.path(":nested:child1:child2")
     }
 
-    def project(String name, ProjectInternal parent, GradleInternal build) {
+    def "accessing a project through its dynamic object tells the parallel configuration guard"() {
+        given:
+        def guard = Mock(ParallelProjectConfigurationGuard)
+        def project = project('root', null, Stub(GradleInternal), guard)
+        project.extensions.extraProperties.set("shared", "value")
+
+        when:
+        def value = project.asDynamicObject.getProperty("shared")
+
+        then:
+        value == "value"
+        1 * guard.beforeAccess(project)
+
+        when:
+        project.asDynamicObject.setProperty("shared", "other")
+
+        then:
+        1 * guard.beforeAccess(project)
+    }
+
+    def "invoking a method that a project lets its subprojects inherit tells the parallel configuration guard"() {
+        given:
+        def guard = Mock(ParallelProjectConfigurationGuard)
+        def project = project('root', null, Stub(GradleInternal), guard)
+        project.extensions.extraProperties.set("shared", { -> "result" })
+        def inheritedScope = project.inheritedScope
+
+        when:
+        def result = inheritedScope.invokeMethod("shared")
+
+        then:
+        result == "result"
+        1 * guard.beforeAccess(project)
+
+        when:
+        inheritedScope.getProperty("shared")
+
+        then:
+        0 * guard.beforeAccess(_)
+    }
+
+    def "configuring some other project tells the parallel configuration guard"() {
+        given:
+        def guard = Mock(ParallelProjectConfigurationGuard)
+        def build = Stub(GradleInternal)
+        def rootProject = project('root', null, build, guard)
+        def child = project('child', rootProject, build, guard)
+        def projectRegistry = Stub(ProjectRegistry) {
+            getProject(":child") >> child
+        }
+        rootProject.projectRegistry >> projectRegistry
+        rootProject.projectConfigurator >> Stub(CrossProjectConfigurator)
+
+        when:
+        rootProject.project(":child", {} as Action<Project>)
+
+        then:
+        1 * guard.beforeAccess(child)
+    }
+
+    def project(String name, ProjectInternal parent, GradleInternal build, ParallelProjectConfigurationGuard guard = new ParallelProjectConfigurationGuard()) {
         def instantiator = DirectInstantiator.INSTANCE
         def serviceRegistryFactory = Stub(ServiceRegistryFactory)
         def serviceRegistry = Stub(ServiceRegistry)
@@ -166,7 +228,7 @@ class DefaultProjectSpec extends Specification {
         def fileHasher = Mock(FileHasher)
         def fileOperations = instantiator.newInstance(DefaultFileOperations, fileResolver, taskResolver, tempFileProvider, instantiator, fileLookup, directoryFileTreeFactory, streamHasher, fileHasher, TestFiles.execFactory())
 
-        return Spy(DefaultProject, constructorArgs: [name, parent, new File("project"), new File("build file"), Stub(ScriptSource), build, serviceRegistryFactory, Stub(ClassLoaderScope), Stub(ClassLoaderScope)]) {
+        return Spy(DefaultProject, constructorArgs: [name, parent, new File("project"), new File("build file"), Stub(ScriptSource), build, serviceRegistryFactory, Stub(ClassLoaderScope), Stub(ClassLoaderScope), guard]) {
             getFileOperations() >> fileOperations
         }
     }
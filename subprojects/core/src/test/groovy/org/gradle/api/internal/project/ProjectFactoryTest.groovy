@@ -19,6 +19,7 @@ package org.gradle.api.internal.project
 import org.gradle.api.initialization.ProjectDescriptor
 import org.gradle.api.internal.GradleInternal
 import org.gradle.api.internal.initialization.ClassLoaderScope
+import org.gradle.configuration.project.ParallelProjectConfigurationGuard
 import org.gradle.groovy.scripts.TextResourceScriptSource
 import org.gradle.internal.reflect.Instantiator
 import org.gradle.internal.resource.EmptyFileTextResource
@@ -36,7 +37,8 @@ class ProjectFactoryTest extends Specification {
     def serviceRegistryFactory = Stub(ServiceRegistryFactory)
     def projectRegistry = Mock(ProjectRegistry)
     def project = Stub(DefaultProject)
-    def factory = new ProjectFactory(instantiator, projectRegistry)
+    def parallelConfigurationGuard = new ParallelProjectConfigurationGuard()
+    def factory = new ProjectFactory(instantiator, projectRegistry, parallelConfigurationGuard)
     def rootProjectScope = Mock(ClassLoaderScope)
     def baseScope = Mock(ClassLoaderScope)
 
@@ -58,7 +60,7 @@ class ProjectFactoryTest extends Specification {
 
         then:
         result == project
-        1 * instantiator.newInstance(DefaultProject, "name", null, projectDir, buildFile, { it instanceof TextResourceScriptSource }, gradle, serviceRegistryFactory, rootProjectScope, baseScope) >> project
+        1 * instantiator.newInstance(DefaultProject, "name", null, projectDir, buildFile, { it instanceof TextResourceScriptSource }, gradle, serviceRegistryFactory, rootProjectScope, baseScope, parallelConfigurationGuard) >> project
         1 * projectRegistry.addProject(project)
     }
 
@@ -76,7 +78,7 @@ class ProjectFactoryTest extends Specification {
 
         then:
         result == project
-        1 * instantiator.newInstance(DefaultProject, "name", null, projectDir, buildFile, { it.resource instanceof EmptyFileTextResource }, gradle, serviceRegistryFactory, rootProjectScope, baseScope) >> project
+        1 * instantiator.newInstance(DefaultProject, "name", null, projectDir, buildFile, { it.resource instanceof EmptyFileTextResource }, gradle, serviceRegistryFactory, rootProjectScope, baseScope, parallelConfigurationGuard) >> project
         1 * projectRegistry.addProject(project)
     }
 
@@ -95,7 +97,7 @@ class ProjectFactoryTest extends Specification {
 
         then:
         result == project
-        1 * instantiator.newInstance(DefaultProject, "name", parent, projectDir, buildFile, _, gradle, serviceRegistryFactory, rootProjectScope, baseScope) >> project
+        1 * instantiator.newInstance(DefaultProject, "name", parent, projectDir, buildFile, _, gradle, serviceRegistryFactory, rootProjectScope, baseScope, parallelConfigurationGuard) >> project
         1 * parent.addChildProject(project)
         1 * projectRegistry.addProject(project)
     }
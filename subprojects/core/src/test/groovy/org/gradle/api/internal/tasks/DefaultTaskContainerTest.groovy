@@ -348,6 +348,143 @@ public class DefaultTaskContainerTest extends Specification {
         container.names == ['task1', 'task2'] as SortedSet
     }
 
+    void "task defined later is created and configured when located"() {
+        def action = Mock(Action)
+        def task = task("task", CustomTask)
+
+        when:
+        def provider = container.createLater("task", CustomTask, action)
+
+        then:
+        0 * taskFactory._
+        0 * action._
+        provider.present
+        container.names == ['task'] as SortedSet
+
+        when:
+        def result = container.getByName("task")
+
+        then:
+        1 * taskFactory.create("task", CustomTask) >> task
+        1 * action.execute(task)
+        result == task
+        provider.get() == task
+    }
+
+    void "task defined later is created when provider is queried"() {
+        def task = task("task", CustomTask)
+
+        given:
+        def provider = container.createLater("task", CustomTask)
+
+        when:
+        def result = provider.get()
+
+        then:
+        1 * taskFactory.create("task", CustomTask) >> task
+        result == task
+        provider.type == CustomTask
+        container.findByName("task") == task
+    }
+
+    void "actions registered for all tasks are applied to task defined later when it is created"() {
+        def action = Mock(Action)
+        def task = task("task", CustomTask)
+
+        given:
+        container.all(action)
+        container.createLater("task", CustomTask)
+
+        when:
+        container.getByName("task")
+
+        then:
+        1 * taskFactory.create("task", CustomTask) >> task
+        1 * action.execute(task)
+    }
+
+    void "actions registered for all tasks are applied to task defined later before its configuration action"() {
+        def allAction = Mock(Action)
+        def action = Mock(Action)
+        def task = task("task", CustomTask)
+
+        given:
+        container.all(allAction)
+        container.createLater("task", CustomTask, action)
+
+        when:
+        container.getByName("task")
+
+        then:
+        1 * taskFactory.create("task", CustomTask) >> task
+
+        then:
+        1 * allAction.execute(task)
+
+        then:
+        1 * action.execute(task)
+    }
+
+    void "task defined later is not visible when iterating until it is created"() {
+        def task = task("task", CustomTask)
+
+        given:
+        container.createLater("task", CustomTask)
+
+        expect:
+        container.toList() == []
+        container.withType(CustomTask).toList() == []
+
+        when:
+        container.getByName("task")
+
+        then:
+        1 * taskFactory.create("task", CustomTask) >> task
+        container.toList() == [task]
+        container.withType(CustomTask).toList() == [task]
+    }
+
+    void "cannot define task later when task with same name already exists"() {
+        given:
+        addTask("task")
+
+        when:
+        container.createLater("task", CustomTask)
+
+        then:
+        def e = thrown(InvalidUserDataException)
+        e.message == "Cannot add task 'task' as a task with that name already exists."
+    }
+
+    void "cannot create task when task with same name has been defined to be created later"() {
+        given:
+        container.createLater("task", CustomTask)
+
+        when:
+        addTask("task")
+
+        then:
+        def e = thrown(InvalidUserDataException)
+        e.message.startsWith("Cannot add ")
+    }
+
+    void "can replace task defined to be created later"() {
+        def action = Mock(Action)
+        def task = task("task", CustomTask)
+
+        given:
+        container.createLater("task", CustomTask, action)
+
+        when:
+        def result = container.replace("task", CustomTask)
+
+        then:
+        1 * taskFactory.create("task", CustomTask) >> task
+        0 * action._
+        result == task
+        container.getByName("task") == task
+    }
+
     void "maybeCreate creates new task"() {
         given:
         def task = task("task")
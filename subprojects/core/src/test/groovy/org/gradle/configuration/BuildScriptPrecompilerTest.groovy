@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.initialization.ClassLoaderScope
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectScript
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.groovy.scripts.internal.CompiledScript
+import org.gradle.groovy.scripts.internal.CrossBuildInMemoryCachingScriptClassCache
+import org.gradle.groovy.scripts.internal.ScriptClassCompiler
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resource.TextResource
+import org.gradle.model.dsl.internal.transform.ClosureCreationInterceptingVerifier
+import org.gradle.plugin.management.internal.DefaultPluginRequests
+import spock.lang.Specification
+
+class BuildScriptPrecompilerTest extends Specification {
+    def cache = Mock(CrossBuildInMemoryCachingScriptClassCache)
+    def scriptClassCompiler = Mock(ScriptClassCompiler)
+    def baseScope = Mock(ClassLoaderScope)
+    def baseClassLoader = Mock(ClassLoader)
+    def precompiler = new BuildScriptPrecompiler(cache, scriptClassCompiler, Mock(DocumentationRegistry), new TestBuildOperationExecutor())
+
+    def rootProject = project("root", null, 0)
+    def child1 = project("child1", rootProject, 1)
+    def child2 = project("child2", rootProject, 1)
+    def grandchild = project("grandchild", child1, 2)
+
+    def setup() {
+        rootProject.allprojects >> ([rootProject, child1, child2, grandchild] as Set)
+        rootProject.baseClassLoaderScope >> baseScope
+        baseScope.exportClassLoader >> baseClassLoader
+    }
+
+    def "compiles the first pass of all scripts before the second pass when no script extends the classpath"() {
+        given:
+        baseScope.locked >> true
+
+        when:
+        precompiler.precompile(rootProject)
+
+        then:
+        1 * cache.getOrCompile({ it.fileName == "root" }, baseClassLoader, _, { it.id.startsWith("cp_") }, ProjectScript, !ClosureCreationInterceptingVerifier.INSTANCE, scriptClassCompiler) >> compiledScript(false)
+        1 * cache.getOrCompile({ it.fileName == "child1" }, baseClassLoader, _, { it.id.startsWith("cp_") }, ProjectScript, !ClosureCreationInterceptingVerifier.INSTANCE, scriptClassCompiler) >> compiledScript(false)
+        1 * cache.getOrCompile({ it.fileName == "child2" }, baseClassLoader, _, { it.id.startsWith("cp_") }, ProjectScript, !ClosureCreationInterceptingVerifier.INSTANCE, scriptClassCompiler) >> compiledScript(false)
+        1 * cache.getOrCompile({ it.fileName == "grandchild" }, baseClassLoader, _, { it.id.startsWith("cp_") }, ProjectScript, !ClosureCreationInterceptingVerifier.INSTANCE, scriptClassCompiler) >> compiledScript(false)
+
+        then:
+        1 * cache.getOrCompile({ it.fileName == "root" }, baseClassLoader, _, { !it.id.startsWith("cp_") }, ProjectScript, ClosureCreationInterceptingVerifier.INSTANCE, scriptClassCompiler)
+        1 * cache.getOrCompile({ it.fileName == "child1" }, baseClassLoader, _, { !it.id.startsWith("cp_") }, ProjectScript, ClosureCreationInterceptingVerifier.INSTANCE, scriptClassCompiler)
+        1 * cache.getOrCompile({ it.fileName == "child2" }, baseClassLoader, _, { !it.id.startsWith("cp_") }, ProjectScript, ClosureCreationInterceptingVerifier.INSTANCE, scriptClassCompiler)
+        1 * cache.getOrCompile({ it.fileName == "grandchild" }, baseClassLoader, _, { !it.id.startsWith("cp_") }, ProjectScript, ClosureCreationInterceptingVerifier.INSTANCE, scriptClassCompiler)
+        0 * cache._
+    }
+
+    def "does not compile the second pass of a project that has a buildscript block or of its children"() {
+        given:
+        baseScope.locked >> true
+
+        when:
+        precompiler.precompile(rootProject)
+
+        then:
+        1 * cache.getOrCompile({ it.fileName == "root" }, baseClassLoader, _, { it.id.startsWith("cp_") }, _, _, _) >> compiledScript(false)
+        1 * cache.getOrCompile({ it.fileName == "child1" }, baseClassLoader, _, { it.id.startsWith("cp_") }, _, _, _) >> compiledScript(true)
+        1 * cache.getOrCompile({ it.fileName == "child2" }, baseClassLoader, _, { it.id.startsWith("cp_") }, _, _, _) >> compiledScript(false)
+        1 * cache.getOrCompile({ it.fileName == "grandchild" }, baseClassLoader, _, { it.id.startsWith("cp_") }, _, _, _) >> compiledScript(false)
+
+        then:
+        1 * cache.getOrCompile({ it.fileName == "root" }, _, _, _, _, ClosureCreationInterceptingVerifier.INSTANCE, _)
+        1 * cache.getOrCompile({ it.fileName == "child2" }, _, _, _, _, ClosureCreationInterceptingVerifier.INSTANCE, _)
+        0 * cache._
+    }
+
+    def "does not compile the second pass of a project that fails to compile or of its children"() {
+        given:
+        baseScope.locked >> true
+
+        when:
+        precompiler.precompile(rootProject)
+
+        then:
+        1 * cache.getOrCompile({ it.fileName == "root" }, _, _, { it.id.startsWith("cp_") }, _, _, _) >> { throw new RuntimeException("broken") }
+        1 * cache.getOrCompile({ it.fileName == "child1" }, _, _, { it.id.startsWith("cp_") }, _, _, _) >> compiledScript(false)
+        1 * cache.getOrCompile({ it.fileName == "child2" }, _, _, { it.id.startsWith("cp_") }, _, _, _) >> compiledScript(false)
+        1 * cache.getOrCompile({ it.fileName == "grandchild" }, _, _, { it.id.startsWith("cp_") }, _, _, _) >> compiledScript(false)
+        0 * cache._
+    }
+
+    def "does nothing when base class loader scope is not locked"() {
+        when:
+        precompiler.precompile(rootProject)
+
+        then:
+        0 * cache._
+    }
+
+    private ProjectInternal project(String name, ProjectInternal parent, int depth) {
+        def resource = Stub(TextResource) {
+            getExists() >> true
+            isContentCached() >> true
+        }
+        def source = Stub(ScriptSource) {
+            getResource() >> resource
+            getFileName() >> name
+            getClassName() >> name
+            getDisplayName() >> "build file '${name}'"
+        }
+        def project = Mock(ProjectInternal)
+        project.buildScriptSource >> source
+        project.parent >> parent
+        project.depth >> depth
+        return project
+    }
+
+    private CompiledScript compiledScript(boolean runDoesSomething) {
+        return Stub(CompiledScript) {
+            getRunDoesSomething() >> runDoesSomething
+            getData() >> new DefaultPluginRequests([])
+        }
+    }
+}
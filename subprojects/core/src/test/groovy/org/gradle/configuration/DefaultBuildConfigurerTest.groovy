@@ -18,15 +18,27 @@ package org.gradle.configuration
 import org.gradle.StartParameter
 import org.gradle.api.internal.GradleInternal
 import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.configuration.project.ParallelProjectConfigurationGuard
 import org.gradle.execution.ProjectConfigurer
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resources.ResourceLock
+import org.gradle.internal.work.WorkerLeaseService
+import org.gradle.util.Path
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
 import spock.lang.Specification
 
 class DefaultBuildConfigurerTest extends Specification {
+    @Rule
+    SetSystemProperties systemProperties = new SetSystemProperties()
     private startParameter = Mock(StartParameter)
     private gradle = Mock(GradleInternal)
     private rootProject = Mock(ProjectInternal)
     private projectConfigurer = Mock(ProjectConfigurer)
-    private configurer = new DefaultBuildConfigurer(projectConfigurer)
+    private buildOperationExecutor = new TestBuildOperationExecutor()
+    private workerLeaseService = Mock(WorkerLeaseService)
+    private buildScriptPrecompiler = Mock(BuildScriptPrecompiler)
+    private configurer = new DefaultBuildConfigurer(projectConfigurer, buildOperationExecutor, workerLeaseService, new ParallelProjectConfigurationGuard(), buildScriptPrecompiler)
 
     def setup() {
         gradle.startParameter >> startParameter
@@ -48,5 +60,76 @@ class DefaultBuildConfigurerTest extends Specification {
         then:
         startParameter.isConfigureOnDemand() >> true
         1 * projectConfigurer.configure(rootProject)
+        0 * buildScriptPrecompiler._
+    }
+
+    def "precompiles build scripts before configuring build"() {
+        when:
+        configurer.configure(gradle)
+
+        then:
+        1 * buildScriptPrecompiler.precompile(rootProject)
+
+        then:
+        1 * projectConfigurer.configureHierarchy(rootProject)
+    }
+
+    def "does not precompile build scripts when disabled"() {
+        System.setProperty(BuildScriptPrecompiler.PRECOMPILE_PROPERTY, "false")
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        1 * projectConfigurer.configureHierarchy(rootProject)
+        0 * buildScriptPrecompiler._
+    }
+
+    def "configures build in parallel when enabled"() {
+        def child1 = project(":child1", 1)
+        def child2 = project(":child2", 1)
+        def grandChild = project(":child1:grand-child", 2)
+        def lock = Mock(ResourceLock)
+        System.setProperty(DefaultBuildConfigurer.PARALLEL_CONFIGURATION_PROPERTY, "true")
+        gradle.identityPath >> Path.ROOT
+        rootProject.subprojects >> ([child1, grandChild, child2] as Set)
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        startParameter.isParallelProjectExecutionEnabled() >> true
+        1 * projectConfigurer.configure(rootProject)
+
+        then:
+        1 * workerLeaseService.getProjectLock(":", ":child1") >> lock
+        1 * workerLeaseService.getProjectLock(":", ":child2") >> lock
+        2 * workerLeaseService.withLocks({ it as List == [lock] }, _ as Runnable) >> { locks, Runnable action -> action.run() }
+        1 * projectConfigurer.configure(child1)
+        1 * projectConfigurer.configure(child2)
+
+        then:
+        1 * workerLeaseService.getProjectLock(":", ":child1:grand-child") >> lock
+        1 * workerLeaseService.withLocks({ it as List == [lock] }, _ as Runnable) >> { locks, Runnable action -> action.run() }
+        1 * projectConfigurer.configure(grandChild)
+        0 * projectConfigurer._
+    }
+
+    def "does not configure build in parallel without parallel execution"() {
+        System.setProperty(DefaultBuildConfigurer.PARALLEL_CONFIGURATION_PROPERTY, "true")
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        1 * projectConfigurer.configureHierarchy(rootProject)
+        0 * workerLeaseService._
+    }
+
+    private ProjectInternal project(String path, int depth) {
+        def project = Mock(ProjectInternal)
+        project.identityPath >> Path.path(path)
+        project.depth >> depth
+        return project
     }
 }
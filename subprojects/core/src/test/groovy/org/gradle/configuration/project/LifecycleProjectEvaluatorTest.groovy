@@ -33,7 +33,8 @@ class LifecycleProjectEvaluatorTest extends Specification {
     private listener = Mock(ProjectEvaluationListener)
     private delegate = Mock(ProjectEvaluator)
     private buildOperationExecutor = new TestBuildOperationExecutor()
-    private evaluator = new LifecycleProjectEvaluator(buildOperationExecutor, delegate)
+    private parallelConfigurationGuard = new ParallelProjectConfigurationGuard()
+    private evaluator = new LifecycleProjectEvaluator(buildOperationExecutor, delegate, parallelConfigurationGuard)
     private state = Mock(ProjectStateInternal)
 
     void setup() {
@@ -191,4 +192,42 @@ class LifecycleProjectEvaluatorTest extends Specification {
         details.projectPath == Path.path(':project1').path
     }
 
+    def "fails when another project is configured while configuring a project in parallel"() {
+        def other = Mock(ProjectInternal)
+        other.displayName >> "<other>"
+
+        when:
+        parallelConfigurationGuard.configureInParallel(other) {
+            evaluator.evaluate(project, state)
+        }
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message.startsWith("Cannot configure <project> while configuring <other> in parallel with other projects, as <other> is not decoupled from <project>.")
+        0 * delegate._
+        0 * listener._
+    }
+
+    def "can use a project that has already been configured while configuring a project in parallel"() {
+        def other = Mock(ProjectInternal)
+        state.executed >> true
+
+        when:
+        parallelConfigurationGuard.configureInParallel(other) {
+            evaluator.evaluate(project, state)
+        }
+
+        then:
+        0 * delegate._
+    }
+
+    def "evaluates the project that is configured in parallel"() {
+        when:
+        parallelConfigurationGuard.configureInParallel(project) {
+            evaluator.evaluate(project, state)
+        }
+
+        then:
+        1 * delegate.evaluate(project, state)
+    }
 }
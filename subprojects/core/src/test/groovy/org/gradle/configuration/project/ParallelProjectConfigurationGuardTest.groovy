@@ -0,0 +1,182 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project
+
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectStateInternal
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.util.Path
+
+class ParallelProjectConfigurationGuardTest extends ConcurrentSpec {
+    def guard = new ParallelProjectConfigurationGuard()
+    def root = project(":")
+    def a = project(":a")
+    def aChild = project(":a:child")
+    def b = project(":b")
+    def c = project(":c")
+
+    def "configures projects that only use themselves and their subprojects concurrently"() {
+        when:
+        async {
+            start {
+                guard.configureInParallel(a, {
+                    guard.beforeAccess(a)
+                    guard.beforeAccess(aChild)
+                    instant.aStarted
+                    thread.blockUntil.bStarted
+                } as Runnable)
+            }
+            start {
+                guard.configureInParallel(b, {
+                    guard.beforeAccess(b)
+                    instant.bStarted
+                    thread.blockUntil.aStarted
+                } as Runnable)
+            }
+        }
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "configures the rest of a project that uses some other project once the projects configured alongside it have finished"() {
+        when:
+        async {
+            start {
+                guard.configureInParallel(a, {
+                    instant.aStarted
+                    thread.blockUntil.bUsesRoot
+                    thread.block()
+                    instant.aFinished
+                } as Runnable)
+            }
+            start {
+                thread.blockUntil.aStarted
+                guard.configureInParallel(b, {
+                    instant.bUsesRoot
+                    guard.beforeAccess(root)
+                    instant.bExclusive
+                    thread.blockUntil.cWaiting
+                    thread.block()
+                    instant.bFinished
+                } as Runnable)
+            }
+            start {
+                thread.blockUntil.bExclusive
+                instant.cWaiting
+                guard.configureInParallel(c, {
+                    instant.cStarted
+                } as Runnable)
+            }
+        }
+
+        then:
+        instant.bExclusive > instant.aFinished
+        instant.cStarted > instant.bFinished
+    }
+
+    def "waits for a project that is being configured to finish before using it"() {
+        def state = [:]
+
+        when:
+        async {
+            start {
+                guard.configureInParallel(a, {
+                    thread.blockUntil.bStarted
+                    guard.beforeAccess(b)
+                    state.read = state.b
+                    instant.aRead
+                } as Runnable)
+            }
+            start {
+                guard.configureInParallel(b, {
+                    state.b = "early"
+                    instant.bStarted
+                    thread.block()
+                    guard.beforeAccess(root)
+                    state.b = "late"
+                    instant.bFinished
+                } as Runnable)
+            }
+        }
+
+        then:
+        state.read == "late"
+        instant.aRead > instant.bFinished
+    }
+
+    def "fails when projects that are being configured use each other"() {
+        when:
+        async {
+            start {
+                guard.configureInParallel(a, {
+                    thread.blockUntil.bStarted
+                    guard.beforeAccess(b)
+                } as Runnable)
+            }
+            start {
+                guard.configureInParallel(b, {
+                    instant.bStarted
+                    thread.block()
+                    guard.beforeAccess(root)
+                    guard.beforeAccess(a)
+                } as Runnable)
+            }
+        }
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message.startsWith("Cannot use project ':a' while configuring project ':b' in parallel with other projects")
+    }
+
+    def "projects are not restricted when not configured in parallel"() {
+        when:
+        guard.beforeAccess(root)
+        guard.beforeEvaluate(a, new ProjectStateInternal())
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "allows a project configured in parallel to configure its subprojects"() {
+        when:
+        guard.configureInParallel(a, {
+            guard.beforeEvaluate(aChild, new ProjectStateInternal())
+        } as Runnable)
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "fails when a project configured in parallel causes some other project to be configured"() {
+        when:
+        guard.configureInParallel(b, {
+            guard.beforeEvaluate(a, new ProjectStateInternal())
+        } as Runnable)
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message.startsWith("Cannot configure project ':a' while configuring project ':b' in parallel with other projects")
+    }
+
+    private ProjectInternal project(String path) {
+        return Stub(ProjectInternal) {
+            getIdentityPath() >> Path.path(path)
+            getDisplayName() >> "project '${path}'"
+        }
+    }
+}
@@ -18,10 +18,18 @@ package org.gradle.initialization.buildsrc
 
 import org.gradle.StartParameter
 import org.gradle.api.Action
+import org.gradle.api.artifacts.Configuration
+import org.gradle.api.artifacts.ConfigurationContainer
+import org.gradle.api.artifacts.DependencySet
+import org.gradle.api.artifacts.ExternalModuleDependency
+import org.gradle.api.artifacts.SelfResolvingDependency
+import org.gradle.api.initialization.dsl.ScriptHandler
 import org.gradle.api.internal.GradleInternal
 import org.gradle.api.internal.component.BuildableJavaComponent
 import org.gradle.api.internal.component.ComponentRegistry
 import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.groovy.scripts.Script
+import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.internal.service.ServiceRegistry
 import spock.lang.Specification
 
@@ -34,14 +42,28 @@ class BuildSrcBuildListenerFactoryTest extends Specification {
             getMainComponent() >> component
         }
     }
+    def dependencies = []
+    def configuration = Stub(Configuration) {
+        getDependencies() >> Stub(DependencySet) {
+            iterator() >> { dependencies.iterator() }
+        }
+    }
     def project = Mock(ProjectInternal) {
         getServices() >> services
+        getConfigurations() >> configurations(configuration)
+        getBuildscript() >> Stub(ScriptHandler) {
+            getConfigurations() >> configurations()
+        }
     }
     def gradle = Mock(GradleInternal) {
         getStartParameter() >> startParameter
         getRootProject() >> project
     }
 
+    def setup() {
+        project.getAllprojects() >> ([project] as Set)
+    }
+
     def "configures task names when rebuild on"() {
         def listener = new BuildSrcBuildListenerFactory().create(true)
         component.getRebuildTasks() >> ['fooBuild']
@@ -64,6 +86,41 @@ class BuildSrcBuildListenerFactoryTest extends Specification {
         1 * startParameter.setTaskNames(['barBuild'])
     }
 
+    def "detects dynamic and changing dependencies"() {
+        def listener = new BuildSrcBuildListenerFactory().create(false)
+        dependencies << Stub(ExternalModuleDependency) {
+            getVersion() >> version
+            isChanging() >> changing
+        }
+
+        when:
+        listener.onConfigure(gradle)
+
+        then:
+        listener.hasDynamicOrChangingDependencies() == dynamic
+
+        where:
+        version          | changing | dynamic
+        "1.0"            | false    | false
+        "1.0"            | true     | true
+        "1.+"            | false    | true
+        "latest.release" | false    | true
+        "[1.0,2.0)"      | false    | true
+        "1.0-SNAPSHOT"   | false    | true
+        null             | false    | true
+    }
+
+    def "ignores dependencies that are not external modules"() {
+        def listener = new BuildSrcBuildListenerFactory().create(false)
+        dependencies << Stub(SelfResolvingDependency)
+
+        when:
+        listener.onConfigure(gradle)
+
+        then:
+        !listener.hasDynamicOrChangingDependencies()
+    }
+
     def "executes buildSrc configuration action after projects are loaded"() {
         def action = Mock(Action)
         def listener = new BuildSrcBuildListenerFactory(action).create(true)
@@ -74,4 +131,23 @@ class BuildSrcBuildListenerFactoryTest extends Specification {
         then:
         1 * action.execute(project)
     }
+
+    def "records applied scripts"() {
+        def listener = new BuildSrcBuildListenerFactory().create(false)
+        def settingsScript = Stub(ScriptSource)
+        def buildScript = Stub(ScriptSource)
+
+        when:
+        listener.scriptClassLoaded(settingsScript, Script)
+        listener.scriptClassLoaded(buildScript, Script)
+
+        then:
+        listener.appliedScripts == [settingsScript, buildScript]
+    }
+
+    private ConfigurationContainer configurations(Configuration... configurations) {
+        return Stub(ConfigurationContainer) {
+            iterator() >> { (configurations as List).iterator() }
+        }
+    }
 }
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.initialization.buildsrc
+
+import org.gradle.StartParameter
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.groovy.scripts.StringScriptSource
+import org.gradle.groovy.scripts.TextResourceScriptSource
+import org.gradle.internal.classpath.DefaultClassPath
+import org.gradle.internal.resource.UriTextResource
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+class BuildSrcClasspathReuseTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties()
+
+    def buildSrcDir = temp.createDir("buildSrc")
+    def cacheDir = temp.createDir("cache")
+    def startParameter = new StartParameter()
+    def environment = [PATH: "/bin", PWD: "/home/user"]
+    def jar = buildSrcDir.file("build/libs/buildSrc.jar").createFile()
+    def classpath = DefaultClassPath.of([jar])
+
+    def setup() {
+        startParameter.currentDir = buildSrcDir
+        startParameter.gradleUserHomeDir = temp.createDir("user-home")
+        buildSrcDir.file("src/main/groovy/Thing.groovy").text = "class Thing {}"
+    }
+
+    def "uses recorded classpath when nothing has changed"() {
+        given:
+        reuse().store(classpath)
+
+        expect:
+        reuse().loadIfUnchanged().asFiles == [jar]
+    }
+
+    def "does not use classpath when nothing was recorded"() {
+        expect:
+        reuse().loadIfUnchanged() == null
+    }
+
+    def "does not use recorded classpath when a buildSrc source file has changed"() {
+        given:
+        reuse().store(classpath)
+
+        when:
+        buildSrcDir.file("src/main/groovy/Thing.groovy").text = "class Thing { String name }"
+
+        then:
+        reuse().loadIfUnchanged() == null
+    }
+
+    def "does not use recorded classpath when a buildSrc source file has been added"() {
+        given:
+        reuse().store(classpath)
+
+        when:
+        buildSrcDir.file("src/main/groovy/Other.groovy").text = "class Other {}"
+
+        then:
+        reuse().loadIfUnchanged() == null
+    }
+
+    def "ignores changes to the build output and state of buildSrc that are not part of the classpath"() {
+        given:
+        reuse().store(classpath)
+
+        when:
+        buildSrcDir.file("build/tmp/thing.txt").text = "changed"
+        buildSrcDir.file(".gradle/state.bin").text = "changed"
+
+        then:
+        reuse().loadIfUnchanged().asFiles == [jar]
+    }
+
+    def "does not use recorded classpath when a classpath entry has changed or been removed"() {
+        given:
+        reuse().store(classpath)
+
+        when:
+        jar.text = "changed"
+
+        then:
+        reuse().loadIfUnchanged() == null
+
+        when:
+        reuse().store(classpath)
+        jar.delete()
+
+        then:
+        reuse().loadIfUnchanged() == null
+    }
+
+    def "does not use recorded classpath when start parameters have changed"() {
+        given:
+        reuse().store(classpath)
+
+        when:
+        startParameter.projectProperties = [prop: "value"]
+
+        then:
+        reuse().loadIfUnchanged() == null
+    }
+
+    def "does not use recorded classpath when user init scripts have changed"() {
+        given:
+        reuse().store(classpath)
+
+        when:
+        startParameter.gradleUserHomeDir.file("init.d/init.gradle").text = "println 'init'"
+
+        then:
+        reuse().loadIfUnchanged() == null
+    }
+
+    def "does not use recorded classpath when environment variables have changed"() {
+        given:
+        reuse().store(classpath)
+
+        when:
+        environment.JAVA_OPTS = "-Dsome.prop=value"
+
+        then:
+        reuse().loadIfUnchanged() == null
+    }
+
+    def "ignores environment variables that describe the shell session"() {
+        given:
+        reuse().store(classpath)
+
+        when:
+        environment.PWD = "/home/user/other"
+        environment.SHLVL = "2"
+
+        then:
+        reuse().loadIfUnchanged().asFiles == [jar]
+    }
+
+    def "does not use classpath that has been discarded"() {
+        given:
+        reuse().store(classpath)
+
+        when:
+        reuse().discard()
+
+        then:
+        reuse().loadIfUnchanged() == null
+    }
+
+    def "does not use recorded classpath when the user init script has changed"() {
+        given:
+        reuse().store(classpath)
+
+        when:
+        startParameter.gradleUserHomeDir.file("init.gradle").text = "println 'init'"
+
+        then:
+        reuse().loadIfUnchanged() == null
+    }
+
+    def "scripts in the buildSrc directory and user init scripts only use inputs"() {
+        def buildScript = buildSrcDir.file("build.gradle")
+        buildScript.text = "apply plugin: 'groovy'\nfile('src/main/resources')\n(1..10).each { println it }"
+        def initScript = startParameter.gradleUserHomeDir.file("init.d/init.gradle")
+        initScript.text = "println file('../other')"
+
+        expect:
+        !reuse().mayUseFilesOutsideOfInputs([script(buildScript), script(initScript)])
+    }
+
+    def "script applied from outside of the buildSrc directory may use files that are not inputs"() {
+        def sharedScript = temp.file("gradle/shared.gradle")
+        sharedScript.text = "ext.version = '1.0'"
+
+        expect:
+        reuse().mayUseFilesOutsideOfInputs([script(sharedScript)])
+    }
+
+    def "script in the buildSrc directory that refers to a parent directory may use files that are not inputs"() {
+        def buildScript = buildSrcDir.file("build.gradle")
+        buildScript.text = text
+
+        expect:
+        reuse().mayUseFilesOutsideOfInputs([script(buildScript)])
+
+        where:
+        text << [
+            "apply from: '../gradle/shared.gradle'",
+            "file('../versions.properties')",
+            "file(\"..\\\\versions.properties\")",
+            "new File(rootDir.parentFile, 'versions.properties')",
+            "new File(projectDir.parent, 'versions.properties')"
+        ]
+    }
+
+    def "script that is not a file may use files that are not inputs"() {
+        expect:
+        reuse().mayUseFilesOutsideOfInputs([new StringScriptSource("script", "ext.version = '1.0'")])
+    }
+
+    def "reuse is enabled by system property unless dependencies are refreshed or tasks are rerun"() {
+        expect:
+        !BuildSrcClasspathReuse.isEnabled(startParameter)
+
+        when:
+        System.setProperty(BuildSrcClasspathReuse.REUSE_PROPERTY, "true")
+
+        then:
+        BuildSrcClasspathReuse.isEnabled(startParameter)
+
+        when:
+        startParameter.refreshDependencies = true
+
+        then:
+        !BuildSrcClasspathReuse.isEnabled(startParameter)
+
+        when:
+        startParameter.refreshDependencies = false
+        startParameter.rerunTasks = true
+
+        then:
+        !BuildSrcClasspathReuse.isEnabled(startParameter)
+    }
+
+    private static ScriptSource script(File file) {
+        return new TextResourceScriptSource(new UriTextResource("script", file))
+    }
+
+    private BuildSrcClasspathReuse reuse() {
+        return new BuildSrcClasspathReuse(cacheDir, startParameter, environment)
+    }
+}
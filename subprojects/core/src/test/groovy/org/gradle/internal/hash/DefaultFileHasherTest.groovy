@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.hash
+
+import org.gradle.api.UncheckedIOException
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class DefaultFileHasherTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def streamHasher = new DefaultStreamHasher(new DefaultContentHasherFactory())
+
+    def "hashes content of file"() {
+        def file = tmpDir.file("file.bin")
+        def content = new byte[3 * 1024 * 1024 + 17]
+        new Random(42).nextBytes(content)
+        file.bytes = content
+
+        expect:
+        new DefaultFileHasher(streamHasher).hash(file) == streamHasher.hash(new ByteArrayInputStream(content))
+    }
+
+    def "fails to hash missing file"() {
+        def file = tmpDir.file("missing")
+
+        when:
+        new DefaultFileHasher(streamHasher).hash(file)
+
+        then:
+        def e = thrown(UncheckedIOException)
+        e.message == "Failed to create MD5 hash for file '$file' as it does not exist."
+    }
+}
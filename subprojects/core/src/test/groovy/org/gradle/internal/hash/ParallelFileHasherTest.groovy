@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.hash
+
+import com.google.common.util.concurrent.Futures
+import org.gradle.api.file.FileTreeElement
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+
+class ParallelFileHasherTest extends Specification {
+    def executorFactory = Mock(ExecutorFactory)
+    def executor = Mock(ManagedExecutor)
+    def fileHasher = Stub(FileHasher) {
+        hash(_ as FileTreeElement) >> HashCode.fromInt(1)
+    }
+    def hasher = new ParallelFileHasher(fileHasher, executorFactory, 2)
+
+    def "hashes few small files on the calling thread"() {
+        def files = (1..10).collect { Stub(FileTreeElement) }
+
+        when:
+        def hashes = hasher.hash(files)
+
+        then:
+        hashes == [HashCode.fromInt(1)] * 10
+        0 * executorFactory._
+    }
+
+    def "shares one executor between trees until stopped"() {
+        def files = (1..64).collect { Stub(FileTreeElement) }
+
+        when:
+        def hashes1 = hasher.hash(files)
+        def hashes2 = hasher.hash(files)
+
+        then:
+        hashes1 == [HashCode.fromInt(1)] * 64
+        hashes2 == hashes1
+        1 * executorFactory.create("File hashing", 2) >> executor
+        128 * executor.submit(_ as Callable) >> { Callable callable -> Futures.immediateFuture(callable.call()) }
+
+        when:
+        hasher.stop()
+
+        then:
+        1 * executor.stop()
+
+        when:
+        hasher.hash(files)
+
+        then:
+        1 * executorFactory.create("File hashing", 2) >> executor
+        64 * executor.submit(_ as Callable) >> { Callable callable -> Futures.immediateFuture(callable.call()) }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.metaobject
+
+import spock.lang.Specification
+
+class MetaClassLookupCacheTest extends Specification {
+    def metaClass = new MetaClassImpl(Bean)
+
+    def setup() {
+        metaClass.initialize()
+    }
+
+    def "caches property and missing property"() {
+        def cache = MetaClassLookupCache.of(metaClass)
+        def property = metaClass.getMetaProperty("prop")
+
+        expect:
+        cache.lookupProperty("prop") == MetaClassLookupCache.NOT_CACHED
+        cache.lookupProperty("unknown") == MetaClassLookupCache.NOT_CACHED
+
+        when:
+        cache.cacheProperty("prop", property)
+        cache.cacheProperty("unknown", null)
+
+        then:
+        cache.lookupProperty("prop") == property
+        cache.lookupProperty("unknown") == null
+        MetaClassLookupCache.of(metaClass).is(cache)
+    }
+
+    def "caches method by name and argument types"() {
+        def cache = MetaClassLookupCache.of(metaClass)
+        def method = metaClass.pickMethod("doStuff", [String] as Class[])
+
+        when:
+        cache.cacheMethod("doStuff", [String] as Class[], method)
+        cache.cacheMethod("doStuff", [Integer] as Class[], null)
+
+        then:
+        cache.lookupMethod("doStuff", [String] as Class[]) == method
+        cache.lookupMethod("doStuff", [Integer] as Class[]) == null
+        cache.lookupMethod("doStuff", [Long] as Class[]) == MetaClassLookupCache.NOT_CACHED
+        cache.lookupMethod("other", [String] as Class[]) == MetaClassLookupCache.NOT_CACHED
+    }
+
+    def "closure arguments share a key"() {
+        def cache = MetaClassLookupCache.of(metaClass)
+        def closure1 = { it }
+        def closure2 = { it }
+        def method = metaClass.pickMethod("configure", [closure1.getClass()] as Class[])
+
+        when:
+        cache.cacheMethod("configure", [closure1.getClass()] as Class[], method)
+
+        then:
+        cache.lookupMethod("configure", [closure2.getClass()] as Class[]) == method
+    }
+
+    def "does not cache method with argument type from other class loader"() {
+        def cache = MetaClassLookupCache.of(metaClass)
+        def argumentType = new GroovyClassLoader(getClass().classLoader).parseClass("class Argument { }")
+
+        when:
+        cache.cacheMethod("doStuff", [argumentType] as Class[], null)
+
+        then:
+        cache.lookupMethod("doStuff", [argumentType] as Class[]) == MetaClassLookupCache.NOT_CACHED
+    }
+
+    def "does not cache lookups against meta-class that can change"() {
+        def expandoMetaClass = new ExpandoMetaClass(Bean)
+        expandoMetaClass.initialize()
+
+        expect:
+        MetaClassLookupCache.of(expandoMetaClass) == null
+    }
+
+    static class Bean {
+        String prop
+
+        void doStuff(String value) {
+        }
+
+        void configure(Closure closure) {
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.gradle.internal.service.scopes
 
 import org.gradle.StartParameter
 import org.gradle.api.internal.ClassPathRegistry
+import org.gradle.api.internal.PersistentGeneratedClassCache
 import org.gradle.api.internal.cache.StringInterner
 import org.gradle.api.internal.changedetection.state.CrossBuildFileHashCache
 import org.gradle.api.internal.changedetection.state.FileSystemMirror
@@ -68,6 +69,14 @@ class GradleUserHomeScopeServicesTest extends Specification {
 
     def setup() {
         parent.getAll(PluginServiceRegistry) >> []
+        parent.get(CacheFactory) >> Stub(CacheFactory) {
+            open(*_) >> Stub(PersistentCache) {
+                getBaseDir() >> new File("cache")
+            }
+        }
+        parent.get(PersistentGeneratedClassCache) >> Stub(PersistentGeneratedClassCache) {
+            attach(_) >> Stub(PersistentGeneratedClassCache.AttachedDirectory)
+        }
         registry =  ServiceRegistryBuilder.builder()
             .parent(parent)
             .provider(new Object() {
@@ -30,6 +30,7 @@ import org.gradle.api.internal.project.DefaultProject
 import org.gradle.api.internal.project.DefaultProjectRegistry
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.internal.tasks.TaskContainerInternal
+import org.gradle.configuration.project.ParallelProjectConfigurationGuard
 import org.gradle.execution.TaskGraphExecuter
 import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.initialization.ClassLoaderScopeRegistry
@@ -418,7 +419,7 @@ class DefaultGradleSpec extends Specification {
             name,
             null, null, null, Stub(ScriptSource),
             gradle, serviceRegistryFactory,
-            Stub(ClassLoaderScope), Stub(ClassLoaderScope)
+            Stub(ClassLoaderScope), Stub(ClassLoaderScope), new ParallelProjectConfigurationGuard()
         ])
         project.getProjectConfigurator() >> crossProjectConfigurator
         projectRegistry.addProject(project)
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.internal.artifacts.DefaultImmutableModuleIdentifierFactory;
+import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.component.ArtifactType;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.internal.component.external.model.ModuleDependencyMetadata;
+import org.gradle.internal.event.DefaultListenerManager;
+import org.gradle.internal.nativeintegration.services.FileSystems;
+import org.gradle.internal.nativeintegration.services.NativeServices;
+import org.gradle.internal.resource.local.FileResourceConnector;
+import org.gradle.internal.resource.local.FileResourceRepository;
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the POMs of many sibling modules that share a deep hierarchy of parent POMs, each of which imports several BOMs.
+ * POMs are served from a local directory laid out like a Maven repository.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@State(Scope.Benchmark)
+public class PomParentCacheBenchmark {
+    private static final String GROUP = "org.gradle.benchmark";
+    private static final String VERSION = "1.0";
+
+    @Param({"8"})
+    int parentDepth;
+
+    @Param({"4"})
+    int bomsPerParent;
+
+    @Param({"50"})
+    int managedDependenciesPerBom;
+
+    @Param({"100"})
+    int children;
+
+    private File repoDir;
+    private FileResourceRepository fileResourceRepository;
+    private final ImmutableModuleIdentifierFactory moduleIdentifierFactory = new DefaultImmutableModuleIdentifierFactory();
+    private final VersionSelectorScheme versionSelectorScheme = new DefaultVersionSelectorScheme(new DefaultVersionComparator());
+    private DescriptorParseContext parseContext;
+    private final List<File> childPoms = new ArrayList<File>();
+    private GradlePomModuleDescriptorParser sharedParser;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        repoDir = Files.createTempDirectory("pom-parent-cache-benchmark").toFile();
+        NativeServices.initialize(repoDir);
+        fileResourceRepository = new FileResourceConnector(FileSystems.getDefault());
+        parseContext = new LocalRepositoryParseContext();
+        generateRepository();
+        sharedParser = newParser();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        FileUtils.forceDelete(repoDir);
+    }
+
+    /**
+     * Every child parses its own parent hierarchy, as it would without a shared cache.
+     */
+    @Benchmark
+    public void parseWithoutReuse(Blackhole blackhole) {
+        for (File childPom : childPoms) {
+            blackhole.consume(newParser().parseMetaData(parseContext, childPom));
+        }
+    }
+
+    /**
+     * Children share parent and imported POMs, starting with an empty cache, as in the first build in a daemon.
+     */
+    @Benchmark
+    public void parseWithinBuild(Blackhole blackhole) {
+        GradlePomModuleDescriptorParser parser = newParser();
+        for (File childPom : childPoms) {
+            blackhole.consume(parser.parseMetaData(parseContext, childPom));
+        }
+    }
+
+    /**
+     * Children share parent and imported POMs cached by a previous build.
+     */
+    @Benchmark
+    public void parseAcrossBuilds(Blackhole blackhole) {
+        for (File childPom : childPoms) {
+            blackhole.consume(sharedParser.parseMetaData(parseContext, childPom));
+        }
+    }
+
+    private GradlePomModuleDescriptorParser newParser() {
+        PomParentCache cache = new PomParentCache(new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()));
+        return new GradlePomModuleDescriptorParser(versionSelectorScheme, moduleIdentifierFactory, fileResourceRepository, cache);
+    }
+
+    private void generateRepository() throws IOException {
+        for (int level = 0; level < parentDepth; level++) {
+            StringBuilder imports = new StringBuilder();
+            for (int bom = 0; bom < bomsPerParent; bom++) {
+                String bomName = "bom-" + level + "-" + bom;
+                writeBom(bomName, level);
+                imports.append(dependency(bomName, VERSION, "<type>pom</type><scope>import</scope>"));
+            }
+            String parent = level == 0 ? "" : parent("parent-" + (level - 1));
+            writePom("parent-" + level, "<packaging>pom</packaging>" + parent
+                + "<properties><level-" + level + ".version>" + level + ".0</level-" + level + ".version></properties>"
+                + "<dependencyManagement><dependencies>" + imports + "</dependencies></dependencyManagement>");
+        }
+        for (int child = 0; child < children; child++) {
+            StringBuilder dependencies = new StringBuilder();
+            for (int level = 0; level < parentDepth; level++) {
+                dependencies.append(dependency("managed-" + level + "-" + (child % bomsPerParent) + "-" + (child % managedDependenciesPerBom), null, ""));
+            }
+            childPoms.add(writePom("child-" + child, parent("parent-" + (parentDepth - 1)) + "<dependencies>" + dependencies + "</dependencies>"));
+        }
+    }
+
+    private void writeBom(String name, int level) throws IOException {
+        StringBuilder managed = new StringBuilder();
+        for (int i = 0; i < managedDependenciesPerBom; i++) {
+            managed.append(dependency("managed-" + name.substring("bom-".length()) + "-" + i, "${level-" + level + ".version}", ""));
+        }
+        writePom(name, "<packaging>pom</packaging><properties><level-" + level + ".version>" + level + ".1</level-" + level + ".version></properties>"
+            + "<dependencyManagement><dependencies>" + managed + "</dependencies></dependencyManagement>");
+    }
+
+    private static String parent(String name) {
+        return "<parent><groupId>" + GROUP + "</groupId><artifactId>" + name + "</artifactId><version>" + VERSION + "</version></parent>";
+    }
+
+    private static String dependency(String name, String version, String extra) {
+        return "<dependency><groupId>" + GROUP + "</groupId><artifactId>" + name + "</artifactId>"
+            + (version == null ? "" : "<version>" + version + "</version>") + extra + "</dependency>";
+    }
+
+    private File writePom(String name, String content) throws IOException {
+        File pom = pomFile(GROUP, name, VERSION);
+        FileUtils.writeStringToFile(pom, "<project><modelVersion>4.0.0</modelVersion><groupId>" + GROUP + "</groupId><artifactId>" + name + "</artifactId><version>" + VERSION + "</version>" + content + "</project>", "UTF-8");
+        return pom;
+    }
+
+    private File pomFile(String group, String module, String version) {
+        return new File(repoDir, group.replace('.', '/') + "/" + module + "/" + version + "/" + module + "-" + version + ".pom");
+    }
+
+    private class LocalRepositoryParseContext implements DescriptorParseContext {
+        @Override
+        public LocallyAvailableExternalResource getMetaDataArtifact(ModuleComponentIdentifier componentIdentifier, ArtifactType artifactType) {
+            return fileResourceRepository.resource(pomFile(componentIdentifier.getGroup(), componentIdentifier.getModule(), componentIdentifier.getVersion()));
+        }
+
+        @Override
+        public LocallyAvailableExternalResource getMetaDataArtifact(ModuleDependencyMetadata dependencyMetadata, ArtifactType artifactType) {
+            return fileResourceRepository.resource(pomFile(dependencyMetadata.getSelector().getGroup(), dependencyMetadata.getSelector().getModule(), dependencyMetadata.getSelector().getVersion()));
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter;
 import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
 import org.gradle.cache.CacheRepository;
 import org.gradle.internal.event.ListenerManager;
+import org.gradle.internal.resource.transfer.RepositoryRequestLimiter;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
 
@@ -63,5 +64,9 @@ public class DependencyServices extends AbstractPluginServiceRegistry {
             listenerManager.addListener(transformedFileCache);
             return transformedFileCache;
         }
+
+        RepositoryRequestLimiter createRepositoryRequestLimiter() {
+            return new RepositoryRequestLimiter();
+        }
     }
 }
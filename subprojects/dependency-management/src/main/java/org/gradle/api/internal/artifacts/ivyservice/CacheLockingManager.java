@@ -28,9 +28,9 @@ public interface CacheLockingManager extends CacheAccess {
     /**
      * Creates a cache implementation that is managed by this locking manager. This method may be used at any time.
      *
-     * <p>The returned cache may only be used by an action being run from {@link #useCache(org.gradle.internal.Factory)}.
-     * In this instance, an exclusive lock will be held on the cache.
-     *
+     * <p>The returned cache is thread-safe and may be used with or without an enclosing call to {@link #useCache(org.gradle.internal.Factory)}.
+     * Entries that this process has already read or written are served from memory without taking ownership of the cache. Every other access
+     * takes ownership of the cache for the duration of the access.</p>
      */
     <K, V> PersistentIndexedCache<K, V> createCache(String cacheName, Serializer<K> keySerializer, Serializer<V> valueSerializer);
 }
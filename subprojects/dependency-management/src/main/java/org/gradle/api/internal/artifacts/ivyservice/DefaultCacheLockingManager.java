@@ -15,23 +15,35 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice;
 
+import com.google.common.cache.Cache;
 import org.gradle.api.Transformer;
+import org.gradle.cache.AsyncCacheAccess;
 import org.gradle.cache.CacheBuilder;
+import org.gradle.cache.CacheDecorator;
 import org.gradle.cache.CacheRepository;
+import org.gradle.cache.CrossProcessCacheAccess;
+import org.gradle.cache.FileLock;
 import org.gradle.cache.FileLockManager;
+import org.gradle.cache.MultiProcessSafePersistentIndexedCache;
 import org.gradle.cache.PersistentCache;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.internal.Cast;
 import org.gradle.internal.Factory;
 import org.gradle.internal.serialize.Serializer;
 
 import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class DefaultCacheLockingManager implements CacheLockingManager, Closeable {
+    private static final Object NULL = new Object();
+    private static final int MAX_ENTRIES_IN_MEMORY = 10000;
     private final PersistentCache cache;
+    private final Map<String, Cache<Object, Object>> entriesByCacheName = new HashMap<String, Cache<Object, Object>>();
 
     public DefaultCacheLockingManager(CacheRepository cacheRepository, ArtifactCacheMetaData cacheMetaData) {
         cache = cacheRepository
@@ -70,20 +82,46 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
     @Override
     public <K, V> PersistentIndexedCache<K, V> createCache(String cacheName, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
         String cacheFileInMetaDataStore = CacheLayout.META_DATA.getKey() + "/" + cacheName;
-        final PersistentIndexedCache<K, V> persistentCache = cache.createCache(new PersistentIndexedCacheParameters<K, V>(cacheFileInMetaDataStore, keySerializer, valueSerializer));
-        return new CacheLockingPersistentCache<K, V>(persistentCache);
+        Cache<Object, Object> entries = entriesFor(cacheFileInMetaDataStore);
+        PersistentIndexedCache<K, V> persistentCache = cache.createCache(new PersistentIndexedCacheParameters<K, V>(cacheFileInMetaDataStore, keySerializer, valueSerializer).cacheDecorator(new InMemoryIndexDecorator(entries)));
+        return new CacheLockingPersistentCache<K, V>(persistentCache, entries);
     }
 
+    /**
+     * Returns the entries of the given index. The index is decorated only when it is first created and is reused by later calls to {@link #createCache},
+     * so the entries are shared by every instance created for the same index.
+     */
+    private Cache<Object, Object> entriesFor(String cacheName) {
+        synchronized (entriesByCacheName) {
+            Cache<Object, Object> entries = entriesByCacheName.get(cacheName);
+            if (entries == null) {
+                entries = com.google.common.cache.CacheBuilder.newBuilder().maximumSize(MAX_ENTRIES_IN_MEMORY).build();
+                entriesByCacheName.put(cacheName, entries);
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Serves reads of the entries that this process has already read or written from memory, so that they do not wait for the thread that owns the cache.
+     * All other access to the index takes ownership of the cache for the duration of the access.
+     */
     private class CacheLockingPersistentCache<K, V> implements PersistentIndexedCache<K, V> {
         private final PersistentIndexedCache<K, V> persistentCache;
+        private final Cache<Object, Object> entries;
 
-        public CacheLockingPersistentCache(PersistentIndexedCache<K, V> persistentCache) {
+        public CacheLockingPersistentCache(PersistentIndexedCache<K, V> persistentCache, Cache<Object, Object> entries) {
             this.persistentCache = persistentCache;
+            this.entries = entries;
         }
 
         @Nullable
         @Override
         public V get(final K key) {
+            Object value = getFromMemory(key);
+            if (value != null) {
+                return value == NULL ? null : Cast.<V>uncheckedCast(value);
+            }
             return cache.useCache(new Factory<V>() {
                 @Override
                 public V create() {
@@ -94,6 +132,10 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
 
         @Override
         public V get(final K key, final Transformer<? extends V, ? super K> producer) {
+            Object value = getFromMemory(key);
+            if (value != null && value != NULL) {
+                return Cast.uncheckedCast(value);
+            }
             return cache.useCache(new Factory<V>() {
                 @Override
                 public V create() {
@@ -102,6 +144,18 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
             });
         }
 
+        /**
+         * Holds the file lock, so that the entries have been discarded if another process has changed the cache since they were read.
+         */
+        private Object getFromMemory(final K key) {
+            return cache.withFileLock(new Factory<Object>() {
+                @Override
+                public Object create() {
+                    return entries.getIfPresent(key);
+                }
+            });
+        }
+
         @Override
         public void put(final K key, final V value) {
             cache.useCache(new Runnable() {
@@ -122,4 +176,88 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
             });
         }
     }
+
+    /**
+     * Records the entries read from and written to an index while the cache is owned, and discards them when another process changes the cache.
+     * Unlike the in-memory cache decorator used for the task history, writes are made synchronously, so no thread waits on a worker for the cache.
+     */
+    private static class InMemoryIndexDecorator implements CacheDecorator {
+        private final Cache<Object, Object> entries;
+
+        InMemoryIndexDecorator(Cache<Object, Object> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public <K, V> MultiProcessSafePersistentIndexedCache<K, V> decorate(String cacheId, String cacheName, MultiProcessSafePersistentIndexedCache<K, V> persistentCache, CrossProcessCacheAccess crossProcessCacheAccess, AsyncCacheAccess asyncCacheAccess) {
+            return new InMemoryIndex<K, V>(persistentCache, entries);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj != null && obj.getClass() == getClass();
+        }
+
+        @Override
+        public int hashCode() {
+            return getClass().hashCode();
+        }
+    }
+
+    private static class InMemoryIndex<K, V> implements MultiProcessSafePersistentIndexedCache<K, V> {
+        private final MultiProcessSafePersistentIndexedCache<K, V> delegate;
+        private final Cache<Object, Object> entries;
+        private FileLock.State stateAtRelease;
+
+        InMemoryIndex(MultiProcessSafePersistentIndexedCache<K, V> delegate, Cache<Object, Object> entries) {
+            this.delegate = delegate;
+            this.entries = entries;
+        }
+
+        @Nullable
+        @Override
+        public V get(K key) {
+            V value = delegate.get(key);
+            entries.put(key, value == null ? NULL : value);
+            return value;
+        }
+
+        @Override
+        public V get(K key, Transformer<? extends V, ? super K> producer) {
+            V value = delegate.get(key, producer);
+            entries.put(key, value == null ? NULL : value);
+            return value;
+        }
+
+        @Override
+        public void put(K key, V value) {
+            delegate.put(key, value);
+            entries.put(key, value);
+        }
+
+        @Override
+        public void remove(K key) {
+            delegate.remove(key);
+            entries.put(key, NULL);
+        }
+
+        @Override
+        public void afterLockAcquire(FileLock.State currentCacheState) {
+            if (stateAtRelease == null || currentCacheState.hasBeenUpdatedSince(stateAtRelease)) {
+                entries.invalidateAll();
+            }
+            delegate.afterLockAcquire(currentCacheState);
+        }
+
+        @Override
+        public void finishWork() {
+            delegate.finishWork();
+        }
+
+        @Override
+        public void beforeLockRelease(FileLock.State currentCacheState) {
+            stateAtRelease = currentCacheState;
+            delegate.beforeLockRelease(currentCacheState);
+        }
+    }
 }
@@ -22,6 +22,8 @@ import org.gradle.api.artifacts.component.ModuleComponentSelector;
 import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
 import org.gradle.api.internal.artifacts.dependencies.DefaultImmutableVersionConstraint;
 import org.gradle.api.internal.artifacts.dependencies.DefaultMutableVersionConstraint;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.PomParentCache.CachedPomParent;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.PomParentCache.PomInput;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.PomReader.PomDependencyData;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.data.MavenDependencyKey;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.data.PomDependencyMgt;
@@ -35,6 +37,8 @@ import org.gradle.internal.component.external.model.GradleDependencyMetadata;
 import org.gradle.internal.component.external.model.MavenDependencyDescriptor;
 import org.gradle.internal.component.external.model.ModuleDependencyMetadata;
 import org.gradle.internal.component.external.model.MutableMavenModuleResolveMetadata;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
 import org.gradle.internal.resource.local.FileResourceRepository;
 import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
 import org.slf4j.Logger;
@@ -43,7 +47,9 @@ import org.xml.sax.SAXException;
 
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -59,12 +65,14 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
     private final VersionSelectorScheme gradleVersionSelectorScheme;
     private final VersionSelectorScheme mavenVersionSelectorScheme;
     private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
+    private final PomParentCache pomParentCache;
 
-    public GradlePomModuleDescriptorParser(VersionSelectorScheme gradleVersionSelectorScheme, ImmutableModuleIdentifierFactory moduleIdentifierFactory,  FileResourceRepository fileResourceRepository) {
+    public GradlePomModuleDescriptorParser(VersionSelectorScheme gradleVersionSelectorScheme, ImmutableModuleIdentifierFactory moduleIdentifierFactory, FileResourceRepository fileResourceRepository, PomParentCache pomParentCache) {
         super(fileResourceRepository);
         this.gradleVersionSelectorScheme = gradleVersionSelectorScheme;
         mavenVersionSelectorScheme = new MavenVersionSelectorScheme(gradleVersionSelectorScheme);
         this.moduleIdentifierFactory = moduleIdentifierFactory;
+        this.pomParentCache = pomParentCache;
     }
 
     @Override
@@ -84,7 +92,7 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
         PomReader pomReader = new PomReader(resource, moduleIdentifierFactory);
         GradlePomModuleDescriptorBuilder mdBuilder = new GradlePomModuleDescriptorBuilder(pomReader, gradleVersionSelectorScheme, mavenVersionSelectorScheme, moduleIdentifierFactory);
 
-        doParsePom(parserSettings, mdBuilder, pomReader);
+        doParsePom(parserSettings, mdBuilder, pomReader, new ArrayList<PomInput>());
 
         List<MavenDependencyDescriptor> dependencies = mdBuilder.getDependencies();
         ModuleComponentIdentifier cid = mdBuilder.getComponentIdentifier();
@@ -101,7 +109,12 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
         return metadata;
     }
 
-    private void doParsePom(DescriptorParseContext parserSettings, GradlePomModuleDescriptorBuilder mdBuilder, PomReader pomReader) throws IOException, SAXException {
+    /**
+     * Resolves the given POM, including its parent and imported POMs.
+     *
+     * @param inputs Collects the parent and imported POMs, transitively, that were used to resolve the POM.
+     */
+    private void doParsePom(DescriptorParseContext parserSettings, GradlePomModuleDescriptorBuilder mdBuilder, PomReader pomReader, List<PomInput> inputs) throws IOException, SAXException {
         if (pomReader.hasParent()) {
             //Is there any other parent properties?
 
@@ -109,8 +122,8 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
                 pomReader.getParentGroupId(),
                 pomReader.getParentArtifactId(),
                 new DefaultImmutableVersionConstraint(pomReader.getParentVersion()));
-            PomReader parentPomReader = parsePomForSelector(parserSettings, parentId, pomReader.getAllPomProperties());
-            pomReader.setPomParent(parentPomReader);
+            PomParent parentPom = parsePomParent(parserSettings, parentId, pomReader.getAllPomProperties(), inputs);
+            pomReader.setPomParent(parentPom);
         }
         pomReader.resolveGAV();
 
@@ -137,7 +150,7 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
                 mdBuilder.addDependencyForRelocation(selector);
             }
         } else {
-            overrideDependencyMgtsWithImported(parserSettings, pomReader);
+            overrideDependencyMgtsWithImported(parserSettings, pomReader, inputs);
             addDependencies(mdBuilder, pomReader);
         }
     }
@@ -159,11 +172,12 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
      *
      * @param parseContext Parse context
      * @param pomReader    POM reader
+     * @param inputs       Collects the imported POMs
      * @throws IOException
      * @throws SAXException
      */
-    private void overrideDependencyMgtsWithImported(DescriptorParseContext parseContext, PomReader pomReader) throws IOException, SAXException {
-        Map<MavenDependencyKey, PomDependencyMgt> importedDependencyMgts = parseImportedDependencyMgts(parseContext, pomReader.parseDependencyMgt());
+    private void overrideDependencyMgtsWithImported(DescriptorParseContext parseContext, PomReader pomReader, List<PomInput> inputs) throws IOException, SAXException {
+        Map<MavenDependencyKey, PomDependencyMgt> importedDependencyMgts = parseImportedDependencyMgts(parseContext, pomReader.parseDependencyMgt(), inputs);
         pomReader.addImportedDependencyMgts(importedDependencyMgts);
     }
 
@@ -172,11 +186,12 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
      *
      * @param parseContext          Parse context
      * @param currentDependencyMgts Current dependency management information
+     * @param inputs                Collects the imported POMs
      * @return Imported dependency management information
      * @throws IOException
      * @throws SAXException
      */
-    private Map<MavenDependencyKey, PomDependencyMgt> parseImportedDependencyMgts(DescriptorParseContext parseContext, Collection<PomDependencyMgt> currentDependencyMgts) throws IOException, SAXException {
+    private Map<MavenDependencyKey, PomDependencyMgt> parseImportedDependencyMgts(DescriptorParseContext parseContext, Collection<PomDependencyMgt> currentDependencyMgts, List<PomInput> inputs) throws IOException, SAXException {
         Map<MavenDependencyKey, PomDependencyMgt> importedDependencyMgts = new LinkedHashMap<MavenDependencyKey, PomDependencyMgt>();
 
         for (PomDependencyMgt currentDependencyMgt : currentDependencyMgts) {
@@ -185,7 +200,7 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
                     currentDependencyMgt.getGroupId(),
                     currentDependencyMgt.getArtifactId(),
                     new DefaultMutableVersionConstraint(currentDependencyMgt.getVersion()));
-                PomReader importedPom = parsePomForSelector(parseContext, importedId, Maps.<String, String>newHashMap());
+                PomParent importedPom = parsePomParent(parseContext, importedId, Collections.<String, String>emptyMap(), inputs);
                 for (Map.Entry<MavenDependencyKey, PomDependencyMgt> entry : importedPom.getDependencyMgt().entrySet()) {
                     if (!importedDependencyMgts.containsKey(entry.getKey())) {
                         importedDependencyMgts.put(entry.getKey(), entry.getValue());
@@ -207,22 +222,45 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
     }
 
     private PomReader parsePomForId(DescriptorParseContext parseContext, ModuleComponentIdentifier identifier, Map<String, String> childProperties) throws IOException, SAXException {
-        return parsePomResource(parseContext, parseContext.getMetaDataArtifact(identifier, ArtifactType.MAVEN_POM), childProperties);
+        return parsePomResource(parseContext, parseContext.getMetaDataArtifact(identifier, ArtifactType.MAVEN_POM), childProperties, new ArrayList<PomInput>());
     }
 
-    private PomReader parsePomForSelector(DescriptorParseContext parseContext, ModuleComponentSelector selector, Map<String, String> childProperties) throws IOException, SAXException {
+    /**
+     * Resolves the effective model of a parent or imported POM, reusing a previously resolved model when neither the POM, the given child properties
+     * nor any of the POM's own ancestors and imported POMs have changed.
+     */
+    private PomParent parsePomParent(DescriptorParseContext parseContext, ModuleComponentSelector selector, Map<String, String> childProperties, List<PomInput> inputs) throws IOException, SAXException {
         LocallyAvailableExternalResource localResource = parseContext.getMetaDataArtifact(toDependencyMetadata(selector), ArtifactType.MAVEN_POM);
-        return parsePomResource(parseContext, localResource, childProperties);
+        HashValue contentHash = HashUtil.createHash(localResource.getFile(), "MD5");
+        CachedPomParent cached = pomParentCache.get(contentHash, childProperties);
+        if (cached == null || !isUpToDate(parseContext, cached)) {
+            List<PomInput> parentInputs = new ArrayList<PomInput>();
+            PomReader pomReader = parsePomResource(parseContext, localResource, childProperties, parentInputs);
+            cached = pomParentCache.put(contentHash, childProperties, pomReader, parentInputs);
+        }
+        inputs.add(new PomInput(selector, contentHash));
+        inputs.addAll(cached.getInputs());
+        return cached.getPomParent();
+    }
+
+    private boolean isUpToDate(DescriptorParseContext parseContext, CachedPomParent cached) {
+        for (PomInput input : cached.getInputs()) {
+            LocallyAvailableExternalResource localResource = parseContext.getMetaDataArtifact(toDependencyMetadata(input.getSelector()), ArtifactType.MAVEN_POM);
+            if (!input.getContentHash().equals(HashUtil.createHash(localResource.getFile(), "MD5"))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private ModuleDependencyMetadata toDependencyMetadata(ModuleComponentSelector selector) {
         return new GradleDependencyMetadata(selector);
     }
 
-    private PomReader parsePomResource(DescriptorParseContext parseContext, LocallyAvailableExternalResource localResource, Map<String, String> childProperties) throws SAXException, IOException {
+    private PomReader parsePomResource(DescriptorParseContext parseContext, LocallyAvailableExternalResource localResource, Map<String, String> childProperties, List<PomInput> inputs) throws SAXException, IOException {
         PomReader pomReader = new PomReader(localResource, moduleIdentifierFactory, childProperties);
         GradlePomModuleDescriptorBuilder mdBuilder = new GradlePomModuleDescriptorBuilder(pomReader, gradleVersionSelectorScheme, mavenVersionSelectorScheme, moduleIdentifierFactory);
-        doParsePom(parseContext, mdBuilder, pomReader);
+        doParsePom(parseContext, mdBuilder, pomReader, inputs);
         return pomReader;
     }
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.PomReader.PomDependencyData;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.data.MavenDependencyKey;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.data.PomDependencyMgt;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An effective, fully interpolated snapshot of a parent or imported POM. Unlike {@link PomReader}, this is detached from the
+ * DOM of the POM and can be shared safely between threads and between the POMs of several child modules.
+ */
+public class ImmutablePomParent implements PomParent {
+    private final Map<String, String> properties;
+    private final Map<MavenDependencyKey, PomDependencyData> dependencies;
+    private final Map<MavenDependencyKey, PomDependencyMgt> dependencyMgts;
+
+    private ImmutablePomParent(Map<String, String> properties, Map<MavenDependencyKey, PomDependencyData> dependencies, Map<MavenDependencyKey, PomDependencyMgt> dependencyMgts) {
+        this.properties = properties;
+        this.dependencies = dependencies;
+        this.dependencyMgts = dependencyMgts;
+    }
+
+    /**
+     * Creates a snapshot of the given POM. The POM must have been completely resolved, including its parent and imported POMs.
+     */
+    public static ImmutablePomParent of(PomParent pomParent) {
+        if (pomParent instanceof ImmutablePomParent) {
+            return (ImmutablePomParent) pomParent;
+        }
+        ImmutableMap.Builder<MavenDependencyKey, PomDependencyData> dependencies = ImmutableMap.builder();
+        for (Map.Entry<MavenDependencyKey, PomDependencyData> entry : pomParent.getDependencies().entrySet()) {
+            dependencies.put(entry.getKey(), new DetachedPomDependencyData(entry.getValue()));
+        }
+        ImmutableMap.Builder<MavenDependencyKey, PomDependencyMgt> dependencyMgts = ImmutableMap.builder();
+        for (Map.Entry<MavenDependencyKey, PomDependencyMgt> entry : pomParent.getDependencyMgt().entrySet()) {
+            dependencyMgts.put(entry.getKey(), new DetachedPomDependencyMgt(entry.getValue()));
+        }
+        // Properties may contain null values, for example when the version of the POM is missing
+        Map<String, String> properties = Collections.unmodifiableMap(new HashMap<String, String>(pomParent.getProperties()));
+        return new ImmutablePomParent(properties, dependencies.build(), dependencyMgts.build());
+    }
+
+    @Override
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    @Override
+    public Map<MavenDependencyKey, PomDependencyData> getDependencies() {
+        return dependencies;
+    }
+
+    @Override
+    public Map<MavenDependencyKey, PomDependencyMgt> getDependencyMgt() {
+        return dependencyMgts;
+    }
+
+    @Override
+    public PomDependencyMgt findDependencyDefaults(MavenDependencyKey dependencyKey) {
+        return dependencyMgts.get(dependencyKey);
+    }
+
+    private static class DetachedPomDependencyMgt implements PomDependencyMgt {
+        private final MavenDependencyKey id;
+        private final String groupId;
+        private final String artifactId;
+        private final String version;
+        private final String scope;
+        private final String type;
+        private final String classifier;
+        private final List<ModuleIdentifier> excludedModules;
+
+        DetachedPomDependencyMgt(PomDependencyMgt dependencyMgt) {
+            this.id = dependencyMgt.getId();
+            this.groupId = dependencyMgt.getGroupId();
+            this.artifactId = dependencyMgt.getArtifactId();
+            this.version = dependencyMgt.getVersion();
+            this.scope = dependencyMgt.getScope();
+            this.type = dependencyMgt.getType();
+            this.classifier = dependencyMgt.getClassifier();
+            this.excludedModules = ImmutableList.copyOf(dependencyMgt.getExcludedModules());
+        }
+
+        @Override
+        public MavenDependencyKey getId() {
+            return id;
+        }
+
+        @Override
+        public String getGroupId() {
+            return groupId;
+        }
+
+        @Override
+        public String getArtifactId() {
+            return artifactId;
+        }
+
+        @Override
+        public String getVersion() {
+            return version;
+        }
+
+        @Override
+        public String getScope() {
+            return scope;
+        }
+
+        @Override
+        public String getType() {
+            return type;
+        }
+
+        @Override
+        public String getClassifier() {
+            return classifier;
+        }
+
+        @Override
+        public List<ModuleIdentifier> getExcludedModules() {
+            return excludedModules;
+        }
+    }
+
+    private static class DetachedPomDependencyData extends DetachedPomDependencyMgt implements PomDependencyData {
+        private final boolean optional;
+
+        DetachedPomDependencyData(PomDependencyData dependency) {
+            super(dependency);
+            this.optional = dependency.isOptional();
+        }
+
+        @Override
+        public boolean isOptional() {
+            return optional;
+        }
+    }
+}
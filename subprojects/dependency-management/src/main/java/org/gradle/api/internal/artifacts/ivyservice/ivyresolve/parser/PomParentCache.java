@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.cache.internal.CrossBuildInMemoryCache;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.internal.hash.HashValue;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cross-build cache of effective parent and imported (BOM) POMs.
+ *
+ * <p>The effective model of a parent POM depends on the content of the POM itself, on the properties inherited from the child POM that
+ * references it, and on the content of its own ancestors and imported POMs. Entries are keyed by the first two, and record the content hashes
+ * of the latter so that callers can verify that an entry is still valid before using it.</p>
+ */
+@ThreadSafe
+public class PomParentCache {
+    private final CrossBuildInMemoryCache<Key, CachedPomParent> cache;
+
+    public PomParentCache(CrossBuildInMemoryCacheFactory cacheFactory) {
+        this.cache = cacheFactory.newCache();
+    }
+
+    /**
+     * Locates the effective model for the POM with the given content hash, when parsed with the given child properties. Returns {@code null} when missing.
+     */
+    @Nullable
+    public CachedPomParent get(HashValue contentHash, Map<String, String> childProperties) {
+        return cache.get(new Key(contentHash, childProperties));
+    }
+
+    /**
+     * Records the effective model of the POM with the given content hash, when parsed with the given child properties.
+     *
+     * @param inputs The ancestor and imported POMs that were used to calculate the effective model.
+     */
+    public CachedPomParent put(HashValue contentHash, Map<String, String> childProperties, PomParent pomParent, List<PomInput> inputs) {
+        CachedPomParent entry = new CachedPomParent(ImmutablePomParent.of(pomParent), ImmutableList.copyOf(inputs));
+        cache.put(new Key(contentHash, childProperties), entry);
+        return entry;
+    }
+
+    public static class CachedPomParent {
+        private final ImmutablePomParent pomParent;
+        private final List<PomInput> inputs;
+
+        private CachedPomParent(ImmutablePomParent pomParent, List<PomInput> inputs) {
+            this.pomParent = pomParent;
+            this.inputs = inputs;
+        }
+
+        public ImmutablePomParent getPomParent() {
+            return pomParent;
+        }
+
+        /**
+         * The ancestor and imported POMs, transitively, that contributed to this model.
+         */
+        public List<PomInput> getInputs() {
+            return inputs;
+        }
+    }
+
+    /**
+     * A POM that was referenced while calculating an effective model, along with the hash of its content at that time.
+     */
+    public static class PomInput {
+        private final ModuleComponentSelector selector;
+        private final HashValue contentHash;
+
+        public PomInput(ModuleComponentSelector selector, HashValue contentHash) {
+            this.selector = selector;
+            this.contentHash = contentHash;
+        }
+
+        public ModuleComponentSelector getSelector() {
+            return selector;
+        }
+
+        public HashValue getContentHash() {
+            return contentHash;
+        }
+    }
+
+    private static class Key {
+        private final HashValue contentHash;
+        private final Map<String, String> childProperties;
+        private final int hashCode;
+
+        Key(HashValue contentHash, Map<String, String> childProperties) {
+            this.contentHash = contentHash;
+            this.childProperties = childProperties.isEmpty() ? Collections.<String, String>emptyMap() : new HashMap<String, String>(childProperties);
+            this.hashCode = Objects.hashCode(contentHash, this.childProperties);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hashCode == other.hashCode
+                && contentHash.equals(other.contentHash)
+                && childProperties.equals(other.childProperties);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -401,7 +401,7 @@ public class PomReader implements PomParent {
             for (int i = 0; i < childs.getLength(); i++) {
                 Node node = childs.item(i);
                 if (node instanceof Element && DEPENDENCY.equals(node.getNodeName())) {
-                    depElements.add(new PomDependencyData((Element) node));
+                    depElements.add(new PomDependencyDataElement((Element) node));
                 }
             }
         }
@@ -563,10 +563,14 @@ public class PomReader implements PomParent {
         }
     }
 
-    public class PomDependencyData extends PomDependencyMgtElement {
+    public interface PomDependencyData extends PomDependencyMgt {
+        boolean isOptional();
+    }
+
+    public class PomDependencyDataElement extends PomDependencyMgtElement implements PomDependencyData {
         private final Element depElement;
 
-        PomDependencyData(Element depElement) {
+        PomDependencyDataElement(Element depElement) {
             super(depElement);
             this.depElement = depElement;
         }
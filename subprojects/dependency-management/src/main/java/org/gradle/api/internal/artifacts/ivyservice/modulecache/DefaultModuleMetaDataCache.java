@@ -25,6 +25,7 @@ import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.Compone
 import org.gradle.api.internal.attributes.ImmutableAttributesFactory;
 import org.gradle.api.internal.model.NamedObjectInstantiator;
 import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.internal.ProducerGuard;
 import org.gradle.internal.Factory;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
 import org.gradle.internal.component.external.model.MutableModuleComponentResolveMetadata;
@@ -43,7 +44,8 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
     private final CacheLockingManager cacheLockingManager;
 
     private final ModuleMetadataStore moduleMetadataStore;
-    private PersistentIndexedCache<ModuleComponentAtRepositoryKey, ModuleMetadataCacheEntry> cache;
+    private final ProducerGuard<ModuleComponentAtRepositoryKey> descriptorGuard = ProducerGuard.striped();
+    private volatile PersistentIndexedCache<ModuleComponentAtRepositoryKey, ModuleMetadataCacheEntry> cache;
 
     public DefaultModuleMetaDataCache(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager, ArtifactCacheMetaData artifactCacheMetaData, ImmutableModuleIdentifierFactory moduleIdentifierFactory, ImmutableAttributesFactory attributesFactory, NamedObjectInstantiator instantiator) {
         this.timeProvider = timeProvider;
@@ -66,25 +68,25 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
     public CachedMetaData getCachedModuleDescriptor(ModuleComponentRepository repository, ModuleComponentIdentifier componentId) {
         final ModuleComponentAtRepositoryKey key = createKey(repository, componentId);
         final PersistentIndexedCache<ModuleComponentAtRepositoryKey, ModuleMetadataCacheEntry> cache = getCache();
-        return cacheLockingManager.useCache(new Factory<CachedMetaData>() {
+        ModuleMetadataCacheEntry entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isMissing()) {
+            return new DefaultCachedMetaData(entry, null, timeProvider);
+        }
+        MutableModuleComponentResolveMetadata metadata = withDescriptorLock(key, new Factory<MutableModuleComponentResolveMetadata>() {
             @Override
-            public CachedMetaData create() {
-                ModuleMetadataCacheEntry entry = cache.get(key);
-                if (entry == null) {
-                    return null;
-                }
-                if (entry.isMissing()) {
-                    return new DefaultCachedMetaData(entry, null, timeProvider);
-                }
-                MutableModuleComponentResolveMetadata metadata = moduleMetadataStore.getModuleDescriptor(key);
-                if (metadata == null) {
-                    // Descriptor file has been deleted - ignore the entry
-                    cache.remove(key);
-                    return null;
-                }
-                return new DefaultCachedMetaData(entry, entry.configure(metadata), timeProvider);
+            public MutableModuleComponentResolveMetadata create() {
+                return moduleMetadataStore.getModuleDescriptor(key);
             }
         });
+        if (metadata == null) {
+            // Descriptor file has been deleted - ignore the entry
+            cache.remove(key);
+            return null;
+        }
+        return new DefaultCachedMetaData(entry, entry.configure(metadata), timeProvider);
     }
 
     public CachedMetaData cacheMissing(ModuleComponentRepository repository, ModuleComponentIdentifier id) {
@@ -97,13 +99,27 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
     public CachedMetaData cacheMetaData(ModuleComponentRepository repository, final ModuleComponentResolveMetadata metadata) {
         LOGGER.debug("Recording module descriptor in cache: {} [changing = {}]", metadata.getComponentId(), metadata.isChanging());
         final ModuleComponentAtRepositoryKey key = createKey(repository, metadata.getComponentId());
-        return cacheLockingManager.useCache(new Factory<CachedMetaData>() {
+        withDescriptorLock(key, new Factory<Void>() {
             @Override
-            public CachedMetaData create() {
+            public Void create() {
                 moduleMetadataStore.putModuleDescriptor(key, metadata);
-                ModuleMetadataCacheEntry entry = createEntry(metadata);
-                getCache().put(key, entry);
-                return new DefaultCachedMetaData(entry, metadata, timeProvider);
+                return null;
+            }
+        });
+        ModuleMetadataCacheEntry entry = createEntry(metadata);
+        getCache().put(key, entry);
+        return new DefaultCachedMetaData(entry, metadata, timeProvider);
+    }
+
+    /**
+     * Descriptor files are rewritten in place, so readers and writers of the same descriptor must not overlap, in this process or in others.
+     * Access to the descriptors of different modules is not serialized within this process.
+     */
+    private <T> T withDescriptorLock(ModuleComponentAtRepositoryKey key, final Factory<T> action) {
+        return descriptorGuard.guardByKey(key, new Factory<T>() {
+            @Override
+            public T create() {
+                return cacheLockingManager.withFileLock(action);
             }
         });
     }
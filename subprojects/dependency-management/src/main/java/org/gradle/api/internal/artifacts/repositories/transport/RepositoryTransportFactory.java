@@ -34,7 +34,9 @@ import org.gradle.internal.resource.cached.CachedExternalResourceIndex;
 import org.gradle.internal.resource.connector.ResourceConnectorFactory;
 import org.gradle.internal.resource.connector.ResourceConnectorSpecification;
 import org.gradle.internal.resource.local.FileResourceRepository;
+import org.gradle.internal.resource.transfer.ConcurrencyLimitingExternalResourceConnector;
 import org.gradle.internal.resource.transfer.ExternalResourceConnector;
+import org.gradle.internal.resource.transfer.RepositoryRequestLimiter;
 import org.gradle.internal.resource.transport.ResourceConnectorRepositoryTransport;
 import org.gradle.internal.resource.transport.file.FileTransport;
 import org.gradle.util.BuildCommencedTimeProvider;
@@ -56,6 +58,7 @@ public class RepositoryTransportFactory {
     private final StartParameterResolutionOverride startParameterResolutionOverride;
     private final ProducerGuard<ExternalResourceName> producerGuard;
     private final FileResourceRepository fileRepository;
+    private final RepositoryRequestLimiter requestLimiter;
 
     public RepositoryTransportFactory(Collection<ResourceConnectorFactory> resourceConnectorFactory,
                                       ProgressLoggerFactory progressLoggerFactory,
@@ -66,7 +69,8 @@ public class RepositoryTransportFactory {
                                       BuildOperationExecutor buildOperationExecutor,
                                       StartParameterResolutionOverride startParameterResolutionOverride,
                                       ProducerGuard<ExternalResourceName> producerGuard,
-                                      FileResourceRepository fileRepository) {
+                                      FileResourceRepository fileRepository,
+                                      RepositoryRequestLimiter requestLimiter) {
         this.progressLoggerFactory = progressLoggerFactory;
         this.temporaryFileProvider = temporaryFileProvider;
         this.cachedExternalResourceIndex = cachedExternalResourceIndex;
@@ -76,6 +80,7 @@ public class RepositoryTransportFactory {
         this.startParameterResolutionOverride = startParameterResolutionOverride;
         this.producerGuard = producerGuard;
         this.fileRepository = fileRepository;
+        this.requestLimiter = requestLimiter;
 
         for (ResourceConnectorFactory connectorFactory : resourceConnectorFactory) {
             register(connectorFactory);
@@ -117,6 +122,7 @@ public class RepositoryTransportFactory {
 
         ExternalResourceConnector resourceConnector = connectorFactory.createResourceConnector(connectionDetails);
         resourceConnector = startParameterResolutionOverride.overrideExternalResourceConnnector(resourceConnector);
+        resourceConnector = new ConcurrencyLimitingExternalResourceConnector(resourceConnector, requestLimiter);
 
         ExternalResourceCachePolicy cachePolicy = new DefaultExternalResourceCachePolicy();
         cachePolicy = startParameterResolutionOverride.overrideExternalResourceCachePolicy(cachePolicy);
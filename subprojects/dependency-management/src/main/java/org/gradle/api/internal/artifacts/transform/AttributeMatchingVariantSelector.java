@@ -26,7 +26,6 @@ import org.gradle.internal.Pair;
 import org.gradle.internal.component.AmbiguousVariantSelectionException;
 import org.gradle.internal.component.NoMatchingVariantSelectionException;
 import org.gradle.internal.component.VariantSelectionException;
-import org.gradle.internal.component.model.AttributeMatcher;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -61,13 +60,12 @@ class AttributeMatchingVariantSelector implements VariantSelector {
     }
 
     private ResolvedArtifactSet doSelect(ResolvedVariantSet producer) {
-        AttributeMatcher matcher = schema.withProducer(producer.getSchema());
-        List<? extends ResolvedVariant> matches = matcher.matches(producer.getVariants(), requested);
+        List<? extends ResolvedVariant> matches = matchingCache.selectMatches(producer.getSchema(), producer.getVariants(), requested);
         if (matches.size() == 1) {
             return matches.get(0).getArtifacts();
         }
         if (matches.size() > 1) {
-            throw new AmbiguousVariantSelectionException(producer.asDescribable().getDisplayName(), requested, matches, matcher);
+            throw new AmbiguousVariantSelectionException(producer.asDescribable().getDisplayName(), requested, matches, schema.withProducer(producer.getSchema()));
         }
 
         List<Pair<ResolvedVariant, ConsumerVariantMatchResult.ConsumerVariant>> candidates = new ArrayList<Pair<ResolvedVariant, ConsumerVariantMatchResult.ConsumerVariant>>();
@@ -91,6 +89,6 @@ class AttributeMatchingVariantSelector implements VariantSelector {
         if (ignoreWhenNoMatches) {
             return ResolvedArtifactSet.EMPTY;
         }
-        throw new NoMatchingVariantSelectionException(producer.asDescribable().getDisplayName(), requested, producer.getVariants(), matcher);
+        throw new NoMatchingVariantSelectionException(producer.asDescribable().getDisplayName(), requested, producer.getVariants(), schema.withProducer(producer.getSchema()));
     }
 }
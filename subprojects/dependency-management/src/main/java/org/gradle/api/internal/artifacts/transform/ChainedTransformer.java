@@ -18,6 +18,7 @@ package org.gradle.api.internal.artifacts.transform;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 class ChainedTransformer implements ArtifactTransformer {
@@ -52,6 +53,23 @@ class ChainedTransformer implements ArtifactTransformer {
         return false;
     }
 
+    /**
+     * Returns the individual transforms that make up the given transform, in the order they are applied.
+     */
+    static List<ArtifactTransformer> stepsOf(ArtifactTransformer transform) {
+        if (!(transform instanceof ChainedTransformer)) {
+            return Collections.singletonList(transform);
+        }
+        List<ArtifactTransformer> steps = new ArrayList<ArtifactTransformer>();
+        ((ChainedTransformer) transform).collectSteps(steps);
+        return steps;
+    }
+
+    private void collectSteps(List<ArtifactTransformer> steps) {
+        steps.addAll(stepsOf(first));
+        steps.addAll(stepsOf(second));
+    }
+
     @Override
     public String getDisplayName() {
         return first.getDisplayName() + " -> " + second.getDisplayName();
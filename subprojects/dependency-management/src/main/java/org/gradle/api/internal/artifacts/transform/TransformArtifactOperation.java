@@ -18,6 +18,7 @@ package org.gradle.api.internal.artifacts.transform;
 
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvableArtifact;
 import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationQueue;
 import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.progress.BuildOperationDescriptor;
 
@@ -26,34 +27,40 @@ import java.util.List;
 
 class TransformArtifactOperation implements RunnableBuildOperation {
     private final ResolvableArtifact artifact;
-    private final ArtifactTransformer transform;
+    private final List<ArtifactTransformer> steps;
+    private final BuildOperationQueue<RunnableBuildOperation> queue;
     private Throwable failure;
-    private List<File> result;
+    private TransformFileOperation fileOperation;
 
-    TransformArtifactOperation(ResolvableArtifact artifact, ArtifactTransformer transform) {
+    TransformArtifactOperation(ResolvableArtifact artifact, ArtifactTransformer transform, BuildOperationQueue<RunnableBuildOperation> queue) {
         this.artifact = artifact;
-        this.transform = transform;
+        this.steps = ChainedTransformer.stepsOf(transform);
+        this.queue = queue;
     }
 
     @Override
     public void run(BuildOperationContext context) {
+        File file;
         try {
-            result = transform.transform(artifact.getFile());
+            file = artifact.getFile();
         } catch (Throwable t) {
             failure = t;
+            return;
         }
+        fileOperation = new TransformFileOperation(file, steps, queue);
+        fileOperation.run(context);
     }
 
     @Override
     public BuildOperationDescriptor.Builder description() {
-        return BuildOperationDescriptor.displayName("Apply " + transform.getDisplayName() + " to " + artifact);
+        return BuildOperationDescriptor.displayName("Apply " + steps.get(0).getDisplayName() + " to " + artifact);
     }
 
     public Throwable getFailure() {
-        return failure;
+        return failure != null ? failure : fileOperation.getFailure();
     }
 
     public List<File> getResult() {
-        return result;
+        return fileOperation.getResult();
     }
 }
@@ -17,42 +17,96 @@
 package org.gradle.api.internal.artifacts.transform;
 
 import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationQueue;
 import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.progress.BuildOperationDescriptor;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Applies the first step of a transform to a file. When the transform is a chain, an operation is queued to apply the remaining
+ * steps to each of the outputs, so that the steps of a chain for different files can run in parallel.
+ */
 class TransformFileOperation implements RunnableBuildOperation {
     private final File file;
-    private final ArtifactTransformer transform;
+    private final List<ArtifactTransformer> steps;
+    private final BuildOperationQueue<RunnableBuildOperation> queue;
     private Throwable failure;
     private List<File> result;
+    private List<TransformFileOperation> nextSteps;
+
+    TransformFileOperation(File file, ArtifactTransformer transform, BuildOperationQueue<RunnableBuildOperation> queue) {
+        this(file, ChainedTransformer.stepsOf(transform), queue);
+    }
 
-    TransformFileOperation(File file, ArtifactTransformer transform) {
+    TransformFileOperation(File file, List<ArtifactTransformer> steps, BuildOperationQueue<RunnableBuildOperation> queue) {
         this.file = file;
-        this.transform = transform;
+        this.steps = steps;
+        this.queue = queue;
     }
 
     @Override
     public void run(BuildOperationContext context) {
+        List<File> outputs;
         try {
-            result = transform.transform(file);
+            outputs = steps.get(0).transform(file);
         } catch (Throwable t) {
             failure = t;
+            return;
+        }
+        if (steps.size() == 1) {
+            result = outputs;
+            return;
+        }
+        List<ArtifactTransformer> remainingSteps = steps.subList(1, steps.size());
+        List<TransformFileOperation> next = new ArrayList<TransformFileOperation>(outputs.size());
+        for (File output : outputs) {
+            next.add(new TransformFileOperation(output, remainingSteps, queue));
+        }
+        nextSteps = next;
+        for (TransformFileOperation operation : next) {
+            if (remainingSteps.get(0).hasCachedResult(operation.file)) {
+                operation.run(null);
+            } else {
+                queue.add(operation);
+            }
         }
     }
 
     @Override
     public BuildOperationDescriptor.Builder description() {
-        return BuildOperationDescriptor.displayName("Apply " + transform.getDisplayName() + " to " + file);
+        return BuildOperationDescriptor.displayName("Apply " + steps.get(0).getDisplayName() + " to " + file);
     }
 
+    /**
+     * Returns the failure of this step, or of any later step. May only be called once the queue has completed.
+     */
     public Throwable getFailure() {
-        return failure;
+        if (failure != null || nextSteps == null) {
+            return failure;
+        }
+        for (TransformFileOperation operation : nextSteps) {
+            Throwable nextFailure = operation.getFailure();
+            if (nextFailure != null) {
+                return nextFailure;
+            }
+        }
+        return null;
     }
 
+    /**
+     * Returns the outputs of the last step, in order. May only be called once the queue has completed.
+     */
     public List<File> getResult() {
-        return result;
+        if (nextSteps == null) {
+            return result;
+        }
+        List<File> results = new ArrayList<File>();
+        for (TransformFileOperation operation : nextSteps) {
+            results.addAll(operation.getResult());
+        }
+        return results;
     }
 }
@@ -18,6 +18,7 @@ package org.gradle.api.internal.artifacts.transform;
 
 import com.google.common.collect.Maps;
 import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.attributes.HasAttributes;
 import org.gradle.api.internal.artifacts.VariantTransformRegistry;
 import org.gradle.api.internal.attributes.AttributeContainerInternal;
 import org.gradle.api.internal.attributes.AttributesSchemaInternal;
@@ -26,6 +27,9 @@ import org.gradle.api.internal.attributes.ImmutableAttributesFactory;
 import org.gradle.internal.component.model.AttributeMatcher;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -52,6 +56,46 @@ public class VariantAttributeMatchingCache {
         cachedResult.applyTo(result);
     }
 
+    /**
+     * Selects the candidates that match the requested attributes, using the given producer schema. Only the attributes of the candidates are
+     * considered, so the result is cached by the candidate attributes, the producer schema and the requested attributes.
+     */
+    public <T extends HasAttributes> List<T> selectMatches(AttributesSchemaInternal producerSchema, Collection<? extends T> candidates, AttributeContainerInternal requested) {
+        List<T> candidateList = new ArrayList<T>(candidates);
+        ImmutableAttributes[] candidateAttributes = new ImmutableAttributes[candidateList.size()];
+        for (int i = 0; i < candidateAttributes.length; i++) {
+            candidateAttributes[i] = ((AttributeContainerInternal) candidateList.get(i).getAttributes()).asImmutable();
+        }
+        Map<CandidatesKey, int[]> cache = getCache(requested).matchingCandidates;
+        CandidatesKey key = new CandidatesKey(producerSchema, candidateAttributes);
+        int[] matches = cache.get(key);
+        if (matches == null) {
+            List<T> matching = schema.withProducer(producerSchema).matches(candidateList, requested);
+            matches = new int[matching.size()];
+            for (int i = 0; i < matches.length; i++) {
+                matches[i] = indexOf(candidateList, matching.get(i));
+            }
+            cache.put(key, matches);
+        }
+        if (matches.length == 0) {
+            return Collections.emptyList();
+        }
+        List<T> result = new ArrayList<T>(matches.length);
+        for (int match : matches) {
+            result.add(candidateList.get(match));
+        }
+        return result;
+    }
+
+    private static int indexOf(List<?> candidates, Object match) {
+        for (int i = 0; i < candidates.size(); i++) {
+            if (candidates.get(i) == match) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Matched value " + match + " is not one of the candidates.");
+    }
+
     private void findProducersFor(AttributeContainerInternal actual, AttributeContainerInternal requested, ConsumerVariantMatchResult result) {
         // Prefer direct transformation over indirect transformation
         List<VariantTransformRegistry.Registration> candidates = new ArrayList<VariantTransformRegistry.Registration>();
@@ -105,6 +149,38 @@ public class VariantAttributeMatchingCache {
     private static class AttributeSpecificCache {
         private final Map<AttributeContainer, Boolean> ignoreExtraActual = Maps.newConcurrentMap();
         private final Map<AttributeContainer, ConsumerVariantMatchResult> transforms = Maps.newConcurrentMap();
+        private final Map<CandidatesKey, int[]> matchingCandidates = Maps.newConcurrentMap();
+    }
+
+    private static class CandidatesKey {
+        private final AttributesSchemaInternal producerSchema;
+        private final ImmutableAttributes[] candidates;
+        private final int hashCode;
+
+        CandidatesKey(AttributesSchemaInternal producerSchema, ImmutableAttributes[] candidates) {
+            this.producerSchema = producerSchema;
+            this.candidates = candidates;
+            this.hashCode = 31 * System.identityHashCode(producerSchema) + Arrays.hashCode(candidates);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CandidatesKey other = (CandidatesKey) o;
+            return hashCode == other.hashCode
+                && producerSchema == other.producerSchema
+                && Arrays.equals(candidates, other.candidates);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
     }
 
 }
@@ -18,7 +18,6 @@ package org.gradle.internal.resource.cached.ivy;
 
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
 import org.gradle.cache.PersistentIndexedCache;
-import org.gradle.internal.Factory;
 import org.gradle.internal.resource.cached.CachedItem;
 import org.gradle.internal.serialize.Serializer;
 
@@ -30,7 +29,7 @@ public abstract class AbstractCachedIndex<K, V extends CachedItem> {
     private final Serializer<V> valueSerializer;
     private final CacheLockingManager cacheLockingManager;
 
-    private PersistentIndexedCache<K, V> persistentCache;
+    private volatile PersistentIndexedCache<K, V> persistentCache;
 
     public AbstractCachedIndex(String persistentCacheName, Serializer<K> keySerializer, Serializer<V> valueSerializer, CacheLockingManager cacheLockingManager) {
 
@@ -54,27 +53,19 @@ public abstract class AbstractCachedIndex<K, V extends CachedItem> {
     public V lookup(final K key) {
         assertKeyNotNull(key);
 
-        return cacheLockingManager.useCache(new Factory<V>() {
-            public V create() {
-                V found = getPersistentCache().get(key);
-                if (found == null) {
-                    return null;
-                } else if (found.isMissing() || found.getCachedFile().exists()) {
-                    return found;
-                } else {
-                    clear(key);
-                    return null;
-                }
-            }
-        });
+        V found = getPersistentCache().get(key);
+        if (found == null) {
+            return null;
+        } else if (found.isMissing() || found.getCachedFile().exists()) {
+            return found;
+        } else {
+            clear(key);
+            return null;
+        }
     }
 
     protected void storeInternal(final K key, final V entry) {
-        cacheLockingManager.useCache(new Runnable() {
-            public void run() {
-                getPersistentCache().put(key, entry);
-            }
-        });
+        getPersistentCache().put(key, entry);
     }
 
     protected void assertKeyNotNull(K key) {
@@ -91,10 +82,6 @@ public abstract class AbstractCachedIndex<K, V extends CachedItem> {
 
     public void clear(final K key) {
         assertKeyNotNull(key);
-        cacheLockingManager.useCache(new Runnable() {
-            public void run() {
-                getPersistentCache().remove(key);
-            }
-        });
+        getPersistentCache().remove(key);
     }
 }
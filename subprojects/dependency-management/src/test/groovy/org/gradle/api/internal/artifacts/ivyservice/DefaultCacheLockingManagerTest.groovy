@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.api.Transformer
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier
+import org.gradle.api.internal.artifacts.ivyservice.modulecache.ModuleComponentAtRepositoryKey
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ComponentIdentifierSerializer
+import org.gradle.cache.internal.CacheScopeMapping
+import org.gradle.cache.internal.DefaultCacheFactory
+import org.gradle.cache.internal.DefaultCacheRepository
+import org.gradle.cache.internal.DefaultFileLockManager
+import org.gradle.cache.internal.ProcessMetaDataProvider
+import org.gradle.cache.internal.locklistener.NoOpFileLockContentionHandler
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.serialize.AbstractSerializer
+import org.gradle.internal.serialize.BaseSerializerFactory
+import org.gradle.internal.serialize.Decoder
+import org.gradle.internal.serialize.Encoder
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+
+import static org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier.newId
+
+class DefaultCacheLockingManagerTest extends ConcurrentSpec {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def metaDataProvider = Stub(ProcessMetaDataProvider) {
+        getProcessIdentifier() >> "123"
+        getProcessDisplayName() >> "process"
+    }
+    def scopeMapping = Stub(CacheScopeMapping)
+    def executorFactory = new DefaultExecutorFactory()
+    def cacheRepository = new DefaultCacheRepository(scopeMapping, new DefaultCacheFactory(new DefaultFileLockManager(metaDataProvider, new NoOpFileLockContentionHandler()), executorFactory))
+    def cacheMetaData = Stub(ArtifactCacheMetaData)
+    DefaultCacheLockingManager manager
+
+    def setup() {
+        scopeMapping.getBaseDirectory(_, _, _) >> tmpDir.testDirectory
+        scopeMapping.getRootDirectory(_) >> tmpDir.testDirectory
+        cacheMetaData.cacheDir >> tmpDir.file("modules")
+        manager = new DefaultCacheLockingManager(cacheRepository, cacheMetaData)
+    }
+
+    def cleanup() {
+        manager?.close()
+        executorFactory.stop()
+    }
+
+    def "index with dependency cache keys can be used with and without an enclosing useCache"() {
+        def index = manager.createCache("module-metadata", new KeySerializer(), BaseSerializerFactory.STRING_SERIALIZER)
+        def key1 = new ModuleComponentAtRepositoryKey("repo", newId("org", "a", "1.0"))
+        def key2 = new ModuleComponentAtRepositoryKey("repo", newId("org", "b", "1.0"))
+
+        when:
+        index.put(key1, "a")
+        def result = manager.useCache {
+            index.put(key2, "b")
+            index.get(key1)
+        }
+
+        then:
+        result == "a"
+        index.get(key2) == "b"
+        index.get(new ModuleComponentAtRepositoryKey("repo", newId("org", "c", "1.0"))) == null
+
+        when:
+        index.remove(key1)
+
+        then:
+        index.get(key1) == null
+    }
+
+    def "index is shared with threads waiting for another thread that owns the cache"() {
+        def index = manager.createCache("module-metadata", new KeySerializer(), BaseSerializerFactory.STRING_SERIALIZER)
+
+        when:
+        async {
+            start {
+                manager.useCache {
+                    index.put(new ModuleComponentAtRepositoryKey("repo", newId("org", "owner", "1.0")), "owner")
+                    instant.ownerUpdated
+                    thread.blockUntil.otherStarted
+                }
+            }
+            start {
+                thread.blockUntil.ownerUpdated
+                instant.otherStarted
+                // Waits for the owner to release the cache
+                index.put(new ModuleComponentAtRepositoryKey("repo", newId("org", "other", "1.0")), "other")
+                instant.otherUpdated
+            }
+        }
+
+        then:
+        instant.otherUpdated > instant.otherStarted
+        index.get(new ModuleComponentAtRepositoryKey("repo", newId("org", "owner", "1.0"))) == "owner"
+        index.get(new ModuleComponentAtRepositoryKey("repo", newId("org", "other", "1.0"))) == "other"
+    }
+
+    def "reads entries known to this process while another thread owns the cache"() {
+        def index = manager.createCache("module-metadata", new KeySerializer(), BaseSerializerFactory.STRING_SERIALIZER)
+        def key = new ModuleComponentAtRepositoryKey("repo", newId("org", "a", "1.0"))
+        def missing = new ModuleComponentAtRepositoryKey("repo", newId("org", "missing", "1.0"))
+        index.put(key, "a")
+        index.get(missing)
+
+        when:
+        async {
+            start {
+                manager.useCache {
+                    instant.owned
+                    thread.blockUntil.read
+                }
+            }
+            start {
+                thread.blockUntil.owned
+                assert index.get(key) == "a"
+                assert index.get(missing) == null
+                instant.read
+            }
+        }
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "entries read from memory reflect later updates and removals"() {
+        def index = manager.createCache("module-metadata", new KeySerializer(), BaseSerializerFactory.STRING_SERIALIZER)
+        def key = new ModuleComponentAtRepositoryKey("repo", newId("org", "a", "1.0"))
+
+        when:
+        index.put(key, "a")
+        index.put(key, "b")
+
+        then:
+        index.get(key) == "b"
+
+        when:
+        index.remove(key)
+
+        then:
+        index.get(key) == null
+        index.get(key, { "c" } as Transformer) == "c"
+        index.get(key) == "c"
+    }
+
+    def "index created again for the same cache reads entries known to this process while another thread owns the cache"() {
+        def key = new ModuleComponentAtRepositoryKey("repo", newId("org", "a", "1.0"))
+        manager.createCache("module-metadata", new KeySerializer(), BaseSerializerFactory.STRING_SERIALIZER).put(key, "a")
+        def index = manager.createCache("module-metadata", new KeySerializer(), BaseSerializerFactory.STRING_SERIALIZER)
+
+        when:
+        async {
+            start {
+                manager.useCache {
+                    instant.owned
+                    thread.blockUntil.read
+                }
+            }
+            start {
+                thread.blockUntil.owned
+                assert index.get(key) == "a"
+                instant.read
+            }
+        }
+
+        then:
+        noExceptionThrown()
+    }
+
+    private static class KeySerializer extends AbstractSerializer<ModuleComponentAtRepositoryKey> {
+        private final ComponentIdentifierSerializer componentIdSerializer = new ComponentIdentifierSerializer()
+
+        @Override
+        ModuleComponentAtRepositoryKey read(Decoder decoder) throws Exception {
+            return new ModuleComponentAtRepositoryKey(decoder.readString(), (ModuleComponentIdentifier) componentIdSerializer.read(decoder))
+        }
+
+        @Override
+        void write(Encoder encoder, ModuleComponentAtRepositoryKey value) throws Exception {
+            encoder.writeString(value.repositoryId)
+            componentIdSerializer.write(encoder, value.componentId)
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser
+
+import org.gradle.internal.component.external.model.ModuleDependencyMetadata
+import org.gradle.internal.hash.HashUtil
+import org.gradle.test.fixtures.file.TestFile
+
+import static org.gradle.api.internal.component.ArtifactType.MAVEN_POM
+
+class GradlePomModuleDescriptorParserParentCacheTest extends AbstractGradlePomModuleDescriptorParserTest {
+    TestFile parent
+    TestFile grandParent
+    TestFile bom
+
+    def setup() {
+        parent = tmpDir.file("parent.xml")
+        grandParent = tmpDir.file("grand-parent.xml")
+        bom = tmpDir.file("bom.xml")
+        parseContext.getMetaDataArtifact(_ as ModuleDependencyMetadata, MAVEN_POM) >> { ModuleDependencyMetadata dependency, type ->
+            switch (dependency.selector.module) {
+                case 'parent': return asResource(parent)
+                case 'grand-parent': return asResource(grandParent)
+                case 'bom': return asResource(bom)
+            }
+            throw new IllegalArgumentException(dependency.selector.toString())
+        }
+    }
+
+    def "reuses effective parent pom for children with the same inherited properties"() {
+        given:
+        parentPom("1.2")
+        childPom("child-one")
+
+        when:
+        parsePom()
+
+        then:
+        single(metadata.dependencies).selector == moduleId('group-two', 'artifact-two', '1.2')
+        def entry = pomParentCache.get(HashUtil.createHash(parent, "MD5"), [:])
+        entry != null
+
+        when:
+        pomFile.text = ""
+        childPom("child-two")
+        parsePom()
+
+        then:
+        single(metadata.dependencies).selector == moduleId('group-two', 'artifact-two', '1.2')
+        pomParentCache.get(HashUtil.createHash(parent, "MD5"), [:]).is(entry)
+    }
+
+    def "does not share effective parent pom between children with different inherited properties"() {
+        given:
+        parentPom('${two.version}')
+        childPom("child-one", "<properties><two.version>1.2</two.version></properties>")
+
+        when:
+        parsePom()
+
+        then:
+        single(metadata.dependencies).selector == moduleId('group-two', 'artifact-two', '1.2')
+
+        when:
+        pomFile.text = ""
+        childPom("child-two", "<properties><two.version>1.3</two.version></properties>")
+        parsePom()
+
+        then:
+        single(metadata.dependencies).selector == moduleId('group-two', 'artifact-two', '1.3')
+    }
+
+    def "discards effective parent pom when parent pom changes"() {
+        given:
+        parentPom("1.2")
+        childPom("child-one")
+        parsePom()
+
+        when:
+        parent.text = ""
+        parentPom("1.3")
+        parsePom()
+
+        then:
+        single(metadata.dependencies).selector == moduleId('group-two', 'artifact-two', '1.3')
+    }
+
+    def "discards effective parent pom when an ancestor of the parent pom changes"() {
+        given:
+        grandParentPom("1.2")
+        parent << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <artifactId>parent</artifactId>
+    <parent>
+        <groupId>group-one</groupId>
+        <artifactId>grand-parent</artifactId>
+        <version>version-one</version>
+    </parent>
+</project>
+"""
+        childPom("child-one")
+        parsePom()
+
+        when:
+        grandParent.text = ""
+        grandParentPom("1.3")
+        parsePom()
+
+        then:
+        single(metadata.dependencies).selector == moduleId('group-two', 'artifact-two', '1.3')
+    }
+
+    def "discards effective parent pom when a pom imported by the parent pom changes"() {
+        given:
+        bomPom("1.2")
+        parent << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>parent</artifactId>
+    <version>version-one</version>
+    <dependencyManagement>
+        <dependencies>
+            <dependency>
+                <groupId>group-one</groupId>
+                <artifactId>bom</artifactId>
+                <version>version-one</version>
+                <type>pom</type>
+                <scope>import</scope>
+            </dependency>
+        </dependencies>
+    </dependencyManagement>
+</project>
+"""
+        childPom("child-one", "", """
+    <dependencies>
+        <dependency>
+            <groupId>group-two</groupId>
+            <artifactId>artifact-two</artifactId>
+        </dependency>
+    </dependencies>
+""")
+
+        when:
+        parsePom()
+
+        then:
+        single(metadata.dependencies).selector == moduleId('group-two', 'artifact-two', '1.2')
+
+        when:
+        bom.text = ""
+        bomPom("1.3")
+        parsePom()
+
+        then:
+        single(metadata.dependencies).selector == moduleId('group-two', 'artifact-two', '1.3')
+    }
+
+    private void childPom(String artifactId, String properties = "", String dependencies = "") {
+        pomFile << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <artifactId>${artifactId}</artifactId>
+    <parent>
+        <groupId>group-one</groupId>
+        <artifactId>parent</artifactId>
+        <version>version-one</version>
+    </parent>
+    ${properties}
+    ${dependencies}
+</project>
+"""
+    }
+
+    private void parentPom(String version) {
+        pomWithDependency(parent, "parent", version)
+    }
+
+    private void grandParentPom(String version) {
+        pomWithDependency(grandParent, "grand-parent", version)
+    }
+
+    private static void pomWithDependency(TestFile file, String artifactId, String version) {
+        file << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>${artifactId}</artifactId>
+    <version>version-one</version>
+    <dependencies>
+        <dependency>
+            <groupId>group-two</groupId>
+            <artifactId>artifact-two</artifactId>
+            <version>${version}</version>
+        </dependency>
+    </dependencies>
+</project>
+"""
+    }
+
+    private void bomPom(String version) {
+        bom << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>bom</artifactId>
+    <version>version-one</version>
+    <packaging>pom</packaging>
+    <dependencyManagement>
+        <dependencies>
+            <dependency>
+                <groupId>group-two</groupId>
+                <artifactId>artifact-two</artifactId>
+                <version>${version}</version>
+            </dependency>
+        </dependencies>
+    </dependencyManagement>
+</project>
+"""
+    }
+}
@@ -61,8 +61,7 @@ class DefaultArtifactTransformsTest extends Specification {
         variant1.artifacts >> variant1Artifacts
         variant2.attributes >> typeAttributes("jar")
 
-        consumerSchema.withProducer(producerSchema) >> attributeMatcher
-        attributeMatcher.matches(variants, typeAttributes("classes")) >> [variant1]
+        matchingCache.selectMatches(producerSchema, variants, typeAttributes("classes")) >> [variant1]
 
         expect:
         def result = transforms.variantSelector(typeAttributes("classes"), true).select(set)
@@ -85,7 +84,7 @@ class DefaultArtifactTransformsTest extends Specification {
         variant2.attributes >> typeAttributes("jar")
 
         consumerSchema.withProducer(producerSchema) >> attributeMatcher
-        attributeMatcher.matches(variants, typeAttributes("classes")) >> [variant1, variant2]
+        matchingCache.selectMatches(producerSchema, variants, typeAttributes("classes")) >> [variant1, variant2]
 
         when:
         def result = transforms.variantSelector(typeAttributes("classes"), true).select(set)
@@ -125,7 +124,7 @@ class DefaultArtifactTransformsTest extends Specification {
         variant2.attributes >> typeAttributes("dll")
 
         consumerSchema.withProducer(producerSchema) >> attributeMatcher
-        attributeMatcher.matches(_, _) >> []
+        matchingCache.selectMatches(_, _, _) >> []
 
         matchingCache.collectConsumerVariants(typeAttributes("jar"), targetAttributes, _) >> { AttributeContainerInternal from, AttributeContainerInternal to, ConsumerVariantMatchResult result ->
             result.matched(to, transformer, 1)
@@ -177,7 +176,7 @@ class DefaultArtifactTransformsTest extends Specification {
         variant2.asDescribable() >> Describables.of('<variant2>')
 
         consumerSchema.withProducer(producerSchema) >> attributeMatcher
-        attributeMatcher.matches(_, _) >> []
+        matchingCache.selectMatches(_, _, _) >> []
 
         matchingCache.collectConsumerVariants(_, _, _) >> { AttributeContainerInternal from, AttributeContainerInternal to, ConsumerVariantMatchResult result ->
                 result.matched(to, Stub(ArtifactTransformer), 1)
@@ -210,7 +209,7 @@ Found the following transforms:
         variant2.attributes >> typeAttributes("classes")
 
         consumerSchema.withProducer(producerSchema) >> attributeMatcher
-        attributeMatcher.matches(_, _) >> []
+        matchingCache.selectMatches(_, _, _) >> []
 
         matchingCache.collectConsumerVariants(typeAttributes("dll"), typeAttributes("jar"), _) >> null
         matchingCache.collectConsumerVariants(typeAttributes("dll"), typeAttributes("classes"), _) >> null
@@ -236,7 +235,7 @@ Found the following transforms:
         variant2.asDescribable() >> Describables.of('<variant2>')
 
         consumerSchema.withProducer(producerSchema) >> attributeMatcher
-        attributeMatcher.matches(_, _) >> []
+        matchingCache.selectMatches(_, _, _) >> []
 
         matchingCache.collectConsumerVariants(typeAttributes("dll"), typeAttributes("jar"), _) >> null
         matchingCache.collectConsumerVariants(typeAttributes("dll"), typeAttributes("classes"), _) >> null
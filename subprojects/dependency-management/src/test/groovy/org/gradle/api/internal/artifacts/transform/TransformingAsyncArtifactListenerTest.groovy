@@ -24,7 +24,8 @@ import org.gradle.testing.internal.util.Specification
 class TransformingAsyncArtifactListenerTest extends Specification {
     def transformer = Mock(ArtifactTransformer)
     def operationQueue = Mock(BuildOperationQueue)
-    def listener  = new TransformingAsyncArtifactListener(transformer, null, operationQueue, Maps.newHashMap(), Maps.newHashMap())
+    def fileResults = Maps.newHashMap()
+    def listener  = new TransformingAsyncArtifactListener(transformer, null, operationQueue, Maps.newHashMap(), fileResults)
 
     def "runs transforms in parallel if no cached result is available"() {
         given:
@@ -49,4 +50,63 @@ class TransformingAsyncArtifactListenerTest extends Specification {
         then:
         2 * transformer.transform(_)
     }
+
+    def "queues each step of a chain of transforms separately for each intermediate file"() {
+        def first = Mock(ArtifactTransformer)
+        def second = Mock(ArtifactTransformer)
+        def chainedListener = new TransformingAsyncArtifactListener(new ChainedTransformer(first, second), null, operationQueue, Maps.newHashMap(), fileResults)
+        def file = new File("foo")
+        def queued = []
+
+        when:
+        chainedListener.fileAvailable(file)
+
+        then:
+        first.hasCachedResult(file) >> false
+        1 * operationQueue.add(_) >> { TransformFileOperation operation -> queued << operation }
+        0 * _
+
+        when:
+        queued.remove(0).run(null)
+
+        then:
+        1 * first.transform(file) >> [new File("a"), new File("b")]
+        second.hasCachedResult(new File("a")) >> false
+        second.hasCachedResult(new File("b")) >> true
+        1 * second.transform(new File("b")) >> [new File("b2")]
+        1 * operationQueue.add(_) >> { TransformFileOperation operation -> queued << operation }
+        0 * first._
+        0 * second.transform(_)
+
+        when:
+        queued.remove(0).run(null)
+
+        then:
+        1 * second.transform(new File("a")) >> [new File("a2"), new File("a3")]
+
+        and:
+        fileResults[file].failure == null
+        fileResults[file].result == [new File("a2"), new File("a3"), new File("b2")]
+    }
+
+    def "reports failure of a later step of a chain of transforms"() {
+        def first = Mock(ArtifactTransformer)
+        def second = Mock(ArtifactTransformer)
+        def failure = new RuntimeException()
+        def chainedListener = new TransformingAsyncArtifactListener(new ChainedTransformer(first, second), null, operationQueue, Maps.newHashMap(), fileResults)
+        def file = new File("foo")
+
+        given:
+        first.hasCachedResult(_) >> true
+        second.hasCachedResult(_) >> true
+        first.transform(file) >> [new File("a")]
+        second.transform(new File("a")) >> { throw failure }
+
+        when:
+        chainedListener.fileAvailable(file)
+
+        then:
+        fileResults[file].failure.is(failure)
+        0 * operationQueue._
+    }
 }
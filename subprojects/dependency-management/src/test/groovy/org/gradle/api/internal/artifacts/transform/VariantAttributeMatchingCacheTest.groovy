@@ -21,6 +21,7 @@ import org.gradle.api.Transformer
 import org.gradle.api.artifacts.transform.ArtifactTransform
 import org.gradle.api.attributes.Attribute
 import org.gradle.api.attributes.AttributeContainer
+import org.gradle.api.attributes.HasAttributes
 import org.gradle.api.internal.artifacts.VariantTransformRegistry
 import org.gradle.api.internal.attributes.AttributeContainerInternal
 import org.gradle.api.internal.attributes.AttributesSchemaInternal
@@ -324,6 +325,67 @@ class VariantAttributeMatchingCacheTest extends Specification {
         0 * matcher._
     }
 
+    def "reuses selected variants for candidates with the same attributes"() {
+        def producerSchema = Stub(AttributesSchemaInternal)
+        def requested = attributes().attribute(a1, "1").asImmutable()
+        def variant1 = variant(c1)
+        def variant2 = variant(c2)
+        def otherVariant1 = variant(c1)
+        def otherVariant2 = variant(c2)
+
+        when:
+        def result = matchingCache.selectMatches(producerSchema, [variant1, variant2], requested)
+
+        then:
+        result == [variant2]
+
+        and:
+        1 * schema.withProducer(producerSchema) >> matcher
+        1 * matcher.matches([variant1, variant2], requested) >> [variant2]
+        0 * matcher._
+
+        when:
+        def result2 = matchingCache.selectMatches(producerSchema, [otherVariant1, otherVariant2], requested)
+
+        then:
+        result2 == [otherVariant2]
+
+        and:
+        0 * schema._
+        0 * matcher._
+    }
+
+    def "does not reuse selected variants for different producer schema or requested attributes"() {
+        def producerSchema = Stub(AttributesSchemaInternal)
+        def otherProducerSchema = Stub(AttributesSchemaInternal)
+        def requested = attributes().attribute(a1, "1").asImmutable()
+        def otherRequested = attributes().attribute(a1, "2").asImmutable()
+        def variant1 = variant(c1)
+        def variant2 = variant(c2)
+
+        when:
+        matchingCache.selectMatches(producerSchema, [variant1, variant2], requested)
+        def result1 = matchingCache.selectMatches(otherProducerSchema, [variant1, variant2], requested)
+        def result2 = matchingCache.selectMatches(producerSchema, [variant1, variant2], otherRequested)
+
+        then:
+        result1 == [variant1]
+        result2 == []
+
+        and:
+        3 * schema.withProducer(_) >> matcher
+        1 * matcher.matches(_, requested) >> [variant2]
+        1 * matcher.matches(_, requested) >> [variant1]
+        1 * matcher.matches(_, otherRequested) >> []
+        0 * matcher._
+    }
+
+    private HasAttributes variant(AttributeContainer attributes) {
+        def variant = Stub(HasAttributes)
+        variant.attributes >> attributes
+        variant
+    }
+
     private AttributeContainerInternal attributes() {
         immutableAttributesFactory.mutable()
     }
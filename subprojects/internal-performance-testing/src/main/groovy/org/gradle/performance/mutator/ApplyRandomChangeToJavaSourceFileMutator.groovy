@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance.mutator
+
+import org.gradle.performance.fixture.BuildExperimentSpec
+
+/**
+ * Applies either an ABI change or a non-ABI change to a Java source file. The kind of change is chosen at random for each invocation.
+ * The random sequence is restarted from a fixed seed at the start of each experiment, so that the baseline and the current build
+ * see the same sequence of changes.
+ *
+ * <p>Each change is applied to the original source file, so a change is compared with the change of the previous invocation.
+ * An ABI change adds a new public method. A non-ABI change keeps the public method added by the previous invocation, if any, and only
+ * changes a method body, so that the ABI of the class is the same as in the previous invocation.</p>
+ */
+class ApplyRandomChangeToJavaSourceFileMutator extends AbstractJavaSourceFileMutator {
+    private final long seed
+    private Random random
+    private String previousMethod
+
+    ApplyRandomChangeToJavaSourceFileMutator(String sourceFilePath, long seed = 1234L) {
+        super(sourceFilePath)
+        this.seed = seed
+        this.random = new Random(seed)
+    }
+
+    @Override
+    void beforeExperiment(BuildExperimentSpec experimentSpec, File projectDir) {
+        random = new Random(seed)
+        previousMethod = null
+    }
+
+    @Override
+    protected void applyChangeAt(StringBuilder text, int lastMethodEndPos) {
+        if (random.nextBoolean()) {
+            previousMethod = "_m" + uniqueText + "()"
+        }
+        if (previousMethod != null) {
+            text.insert(lastMethodEndPos + 1, "public void " + previousMethod + " { }")
+            text.insert(lastMethodEndPos, previousMethod + ";")
+        }
+        text.insert(lastMethodEndPos, "System.out.println(\"" + uniqueText + "\");")
+    }
+}
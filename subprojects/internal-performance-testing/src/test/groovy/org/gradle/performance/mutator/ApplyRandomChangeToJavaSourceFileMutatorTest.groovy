@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.performance.mutator
+
+import org.gradle.performance.fixture.BuildExperimentInvocationInfo
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.ToolProvider
+import java.lang.reflect.Modifier
+
+class ApplyRandomChangeToJavaSourceFileMutatorTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def "each change compiles and is either an ABI change or a non-ABI change compared with the previous change"() {
+        def projectDir = tmpDir.createDir("project")
+        def sourceFile = projectDir.file("src/Thing.java")
+        sourceFile.text = """
+            public class Thing {
+                public void doSomething() {
+                    System.out.println("original");
+                }
+            }
+        """
+        def mutator = new ApplyRandomChangeToJavaSourceFileMutator("src/Thing.java")
+        def invocation = Stub(BuildExperimentInvocationInfo) {
+            getProjectDir() >> projectDir
+        }
+        mutator.beforeExperiment(null, projectDir)
+
+        when:
+        def changes = []
+        def previousText = sourceFile.text
+        10.times {
+            mutator.beforeInvocation(invocation)
+            assert sourceFile.text != previousText
+            previousText = sourceFile.text
+            changes << publicMethodsOf(sourceFile)
+            mutator.afterInvocation(invocation, null, null)
+        }
+
+        then:
+        def abiChanges = (1..<changes.size()).collect { changes[it] != changes[it - 1] }
+        abiChanges.contains(true)
+        abiChanges.contains(false)
+        changes.every { it.contains("doSomething") }
+    }
+
+    private Set<String> publicMethodsOf(TestFile sourceFile) {
+        def classesDir = tmpDir.createDir("classes-${UUID.randomUUID()}")
+        def result = ToolProvider.systemJavaCompiler.run(null, null, null, "-d", classesDir.absolutePath, sourceFile.absolutePath)
+        assert result == 0: "Could not compile\n${sourceFile.text}"
+        def loader = new URLClassLoader([classesDir.toURI().toURL()] as URL[], (ClassLoader) null)
+        return loader.loadClass("Thing").declaredMethods.findAll { Modifier.isPublic(it.modifiers) }*.name as Set
+    }
+}
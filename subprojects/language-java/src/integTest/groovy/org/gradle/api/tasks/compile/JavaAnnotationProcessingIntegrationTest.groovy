@@ -73,4 +73,65 @@ class JavaAnnotationProcessingIntegrationTest extends AbstractIntegrationSpec {
         succeeds "compileJava"
         file("build/generated-sources/TestAppHelper.java").text == 'class TestAppHelper {    String getValue() { return "greetings"; }}'
     }
+
+    def "recompiles all sources when a processor in a directory on the annotation processor path changes"() {
+        def annotationProcessorProjectDir = testDirectory.file("annotation-processor").createDir()
+
+        settingsFile << """
+            include "annotation-processor"
+        """
+        buildFile << """
+            apply plugin: 'java'
+
+            dependencies {
+                compile project(":annotation-processor")
+            }
+
+            compileJava {
+                dependsOn ":annotation-processor:classes"
+                options.fork = true
+                options.incremental = true
+                // The processor is used from its class and resource directories rather than from a jar
+                options.annotationProcessorPath = files("annotation-processor/build/classes/java/main", "annotation-processor/build/resources/main")
+                options.annotationProcessorGeneratedSourcesDirectory = file("build/generated-sources")
+            }
+        """
+
+        annotationProcessorProjectDir.file("build.gradle") << """
+            apply plugin: "java"
+        """
+
+        def fixture = new AnnotationProcessorFixture()
+        fixture.writeSupportLibraryTo(annotationProcessorProjectDir)
+        fixture.writeApiTo(annotationProcessorProjectDir)
+        fixture.writeAnnotationProcessorTo(annotationProcessorProjectDir)
+        annotationProcessorProjectDir.file("src/main/resources/META-INF/gradle/incremental.annotation.processors").text = "Processor,isolating"
+
+        file('src/main/java/TestApp.java') << '''
+            @Helper
+            class TestApp { 
+                public static void main(String[] args) {
+                    System.out.println(new TestAppHelper().getValue()); // generated class
+                }
+            }
+        '''
+
+        when:
+        succeeds "compileJava"
+
+        then:
+        file("build/generated-sources/TestAppHelper.java").text == 'class TestAppHelper {    String getValue() { return "greetings"; }}'
+
+        when:
+        // Changes a class in the processor's class directory
+        fixture.message = "hello"
+        fixture.writeSupportLibraryTo(annotationProcessorProjectDir)
+        executer.withArgument("--info")
+        succeeds "compileJava"
+
+        then:
+        executedAndNotSkipped ":annotation-processor:compileJava", ":compileJava"
+        outputContains("Full recompilation is required because 'main' on the annotation processor path has changed.")
+        file("build/generated-sources/TestAppHelper.java").text == 'class TestAppHelper {    String getValue() { return "hello"; }}'
+    }
 }
@@ -17,7 +17,10 @@
 package org.gradle.api.internal.tasks.compile;
 
 import com.google.common.base.Joiner;
+import com.google.common.base.Charsets;
 import com.google.common.base.Splitter;
+import com.google.common.io.CharStreams;
+import org.apache.tools.zip.ZipEntry;
 import org.apache.tools.zip.ZipFile;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.file.FileCollection;
@@ -25,28 +28,42 @@ import org.gradle.api.internal.file.FileCollectionFactory;
 import org.gradle.api.internal.file.collections.MinimalFileSet;
 import org.gradle.api.internal.tasks.AbstractTaskDependency;
 import org.gradle.api.internal.tasks.TaskDependencyResolveContext;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
+import org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType;
 import org.gradle.api.tasks.compile.CompileOptions;
 import org.gradle.cache.internal.FileContentCache;
 import org.gradle.cache.internal.FileContentCacheFactory;
 import org.gradle.internal.FileUtils;
 import org.gradle.internal.file.FileType;
 import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.ListSerializer;
 import org.gradle.util.DeprecationLogger;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 public class AnnotationProcessorDetector {
+    private static final String PROCESSOR_SERVICE = "META-INF/services/javax.annotation.processing.Processor";
+    private static final String INCREMENTAL_PROCESSOR_DECLARATION = "META-INF/gradle/incremental.annotation.processors";
+
     private final FileCollectionFactory fileCollectionFactory;
     private final FileContentCache<Boolean> cache;
+    private final FileContentCache<List<AnnotationProcessorDeclaration>> declarationsCache;
 
     public AnnotationProcessorDetector(FileCollectionFactory fileCollectionFactory, FileContentCacheFactory cacheFactory) {
         this.fileCollectionFactory = fileCollectionFactory;
         cache = cacheFactory.newCache("annotation-processors", 20000, new AnnotationServiceLocator(), BaseSerializerFactory.BOOLEAN_SERIALIZER);
+        declarationsCache = cacheFactory.newCache("annotation-processor-declarations", 20000, new ProcessorDeclarationsReader(), new ListSerializer<AnnotationProcessorDeclaration>(new AnnotationProcessorDeclaration.Serializer()));
     }
 
     /**
@@ -102,6 +119,34 @@ public class AnnotationProcessorDetector {
         });
     }
 
+    /**
+     * Returns the annotation processors that will run when the given annotation processor path is used. These are either the processors named
+     * by the {@code -processor} compiler argument, or otherwise the processors registered as services in the processor path.
+     *
+     * <p>Each processor declares the kind of incremental processing it supports in the {@code META-INF/gradle/incremental.annotation.processors}
+     * resource next to its service registration, with a line {@code <processor class name>,<isolating|aggregating>} per processor.</p>
+     */
+    public List<AnnotationProcessorDeclaration> getEffectiveAnnotationProcessors(CompileOptions compileOptions, Iterable<File> annotationProcessorPath) {
+        Map<String, AnnotationProcessorDeclaration> declarations = new LinkedHashMap<String, AnnotationProcessorDeclaration>();
+        for (File file : annotationProcessorPath) {
+            for (AnnotationProcessorDeclaration declaration : declarationsCache.get(file)) {
+                if (!declarations.containsKey(declaration.getClassName())) {
+                    declarations.put(declaration.getClassName(), declaration);
+                }
+            }
+        }
+        if (!checkExplicitProcessorOption(compileOptions)) {
+            return new ArrayList<AnnotationProcessorDeclaration>(declarations.values());
+        }
+        List<String> compilerArgs = compileOptions.getCompilerArgs();
+        List<AnnotationProcessorDeclaration> result = new ArrayList<AnnotationProcessorDeclaration>();
+        for (String className : Splitter.on(',').trimResults().omitEmptyStrings().split(compilerArgs.get(compilerArgs.indexOf("-processor") + 1))) {
+            AnnotationProcessorDeclaration declaration = declarations.get(className);
+            result.add(declaration != null ? declaration : new AnnotationProcessorDeclaration(className, IncrementalAnnotationProcessorType.UNKNOWN));
+        }
+        return result;
+    }
+
     private static boolean checkExplicitProcessorOption(CompileOptions compileOptions) {
         boolean hasExplicitProcessor = false;
         int pos = compileOptions.getCompilerArgs().indexOf("-processor");
@@ -114,18 +159,90 @@ public class AnnotationProcessorDetector {
         return hasExplicitProcessor;
     }
 
+    private static class ProcessorDeclarationsReader implements FileContentCacheFactory.Calculator<List<AnnotationProcessorDeclaration>> {
+        @Override
+        public List<AnnotationProcessorDeclaration> calculate(File file, FileType fileType) {
+            try {
+                if (fileType == FileType.Directory) {
+                    File services = new File(file, PROCESSOR_SERVICE);
+                    if (!services.isFile()) {
+                        return Collections.emptyList();
+                    }
+                    File incrementalDeclarations = new File(file, INCREMENTAL_PROCESSOR_DECLARATION);
+                    return toDeclarations(readLines(new FileInputStream(services)), incrementalDeclarations.isFile() ? readLines(new FileInputStream(incrementalDeclarations)) : Collections.<String>emptyList());
+                }
+                if (fileType == FileType.RegularFile && FileUtils.hasExtensionIgnoresCase(file.getName(), ".jar")) {
+                    ZipFile zipFile = new ZipFile(file);
+                    try {
+                        ZipEntry services = zipFile.getEntry(PROCESSOR_SERVICE);
+                        if (services == null) {
+                            return Collections.emptyList();
+                        }
+                        ZipEntry incrementalDeclarations = zipFile.getEntry(INCREMENTAL_PROCESSOR_DECLARATION);
+                        return toDeclarations(readLines(zipFile.getInputStream(services)), incrementalDeclarations != null ? readLines(zipFile.getInputStream(incrementalDeclarations)) : Collections.<String>emptyList());
+                    } finally {
+                        zipFile.close();
+                    }
+                }
+            } catch (IOException e) {
+                DeprecationLogger.nagUserWith("Malformed jar [" + file.getName() + "] found on annotation processor path. Gradle 5.0 will no longer allow malformed jars on annotation processor path.");
+            }
+            return Collections.emptyList();
+        }
+
+        private static List<AnnotationProcessorDeclaration> toDeclarations(List<String> processorNames, List<String> incrementalDeclarations) {
+            Map<String, IncrementalAnnotationProcessorType> types = new LinkedHashMap<String, IncrementalAnnotationProcessorType>();
+            for (String line : incrementalDeclarations) {
+                List<String> parts = Splitter.on(',').trimResults().splitToList(line);
+                if (parts.size() == 2) {
+                    types.put(parts.get(0), toType(parts.get(1)));
+                }
+            }
+            List<AnnotationProcessorDeclaration> declarations = new ArrayList<AnnotationProcessorDeclaration>(processorNames.size());
+            for (String processorName : processorNames) {
+                IncrementalAnnotationProcessorType type = types.get(processorName);
+                declarations.add(new AnnotationProcessorDeclaration(processorName, type != null ? type : IncrementalAnnotationProcessorType.UNKNOWN));
+            }
+            return declarations;
+        }
+
+        private static IncrementalAnnotationProcessorType toType(String name) {
+            try {
+                return IncrementalAnnotationProcessorType.valueOf(name.toUpperCase(Locale.US));
+            } catch (IllegalArgumentException e) {
+                return IncrementalAnnotationProcessorType.UNKNOWN;
+            }
+        }
+
+        private static List<String> readLines(InputStream inputStream) throws IOException {
+            List<String> lines = new ArrayList<String>();
+            try {
+                for (String line : CharStreams.readLines(new InputStreamReader(inputStream, Charsets.UTF_8))) {
+                    int comment = line.indexOf('#');
+                    String content = (comment >= 0 ? line.substring(0, comment) : line).trim();
+                    if (!content.isEmpty()) {
+                        lines.add(content);
+                    }
+                }
+            } finally {
+                inputStream.close();
+            }
+            return lines;
+        }
+    }
+
     private static class AnnotationServiceLocator implements FileContentCacheFactory.Calculator<Boolean> {
         @Override
         public Boolean calculate(File file, FileType fileType) {
             if (fileType == FileType.Directory) {
-                return new File(file, "META-INF/services/javax.annotation.processing.Processor").isFile();
+                return new File(file, PROCESSOR_SERVICE).isFile();
             }
 
             if (fileType == FileType.RegularFile && FileUtils.hasExtensionIgnoresCase(file.getName(), ".jar")) {
                 try {
                     ZipFile zipFile = new ZipFile(file);
                     try {
-                        return zipFile.getEntry("META-INF/services/javax.annotation.processing.Processor") != null;
+                        return zipFile.getEntry(PROCESSOR_SERVICE) != null;
                     } finally {
                         zipFile.close();
                     }
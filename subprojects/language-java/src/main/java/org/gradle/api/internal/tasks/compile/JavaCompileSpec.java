@@ -16,8 +16,12 @@
 
 package org.gradle.api.internal.tasks.compile;
 
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
+import org.gradle.internal.hash.HashCode;
+
 import java.io.File;
 import java.util.List;
+import java.util.Map;
 
 public interface JavaCompileSpec extends JvmLanguageCompileSpec {
     MinimalJavaCompileOptions getCompileOptions();
@@ -31,4 +35,27 @@ public interface JavaCompileSpec extends JvmLanguageCompileSpec {
     List<File> getAnnotationProcessorPath();
 
     void setAnnotationProcessorPath(List<File> path);
+
+    /**
+     * The annotation processors found on the annotation processor path, or null when they have not been detected. When all of them are isolating,
+     * the compiler creates them itself and records the types they generate in the {@link #getAnnotationProcessingResultFile() result file}.
+     */
+    List<AnnotationProcessorDeclaration> getEffectiveAnnotationProcessors();
+
+    void setEffectiveAnnotationProcessors(List<AnnotationProcessorDeclaration> annotationProcessors);
+
+    /**
+     * The file to record the types generated by isolating annotation processors in, or null when they should not be recorded.
+     */
+    File getAnnotationProcessingResultFile();
+
+    void setAnnotationProcessingResultFile(File annotationProcessingResultFile);
+
+    /**
+     * The content hashes of the files on the compile classpath and annotation processor path, or null when they are not known. Used to tell whether
+     * the jars read by an earlier compilation in the same process have changed since.
+     */
+    Map<File, HashCode> getArchiveHashes();
+
+    void setArchiveHashes(Map<File, HashCode> archiveHashes);
 }
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.os.OperatingSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the file managers of finished compilations, so that later compilations in the same process can reuse them. A javac file manager
+ * caches the contents of the jars it has opened, so a compilation that reuses a file manager does not have to read again the jars it shares
+ * with earlier compilations.
+ *
+ * <p>A file manager is only reused for compilations with the same compiler, encoding and options, apart from the options that set the
+ * source, class and output paths, which are reset before each reuse. A file manager that has opened a jar whose content hash has since changed
+ * is closed rather than reused, as javac does not notice that the jar has changed.</p>
+ *
+ * <p>Only the few most recently used file managers are kept. In the build process, they are also closed at the end of each build session.</p>
+ *
+ * <p>File managers are not reused on Windows, where the jars that a file manager holds open could not be replaced by later builds.</p>
+ */
+public class JavaFileManagerPool implements Stoppable {
+    /**
+     * Disables reuse of file managers when set to {@code false}.
+     */
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.java.compile.reuse.filemanager";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaFileManagerPool.class);
+    private static final JavaFileManagerPool INSTANCE = new JavaFileManagerPool(!"false".equals(System.getProperty(ENABLED_PROPERTY)) && !OperatingSystem.current().isWindows());
+    private static final int MAX_ARCHIVES_PER_FILE_MANAGER = 2000;
+    private static final int MAX_IDLE_FILE_MANAGERS = 4;
+    private static final Set<String> PATH_OPTIONS = ImmutableSet.of("-classpath", "-cp", "--class-path", "-sourcepath", "--source-path", "-processorpath", "--processor-path", "-d", "-s", "-encoding");
+    private static final List<StandardLocation> RESET_LOCATIONS = ImmutableList.of(StandardLocation.CLASS_OUTPUT, StandardLocation.SOURCE_OUTPUT, StandardLocation.CLASS_PATH, StandardLocation.SOURCE_PATH, StandardLocation.ANNOTATION_PROCESSOR_PATH);
+
+    private final boolean enabled;
+    // Most recently released first
+    private final Deque<PooledFileManager> idle = new ArrayDeque<PooledFileManager>();
+    private final Map<StandardJavaFileManager, PooledFileManager> inUse = new IdentityHashMap<StandardJavaFileManager, PooledFileManager>();
+
+    public static JavaFileManagerPool current() {
+        return INSTANCE;
+    }
+
+    JavaFileManagerPool(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns a file manager to use for a single compilation with the given options, which reads the archives with the given content hashes.
+     * The file manager must be passed to {@link #release(StandardJavaFileManager)} once the compilation has finished. A file manager is not
+     * reused when the content hashes are not known.
+     */
+    public StandardJavaFileManager acquire(JavaCompiler compiler, @Nullable Charset charset, List<String> options, @Nullable Map<File, HashCode> archives) {
+        if (!enabled || archives == null) {
+            return compiler.getStandardFileManager(null, null, charset);
+        }
+
+        Key key = new Key(compiler.getClass(), charset, sharedOptions(options));
+        PooledFileManager pooled = null;
+        synchronized (this) {
+            for (Iterator<PooledFileManager> iterator = idle.iterator(); iterator.hasNext();) {
+                PooledFileManager candidate = iterator.next();
+                if (candidate.key.equals(key)) {
+                    iterator.remove();
+                    pooled = candidate;
+                    break;
+                }
+            }
+        }
+        if (pooled != null && !pooled.prepareForReuse(archives)) {
+            pooled.close();
+            pooled = null;
+        }
+        if (pooled == null) {
+            pooled = new PooledFileManager(key, compiler.getStandardFileManager(null, null, charset));
+        }
+        pooled.recordArchives(archives);
+        synchronized (this) {
+            inUse.put(pooled.fileManager, pooled);
+        }
+        return pooled.fileManager;
+    }
+
+    /**
+     * Makes the given file manager available to later compilations.
+     */
+    public void release(StandardJavaFileManager fileManager) {
+        boolean keep;
+        PooledFileManager evicted = null;
+        synchronized (this) {
+            PooledFileManager pooled = inUse.remove(fileManager);
+            keep = pooled != null && pooled.archives.size() <= MAX_ARCHIVES_PER_FILE_MANAGER;
+            if (keep) {
+                idle.addFirst(pooled);
+                if (idle.size() > MAX_IDLE_FILE_MANAGERS) {
+                    evicted = idle.removeLast();
+                }
+            }
+        }
+        if (!keep) {
+            close(fileManager);
+        }
+        if (evicted != null) {
+            evicted.close();
+        }
+    }
+
+    /**
+     * Closes the idle file managers, so that the jars they have opened are not held open between builds. The pool can still be used afterwards.
+     */
+    @Override
+    public void stop() {
+        List<PooledFileManager> closing;
+        synchronized (this) {
+            closing = new ArrayList<PooledFileManager>(idle);
+            idle.clear();
+        }
+        for (PooledFileManager pooled : closing) {
+            pooled.close();
+        }
+    }
+
+    private static List<String> sharedOptions(List<String> options) {
+        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        for (Iterator<String> iterator = options.iterator(); iterator.hasNext();) {
+            String option = iterator.next();
+            if (PATH_OPTIONS.contains(option)) {
+                if (iterator.hasNext()) {
+                    iterator.next();
+                }
+            } else if (!option.startsWith("-A")) {
+                builder.add(option);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void close(StandardJavaFileManager fileManager) {
+        try {
+            fileManager.close();
+        } catch (IOException e) {
+            LOGGER.debug("Could not close Java file manager.", e);
+        }
+    }
+
+    private static class PooledFileManager {
+        final Key key;
+        final StandardJavaFileManager fileManager;
+        final Map<File, HashCode> archives = new HashMap<File, HashCode>();
+
+        PooledFileManager(Key key, StandardJavaFileManager fileManager) {
+            this.key = key;
+            this.fileManager = fileManager;
+        }
+
+        /**
+         * Resets the paths set by the previous compilation. Returns false when the file manager cannot be reused.
+         */
+        boolean prepareForReuse(Map<File, HashCode> archivesToRead) {
+            for (Map.Entry<File, HashCode> entry : archivesToRead.entrySet()) {
+                HashCode hash = archives.get(entry.getKey());
+                if (hash != null && !hash.equals(entry.getValue())) {
+                    LOGGER.debug("Not reusing Java file manager, as {} has changed.", entry.getKey());
+                    return false;
+                }
+            }
+            try {
+                for (StandardLocation location : RESET_LOCATIONS) {
+                    fileManager.setLocation(location, null);
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Could not reset Java file manager.", e);
+                return false;
+            }
+            return true;
+        }
+
+        void recordArchives(Map<File, HashCode> archivesToRead) {
+            archives.putAll(archivesToRead);
+        }
+
+        void close() {
+            JavaFileManagerPool.close(fileManager);
+        }
+    }
+
+    private static class Key {
+        private final Class<?> compilerType;
+        private final Charset charset;
+        private final List<String> options;
+
+        Key(Class<?> compilerType, @Nullable Charset charset, List<String> options) {
+            this.compilerType = compilerType;
+            this.charset = charset;
+            this.options = options;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return compilerType == other.compilerType
+                && (charset == null ? other.charset == null : charset.equals(other.charset))
+                && options.equals(other.options);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = compilerType.hashCode();
+            result = 31 * result + (charset != null ? charset.hashCode() : 0);
+            result = 31 * result + options.hashCode();
+            return result;
+        }
+    }
+}
@@ -16,6 +16,8 @@
 package org.gradle.api.internal.tasks.compile;
 
 import org.gradle.api.JavaVersion;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingTracker;
+import org.gradle.api.internal.tasks.compile.processing.LocalAnnotationProcessingResultStore;
 import org.gradle.api.internal.tasks.compile.reflect.SourcepathIgnoringProxy;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.WorkResults;
@@ -44,20 +46,37 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
     public WorkResult execute(JavaCompileSpec spec) {
         LOGGER.info("Compiling with JDK Java compiler API.");
 
-        JavaCompiler.CompilationTask task = createCompileTask(spec);
-        boolean success = task.call();
+        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
+        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
+        MinimalJavaCompileOptions compileOptions = spec.getCompileOptions();
+        Charset charset = compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null;
+        JavaFileManagerPool fileManagerPool = JavaFileManagerPool.current();
+        StandardJavaFileManager standardFileManager = fileManagerPool.acquire(compiler, charset, options, spec.getArchiveHashes());
+        AnnotationProcessingTracker processingTracker = createProcessingTracker(spec);
+        boolean success;
+        try {
+            JavaCompiler.CompilationTask task = createCompileTask(spec, options, compiler, standardFileManager);
+            if (processingTracker != null) {
+                task.setProcessors(processingTracker.createProcessors(compiler.getClass().getClassLoader()));
+            }
+            success = task.call();
+        } finally {
+            if (processingTracker != null) {
+                processingTracker.close();
+            }
+            fileManagerPool.release(standardFileManager);
+        }
         if (!success) {
             throw new CompilationFailedException();
         }
+        if (processingTracker != null) {
+            new LocalAnnotationProcessingResultStore(spec.getAnnotationProcessingResultFile()).put(processingTracker.getResult());
+        }
 
         return WorkResults.didWork(true);
     }
 
-    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec) {
-        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
-        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
-        MinimalJavaCompileOptions compileOptions = spec.getCompileOptions();
-        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null);
+    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, List<String> options, JavaCompiler compiler, StandardJavaFileManager standardFileManager) {
         Iterable<? extends JavaFileObject> compilationUnits = standardFileManager.getJavaFileObjectsFromFiles(spec.getSource());
         StandardJavaFileManager fileManager = standardFileManager;
         if (JavaVersion.current().isJava9Compatible() && emptySourcepathIn(options)) {
@@ -66,6 +85,13 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
         return compiler.getTask(null, fileManager, null, options, null, compilationUnits);
     }
 
+    private static AnnotationProcessingTracker createProcessingTracker(JavaCompileSpec spec) {
+        if (spec.getAnnotationProcessingResultFile() == null || !AnnotationProcessingTracker.canTrack(spec.getEffectiveAnnotationProcessors())) {
+            return null;
+        }
+        return new AnnotationProcessingTracker(spec.getEffectiveAnnotationProcessors(), spec.getAnnotationProcessorPath());
+    }
+
     private static boolean emptySourcepathIn(List<String> options) {
         Iterator<String> optionsIter = options.iterator();
         while (optionsIter.hasNext()) {
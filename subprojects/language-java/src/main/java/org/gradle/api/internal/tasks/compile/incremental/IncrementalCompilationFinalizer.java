@@ -18,20 +18,31 @@ package org.gradle.api.internal.tasks.compile.incremental;
 
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotWriter;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
+import org.gradle.api.internal.tasks.compile.processing.LocalAnnotationProcessingResultStore;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.language.base.internal.compile.Compiler;
 
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.Map;
+
 class IncrementalCompilationFinalizer implements Compiler<JavaCompileSpec> {
 
     private final Compiler<JavaCompileSpec> delegate;
     private final JarClasspathSnapshotWriter writer;
     private final ClassSetAnalysisUpdater updater;
+    private final LocalAnnotationProcessingResultStore processingResultStore;
+    private final AnnotationProcessingResult previousProcessingResult;
 
     public IncrementalCompilationFinalizer(Compiler<JavaCompileSpec> delegate, JarClasspathSnapshotWriter writer,
-                                           ClassSetAnalysisUpdater updater) {
+                                           ClassSetAnalysisUpdater updater, LocalAnnotationProcessingResultStore processingResultStore,
+                                           @Nullable AnnotationProcessingResult previousProcessingResult) {
         this.delegate = delegate;
         this.writer = writer;
         this.updater = updater;
+        this.processingResultStore = processingResultStore;
+        this.previousProcessingResult = previousProcessingResult;
     }
 
     @Override
@@ -43,9 +54,29 @@ class IncrementalCompilationFinalizer implements Compiler<JavaCompileSpec> {
             //there's no point in updating because we have exactly the same output classes)
             updater.updateAnalysis(spec);
         }
+        if (previousProcessingResult != null) {
+            updateProcessingResult(spec, out instanceof RecompilationNotNecessary ? new AnnotationProcessingResult() : processingResultStore.get());
+        }
 
         writer.storeJarSnapshots(spec.getCompileClasspath());
 
         return out;
     }
+
+    /**
+     * Merges the types generated by this compilation with the types generated by previous compilations that have not been recompiled.
+     */
+    private void updateProcessingResult(JavaCompileSpec spec, @Nullable AnnotationProcessingResult current) {
+        if (current == null || current.getFullRebuildCause() != null) {
+            return;
+        }
+        for (Map.Entry<String, String> entry : previousProcessingResult.getGeneratedTypeOrigins().entrySet()) {
+            String generatedType = entry.getKey();
+            boolean stillGenerated = new File(spec.getDestinationDir(), generatedType.replace('.', '/').concat(".class")).isFile();
+            if (stillGenerated && !current.getGeneratedTypeOrigins().containsKey(generatedType)) {
+                current.addGeneratedType(generatedType, entry.getValue());
+            }
+        }
+        processingResultStore.put(current);
+    }
 }
@@ -26,6 +26,7 @@ import org.gradle.internal.Factory;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 class IncrementalCompilationInitializer {
@@ -36,6 +37,13 @@ class IncrementalCompilationInitializer {
     }
 
     public void initializeCompilation(JavaCompileSpec spec, Collection<String> staleClasses) {
+        initializeCompilation(spec, staleClasses, Collections.<String>emptyList());
+    }
+
+    /**
+     * @param staleGeneratedTypes the stale classes that were generated by annotation processors, whose generated sources need to be deleted too
+     */
+    public void initializeCompilation(JavaCompileSpec spec, Collection<String> staleClasses, Collection<String> staleGeneratedTypes) {
         if (staleClasses.isEmpty()) {
             spec.setSource(new SimpleFileCollection());
             return; //do nothing. No classes need recompilation.
@@ -56,6 +64,21 @@ class IncrementalCompilationInitializer {
         //get rid of stale files
         FileTree deleteMe = fileOperations.fileTree(spec.getDestinationDir()).matching(classesToDelete);
         fileOperations.delete(deleteMe);
+        if (!staleGeneratedTypes.isEmpty()) {
+            deleteGeneratedSources(spec, staleGeneratedTypes, patternSetFactory.create());
+        }
+    }
+
+    private void deleteGeneratedSources(JavaCompileSpec spec, Collection<String> staleGeneratedTypes, PatternSet generatedSourcesToDelete) {
+        //without a generated sources directory, javac writes the generated sources to the destination directory
+        File generatedSourcesDir = spec.getCompileOptions().getAnnotationProcessorGeneratedSourcesDirectory();
+        if (generatedSourcesDir == null) {
+            generatedSourcesDir = spec.getDestinationDir();
+        }
+        for (String generatedType : staleGeneratedTypes) {
+            generatedSourcesToDelete.include(generatedType.replaceAll("\\.", "/").concat(".java"));
+        }
+        fileOperations.delete(fileOperations.fileTree(generatedSourcesDir).matching(generatedSourcesToDelete));
     }
 
     void preparePatterns(Collection<String> staleClasses, PatternSet classesToDelete, PatternSet sourceToCompile) {
@@ -16,7 +16,6 @@
 
 package org.gradle.api.internal.tasks.compile.incremental;
 
-import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.incremental.cache.CompileCaches;
@@ -24,11 +23,16 @@ import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotMaker;
 import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
+import org.gradle.api.internal.tasks.compile.processing.LocalAnnotationProcessingResultStore;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.language.base.internal.compile.Compiler;
 
+import java.util.List;
+
 public class IncrementalCompilerDecorator {
 
     private static final Logger LOG = Logging.getLogger(IncrementalCompilerDecorator.class);
@@ -39,13 +43,15 @@ public class IncrementalCompilerDecorator {
     private final RecompilationSpecProvider staleClassDetecter;
     private final ClassSetAnalysisUpdater classSetAnalysisUpdater;
     private final CompilationSourceDirs sourceDirs;
-    private final FileCollection annotationProcessorPath;
+    private final List<AnnotationProcessorDeclaration> annotationProcessors;
+    private final LocalAnnotationProcessingResultStore processingResultStore;
     private final IncrementalCompilationInitializer compilationInitializer;
 
     public IncrementalCompilerDecorator(JarClasspathSnapshotMaker jarClasspathSnapshotMaker, CompileCaches compileCaches,
                                         IncrementalCompilationInitializer compilationInitializer, CleaningJavaCompiler cleaningCompiler, String displayName,
                                         RecompilationSpecProvider staleClassDetecter, ClassSetAnalysisUpdater classSetAnalysisUpdater,
-                                        CompilationSourceDirs sourceDirs, FileCollection annotationProcessorPath) {
+                                        CompilationSourceDirs sourceDirs, List<AnnotationProcessorDeclaration> annotationProcessors,
+                                        LocalAnnotationProcessingResultStore processingResultStore) {
         this.jarClasspathSnapshotMaker = jarClasspathSnapshotMaker;
         this.compileCaches = compileCaches;
         this.compilationInitializer = compilationInitializer;
@@ -54,15 +60,19 @@ public class IncrementalCompilerDecorator {
         this.staleClassDetecter = staleClassDetecter;
         this.classSetAnalysisUpdater = classSetAnalysisUpdater;
         this.sourceDirs = sourceDirs;
-        this.annotationProcessorPath = annotationProcessorPath;
+        this.annotationProcessors = annotationProcessors;
+        this.processingResultStore = processingResultStore;
     }
 
     public Compiler<JavaCompileSpec> prepareCompiler(IncrementalTaskInputs inputs) {
-        Compiler<JavaCompileSpec> compiler = getCompiler(inputs, sourceDirs);
-        return new IncrementalCompilationFinalizer(compiler, jarClasspathSnapshotMaker, classSetAnalysisUpdater);
+        AnnotationProcessingResult previousProcessingResult = annotationProcessors.isEmpty() ? null : processingResultStore.get();
+        //the compiler records the result of this compilation, the previous one must not be used should it fail
+        processingResultStore.clear();
+        Compiler<JavaCompileSpec> compiler = getCompiler(inputs, sourceDirs, previousProcessingResult);
+        return new IncrementalCompilationFinalizer(compiler, jarClasspathSnapshotMaker, classSetAnalysisUpdater, processingResultStore, previousProcessingResult);
     }
 
-    private Compiler<JavaCompileSpec> getCompiler(IncrementalTaskInputs inputs, CompilationSourceDirs sourceDirs) {
+    private Compiler<JavaCompileSpec> getCompiler(IncrementalTaskInputs inputs, CompilationSourceDirs sourceDirs, AnnotationProcessingResult previousProcessingResult) {
         if (!inputs.isIncremental()) {
             LOG.info("{} - is not incremental (e.g. outputs have changed, no previous execution, etc.).", displayName);
             return cleaningCompiler;
@@ -71,9 +81,20 @@ public class IncrementalCompilerDecorator {
             LOG.info("{} - is not incremental. Unable to infer the source directories.", displayName);
             return cleaningCompiler;
         }
-        if (!annotationProcessorPath.isEmpty()) {
-            LOG.info("{} - is not incremental. Annotation processors are present.", displayName);
-            return cleaningCompiler;
+        if (!annotationProcessors.isEmpty()) {
+            AnnotationProcessorDeclaration nonIsolatingProcessor = AnnotationProcessorDeclaration.findNonIsolating(annotationProcessors);
+            if (nonIsolatingProcessor != null) {
+                LOG.info("{} - is not incremental. Annotation processor '{}' is not isolating.", displayName, nonIsolatingProcessor.getClassName());
+                return cleaningCompiler;
+            }
+            if (previousProcessingResult == null) {
+                LOG.info("{} - is not incremental. No annotation processing data available from the previous build.", displayName);
+                return cleaningCompiler;
+            }
+            if (previousProcessingResult.getFullRebuildCause() != null) {
+                LOG.info("{} - is not incremental, because {}.", displayName, previousProcessingResult.getFullRebuildCause());
+                return cleaningCompiler;
+            }
         }
         ClassSetAnalysisData data = compileCaches.getLocalClassSetAnalysisStore().get();
         if (data == null) {
@@ -81,6 +102,6 @@ public class IncrementalCompilerDecorator {
             return cleaningCompiler;
         }
         PreviousCompilation previousCompilation = new PreviousCompilation(new ClassSetAnalysis(data), compileCaches.getLocalJarClasspathSnapshotStore(), compileCaches.getJarSnapshotCache());
-        return new SelectiveCompiler(inputs, previousCompilation, cleaningCompiler, staleClassDetecter, compilationInitializer, jarClasspathSnapshotMaker);
+        return new SelectiveCompiler(inputs, previousCompilation, cleaningCompiler, staleClassDetecter, compilationInitializer, jarClasspathSnapshotMaker, previousProcessingResult);
     }
 }
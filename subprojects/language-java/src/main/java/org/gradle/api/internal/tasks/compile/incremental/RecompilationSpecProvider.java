@@ -16,20 +16,29 @@
 
 package org.gradle.api.internal.tasks.compile.incremental;
 
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
 import org.gradle.api.Action;
 import org.gradle.api.internal.changedetection.rules.FileChange;
 import org.gradle.api.internal.file.FileOperations;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarChangeProcessor;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshot;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshot;
 import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation;
 import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpec;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.api.tasks.incremental.InputFileDetails;
 import org.gradle.internal.file.FileType;
 import org.gradle.internal.util.Alignment;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -47,13 +56,22 @@ public class RecompilationSpecProvider {
     }
 
     public RecompilationSpec provideRecompilationSpec(IncrementalTaskInputs inputs, PreviousCompilation previousCompilation, JarClasspathSnapshot jarClasspathSnapshot) {
+        return provideRecompilationSpec(inputs, previousCompilation, jarClasspathSnapshot, Collections.<File>emptySet(), null);
+    }
+
+    /**
+     * @param annotationProcessorPath the path of the annotation processors whose generated types are tracked, changes to which require a full rebuild
+     * @param previousProcessingResult the types generated by annotation processors in the previous compilation, which are recompiled along with the types they were generated from
+     */
+    public RecompilationSpec provideRecompilationSpec(IncrementalTaskInputs inputs, PreviousCompilation previousCompilation, JarClasspathSnapshot jarClasspathSnapshot,
+                                                      Collection<File> annotationProcessorPath, @Nullable AnnotationProcessingResult previousProcessingResult) {
         //creating an action that will be executed against all changes
         RecompilationSpec spec = new RecompilationSpec();
         JarChangeProcessor jarChangeProcessor = new JarChangeProcessor(fileOperations, jarClasspathSnapshot, previousCompilation);
         processJarChanges(previousCompilation.getJarSnapshots(), jarClasspathSnapshot, jarChangeProcessor, spec);
         JavaChangeProcessor javaChangeProcessor = new JavaChangeProcessor(previousCompilation, sourceToNameConverter);
         ClassChangeProcessor classChangeProcessor = new ClassChangeProcessor(previousCompilation);
-        InputChangeAction action = new InputChangeAction(spec, javaChangeProcessor, classChangeProcessor);
+        InputChangeAction action = new InputChangeAction(spec, javaChangeProcessor, classChangeProcessor, annotationProcessorPath);
 
         //go!
         inputs.outOfDate(action);
@@ -62,9 +80,56 @@ public class RecompilationSpecProvider {
             return action.spec;
         }
         inputs.removed(action);
+        if (action.spec.getFullRebuildCause() == null && previousProcessingResult != null) {
+            processGeneratedTypes(previousProcessingResult, previousCompilation, action.spec);
+        }
         return action.spec;
     }
 
+    /**
+     * Adds the types generated from the recompiled types, as they are generated again, and the types that generated types were generated
+     * from, as generated types can only be generated again by processing them. Adds the dependents of both.
+     */
+    private void processGeneratedTypes(AnnotationProcessingResult previousProcessingResult, PreviousCompilation previousCompilation, RecompilationSpec spec) {
+        Map<String, String> generatedTypeOrigins = previousProcessingResult.getGeneratedTypeOrigins();
+        Multimap<String, String> generatedTypesByOrigin = HashMultimap.create();
+        for (Map.Entry<String, String> entry : generatedTypeOrigins.entrySet()) {
+            generatedTypesByOrigin.put(entry.getValue(), entry.getKey());
+        }
+        Deque<String> queue = new ArrayDeque<String>(spec.getClassNames());
+        while (!queue.isEmpty()) {
+            String className = queue.poll();
+            String origin = generatedTypeOrigins.get(className);
+            if (origin != null && !addWithDependents(origin, previousCompilation, spec, queue)) {
+                return;
+            }
+            for (String generatedType : generatedTypesByOrigin.get(className)) {
+                if (!addWithDependents(generatedType, previousCompilation, spec, queue)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean addWithDependents(String className, PreviousCompilation previousCompilation, RecompilationSpec spec, Deque<String> queue) {
+        if (!spec.getClassNames().add(className)) {
+            return true;
+        }
+        queue.add(className);
+        DependentsSet dependents = previousCompilation.getDependents(className, Collections.<Integer>emptySet());
+        if (dependents.isDependencyToAll()) {
+            String description = dependents.getDescription();
+            spec.setFullRebuildCause(description != null ? description : "'" + className + "' is a dependency of all classes", null);
+            return false;
+        }
+        for (String dependent : dependents.getDependentClasses()) {
+            if (spec.getClassNames().add(dependent)) {
+                queue.add(dependent);
+            }
+        }
+        return true;
+    }
+
     private void processJarChanges(Map<File, JarSnapshot> previousCompilationJarSnapshots, JarClasspathSnapshot currentJarSnapshots, JarChangeProcessor jarChangeProcessor, RecompilationSpec spec) {
         Set<File> previousCompilationJars = previousCompilationJarSnapshots.keySet();
         Set<File> currentCompilationJars = currentJarSnapshots.getJars();
@@ -98,11 +163,13 @@ public class RecompilationSpecProvider {
         private final RecompilationSpec spec;
         private final JavaChangeProcessor javaChangeProcessor;
         private final ClassChangeProcessor classChangeProcessor;
+        private final Collection<File> annotationProcessorPath;
 
-        public InputChangeAction(RecompilationSpec spec, JavaChangeProcessor javaChangeProcessor, ClassChangeProcessor classChangeProcessor) {
+        public InputChangeAction(RecompilationSpec spec, JavaChangeProcessor javaChangeProcessor, ClassChangeProcessor classChangeProcessor, Collection<File> annotationProcessorPath) {
             this.spec = spec;
             this.javaChangeProcessor = javaChangeProcessor;
             this.classChangeProcessor = classChangeProcessor;
+            this.annotationProcessorPath = annotationProcessorPath;
         }
 
         @Override
@@ -110,11 +177,28 @@ public class RecompilationSpecProvider {
             if (spec.getFullRebuildCause() != null) {
                 return;
             }
-            if (hasExtension(input.getFile(), ".java")) {
+            File processorPathEntry = findAnnotationProcessorPathEntry(input.getFile());
+            if (processorPathEntry != null) {
+                spec.setFullRebuildCause("'" + processorPathEntry.getName() + "' on the annotation processor path has changed", null);
+            } else if (hasExtension(input.getFile(), ".java")) {
                 javaChangeProcessor.processChange(input, spec);
             } else if (hasExtension(input.getFile(), ".class")) {
                 classChangeProcessor.processChange(input, spec);
             }
         }
+
+        /**
+         * Returns the entry of the annotation processor path that is or contains the given file, as the changes to a directory entry are reported for the files in it.
+         */
+        @Nullable
+        private File findAnnotationProcessorPathEntry(File file) {
+            String path = file.getPath();
+            for (File entry : annotationProcessorPath) {
+                if (entry.equals(file) || path.startsWith(entry.getPath() + File.separator)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
     }
 }
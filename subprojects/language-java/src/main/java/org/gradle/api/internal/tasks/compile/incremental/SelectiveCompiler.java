@@ -16,12 +16,14 @@
 
 package org.gradle.api.internal.tasks.compile.incremental;
 
+import com.google.common.collect.ImmutableSet;
 import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshot;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotProvider;
 import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation;
 import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpec;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.WorkResult;
@@ -29,7 +31,12 @@ import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.time.Time;
 import org.gradle.internal.time.Timer;
 
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 class SelectiveCompiler implements org.gradle.language.base.internal.compile.Compiler<JavaCompileSpec> {
     private static final Logger LOG = Logging.getLogger(SelectiveCompiler.class);
@@ -39,22 +46,26 @@ class SelectiveCompiler implements org.gradle.language.base.internal.compile.Com
     private final RecompilationSpecProvider recompilationSpecProvider;
     private final IncrementalCompilationInitializer incrementalCompilationInitilizer;
     private final JarClasspathSnapshotProvider jarClasspathSnapshotProvider;
+    private final AnnotationProcessingResult previousProcessingResult;
 
     public SelectiveCompiler(IncrementalTaskInputs inputs, PreviousCompilation previousCompilation, CleaningJavaCompiler cleaningCompiler,
-                             RecompilationSpecProvider recompilationSpecProvider, IncrementalCompilationInitializer compilationInitializer, JarClasspathSnapshotProvider jarClasspathSnapshotProvider) {
+                             RecompilationSpecProvider recompilationSpecProvider, IncrementalCompilationInitializer compilationInitializer, JarClasspathSnapshotProvider jarClasspathSnapshotProvider,
+                             @Nullable AnnotationProcessingResult previousProcessingResult) {
         this.inputs = inputs;
         this.previousCompilation = previousCompilation;
         this.cleaningCompiler = cleaningCompiler;
         this.recompilationSpecProvider = recompilationSpecProvider;
         this.incrementalCompilationInitilizer = compilationInitializer;
         this.jarClasspathSnapshotProvider = jarClasspathSnapshotProvider;
+        this.previousProcessingResult = previousProcessingResult;
     }
 
     @Override
     public WorkResult execute(JavaCompileSpec spec) {
         Timer clock = Time.startTimer();
         JarClasspathSnapshot jarClasspathSnapshot = jarClasspathSnapshotProvider.getJarClasspathSnapshot(spec.getCompileClasspath());
-        RecompilationSpec recompilationSpec = recompilationSpecProvider.provideRecompilationSpec(inputs, previousCompilation, jarClasspathSnapshot);
+        Collection<File> annotationProcessorPath = previousProcessingResult != null ? ImmutableSet.copyOf(spec.getAnnotationProcessorPath()) : Collections.<File>emptySet();
+        RecompilationSpec recompilationSpec = recompilationSpecProvider.provideRecompilationSpec(inputs, previousCompilation, jarClasspathSnapshot, annotationProcessorPath, previousProcessingResult);
 
         if (recompilationSpec.isFullRebuildNeeded()) {
             LOG.info("Full recompilation is required because {}. Analysis took {}.", recompilationSpec.getFullRebuildCause(), clock.getElapsed());
@@ -62,7 +73,7 @@ class SelectiveCompiler implements org.gradle.language.base.internal.compile.Com
         }
 
         Collection<String> classNames = recompilationSpec.getClassNames();
-        incrementalCompilationInitilizer.initializeCompilation(spec, classNames);
+        incrementalCompilationInitilizer.initializeCompilation(spec, classNames, getStaleGeneratedTypes(classNames));
         if (spec.getSource().isEmpty()) {
             LOG.info("None of the classes needs to be compiled! Analysis took {}. ", clock.getElapsed());
             return new RecompilationNotNecessary();
@@ -76,4 +87,17 @@ class SelectiveCompiler implements org.gradle.language.base.internal.compile.Com
             LOG.debug("Recompiled classes {}", classNames);
         }
     }
+
+    private List<String> getStaleGeneratedTypes(Collection<String> classNames) {
+        if (previousProcessingResult == null) {
+            return Collections.emptyList();
+        }
+        List<String> generatedTypes = new ArrayList<String>();
+        for (String className : classNames) {
+            if (previousProcessingResult.getGeneratedTypeOrigins().containsKey(className)) {
+                generatedTypes.add(className);
+            }
+        }
+        return generatedTypes;
+    }
 }
@@ -26,7 +26,7 @@ import org.gradle.internal.serialize.SetSerializer;
 
 import java.io.IOException;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -80,34 +80,40 @@ public class ClassSetAnalysisData {
         return children == null ? Collections.<String>emptySet() : children;
     }
 
+    /**
+     * Writes a table of the distinct class names first, and then refers to class names by their index in that table, so that each name is
+     * written and read only once and the maps that are read share a single instance of each name.
+     */
     public static class Serializer extends AbstractSerializer<ClassSetAnalysisData> {
         private static final SetSerializer<Integer> INTEGER_SET_SERIALIZER = new SetSerializer<Integer>(INTEGER_SERIALIZER, false);
 
         @Override
         public ClassSetAnalysisData read(Decoder decoder) throws Exception {
-            // Class names are de-duplicated when encoded
-            Map<Integer, String> classNameMap = new HashMap<Integer, String>();
-
             int count = decoder.readSmallInt();
+            String[] classNames = new String[count];
+            for (int i = 0; i < count; i++) {
+                classNames[i] = decoder.readString();
+            }
+
+            count = decoder.readSmallInt();
             ImmutableMap.Builder<String, String> filePathToClassNameBuilder = ImmutableMap.builder();
             for (int i = 0; i < count; i++) {
                 String filePath = decoder.readString();
-                String className = readClassName(decoder, classNameMap);
-                filePathToClassNameBuilder.put(filePath, className);
+                filePathToClassNameBuilder.put(filePath, classNames[decoder.readSmallInt()]);
             }
 
             count = decoder.readSmallInt();
             ImmutableMap.Builder<String, DependentsSet> dependentsBuilder = ImmutableMap.builder();
             for (int i = 0; i < count; i++) {
-                String className = readClassName(decoder, classNameMap);
-                DependentsSet dependents = readDependentsSet(decoder, classNameMap);
+                String className = classNames[decoder.readSmallInt()];
+                DependentsSet dependents = readDependentsSet(decoder, classNames);
                 dependentsBuilder.put(className, dependents);
             }
 
             count = decoder.readSmallInt();
             ImmutableMap.Builder<String, Set<Integer>> classesToConstantsBuilder = ImmutableMap.builder();
             for (int i = 0; i < count; i++) {
-                String className = readClassName(decoder, classNameMap);
+                String className = classNames[decoder.readSmallInt()];
                 Set<Integer> constants = INTEGER_SET_SERIALIZER.read(decoder);
                 classesToConstantsBuilder.put(className, constants);
             }
@@ -116,24 +122,14 @@ public class ClassSetAnalysisData {
             ImmutableMap.Builder<Integer, Set<String>> literalsToClassesBuilder = ImmutableMap.builder();
             for (int i = 0; i < count; i++) {
                 int literal = decoder.readInt();
-                int nameCount = decoder.readSmallInt();
-                ImmutableSet.Builder<String> namesBuilder = ImmutableSet.builder();
-                for (int j = 0; j < nameCount; j++) {
-                    namesBuilder.add(readClassName(decoder, classNameMap));
-                }
-                literalsToClassesBuilder.put(literal, namesBuilder.build());
+                literalsToClassesBuilder.put(literal, readClassNames(decoder, classNames));
             }
 
             count = decoder.readSmallInt();
             ImmutableMap.Builder<String, Set<String>> classNameToChildren = ImmutableMap.builder();
             for (int i = 0; i < count; i++) {
-                String parent = readClassName(decoder, classNameMap);
-                int nameCount = decoder.readSmallInt();
-                ImmutableSet.Builder<String> namesBuilder = ImmutableSet.builder();
-                for (int j = 0; j < nameCount; j++) {
-                    namesBuilder.add(readClassName(decoder, classNameMap));
-                }
-                classNameToChildren.put(parent, namesBuilder.build());
+                String parent = classNames[decoder.readSmallInt()];
+                classNameToChildren.put(parent, readClassNames(decoder, classNames));
             }
 
             return new ClassSetAnalysisData(filePathToClassNameBuilder.build(), dependentsBuilder.build(), classesToConstantsBuilder.build(), literalsToClassesBuilder.build(), classNameToChildren.build());
@@ -141,94 +137,106 @@ public class ClassSetAnalysisData {
 
         @Override
         public void write(Encoder encoder, ClassSetAnalysisData value) throws Exception {
-            // Deduplicate class names when encoding.
-            // This would be more efficient with a better data structure in ClassSetAnalysisData
-            Map<String, Integer> classNameMap = new HashMap<String, Integer>();
+            Map<String, Integer> classIds = collectClassNames(value);
+            encoder.writeSmallInt(classIds.size());
+            for (String className : classIds.keySet()) {
+                encoder.writeString(className);
+            }
 
             encoder.writeSmallInt(value.filePathToClassName.size());
             for (Map.Entry<String, String> entry : value.filePathToClassName.entrySet()) {
                 encoder.writeString(entry.getKey());
-                writeClassName(entry.getValue(), classNameMap, encoder);
+                encoder.writeSmallInt(classIds.get(entry.getValue()));
             }
 
             encoder.writeSmallInt(value.dependents.size());
             for (Map.Entry<String, DependentsSet> entry : value.dependents.entrySet()) {
-                writeClassName(entry.getKey(), classNameMap, encoder);
-                writeDependentSet(entry.getValue(), classNameMap, encoder);
+                encoder.writeSmallInt(classIds.get(entry.getKey()));
+                writeDependentSet(entry.getValue(), classIds, encoder);
             }
 
             encoder.writeSmallInt(value.classesToConstants.size());
             for (Map.Entry<String, Set<Integer>> entry : value.classesToConstants.entrySet()) {
-                writeClassName(entry.getKey(), classNameMap, encoder);
+                encoder.writeSmallInt(classIds.get(entry.getKey()));
                 INTEGER_SET_SERIALIZER.write(encoder, entry.getValue());
             }
 
             encoder.writeSmallInt(value.literalsToClasses.size());
             for (Map.Entry<Integer, Set<String>> entry : value.literalsToClasses.entrySet()) {
                 encoder.writeInt(entry.getKey());
-                encoder.writeSmallInt(entry.getValue().size());
-                for (String className : entry.getValue()) {
-                    writeClassName(className, classNameMap, encoder);
-                }
+                writeClassNames(entry.getValue(), classIds, encoder);
             }
 
             encoder.writeSmallInt(value.classesToChildren.size());
             for (Map.Entry<String, Set<String>> entry : value.classesToChildren.entrySet()) {
-                writeClassName(entry.getKey(), classNameMap, encoder);
-                encoder.writeSmallInt(entry.getValue().size());
-                for (String className : entry.getValue()) {
-                    writeClassName(className, classNameMap, encoder);
+                encoder.writeSmallInt(classIds.get(entry.getKey()));
+                writeClassNames(entry.getValue(), classIds, encoder);
+            }
+        }
+
+        private static Map<String, Integer> collectClassNames(ClassSetAnalysisData value) {
+            Map<String, Integer> classIds = new LinkedHashMap<String, Integer>();
+            addClassNames(value.filePathToClassName.values(), classIds);
+            for (Map.Entry<String, DependentsSet> entry : value.dependents.entrySet()) {
+                addClassName(entry.getKey(), classIds);
+                if (!entry.getValue().isDependencyToAll()) {
+                    addClassNames(entry.getValue().getDependentClasses(), classIds);
                 }
             }
+            addClassNames(value.classesToConstants.keySet(), classIds);
+            for (Set<String> classNames : value.literalsToClasses.values()) {
+                addClassNames(classNames, classIds);
+            }
+            for (Map.Entry<String, Set<String>> entry : value.classesToChildren.entrySet()) {
+                addClassName(entry.getKey(), classIds);
+                addClassNames(entry.getValue(), classIds);
+            }
+            return classIds;
         }
 
-        private DependentsSet readDependentsSet(Decoder decoder, Map<Integer, String> classNameMap) throws IOException {
+        private static void addClassNames(Iterable<String> classNames, Map<String, Integer> classIds) {
+            for (String className : classNames) {
+                addClassName(className, classIds);
+            }
+        }
+
+        private static void addClassName(String className, Map<String, Integer> classIds) {
+            if (!classIds.containsKey(className)) {
+                classIds.put(className, classIds.size());
+            }
+        }
+
+        private DependentsSet readDependentsSet(Decoder decoder, String[] classNames) throws IOException {
             byte b = decoder.readByte();
             if (b == 1) {
                 return new DependencyToAll(decoder.readNullableString());
             }
-            int count = decoder.readSmallInt();
-            ImmutableSet.Builder<String> builder = ImmutableSet.builder();
-            for (int i = 0; i < count; i++) {
-                builder.add(readClassName(decoder, classNameMap));
-            }
-            return new DefaultDependentsSet(builder.build());
+            return new DefaultDependentsSet(readClassNames(decoder, classNames));
         }
 
-        private void writeDependentSet(DependentsSet dependentsSet, Map<String, Integer> classNameMap, Encoder encoder) throws IOException {
+        private void writeDependentSet(DependentsSet dependentsSet, Map<String, Integer> classIds, Encoder encoder) throws IOException {
             if (dependentsSet.isDependencyToAll()) {
                 encoder.writeByte((byte) 1);
                 encoder.writeNullableString(dependentsSet.getDescription());
             } else {
                 encoder.writeByte((byte) 2);
-                encoder.writeSmallInt(dependentsSet.getDependentClasses().size());
-                for (String className : dependentsSet.getDependentClasses()) {
-                    writeClassName(className, classNameMap, encoder);
-                }
+                writeClassNames(dependentsSet.getDependentClasses(), classIds, encoder);
             }
         }
 
-        private String readClassName(Decoder decoder, Map<Integer, String> classNameMap) throws IOException {
-            int id = decoder.readSmallInt();
-            if (id == 0) {
-                id = decoder.readSmallInt();
-                String className = decoder.readString();
-                classNameMap.put(id, className);
-                return className;
+        private Set<String> readClassNames(Decoder decoder, String[] classNames) throws IOException {
+            int count = decoder.readSmallInt();
+            ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+            for (int i = 0; i < count; i++) {
+                builder.add(classNames[decoder.readSmallInt()]);
             }
-            return classNameMap.get(id);
+            return builder.build();
         }
 
-        private void writeClassName(String className, Map<String, Integer> classIdMap, Encoder encoder) throws IOException {
-            Integer id = classIdMap.get(className);
-            if (id == null) {
-                id = classIdMap.size() + 1;
-                classIdMap.put(className, id);
-                encoder.writeSmallInt(0);
-                encoder.writeSmallInt(id);
-                encoder.writeString(className);
-            } else {
-                encoder.writeSmallInt(id);
+        private void writeClassNames(Set<String> classNames, Map<String, Integer> classIds, Encoder encoder) throws IOException {
+            encoder.writeSmallInt(classNames.size());
+            for (String className : classNames) {
+                encoder.writeSmallInt(classIds.get(className));
             }
         }
     }
@@ -19,14 +19,19 @@ import com.google.common.collect.Maps;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.tasks.compile.ApiClassExtractor;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.hash.StreamHasher;
+import org.objectweb.asm.ClassReader;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.Map;
 
 class DefaultJarSnapshotter {
@@ -40,6 +45,7 @@ class DefaultJarSnapshotter {
 
     public JarSnapshot createSnapshot(HashCode hash, JarArchive jarArchive) {
         final Map<String, HashCode> hashes = Maps.newHashMap();
+        final Map<String, HashCode> abiHashes = Maps.newHashMap();
         final ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator();
 
         jarArchive.contents.visit(new FileVisitor() {
@@ -52,9 +58,12 @@ class DefaultJarSnapshotter {
                 }
 
                 HashCode classFileHash;
+                ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
                 InputStream inputStream = fileDetails.open();
                 try {
-                    classFileHash = hasher.hash(inputStream);
+                    classFileHash = hasher.hashCopy(inputStream, classBytes);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 } finally {
                     try {
                         inputStream.close();
@@ -67,9 +76,33 @@ class DefaultJarSnapshotter {
                 accumulator.addClass(analysis);
 
                 hashes.put(analysis.getClassName(), classFileHash);
+                HashCode abiHash = abiHash(classBytes.toByteArray());
+                if (abiHash != null) {
+                    abiHashes.put(analysis.getClassName(), abiHash);
+                }
             }
         });
 
-        return new JarSnapshot(new JarSnapshotData(hash, hashes, accumulator.getAnalysis()));
+        return new JarSnapshot(new JarSnapshotData(hash, hashes, abiHashes, accumulator.getAnalysis()));
+    }
+
+    /**
+     * Returns the hash of the ABI of the given class, or null when the class has no ABI that can be extracted, in which case any change to
+     * the class is treated as a change to its ABI.
+     */
+    private static HashCode abiHash(byte[] classBytes) {
+        try {
+            ApiClassExtractor extractor = new ApiClassExtractor(Collections.<String>emptySet());
+            ClassReader reader = new ClassReader(classBytes);
+            if (extractor.shouldExtractApiClassFrom(reader)) {
+                byte[] abi = extractor.extractApiClassFrom(reader);
+                if (abi != null) {
+                    return Hashing.md5().hashBytes(abi);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Malformed class, treat any change as an ABI change
+        }
+        return null;
     }
 }
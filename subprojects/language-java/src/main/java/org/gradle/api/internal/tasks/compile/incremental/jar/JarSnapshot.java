@@ -80,6 +80,10 @@ public class JarSnapshot {
             HashCode otherClassBytes = otherClass.getValue();
             HashCode thisClsBytes = getHashes().get(otherClassName);
             if (thisClsBytes == null || !thisClsBytes.equals(otherClassBytes)) {
+                if (thisClsBytes != null && isAbiUnchangedSince(other, otherClassName)) {
+                    //only the implementation changed, which does not affect the classes compiled against it
+                    continue;
+                }
                 //removed since or changed since
                 affected.add(otherClassName);
                 DependentsSet dependents = other.getAnalysis().getRelevantDependents(otherClassName, Collections.<Integer>emptySet());
@@ -92,6 +96,11 @@ public class JarSnapshot {
         return new DefaultDependentsSet(affected);
     }
 
+    private boolean isAbiUnchangedSince(JarSnapshot other, String className) {
+        HashCode thisAbi = getAbiHashes().get(className);
+        return thisAbi != null && thisAbi.equals(other.getAbiHashes().get(className));
+    }
+
     private Set<String> addedSince(JarSnapshot other) {
         Set<String> addedClasses = new HashSet<String>(getClasses());
         addedClasses.removeAll(other.getClasses());
@@ -106,6 +115,10 @@ public class JarSnapshot {
         return data.hashes;
     }
 
+    public Map<String, HashCode> getAbiHashes() {
+        return data.abiHashes;
+    }
+
     public ClassSetAnalysis getAnalysis() {
         return new ClassSetAnalysis(data.data);
     }
@@ -24,21 +24,25 @@ import java.util.Map;
 public class JarSnapshotData {
 
     final Map<String, HashCode> hashes;
+    final Map<String, HashCode> abiHashes;
     final ClassSetAnalysisData data;
     final HashCode hash;
 
     /**
      * @param hash of this jar
      * @param hashes hashes of all classes from the jar
+     * @param abiHashes hashes of the ABI of the classes from the jar, for the classes whose ABI could be extracted
      * @param data of classes analysis in this jar
      */
-    public JarSnapshotData(HashCode hash, Map<String, HashCode> hashes, ClassSetAnalysisData data) {
+    public JarSnapshotData(HashCode hash, Map<String, HashCode> hashes, Map<String, HashCode> abiHashes, ClassSetAnalysisData data) {
         assert hash != null;
         assert hashes != null;
+        assert abiHashes != null;
         assert data != null;
 
         this.hash = hash;
         this.hashes = hashes;
+        this.abiHashes = abiHashes;
         this.data = data;
     }
 }
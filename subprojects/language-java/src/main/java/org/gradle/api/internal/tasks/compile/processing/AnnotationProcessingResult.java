@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The types generated by the isolating annotation processors of a compilation, each mapped to the top level type it was generated from.
+ */
+public class AnnotationProcessingResult {
+    private final Map<String, String> generatedTypeOrigins;
+    private String fullRebuildCause;
+
+    public AnnotationProcessingResult() {
+        this(new LinkedHashMap<String, String>(), null);
+    }
+
+    private AnnotationProcessingResult(Map<String, String> generatedTypeOrigins, String fullRebuildCause) {
+        this.generatedTypeOrigins = generatedTypeOrigins;
+        this.fullRebuildCause = fullRebuildCause;
+    }
+
+    public void addGeneratedType(String generatedType, String originatingType) {
+        generatedTypeOrigins.put(generatedType, originatingType);
+    }
+
+    public Map<String, String> getGeneratedTypeOrigins() {
+        return generatedTypeOrigins;
+    }
+
+    /**
+     * The reason why the files generated by the processors cannot be tracked, or null when they can.
+     */
+    public String getFullRebuildCause() {
+        return fullRebuildCause;
+    }
+
+    public void setFullRebuildCause(String fullRebuildCause) {
+        if (this.fullRebuildCause == null) {
+            this.fullRebuildCause = fullRebuildCause;
+        }
+    }
+
+    public static class Serializer extends AbstractSerializer<AnnotationProcessingResult> {
+        @Override
+        public AnnotationProcessingResult read(Decoder decoder) throws Exception {
+            String fullRebuildCause = decoder.readNullableString();
+            int count = decoder.readSmallInt();
+            Map<String, String> generatedTypeOrigins = new LinkedHashMap<String, String>(count);
+            for (int i = 0; i < count; i++) {
+                String generatedType = decoder.readString();
+                generatedTypeOrigins.put(generatedType, decoder.readString());
+            }
+            return new AnnotationProcessingResult(generatedTypeOrigins, fullRebuildCause);
+        }
+
+        @Override
+        public void write(Encoder encoder, AnnotationProcessingResult value) throws Exception {
+            encoder.writeNullableString(value.fullRebuildCause);
+            encoder.writeSmallInt(value.generatedTypeOrigins.size());
+            for (Map.Entry<String, String> entry : value.generatedTypeOrigins.entrySet()) {
+                encoder.writeString(entry.getKey());
+                encoder.writeString(entry.getValue());
+            }
+        }
+    }
+}
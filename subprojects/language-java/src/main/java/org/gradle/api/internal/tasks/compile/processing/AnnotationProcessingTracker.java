@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+import org.gradle.api.GradleException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.classpath.DefaultClassPath;
+
+import javax.annotation.processing.Processor;
+import java.io.File;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the annotation processors of a compilation, instead of letting the compiler discover them, so that the types generated by
+ * isolating processors can be recorded.
+ */
+public class AnnotationProcessingTracker {
+    private final List<AnnotationProcessorDeclaration> processors;
+    private final List<File> processorPath;
+    private final AnnotationProcessingResult result = new AnnotationProcessingResult();
+    private URLClassLoader processorClassLoader;
+
+    public AnnotationProcessingTracker(List<AnnotationProcessorDeclaration> processors, List<File> processorPath) {
+        this.processors = processors;
+        this.processorPath = processorPath;
+    }
+
+    /**
+     * Returns true when all of the given processors are isolating, so that the types they generate can be tracked.
+     */
+    public static boolean canTrack(List<AnnotationProcessorDeclaration> processors) {
+        return processors != null && !processors.isEmpty() && AnnotationProcessorDeclaration.findNonIsolating(processors) == null;
+    }
+
+    /**
+     * Creates the processors, loading them from the processor path with the given class loader as parent.
+     */
+    public List<Processor> createProcessors(ClassLoader parent) {
+        processorClassLoader = new URLClassLoader(DefaultClassPath.of(processorPath).getAsURLArray(), parent);
+        List<Processor> result = new ArrayList<Processor>(processors.size());
+        for (AnnotationProcessorDeclaration declaration : processors) {
+            Processor processor;
+            try {
+                processor = (Processor) processorClassLoader.loadClass(declaration.getClassName()).newInstance();
+            } catch (Exception e) {
+                throw new GradleException("Could not create annotation processor '" + declaration.getClassName() + "'.", e);
+            }
+            result.add(new IsolatingProcessor(processor, this.result));
+        }
+        return result;
+    }
+
+    public AnnotationProcessingResult getResult() {
+        return result;
+    }
+
+    public void close() {
+        ClassLoaderUtils.tryClose(processorClassLoader);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+
+import java.io.Serializable;
+
+/**
+ * An annotation processor found on the annotation processor path.
+ */
+public class AnnotationProcessorDeclaration implements Serializable {
+    private final String className;
+    private final IncrementalAnnotationProcessorType type;
+
+    public AnnotationProcessorDeclaration(String className, IncrementalAnnotationProcessorType type) {
+        this.className = className;
+        this.type = type;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public IncrementalAnnotationProcessorType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the first of the given processors that is not isolating, or null when all of them are.
+     */
+    public static AnnotationProcessorDeclaration findNonIsolating(Iterable<AnnotationProcessorDeclaration> processors) {
+        for (AnnotationProcessorDeclaration processor : processors) {
+            if (processor.getType() != IncrementalAnnotationProcessorType.ISOLATING) {
+                return processor;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return className + " (type: " + type + ")";
+    }
+
+    public static class Serializer extends AbstractSerializer<AnnotationProcessorDeclaration> {
+        @Override
+        public AnnotationProcessorDeclaration read(Decoder decoder) throws Exception {
+            String className = decoder.readString();
+            IncrementalAnnotationProcessorType type = IncrementalAnnotationProcessorType.values()[decoder.readSmallInt()];
+            return new AnnotationProcessorDeclaration(className, type);
+        }
+
+        @Override
+        public void write(Encoder encoder, AnnotationProcessorDeclaration value) throws Exception {
+            encoder.writeString(value.className);
+            encoder.writeSmallInt(value.type.ordinal());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+/**
+ * The kind of incremental processing an annotation processor supports, as declared in the {@code META-INF/gradle/incremental.annotation.processors}
+ * resource of the processor's jar.
+ */
+public enum IncrementalAnnotationProcessorType {
+    /**
+     * Generates each of its files from a single annotated type, which it passes as the originating element of the file.
+     */
+    ISOLATING,
+
+    /**
+     * Generates files from several annotated types.
+     */
+    AGGREGATING,
+
+    /**
+     * Has not declared how it generates its files.
+     */
+    UNKNOWN
+}
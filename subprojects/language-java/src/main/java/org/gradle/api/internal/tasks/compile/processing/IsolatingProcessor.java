@@ -0,0 +1,189 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wraps an isolating annotation processor, recording each type it generates against the top level type it was generated from.
+ * Generating a resource requires a full rebuild the next time.
+ */
+class IsolatingProcessor implements Processor {
+    private final Processor delegate;
+    private final AnnotationProcessingResult result;
+
+    IsolatingProcessor(Processor delegate, AnnotationProcessingResult result) {
+        this.delegate = delegate;
+        this.result = result;
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return delegate.getSupportedOptions();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return delegate.getSupportedAnnotationTypes();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return delegate.getSupportedSourceVersion();
+    }
+
+    @Override
+    public void init(ProcessingEnvironment processingEnv) {
+        delegate.init(new TrackingProcessingEnvironment(processingEnv, new TrackingFiler(processingEnv.getFiler())));
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        return delegate.process(annotations, roundEnv);
+    }
+
+    @Override
+    public Iterable<? extends Completion> getCompletions(Element element, AnnotationMirror annotation, ExecutableElement member, String userText) {
+        return delegate.getCompletions(element, annotation, member, userText);
+    }
+
+    private void recordGeneratedType(CharSequence name, Element[] originatingElements) {
+        String generatedType = name.toString();
+        int moduleSeparator = generatedType.indexOf('/');
+        if (moduleSeparator >= 0) {
+            generatedType = generatedType.substring(moduleSeparator + 1);
+        }
+        Set<String> originatingTypes = new LinkedHashSet<String>();
+        for (Element element : originatingElements) {
+            originatingTypes.add(getTopLevelTypeName(element));
+        }
+        if (originatingTypes.size() != 1 || originatingTypes.contains(null)) {
+            result.setFullRebuildCause("the isolating annotation processor '" + delegate.getClass().getName() + "' did not provide a single originating type for '" + generatedType + "'");
+            return;
+        }
+        result.addGeneratedType(generatedType, originatingTypes.iterator().next());
+    }
+
+    private static String getTopLevelTypeName(Element element) {
+        Element current = element;
+        while (current.getEnclosingElement() != null && current.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+            current = current.getEnclosingElement();
+        }
+        if (current instanceof TypeElement) {
+            return ((TypeElement) current).getQualifiedName().toString();
+        }
+        return null;
+    }
+
+    private class TrackingFiler implements Filer {
+        private final Filer delegate;
+
+        TrackingFiler(Filer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) throws IOException {
+            recordGeneratedType(name, originatingElements);
+            return delegate.createSourceFile(name, originatingElements);
+        }
+
+        @Override
+        public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) throws IOException {
+            recordGeneratedType(name, originatingElements);
+            return delegate.createClassFile(name, originatingElements);
+        }
+
+        @Override
+        public FileObject createResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName, Element... originatingElements) throws IOException {
+            // Generated resources are not tracked, so they would not be removed or regenerated when their originating type changes
+            result.setFullRebuildCause("the isolating annotation processor '" + IsolatingProcessor.this.delegate.getClass().getName() + "' generated the resource '" + relativeName + "'");
+            return delegate.createResource(location, pkg, relativeName, originatingElements);
+        }
+
+        @Override
+        public FileObject getResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName) throws IOException {
+            return delegate.getResource(location, pkg, relativeName);
+        }
+    }
+
+    private static class TrackingProcessingEnvironment implements ProcessingEnvironment {
+        private final ProcessingEnvironment delegate;
+        private final Filer filer;
+
+        TrackingProcessingEnvironment(ProcessingEnvironment delegate, Filer filer) {
+            this.delegate = delegate;
+            this.filer = filer;
+        }
+
+        @Override
+        public Map<String, String> getOptions() {
+            return delegate.getOptions();
+        }
+
+        @Override
+        public Messager getMessager() {
+            return delegate.getMessager();
+        }
+
+        @Override
+        public Filer getFiler() {
+            return filer;
+        }
+
+        @Override
+        public Elements getElementUtils() {
+            return delegate.getElementUtils();
+        }
+
+        @Override
+        public Types getTypeUtils() {
+            return delegate.getTypeUtils();
+        }
+
+        @Override
+        public SourceVersion getSourceVersion() {
+            return delegate.getSourceVersion();
+        }
+
+        @Override
+        public Locale getLocale() {
+            return delegate.getLocale();
+        }
+    }
+}
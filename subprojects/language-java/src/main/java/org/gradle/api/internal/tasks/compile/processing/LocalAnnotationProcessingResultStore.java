@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.cache.internal.Loader;
+import org.gradle.cache.internal.Stash;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+
+//Keeps the annotation processing result of the given JavaCompile task, in a file that the compiler can write to from the compiler daemon
+public class LocalAnnotationProcessingResultStore implements Loader<AnnotationProcessingResult>, Stash<AnnotationProcessingResult> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalAnnotationProcessingResultStore.class);
+    private final File file;
+    private final AnnotationProcessingResult.Serializer serializer = new AnnotationProcessingResult.Serializer();
+
+    public LocalAnnotationProcessingResultStore(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public AnnotationProcessingResult get() {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(file));
+            try {
+                return serializer.read(decoder);
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not read annotation processing result from {}.", file, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(AnnotationProcessingResult result) {
+        GFileUtils.mkdirs(file.getParentFile());
+        try {
+            KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(file));
+            try {
+                serializer.write(encoder, result);
+            } finally {
+                encoder.close();
+            }
+        } catch (Exception e) {
+            throw new UncheckedIOException("Could not write annotation processing result to " + file, e);
+        }
+    }
+
+    /**
+     * Discards the stored result, so that it is not used should the next compilation fail.
+     */
+    public void clear() {
+        GFileUtils.deleteQuietly(file);
+    }
+}
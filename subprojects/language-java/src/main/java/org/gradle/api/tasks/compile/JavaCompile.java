@@ -17,6 +17,7 @@
 package org.gradle.api.tasks.compile;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import org.gradle.api.Incubating;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.file.FileCollection;
@@ -37,6 +38,7 @@ import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCac
 import org.gradle.api.internal.tasks.compile.incremental.deps.LocalClassSetAnalysisStore;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotCache;
 import org.gradle.api.internal.tasks.compile.incremental.jar.LocalJarClasspathSnapshotStore;
+import org.gradle.api.internal.tasks.compile.processing.LocalAnnotationProcessingResultStore;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Classpath;
@@ -49,6 +51,7 @@ import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.cache.CacheRepository;
 import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.hash.StreamHasher;
 import org.gradle.jvm.internal.toolchain.JavaToolChainInternal;
 import org.gradle.jvm.platform.JavaPlatform;
@@ -58,6 +61,10 @@ import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.language.base.internal.compile.CompilerUtil;
 
 import javax.inject.Inject;
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Compiles Java source files.
@@ -126,9 +133,13 @@ public class JavaCompile extends AbstractCompile {
         }
 
         DefaultJavaCompileSpec spec = createSpec();
+        AnnotationProcessorDetector annotationProcessorDetector = getServices().get(AnnotationProcessorDetector.class);
+        spec.setEffectiveAnnotationProcessors(annotationProcessorDetector.getEffectiveAnnotationProcessors(compileOptions, spec.getAnnotationProcessorPath()));
+        spec.setAnnotationProcessingResultFile(new File(getTemporaryDir(), "annotation-processing.bin"));
         CompileCaches compileCaches = createCompileCaches();
         IncrementalCompilerFactory factory = new IncrementalCompilerFactory(
-            getFileOperations(), getStreamHasher(), getCachingFileHasher(), getPath(), createCompiler(spec), source, compileCaches, (IncrementalTaskInputsInternal) inputs, getEffectiveAnnotationProcessorPath());
+            getFileOperations(), getStreamHasher(), getCachingFileHasher(), getPath(), createCompiler(spec), source, compileCaches, (IncrementalTaskInputsInternal) inputs,
+            spec.getEffectiveAnnotationProcessors(), new LocalAnnotationProcessingResultStore(spec.getAnnotationProcessingResultFile()));
         Compiler<JavaCompileSpec> compiler = factory.createCompiler();
         performCompilation(spec, compiler);
     }
@@ -216,12 +227,27 @@ public class JavaCompile extends AbstractCompile {
         spec.setTempDir(getTemporaryDir());
         spec.setCompileClasspath(ImmutableList.copyOf(getClasspath()));
         spec.setAnnotationProcessorPath(ImmutableList.copyOf(getEffectiveAnnotationProcessorPath()));
+        spec.setArchiveHashes(hashArchives(spec.getCompileClasspath(), spec.getAnnotationProcessorPath()));
         spec.setTargetCompatibility(getTargetCompatibility());
         spec.setSourceCompatibility(getSourceCompatibility());
         spec.setCompileOptions(compileOptions);
         return spec;
     }
 
+    /**
+     * Hashes the jars of the given paths, which have usually been hashed already to snapshot the inputs of this task.
+     */
+    private Map<File, HashCode> hashArchives(List<File> classpath, List<File> annotationProcessorPath) {
+        FileHasher fileHasher = getCachingFileHasher();
+        Map<File, HashCode> hashes = new HashMap<File, HashCode>();
+        for (File file : Iterables.concat(classpath, annotationProcessorPath)) {
+            if (!hashes.containsKey(file) && file.isFile()) {
+                hashes.put(file, fileHasher.hash(file));
+            }
+        }
+        return hashes;
+    }
+
     /**
      * Returns the compilation options.
      *
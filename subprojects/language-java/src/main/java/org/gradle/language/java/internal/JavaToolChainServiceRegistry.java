@@ -22,6 +22,7 @@ import org.gradle.api.internal.tasks.CurrentJvmJavaToolChain;
 import org.gradle.api.internal.tasks.JavaToolChainFactory;
 import org.gradle.api.internal.tasks.compile.DefaultJavaCompilerFactory;
 import org.gradle.api.internal.tasks.compile.JavaCompilerFactory;
+import org.gradle.api.internal.tasks.compile.JavaFileManagerPool;
 import org.gradle.api.internal.tasks.compile.JavaHomeBasedJavaCompilerFactory;
 import org.gradle.internal.Factory;
 import org.gradle.internal.jvm.inspection.JvmVersionDetector;
@@ -39,6 +40,8 @@ public class JavaToolChainServiceRegistry extends AbstractPluginServiceRegistry
     @Override
     public void registerBuildSessionServices(ServiceRegistration registration) {
         registration.addProvider(new BuildSessionScopeCompileServices());
+        // Closes the file managers kept by the pool at the end of the build session
+        registration.add(JavaFileManagerPool.class, JavaFileManagerPool.current());
     }
     @Override
     public void registerProjectServices(ServiceRegistration registration) {
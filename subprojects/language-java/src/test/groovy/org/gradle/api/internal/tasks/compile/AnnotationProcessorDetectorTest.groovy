@@ -20,6 +20,7 @@ import org.gradle.api.InvalidUserDataException
 import org.gradle.api.file.FileCollection
 import org.gradle.api.internal.file.TestFiles
 import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration
 import org.gradle.api.model.ObjectFactory
 import org.gradle.api.tasks.compile.CompileOptions
 import org.gradle.cache.internal.TestFileContentCacheFactory
@@ -29,6 +30,10 @@ import org.junit.Rule
 import spock.lang.Issue
 import spock.lang.Specification
 
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.AGGREGATING
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.ISOLATING
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.UNKNOWN
+
 class AnnotationProcessorDetectorTest extends Specification {
     @Rule
     TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
@@ -161,6 +166,45 @@ class AnnotationProcessorDetectorTest extends Specification {
         detector.getEffectiveAnnotationProcessorClasspath(options, cp).empty
     }
 
+    def "detects processors registered in jars and directories along with their incremental processing type"() {
+        given:
+        def dir = tmpDir.file("processor-dir")
+        dir.file("META-INF/services/javax.annotation.processing.Processor") << "# comment\ncom.foo.DirProcessor\n"
+        dir.file("META-INF/gradle/incremental.annotation.processors") << "com.foo.DirProcessor,aggregating\n"
+        def jar = tmpDir.file("processor.jar")
+        jar << JarUtils.jarWithContents(
+            "META-INF/services/javax.annotation.processing.Processor": "com.foo.Isolating\ncom.foo.Undeclared\n",
+            "META-INF/gradle/incremental.annotation.processors": "com.foo.Isolating,isolating\n")
+        def other = tmpDir.file("other.jar")
+        other << JarUtils.jarWithContents("Other.class": "other")
+
+        expect:
+        declarations(detector.getEffectiveAnnotationProcessors(options, [dir, jar, other])) == [
+            "com.foo.DirProcessor": AGGREGATING,
+            "com.foo.Isolating": ISOLATING,
+            "com.foo.Undeclared": UNKNOWN
+        ]
+    }
+
+    def "detects processors named by -processor compiler arg"() {
+        given:
+        def jar = tmpDir.file("processor.jar")
+        jar << JarUtils.jarWithContents(
+            "META-INF/services/javax.annotation.processing.Processor": "com.foo.Isolating\ncom.foo.Other\n",
+            "META-INF/gradle/incremental.annotation.processors": "com.foo.Isolating,isolating\n")
+        options.compilerArgs = ["-processor", "com.foo.Isolating,com.foo.Unregistered"]
+
+        expect:
+        declarations(detector.getEffectiveAnnotationProcessors(options, [jar])) == [
+            "com.foo.Isolating": ISOLATING,
+            "com.foo.Unregistered": UNKNOWN
+        ]
+    }
+
+    def declarations(List<AnnotationProcessorDeclaration> processors) {
+        processors.collectEntries { [it.className, it.type] }
+    }
+
     FileCollection files(String... paths) {
         new SimpleFileCollection(paths.collect { tmpDir.file(it).createFile() })
     }
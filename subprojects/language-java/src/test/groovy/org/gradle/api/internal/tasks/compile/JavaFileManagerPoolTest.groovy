@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.internal.hash.HashCode
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+import javax.tools.StandardLocation
+import java.nio.charset.Charset
+
+class JavaFileManagerPoolTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def compiler = Mock(JavaCompiler)
+    def pool = new JavaFileManagerPool(true)
+    def jar = tmpDir.file("lib.jar").createFile()
+    def archives = [(jar): HashCode.fromInt(1)]
+
+    def "reuses released file manager for compilation with same options"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def first = pool.acquire(compiler, null, ["-classpath", "a.jar", "-d", "out1", "-g"], archives)
+        pool.release(first)
+        def second = pool.acquire(compiler, null, ["-classpath", "b.jar", "-d", "out2", "-g", "-Akey=value"], archives)
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        first.is(fileManager)
+        second.is(fileManager)
+        1 * fileManager.setLocation(StandardLocation.CLASS_PATH, null)
+        1 * fileManager.setLocation(StandardLocation.CLASS_OUTPUT, null)
+        0 * fileManager.close()
+    }
+
+    def "does not share file manager between concurrent compilations"() {
+        when:
+        def first = pool.acquire(compiler, null, [], archives)
+        def second = pool.acquire(compiler, null, [], archives)
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >> { Mock(StandardJavaFileManager) }
+        !first.is(second)
+    }
+
+    def "does not reuse file manager for compilation with different options or encoding"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        pool.release(pool.acquire(compiler, null, ["-bootclasspath", "rt.jar"], archives))
+        def other = pool.acquire(compiler, null, ["-bootclasspath", "other.jar"], archives)
+        def otherEncoding = pool.acquire(compiler, Charset.forName("UTF-8"), ["-bootclasspath", "rt.jar"], archives)
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        1 * compiler.getStandardFileManager(null, null, null) >> Mock(StandardJavaFileManager)
+        1 * compiler.getStandardFileManager(null, null, Charset.forName("UTF-8")) >> Mock(StandardJavaFileManager)
+        !other.is(fileManager)
+        !otherEncoding.is(fileManager)
+    }
+
+    def "closes file manager that has read an archive that has changed"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def newFileManager = Mock(StandardJavaFileManager)
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >>> [fileManager, newFileManager]
+        pool.release(pool.acquire(compiler, null, [], archives))
+
+        when:
+        def second = pool.acquire(compiler, null, [], [(jar): HashCode.fromInt(2)])
+
+        then:
+        second.is(newFileManager)
+        1 * fileManager.close()
+    }
+
+    def "creates and closes file manager for each compilation when disabled"() {
+        def pool = new JavaFileManagerPool(false)
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        pool.release(pool.acquire(compiler, null, [], archives))
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        1 * fileManager.close()
+    }
+
+    def "does not reuse file manager when content hashes of archives are not known"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        pool.release(pool.acquire(compiler, null, [], null))
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        1 * fileManager.close()
+    }
+
+    def "closes least recently used file manager when too many are idle"() {
+        def fileManagers = (1..5).collect { Mock(StandardJavaFileManager) }
+        compiler.getStandardFileManager(null, null, null) >>> fileManagers
+
+        when:
+        def acquired = (1..5).collect { pool.acquire(compiler, null, ["-g:" + it], archives) }
+        acquired.each { pool.release(it) }
+
+        then:
+        1 * fileManagers[0].close()
+        0 * _.close()
+    }
+
+    def "closes idle file managers when stopped"() {
+        def idle = Mock(StandardJavaFileManager)
+        def inUse = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >>> [idle, inUse]
+
+        when:
+        def first = pool.acquire(compiler, null, [], archives)
+        pool.acquire(compiler, null, [], archives)
+        pool.release(first)
+        pool.stop()
+
+        then:
+        1 * idle.close()
+        0 * inUse.close()
+    }
+}
@@ -18,19 +18,28 @@ package org.gradle.api.internal.tasks.compile.incremental
 
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotWriter
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult
+import org.gradle.api.internal.tasks.compile.processing.LocalAnnotationProcessingResultStore
 import org.gradle.api.tasks.WorkResult
 import org.gradle.language.base.internal.compile.Compiler
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 import spock.lang.Subject
 
 class IncrementalCompilationFinalizerTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
 
     def compiler = Mock(Compiler)
     def writer = Mock(JarClasspathSnapshotWriter)
     def infoUpdater = Mock(ClassSetAnalysisUpdater)
-    def compileSpec = Stub(JavaCompileSpec)
+    def processingResultStore = Mock(LocalAnnotationProcessingResultStore)
+    def compileSpec = Stub(JavaCompileSpec) {
+        getDestinationDir() >> temp.testDirectory
+    }
 
-    @Subject finalizer = new IncrementalCompilationFinalizer(compiler, writer, infoUpdater)
+    @Subject finalizer = new IncrementalCompilationFinalizer(compiler, writer, infoUpdater, processingResultStore, null)
 
     def "performs finalization"() {
         when:
@@ -52,4 +61,25 @@ class IncrementalCompilationFinalizerTest extends Specification {
         1 * writer.storeJarSnapshots(_)
         0 * _
     }
+
+    def "keeps types generated by previous compilation that were not recompiled"() {
+        def previous = new AnnotationProcessingResult()
+        previous.addGeneratedType("com.Kept", "com.A")
+        previous.addGeneratedType("com.Deleted", "com.B")
+        previous.addGeneratedType("com.Regenerated", "com.C")
+        temp.file("com/Kept.class").createFile()
+        temp.file("com/Regenerated.class").createFile()
+        def current = new AnnotationProcessingResult()
+        current.addGeneratedType("com.Regenerated", "com.D")
+        def finalizer = new IncrementalCompilationFinalizer(compiler, writer, infoUpdater, processingResultStore, previous)
+
+        when:
+        finalizer.execute(compileSpec)
+
+        then:
+        1 * compiler.execute(compileSpec) >> Mock(WorkResult)
+        1 * processingResultStore.get() >> current
+        1 * processingResultStore.put(current)
+        current.generatedTypeOrigins == ["com.Regenerated": "com.D", "com.Kept": "com.A"]
+    }
 }
@@ -56,4 +56,27 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
         read.literalsToClasses == [3: ['A', 'B'] as Set, 4: ['D'] as Set]
         read.classesToChildren == ['A': ['SA'] as Set, B: ['SB1', 'SB2'] as Set]
     }
+
+    def "reads each class name once"() {
+        def data = new ClassSetAnalysisData(
+            ["A.class": "A", "B.class": "B"],
+            ["A": dependents("B"), "B": new DependencyToAll("reason")],
+            [B: [1] as Set],
+            [3: ['B'] as Set],
+            ['A': ['B'] as Set]
+        )
+        def os = new ByteArrayOutputStream()
+
+        when:
+        serializer.write(new OutputStreamBackedEncoder(os), data)
+        ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+
+        then:
+        def b = read.filePathToClassName["B.class"]
+        read.dependents["A"].dependentClasses.first().is(b)
+        read.dependents.keySet().find { it == "B" }.is(b)
+        read.literalsToClasses[3].first().is(b)
+        read.classesToChildren["A"].first().is(b)
+        read.dependents["B"].description == "reason"
+    }
 }
@@ -70,11 +70,11 @@ class DefaultJarSnapshotterTest extends Specification {
             visitor.visitFile(f2Details)
             visitor.visitFile(new DefaultFileVisitDetails(f3, null, null))
         }
-        1 * hasher.hash(_) >> f1Hash
+        1 * hasher.hashCopy(_, _) >> f1Hash
         1 * classDependenciesAnalyzer.getClassAnalysis(f1Hash, f1Details) >> Stub(ClassAnalysis) {
             getClassName() >> "Foo"
         }
-        1 * hasher.hash(_) >> f2Hash
+        1 * hasher.hashCopy(_, _) >> f2Hash
         1 * classDependenciesAnalyzer.getClassAnalysis(f2Hash, f2Details) >> Stub(ClassAnalysis) {
             getClassName() >> "com.Foo2"
         }
@@ -82,6 +82,35 @@ class DefaultJarSnapshotterTest extends Specification {
 
         and:
         snapshot.hashes == ["Foo": f1Hash, "com.Foo2": f2Hash]
+        snapshot.abiHashes.isEmpty()
         snapshot.analysis
     }
+
+    def "records hash of ABI of classes in jar"() {
+        def f1 = temp.createFile("foo/java/lang/String.class")
+        f1.bytes = String.getResourceAsStream("/java/lang/String.class").bytes
+        def f1Hash = HashCode.fromInt(1)
+        def f1Details = new DefaultFileVisitDetails(f1, null, null)
+        def jarFileTree = Mock(FileTree)
+
+        when:
+        def snapshot = snapshotter.createSnapshot(HashCode.fromInt(123), new JarArchive(temp.file("foo"), jarFileTree))
+
+        then:
+        1 * jarFileTree.visit(_) >> { FileVisitor visitor ->
+            visitor.visitFile(f1Details)
+        }
+        1 * hasher.hashCopy(_, _) >> { InputStream input, OutputStream output ->
+            output << input
+            f1Hash
+        }
+        1 * classDependenciesAnalyzer.getClassAnalysis(f1Hash, f1Details) >> Stub(ClassAnalysis) {
+            getClassName() >> "java.lang.String"
+        }
+
+        and:
+        snapshot.hashes == ["java.lang.String": f1Hash]
+        snapshot.abiHashes.keySet() == ["java.lang.String"] as Set
+        snapshot.abiHashes["java.lang.String"] != f1Hash
+    }
 }
@@ -28,8 +28,8 @@ class JarSnapshotTest extends Specification {
 
     def analysis = Stub(ClassSetAnalysisData)
 
-    private JarSnapshot snapshot(Map<String, HashCode> hashes, ClassSetAnalysisData a) {
-        new JarSnapshot(new JarSnapshotData(HashCode.fromInt(0x1234), hashes, a))
+    private JarSnapshot snapshot(Map<String, HashCode> hashes, ClassSetAnalysisData a, Map<String, HashCode> abiHashes = [:]) {
+        new JarSnapshot(new JarSnapshotData(HashCode.fromInt(0x1234), hashes, abiHashes, a))
     }
 
     private DependentsSet altered(JarSnapshot s1, JarSnapshot s2) {
@@ -100,6 +100,20 @@ class JarSnapshotTest extends Specification {
         altered(s2, s1).isDependencyToAll()
     }
 
+    def "ignores classes whose ABI has not changed since other snapshot"() {
+        def analysis = Mock(ClassSetAnalysisData)
+        JarSnapshot s1 = snapshot(["A": HashCode.fromInt(0xaa), "B": HashCode.fromInt(0xbb), "C": HashCode.fromInt(0xcc)], analysis, ["A": HashCode.fromInt(0xa0), "B": HashCode.fromInt(0xb0), "C": HashCode.fromInt(0xc0)])
+        JarSnapshot s2 = snapshot(["A": HashCode.fromInt(0xaaaa), "B": HashCode.fromInt(0xbbbb), "C": HashCode.fromInt(0xcccc)], analysis, ["A": HashCode.fromInt(0xa0), "B": HashCode.fromInt(0xb1)])
+
+        analysis.getDependents("A") >> new DependencyToAll()
+        analysis.getDependents("B") >> dependents()
+        analysis.getDependents("C") >> dependents()
+
+        expect:
+        altered(s1, s2).dependentClasses == ["B", "C"] as Set
+        altered(s2, s1).dependentClasses == ["B", "C"] as Set
+    }
+
     def "knows added classes"() {
         JarSnapshot s1 = snapshot(["A": HashCode.fromInt(0xaa), "B": HashCode.fromInt(0xbb), "C": HashCode.fromInt(0xcc)], analysis)
         JarSnapshot s2 = snapshot(["A": HashCode.fromInt(0xaa)], analysis)
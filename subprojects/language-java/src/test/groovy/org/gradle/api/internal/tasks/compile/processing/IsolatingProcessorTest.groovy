@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing
+
+import spock.lang.Specification
+
+import javax.annotation.processing.Filer
+import javax.annotation.processing.ProcessingEnvironment
+import javax.annotation.processing.Processor
+import javax.lang.model.element.Element
+import javax.lang.model.element.ElementKind
+import javax.lang.model.element.Name
+import javax.lang.model.element.PackageElement
+import javax.lang.model.element.TypeElement
+import javax.tools.StandardLocation
+
+class IsolatingProcessorTest extends Specification {
+    def delegate = Mock(Processor)
+    def filer = Mock(Filer)
+    def result = new AnnotationProcessingResult()
+    def processor = new IsolatingProcessor(delegate, result)
+    def pkg = Stub(PackageElement) {
+        getKind() >> ElementKind.PACKAGE
+    }
+    def type = Stub(TypeElement) {
+        getKind() >> ElementKind.CLASS
+        getEnclosingElement() >> pkg
+        getQualifiedName() >> name("com.foo.Bean")
+    }
+    def method = Stub(Element) {
+        getKind() >> ElementKind.METHOD
+        getEnclosingElement() >> type
+    }
+    ProcessingEnvironment processingEnvironment
+
+    def setup() {
+        delegate.init(_) >> { ProcessingEnvironment env -> processingEnvironment = env }
+        processor.init(Stub(ProcessingEnvironment) {
+            getFiler() >> filer
+        })
+    }
+
+    def "records generated types against the top level type they were generated from"() {
+        when:
+        processingEnvironment.filer.createSourceFile("com.foo.Bean_Factory", method)
+        processingEnvironment.filer.createClassFile("com.foo.Bean_Impl", type, method)
+
+        then:
+        1 * filer.createSourceFile("com.foo.Bean_Factory", method)
+        1 * filer.createClassFile("com.foo.Bean_Impl", type, method)
+        result.generatedTypeOrigins == ["com.foo.Bean_Factory": "com.foo.Bean", "com.foo.Bean_Impl": "com.foo.Bean"]
+        result.fullRebuildCause == null
+    }
+
+    def "requires full rebuild when generated type does not have a single originating type"() {
+        def otherType = Stub(TypeElement) {
+            getKind() >> ElementKind.CLASS
+            getEnclosingElement() >> pkg
+            getQualifiedName() >> name("com.foo.Other")
+        }
+
+        when:
+        processingEnvironment.filer.createSourceFile("com.foo.Generated", type, otherType)
+
+        then:
+        result.fullRebuildCause.contains("did not provide a single originating type for 'com.foo.Generated'")
+    }
+
+    def "requires full rebuild when generated type has no originating element"() {
+        when:
+        processingEnvironment.filer.createSourceFile("com.foo.Generated")
+
+        then:
+        result.fullRebuildCause != null
+    }
+
+    def "requires full rebuild when resource is generated"() {
+        when:
+        processingEnvironment.filer.createResource(StandardLocation.CLASS_OUTPUT, "com.foo", "bean.properties", type)
+
+        then:
+        1 * filer.createResource(StandardLocation.CLASS_OUTPUT, "com.foo", "bean.properties", type)
+        result.fullRebuildCause.contains("generated the resource 'bean.properties'")
+    }
+
+    private Name name(String value) {
+        Stub(Name) {
+            toString() >> value
+        }
+    }
+}
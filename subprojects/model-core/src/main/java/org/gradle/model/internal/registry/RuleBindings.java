@@ -16,8 +16,8 @@
 
 package org.gradle.model.internal.registry;
 
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.gradle.model.internal.core.ModelNode;
 import org.gradle.model.internal.core.ModelPath;
 import org.gradle.model.internal.type.ModelType;
@@ -176,7 +176,7 @@ class RuleBindings {
 
     private class ScopeIndex {
         final Map<ModelType<?>, PredicateMatches> types = Maps.newLinkedHashMap();
-        final List<ModelNodeInternal> nodes = Lists.newArrayList();
+        final Set<ModelNodeInternal> nodes = Sets.newLinkedHashSet();
 
         public void addNode(ModelNodeInternal node) {
             nodes.add(node);
@@ -241,8 +241,12 @@ class RuleBindings {
         }
     }
 
+    /**
+     * Rules bound to nodes, indexed by the state and then by the path of the node that they are bound to. Each entry retains the order in which
+     * the rules were bound, so that rules are applied in a stable order.
+     */
     private static class NodeAtStateIndex {
-        private final EnumMap<ModelNode.State, Map<String, List<RuleBinder>>> boundAtState = Maps.newEnumMap(ModelNode.State.class);
+        private final EnumMap<ModelNode.State, Map<ModelPath, Set<RuleBinder>>> boundAtState = Maps.newEnumMap(ModelNode.State.class);
 
         private final String name;
 
@@ -250,20 +254,18 @@ class RuleBindings {
             this.name = name;
         }
 
-        private Map<String, List<RuleBinder>> getByState(ModelNode.State state) {
-            Map<String, List<RuleBinder>> map = boundAtState.get(state);
+        private Map<ModelPath, Set<RuleBinder>> getByState(ModelNode.State state) {
+            Map<ModelPath, Set<RuleBinder>> map = boundAtState.get(state);
             if (map == null) {
-                map = new HashMap<String, List<RuleBinder>>(64);
+                map = new HashMap<ModelPath, Set<RuleBinder>>(64);
                 boundAtState.put(state, map);
             }
             return map;
         }
 
         public void nodeRemoved(ModelNodeInternal node) {
-            // This could be more efficient; assume that removal happens much less often than addition
-            for (ModelNode.State state : ModelNode.State.values()) {
-                Map<String, List<RuleBinder>> byState = getByState(state);
-                List<RuleBinder> remove = byState.remove(node.getPath().toString());
+            for (Map<ModelPath, Set<RuleBinder>> byState : boundAtState.values()) {
+                Set<RuleBinder> remove = byState.remove(node.getPath());
                 if (remove != null) {
                     for (RuleBinder rule : remove) {
                         unbind(rule, node);
@@ -273,36 +275,25 @@ class RuleBindings {
         }
 
         public void put(NodeAtState nodeAtState, RuleBinder binder) {
-            Map<String, List<RuleBinder>> byState = getByState(nodeAtState.state);
-            String path = nodeAtState.path.toString();
-            List<RuleBinder> byPath = getByPath(byState, path);
-            if (!byPath.contains(binder)) {
-                byPath.add(binder);
+            Map<ModelPath, Set<RuleBinder>> byState = getByState(nodeAtState.state);
+            Set<RuleBinder> byPath = byState.get(nodeAtState.path);
+            if (byPath == null) {
+                byPath = new LinkedHashSet<RuleBinder>();
+                byState.put(nodeAtState.path, byPath);
             }
-        }
-
-        private List<RuleBinder> getByPath(Map<String, List<RuleBinder>> byState, String path) {
-            List<RuleBinder> ruleBinders = byState.get(path);
-            if (ruleBinders == null) {
-                ruleBinders = new LinkedList<RuleBinder>();
-                byState.put(path, ruleBinders);
-            }
-            return ruleBinders;
+            byPath.add(binder);
         }
 
         /**
          * Returns rules for given target at state.
          */
         public Collection<RuleBinder> get(NodeAtState nodeAtState) {
-            return getByPath(getByState(nodeAtState.state), nodeAtState.path.toString());
-        }
-
-        public void remove(ModelNodeInternal node, RuleBinder ruleBinder) {
-            unbind(ruleBinder, node);
-            for (ModelNode.State state : ModelNode.State.values()) {
-                Map<String, List<RuleBinder>> byState = getByState(state);
-                getByPath(byState, node.getPath().toString()).clear();
+            Map<ModelPath, Set<RuleBinder>> byState = boundAtState.get(nodeAtState.state);
+            if (byState == null) {
+                return Collections.emptySet();
             }
+            Set<RuleBinder> byPath = byState.get(nodeAtState.path);
+            return byPath == null ? Collections.<RuleBinder>emptySet() : byPath;
         }
 
         @Override
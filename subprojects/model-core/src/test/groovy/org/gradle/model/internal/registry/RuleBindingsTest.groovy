@@ -423,6 +423,73 @@ class RuleBindingsTest extends RegistrySpec {
         rule2.inputBindings.every { it.bound }
     }
 
+    def "returns rules bound to a node in the order they were bound"() {
+        def rule1 = rule("path", ModelNode.State.Finalized)
+        def rule2 = rule("path", ModelNode.State.Finalized)
+        def rule3 = rule("other") { it.inputReference("path", ModelNode.State.Finalized) }
+        def rule4 = rule("path", ModelNode.State.Finalized)
+        def rule5 = rule("other") { it.inputReference("path", ModelNode.State.Finalized) }
+
+        given:
+        addNode(node("path"))
+        bindings.add(rule1)
+        bindings.add(rule2)
+        bindings.add(rule3)
+        bindings.add(rule4)
+        bindings.add(rule5)
+
+        expect:
+        bindings.getRulesWithSubject(nodeAtState("path", ModelNode.State.Finalized)) as List == [rule1, rule2, rule4]
+        bindings.getRulesWithInput(nodeAtState("path", ModelNode.State.Finalized)) as List == [rule3, rule5]
+    }
+
+    def "returns empty rules for unknown node without adding it to the index"() {
+        given:
+        bindings.add(rule("path", ModelNode.State.Finalized))
+        addNode(node("path"))
+
+        when:
+        def rulesWithSubject = bindings.getRulesWithSubject(nodeAtState("unknown", ModelNode.State.Finalized))
+        def rulesWithInput = bindings.getRulesWithInput(nodeAtState("unknown", ModelNode.State.Finalized))
+        def rulesAtOtherState = bindings.getRulesWithSubject(nodeAtState("path", ModelNode.State.Created))
+
+        then:
+        rulesWithSubject.is(Collections.emptySet())
+        rulesWithInput.is(Collections.emptySet())
+        rulesAtOtherState.is(Collections.emptySet())
+        bindings.rulesBySubject.boundAtState.keySet() == [ModelNode.State.Finalized] as Set
+        bindings.rulesBySubject.boundAtState[ModelNode.State.Finalized].keySet() == [ModelPath.path("path")] as Set
+        bindings.rulesByInput.boundAtState.isEmpty()
+    }
+
+    def "removing a node drops the rules bound to it"() {
+        def node = node("path")
+        def other = node("other")
+        def rule1 = rule("path", ModelNode.State.Finalized)
+        def rule2 = rule("path", ModelNode.State.Mutated)
+        def rule3 = rule("other") { it.inputReference("path", ModelNode.State.Finalized) }
+
+        given:
+        addNode(node)
+        addNode(other)
+        bindings.add(rule1)
+        bindings.add(rule2)
+        bindings.add(rule3)
+
+        when:
+        removeNode(node)
+
+        then:
+        bindings.getRulesWithSubject(nodeAtState("path", ModelNode.State.Finalized)).empty
+        bindings.getRulesWithSubject(nodeAtState("path", ModelNode.State.Mutated)).empty
+        bindings.getRulesWithInput(nodeAtState("path", ModelNode.State.Finalized)).empty
+        bindings.getRulesWithSubject(nodeAtState("other", ModelNode.State.Mutated)) as List == [rule3]
+        !rule1.subjectBinding.bound
+        !rule2.subjectBinding.bound
+        !rule3.inputBindings[0].bound
+        rule3.subjectBinding.boundTo == other
+    }
+
     def "can replace by-path subject when bound"() {
         def node1 = node("a")
         def node2 = node("a")
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transfer;
+
+import org.gradle.internal.resource.ReadableContent;
+import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits the number of requests that may be in flight against a remote server at any time, so that artifacts can be downloaded by many
+ * workers at once without overwhelming the repository. The permits are shared with the other connectors that use the same {@link RepositoryRequestLimiter}.
+ *
+ * <p>A read holds its permit until the response is closed, as the content is streamed after {@link #openResource(URI, boolean)} returns.</p>
+ */
+public class ConcurrencyLimitingExternalResourceConnector implements ExternalResourceConnector {
+    private final ExternalResourceConnector delegate;
+    private final RepositoryRequestLimiter limiter;
+
+    public ConcurrencyLimitingExternalResourceConnector(ExternalResourceConnector delegate, RepositoryRequestLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    @Nullable
+    @Override
+    public ExternalResourceReadResponse openResource(URI location, boolean revalidate) {
+        Semaphore permits = limiter.acquire(location);
+        boolean opened = false;
+        try {
+            ExternalResourceReadResponse response = delegate.openResource(location, revalidate);
+            if (response == null) {
+                return null;
+            }
+            opened = true;
+            return new PermitReleasingResponse(response, permits);
+        } finally {
+            if (!opened) {
+                permits.release();
+            }
+        }
+    }
+
+    @Nullable
+    @Override
+    public ExternalResourceMetaData getMetaData(URI location, boolean revalidate) {
+        Semaphore permits = limiter.acquire(location);
+        try {
+            return delegate.getMetaData(location, revalidate);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Nullable
+    @Override
+    public List<String> list(URI parent) {
+        Semaphore permits = limiter.acquire(parent);
+        try {
+            return delegate.list(parent);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public void upload(ReadableContent resource, URI destination) throws IOException {
+        Semaphore permits = limiter.acquire(destination);
+        try {
+            delegate.upload(resource, destination);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static class PermitReleasingResponse implements ExternalResourceReadResponse {
+        private final ExternalResourceReadResponse delegate;
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PermitReleasingResponse(ExternalResourceReadResponse delegate, Semaphore permits) {
+            this.delegate = delegate;
+            this.permits = permits;
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            return delegate.openStream();
+        }
+
+        @Override
+        public ExternalResourceMetaData getMetaData() {
+            return delegate.getMetaData();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
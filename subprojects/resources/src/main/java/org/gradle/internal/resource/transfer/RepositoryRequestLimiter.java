@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transfer;
+
+import org.gradle.internal.UncheckedException;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits the number of requests that may be in flight against each remote server at any time. A single instance is shared by all
+ * repository transports of a build session, so that the limit holds across concurrent resolutions and across repositories that are
+ * served by the same server.
+ */
+public class RepositoryRequestLimiter {
+    public static final String MAX_CONCURRENT_REQUESTS_PROPERTY = "org.gradle.internal.repository.max.concurrent.requests";
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 20;
+
+    private final int maxConcurrentRequests;
+    private final ConcurrentMap<String, Semaphore> permitsByServer = new ConcurrentHashMap<String, Semaphore>();
+
+    public RepositoryRequestLimiter() {
+        this(getMaxConcurrentRequests());
+    }
+
+    public RepositoryRequestLimiter(int maxConcurrentRequests) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("Maximum number of concurrent requests must be at least 1, but was " + maxConcurrentRequests + ".");
+        }
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    /**
+     * Returns the maximum number of concurrent requests per server, as configured by the {@value #MAX_CONCURRENT_REQUESTS_PROPERTY} system property.
+     */
+    public static int getMaxConcurrentRequests() {
+        return Integer.getInteger(MAX_CONCURRENT_REQUESTS_PROPERTY, DEFAULT_MAX_CONCURRENT_REQUESTS);
+    }
+
+    /**
+     * Acquires a permit to make a request to the given location, blocking while the maximum number of requests are in flight against its server.
+     * The returned permit must be released once the request has completed.
+     */
+    Semaphore acquire(URI location) {
+        Semaphore permits = permitsFor(location);
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return permits;
+    }
+
+    private Semaphore permitsFor(URI location) {
+        String server = location.getScheme() + "://" + location.getRawAuthority();
+        server = server.toLowerCase(Locale.US);
+        Semaphore permits = permitsByServer.get(server);
+        if (permits == null) {
+            Semaphore newPermits = new Semaphore(maxConcurrentRequests, true);
+            permits = permitsByServer.putIfAbsent(server, newPermits);
+            if (permits == null) {
+                permits = newPermits;
+            }
+        }
+        return permits;
+    }
+}
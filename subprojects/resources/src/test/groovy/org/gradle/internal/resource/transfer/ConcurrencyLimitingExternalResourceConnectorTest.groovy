@@ -0,0 +1,156 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transfer
+
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+class ConcurrencyLimitingExternalResourceConnectorTest extends ConcurrentSpec {
+    def delegate = Mock(ExternalResourceConnector)
+    def location = new URI("http://repo/thing")
+
+    def "read holds permit until response is closed"() {
+        def response1 = Mock(ExternalResourceReadResponse)
+        def response2 = Mock(ExternalResourceReadResponse)
+        def connector = new ConcurrencyLimitingExternalResourceConnector(delegate, new RepositoryRequestLimiter(1))
+
+        given:
+        delegate.openResource(location, false) >>> [response1, response2]
+
+        when:
+        def result1 = connector.openResource(location, false)
+        async {
+            start {
+                def result2 = connector.openResource(location, false)
+                instant.secondOpened
+                result2.close()
+            }
+            thread.block()
+            instant.firstClosed
+            result1.close()
+        }
+
+        then:
+        1 * response1.close()
+        1 * response2.close()
+        instant.secondOpened > instant.firstClosed
+    }
+
+    def "releases permit when resource is missing"() {
+        def connector = new ConcurrencyLimitingExternalResourceConnector(delegate, new RepositoryRequestLimiter(1))
+
+        when:
+        def result1 = connector.openResource(location, false)
+        def result2 = connector.openResource(location, false)
+
+        then:
+        result1 == null
+        result2 == null
+        2 * delegate.openResource(location, false) >> null
+    }
+
+    def "releases permit when request fails"() {
+        def failure = new RuntimeException()
+        def connector = new ConcurrencyLimitingExternalResourceConnector(delegate, new RepositoryRequestLimiter(1))
+
+        when:
+        connector.openResource(location, false)
+
+        then:
+        1 * delegate.openResource(location, false) >> { throw failure }
+        def e = thrown(RuntimeException)
+        e == failure
+
+        when:
+        def metaData = connector.getMetaData(location, false)
+
+        then:
+        1 * delegate.getMetaData(location, false) >> null
+        metaData == null
+    }
+
+    def "closing response more than once releases a single permit"() {
+        def response = Mock(ExternalResourceReadResponse)
+        def connector = new ConcurrencyLimitingExternalResourceConnector(delegate, new RepositoryRequestLimiter(1))
+
+        given:
+        delegate.openResource(location, false) >> response
+
+        when:
+        def result = connector.openResource(location, false)
+        result.close()
+        result.close()
+        connector.list(location)
+
+        then:
+        1 * delegate.list(location) >> []
+    }
+
+    def "connectors that share a limiter share the permits of a server"() {
+        def response = Mock(ExternalResourceReadResponse)
+        def otherDelegate = Mock(ExternalResourceConnector)
+        def limiter = new RepositoryRequestLimiter(1)
+        def connector = new ConcurrencyLimitingExternalResourceConnector(delegate, limiter)
+        def otherConnector = new ConcurrencyLimitingExternalResourceConnector(otherDelegate, limiter)
+
+        given:
+        delegate.openResource(location, false) >> response
+
+        when:
+        def result = connector.openResource(location, false)
+        async {
+            start {
+                otherConnector.getMetaData(new URI("HTTP://Repo/other"), false)
+                instant.otherRequested
+            }
+            thread.block()
+            instant.firstClosed
+            result.close()
+        }
+
+        then:
+        1 * otherDelegate.getMetaData(_, false) >> null
+        instant.otherRequested > instant.firstClosed
+    }
+
+    def "requests to different servers do not share permits"() {
+        def response = Mock(ExternalResourceReadResponse)
+        def limiter = new RepositoryRequestLimiter(1)
+        def connector = new ConcurrencyLimitingExternalResourceConnector(delegate, limiter)
+
+        given:
+        delegate.openResource(location, false) >> response
+
+        when:
+        def result = connector.openResource(location, false)
+        connector.getMetaData(new URI("http://repo:8080/thing"), false)
+        connector.list(new URI("https://repo/"))
+        result.close()
+
+        then:
+        1 * delegate.getMetaData(new URI("http://repo:8080/thing"), false) >> null
+        1 * delegate.list(new URI("https://repo/")) >> []
+    }
+
+    def "validates limit"() {
+        when:
+        new RepositoryRequestLimiter(0)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message == "Maximum number of concurrent requests must be at least 1, but was 0."
+    }
+}